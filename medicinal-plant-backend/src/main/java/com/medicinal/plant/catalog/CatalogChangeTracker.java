@@ -0,0 +1,115 @@
+package com.medicinal.plant.catalog;
+
+import com.medicinal.plant.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the catalog version and invalidates cached query results when it changes.
+ * <p>
+ * Changes are collected per transaction and applied once after it commits, so a rollback
+ * never evicts anything and a bulk load evicts only once. The version is part of every
+ * cache key: a query that read the old data while the change was committing stores its
+ * result under the old version, where no later lookup will find it.
+ * <p>
+ * Each changing transaction also increments the persistent {@link CatalogRevision} before it
+ * commits, which is how a later run can tell the catalog changed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogChangeTracker {
+
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogRevision catalogRevision;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Records a change to a catalog entity and the plant or symptom it concerns (either may be
+     * null); takes effect when the surrounding transaction commits, or immediately when there is none
+     */
+    public void markChanged(Class<?> entityType, Long plantId, Long symptomId) {
+        PendingChanges pending;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending = new PendingChanges();
+            catalogRevision.increment();
+        } else {
+            pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                PendingChanges changes = new PendingChanges();
+                TransactionSynchronizationManager.bindResource(this, changes);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResource(CatalogChangeTracker.this);
+                        if (status == STATUS_COMMITTED) {
+                            publish(changes);
+                        }
+                    }
+                });
+                pending = changes;
+                // Once per transaction, committed or rolled back with it
+                catalogRevision.increment();
+            }
+        }
+        pending.entities.add(entityType.getSimpleName());
+        if (plantId != null) {
+            pending.plantIds.add(plantId);
+        }
+        if (symptomId != null) {
+            pending.symptomIds.add(symptomId);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(pending);
+        }
+    }
+
+    /**
+     * Moves to a new catalog version and drops every cached query result
+     */
+    public void invalidate(Set<String> changedEntities) {
+        invalidate(changedEntities, Set.of(), Set.of());
+    }
+
+    private void publish(PendingChanges changes) {
+        invalidate(changes.entities, changes.plantIds, changes.symptomIds);
+    }
+
+    private void invalidate(Set<String> changedEntities, Set<Long> plantIds, Set<Long> symptomIds) {
+        long current = version.incrementAndGet();
+        for (String name : CacheConfig.CATALOG_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.debug("Catalog version {} after changes to {} (plants {}, symptoms {})", current, changedEntities, plantIds, symptomIds);
+        eventPublisher.publishEvent(new CatalogChangedEvent(current, Set.copyOf(changedEntities),
+                Set.copyOf(plantIds), Set.copyOf(symptomIds)));
+    }
+
+    /**
+     * Catalog changes made by one transaction
+     */
+    private static final class PendingChanges {
+        private final Set<String> entities = new LinkedHashSet<>();
+        private final Set<Long> plantIds = new LinkedHashSet<>();
+        private final Set<Long> symptomIds = new LinkedHashSet<>();
+    }
+}
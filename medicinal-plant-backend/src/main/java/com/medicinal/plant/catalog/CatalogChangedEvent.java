@@ -0,0 +1,17 @@
+package com.medicinal.plant.catalog;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Published after a transaction that changed plants, symptoms or their links has committed,
+ * with the IDs of the plants and symptoms it touched. Plant IDs may belong to deleted plants.
+ */
+@Value
+public class CatalogChangedEvent {
+    long version;
+    Set<String> changedEntities;
+    Set<Long> plantIds;
+    Set<Long> symptomIds;
+}
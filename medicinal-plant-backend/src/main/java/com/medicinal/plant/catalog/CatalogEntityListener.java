@@ -0,0 +1,38 @@
+package com.medicinal.plant.catalog;
+
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.entity.PlantSymptom;
+import com.medicinal.plant.model.entity.Symptom;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on the catalog entities. Hibernate resolves it from the Spring context,
+ * so every insert, update and delete of a Plant, Symptom or PlantSymptom reaches the tracker
+ * together with the plant or symptom it concerns.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEntityListener {
+
+    private final CatalogChangeTracker catalogChangeTracker;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Plant plant) {
+            catalogChangeTracker.markChanged(Plant.class, plant.getId(), null);
+        } else if (entity instanceof PlantSymptom link) {
+            // Reading the id of a lazy reference does not initialize it
+            catalogChangeTracker.markChanged(PlantSymptom.class, link.getPlant() == null ? null : link.getPlant().getId(), null);
+        } else if (entity instanceof Symptom symptom) {
+            catalogChangeTracker.markChanged(Symptom.class, null, symptom.getId());
+        } else {
+            catalogChangeTracker.markChanged(entity.getClass(), null, null);
+        }
+    }
+}
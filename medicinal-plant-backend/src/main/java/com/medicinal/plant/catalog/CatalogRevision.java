@@ -0,0 +1,47 @@
+package com.medicinal.plant.catalog;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persistent counter of catalog changes, kept in a single-row table.
+ * <p>
+ * {@link CatalogChangeTracker} increments it once in every transaction that changes a plant,
+ * symptom, plant-symptom link or one of their collections, so it moves with every committed
+ * change whichever table the change touched, and not with rolled back ones. Unlike the
+ * in-memory catalog version it survives restarts, which lets the search index snapshot tell
+ * whether the catalog changed since it was taken. The update runs on the transaction's own
+ * connection, so concurrent catalog transactions queue on the row until the earlier one ends.
+ * <p>
+ * The table is created here rather than mapped as an entity, so it exists before the first
+ * entity listener fires and is never dropped with the schema Hibernate manages.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogRevision {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS catalog_revision (id INT PRIMARY KEY, revision BIGINT NOT NULL)");
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalog_revision", Integer.class);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("INSERT INTO catalog_revision (id, revision) VALUES (1, 0)");
+        }
+    }
+
+    public long current() {
+        Long revision = jdbcTemplate.queryForObject("SELECT revision FROM catalog_revision WHERE id = 1", Long.class);
+        return revision == null ? 0L : revision;
+    }
+
+    /**
+     * Counts a change in the current transaction, or on its own when there is none
+     */
+    void increment() {
+        jdbcTemplate.update("UPDATE catalog_revision SET revision = revision + 1 WHERE id = 1");
+    }
+}
@@ -0,0 +1,255 @@
+package com.medicinal.plant.catalog;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
+import com.medicinal.plant.model.enums.PlantType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable, read-optimized copy of the plant catalog as mapped responses.
+ * <p>
+ * Plants are kept in ascending ID order, next to an ID to position map, a position list per
+ * plant type and all rated plants by rating, highest first. Every listing the plant endpoints
+ * page through is therefore a binary search for the cursor followed by a slice, answered
+ * without a lock and without the database. Each plant also carries its summary for listings,
+ * the JSON of both, serialized once with UTF-8 bytes cached, and the generation it last changed
+ * in. Changes produce a new snapshot with {@link #apply}; everything held for unchanged plants is
+ * shared between the two.
+ * <p>
+ * The responses are shared by every reader and must not be modified.
+ */
+public final class CatalogSnapshot {
+
+    private static final int[] NONE = new int[0];
+
+    private static final Comparator<PlantResponse> BY_RATING = Comparator
+            .comparing(PlantResponse::getRating, Comparator.reverseOrder())
+            .thenComparing(PlantResponse::getId);
+
+    private final long generation;
+    private final Function<PlantResponse, PlantSummaryResponse> summarizer;
+    private final Function<Object, SerializableString> serializer;
+    private final PlantResponse[] plants;
+    private final Entry[] entries;
+    private final long[] ids;
+    private final Map<Long, Integer> positions;
+    private final Map<PlantType, int[]> byType;
+    private final int[] byRating;
+
+    private CatalogSnapshot(long generation, Function<PlantResponse, PlantSummaryResponse> summarizer,
+                            Function<Object, SerializableString> serializer, Entry[] entries) {
+        this.generation = generation;
+        this.summarizer = summarizer;
+        this.serializer = serializer;
+        this.entries = entries;
+        this.plants = new PlantResponse[entries.length];
+        this.ids = new long[entries.length];
+        this.positions = new HashMap<>(entries.length * 2);
+        Map<PlantType, List<Integer>> types = new EnumMap<>(PlantType.class);
+        List<Integer> rated = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            plants[i] = entries[i].plant;
+            ids[i] = plants[i].getId();
+            positions.put(ids[i], i);
+            PlantType type = typeOf(plants[i]);
+            if (type != null) {
+                types.computeIfAbsent(type, key -> new ArrayList<>()).add(i);
+            }
+            if (plants[i].getRating() != null) {
+                rated.add(i);
+            }
+        }
+        this.byType = new EnumMap<>(PlantType.class);
+        types.forEach((type, list) -> byType.put(type, list.stream().mapToInt(Integer::intValue).toArray()));
+        rated.sort((a, b) -> BY_RATING.compare(plants[a], plants[b]));
+        this.byRating = rated.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Builds a snapshot of the given plants, current as of the given change generation, with
+     * summaries produced by the summarizer and JSON by the serializer
+     */
+    public static CatalogSnapshot of(long generation, Collection<PlantResponse> plants,
+                                     Function<PlantResponse, PlantSummaryResponse> summarizer,
+                                     Function<Object, SerializableString> serializer) {
+        List<Entry> entries = new ArrayList<>(plants.size());
+        for (PlantResponse plant : plants) {
+            entries.add(entry(plant, generation, summarizer, serializer));
+        }
+        return sorted(generation, summarizer, serializer, entries);
+    }
+
+    private static Entry entry(PlantResponse plant, long generation, Function<PlantResponse, PlantSummaryResponse> summarizer,
+                               Function<Object, SerializableString> serializer) {
+        PlantSummaryResponse summary = summarizer.apply(plant);
+        return new Entry(plant, serializer.apply(plant), summary, serializer.apply(summary), generation);
+    }
+
+    private static CatalogSnapshot sorted(long generation, Function<PlantResponse, PlantSummaryResponse> summarizer,
+                                          Function<Object, SerializableString> serializer, Collection<Entry> entries) {
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator.comparing(entry -> entry.plant.getId()));
+        return new CatalogSnapshot(generation, summarizer, serializer, sorted);
+    }
+
+    /**
+     * Returns a new snapshot with plants added or replaced and others removed
+     */
+    public CatalogSnapshot apply(long nextGeneration, Map<Long, PlantResponse> upserts, Set<Long> removals) {
+        Map<Long, Entry> next = new HashMap<>(entries.length * 2);
+        for (Entry entry : entries) {
+            next.put(entry.plant.getId(), entry);
+        }
+        next.keySet().removeAll(removals);
+        for (PlantResponse plant : upserts.values()) {
+            next.put(plant.getId(), entry(plant, nextGeneration, summarizer, serializer));
+        }
+        return sorted(nextGeneration, summarizer, serializer, next.values());
+    }
+
+    /**
+     * The change generation this snapshot includes
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return plants.length;
+    }
+
+    /**
+     * Returns the plant with the given ID, or null when there is none
+     */
+    public PlantResponse get(long id) {
+        Integer position = positions.get(id);
+        return position == null ? null : plants[position];
+    }
+
+    /**
+     * Returns the JSON of the given plant when it is this snapshot's response for it, otherwise
+     * null, e.g. for a response read from the database while the snapshot was behind
+     */
+    public SerializableString json(PlantResponse plant) {
+        Integer position = plant.getId() == null ? null : positions.get(plant.getId());
+        return position == null || plants[position] != plant ? null : entries[position].json;
+    }
+
+    /**
+     * Returns the summary of a plant in this snapshot
+     */
+    public PlantSummaryResponse summaryOf(PlantResponse plant) {
+        return entries[positions.get(plant.getId())].summary;
+    }
+
+    /**
+     * Returns the JSON of the given summary when it is this snapshot's summary, otherwise null
+     */
+    public SerializableString json(PlantSummaryResponse summary) {
+        Integer position = summary.getId() == null ? null : positions.get(summary.getId());
+        return position == null || entries[position].summary != summary ? null : entries[position].summaryJson;
+    }
+
+    /**
+     * Returns the generation the plant with the given ID last changed in, or -1 when there is none
+     */
+    public long generationOf(long id) {
+        Integer position = positions.get(id);
+        return position == null ? -1 : entries[position].generation;
+    }
+
+    /**
+     * Returns up to limit plants with IDs above afterId, in ID order
+     */
+    public List<PlantResponse> after(long afterId, int limit) {
+        int from = firstAfter(afterId);
+        int to = Math.min(plants.length, from + limit);
+        return List.of(Arrays.copyOfRange(plants, from, to));
+    }
+
+    /**
+     * Returns up to limit plants of a type with IDs above afterId, in ID order
+     */
+    public List<PlantResponse> ofTypeAfter(PlantType type, long afterId, int limit) {
+        int[] list = byType.getOrDefault(type, NONE);
+        // Positions are in ID order, so the first one past the cursor follows the overall one
+        int first = firstAfter(afterId);
+        int from = Arrays.binarySearch(list, first);
+        from = from >= 0 ? from : -from - 1;
+        List<PlantResponse> page = new ArrayList<>(Math.min(limit, list.length - from));
+        for (int i = from; i < list.length && page.size() < limit; i++) {
+            page.add(plants[list[i]]);
+        }
+        return page;
+    }
+
+    /**
+     * Returns up to limit plants rated at least minRating that come after the given rating and
+     * ID, ordered by rating, highest first, then by ID
+     */
+    public List<PlantResponse> ratedAfter(double minRating, double afterRating, long afterId, int limit) {
+        // First plant rated below afterRating, or rated the same with a greater ID
+        int low = 0;
+        int high = byRating.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            PlantResponse plant = plants[byRating[mid]];
+            double rating = plant.getRating();
+            if (rating > afterRating || (rating == afterRating && plant.getId() <= afterId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<PlantResponse> page = new ArrayList<>(Math.min(limit, byRating.length - low));
+        for (int i = low; i < byRating.length && page.size() < limit; i++) {
+            PlantResponse plant = plants[byRating[i]];
+            if (plant.getRating() < minRating) {
+                break;
+            }
+            page.add(plant);
+        }
+        return page;
+    }
+
+    private int firstAfter(long afterId) {
+        int from = Arrays.binarySearch(ids, afterId);
+        return from >= 0 ? from + 1 : -from - 1;
+    }
+
+    private static PlantType typeOf(PlantResponse plant) {
+        return plant.getPlantType() == null ? null : PlantType.valueOf(plant.getPlantType());
+    }
+
+    /**
+     * A plant and its summary with their JSON, and the generation the plant last changed in
+     */
+    private static final class Entry {
+
+        private final PlantResponse plant;
+        private final SerializableString json;
+        private final PlantSummaryResponse summary;
+        private final SerializableString summaryJson;
+        private final long generation;
+
+        private Entry(PlantResponse plant, SerializableString json, PlantSummaryResponse summary,
+                      SerializableString summaryJson, long generation) {
+            this.plant = plant;
+            this.json = json;
+            this.summary = summary;
+            this.summaryJson = summaryJson;
+            this.generation = generation;
+        }
+    }
+}
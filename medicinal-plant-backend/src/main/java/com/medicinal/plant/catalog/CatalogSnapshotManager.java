@@ -0,0 +1,215 @@
+package com.medicinal.plant.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicinal.plant.config.CatalogSnapshotProperties;
+import com.medicinal.plant.mapper.PlantMapper;
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.enums.PlantView;
+import com.medicinal.plant.repository.PlantRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns the current {@link CatalogSnapshot} and keeps it in step with the database.
+ * <p>
+ * The snapshot is loaded once the data initializer has seeded the catalog. Every committed
+ * change to a plant moves the change generation on while its transaction completes, before
+ * the caller sees the commit, and queues the plant for a writer thread that reloads just the
+ * changed plants, applies them to a copy and publishes it through a single volatile reference.
+ * {@link #current} only hands out a snapshot that includes every change committed so far, so
+ * callers fall back to the database in the short window until the writer has caught up and
+ * never read an older catalog than the one they just wrote.
+ * <p>
+ * Every plant and its summary are serialized to JSON when they enter the snapshot. Entity tags for HTTP
+ * responses are derived from the generations of a snapshot and an epoch taken at startup, as
+ * the generation starts over with every start.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotManager {
+
+    private final PlantRepository plantRepository;
+    private final PlantMapper plantMapper;
+    private final CatalogSnapshotProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+    private final Set<Long> pendingPlants = new HashSet<>();
+    // Changed only together with pendingPlants, under its lock; read without one
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotManager(PlantRepository plantRepository, PlantMapper plantMapper,
+                                  CatalogSnapshotProperties properties, ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.plantRepository = plantRepository;
+        this.plantMapper = plantMapper;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the snapshot when it includes every committed plant change, otherwise null
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current == null || !properties.isEnabled()) {
+            return null;
+        }
+        return current.getGeneration() == generation.get() ? current : null;
+    }
+
+    /**
+     * Strong entity tag of everything in the snapshot in one view, e.g. for pages of the plant listing
+     */
+    public String eTag(CatalogSnapshot snapshot, PlantView view) {
+        String suffix = view == PlantView.FULL ? "-full" : "";
+        return "\"" + epoch + "-" + snapshot.getGeneration() + suffix + "\"";
+    }
+
+    /**
+     * Strong entity tag of one plant in the snapshot, which stays the same while other plants change
+     */
+    public String eTag(CatalogSnapshot snapshot, long plantId) {
+        return "\"" + epoch + "-" + snapshot.generationOf(plantId) + "-" + plantId + "\"";
+    }
+
+    /**
+     * Loads the snapshot from the database on the writer thread and waits for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Future<?> done = writer.submit(this::load);
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not load the catalog snapshot", e.getCause());
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        long target;
+        synchronized (pendingPlants) {
+            // Everything queued so far is committed, so the full load below includes it
+            pendingPlants.clear();
+            target = generation.get();
+        }
+        CatalogSnapshot loaded = readOnlyTransaction.execute(status -> {
+            List<PlantResponse> plants = new ArrayList<>();
+            for (Plant plant : plantRepository.findAll()) {
+                plants.add(plantMapper.toResponse(plant));
+            }
+            return CatalogSnapshot.of(target, plants, plantMapper::toSummary, this::serialize);
+        });
+        snapshot = loaded;
+        log.info("Catalog snapshot loaded with {} plants in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Queues the plants of a committed change for the writer thread. Changes to symptoms alone
+     * leave plant responses as they are.
+     */
+    @EventListener(CatalogChangedEvent.class)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getPlantIds().isEmpty()) {
+            return;
+        }
+        synchronized (pendingPlants) {
+            pendingPlants.addAll(event.getPlantIds());
+            generation.incrementAndGet();
+        }
+        if (properties.isEnabled() && updatePending.compareAndSet(false, true)) {
+            writer.execute(this::applyPendingChanges);
+        }
+    }
+
+    void applyPendingChanges() {
+        updatePending.set(false);
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            // The initial load has yet to run and will include these changes
+            return;
+        }
+        Set<Long> plantIds;
+        long target;
+        synchronized (pendingPlants) {
+            plantIds = new HashSet<>(pendingPlants);
+            pendingPlants.clear();
+            target = generation.get();
+        }
+        if (plantIds.isEmpty()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            Map<Long, PlantResponse> upserts = readOnlyTransaction.execute(status -> {
+                Map<Long, PlantResponse> loaded = new HashMap<>();
+                for (Plant plant : plantRepository.findAllById(plantIds)) {
+                    loaded.put(plant.getId(), plantMapper.toResponse(plant));
+                }
+                return loaded;
+            });
+            Set<Long> removals = new HashSet<>(plantIds);
+            removals.removeAll(upserts.keySet());
+            snapshot = current.apply(target, upserts, removals);
+            log.info("Catalog snapshot updated with {} plants and {} removals in {} ms",
+                    upserts.size(), removals.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Readers keep going to the database until the next change or rebuild succeeds
+            log.error("Failed to update catalog snapshot for plants {}", plantIds, e);
+        }
+    }
+
+    private SerializableString serialize(Object response) {
+        try {
+            SerializedString json = new SerializedString(objectMapper.writeValueAsString(response));
+            // Encoded once here rather than by the first request writing it
+            json.asUnquotedUTF8();
+            return json;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + response, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdownNow();
+    }
+}
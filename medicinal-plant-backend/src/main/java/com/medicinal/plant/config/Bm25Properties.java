@@ -0,0 +1,39 @@
+package com.medicinal.plant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.bm25")
+public class Bm25Properties {
+    private double k1 = 1.2;
+    private double b = 0.75;
+    private Map<String, Double> boosts = new LinkedHashMap<>(); // Field key -> boost, missing fields count 1.0
+
+    public double getK1() {
+        return k1;
+    }
+
+    public void setK1(double k1) {
+        this.k1 = k1;
+    }
+
+    public double getB() {
+        return b;
+    }
+
+    public void setB(double b) {
+        this.b = b;
+    }
+
+    public Map<String, Double> getBoosts() {
+        return boosts;
+    }
+
+    public void setBoosts(Map<String, Double> boosts) {
+        this.boosts = boosts;
+    }
+}
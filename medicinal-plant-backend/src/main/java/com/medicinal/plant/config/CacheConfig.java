@@ -0,0 +1,44 @@
+package com.medicinal.plant.config;
+
+import com.medicinal.plant.catalog.CatalogChangeTracker;
+import com.medicinal.plant.search.RelevanceTuning;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Cache Configuration for plant query results.
+ * Size and TTL come from spring.cache.caffeine.spec.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String PLANT_SEARCH = "plantSearch";
+    public static final String TOP_RATED_PLANTS = "topRatedPlants";
+    public static final String PLANTS_BY_TYPE = "plantsByType";
+
+    public static final List<String> CATALOG_CACHES = List.of(PLANT_SEARCH, TOP_RATED_PLANTS, PLANTS_BY_TYPE);
+
+    // Explained searches bypass the cache, so their profile shows the work behind a result
+    public static final String NOT_EXPLAINED = "!T(com.medicinal.plant.search.SearchProfile).isActive()";
+
+    /**
+     * Keys results by catalog version, relevance tuning version, method and arguments. The key is
+     * computed before the method runs, so a result is never stored under versions newer than
+     * the data and parameters it was computed from.
+     */
+    @Bean
+    public KeyGenerator catalogKeyGenerator(CatalogChangeTracker catalogChangeTracker, RelevanceTuning relevanceTuning) {
+        return (target, method, params) -> {
+            Object[] parts = new Object[params.length + 3];
+            parts[0] = catalogChangeTracker.getVersion();
+            parts[1] = relevanceTuning.getVersion();
+            parts[2] = method.getName();
+            System.arraycopy(params, 0, parts, 3, params.length);
+            return new SimpleKey(parts);
+        };
+    }
+}
@@ -3,6 +3,10 @@ package com.medicinal.plant.config;
 import com.medicinal.plant.model.entity.Plant;
 import com.medicinal.plant.model.entity.PlantSymptom;
 import com.medicinal.plant.model.entity.Symptom;
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
+import com.medicinal.plant.model.enums.PlantType;
 import com.medicinal.plant.repository.PlantRepository;
 import com.medicinal.plant.repository.SymptomRepository;
 import org.slf4j.Logger;
@@ -10,6 +14,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,11 +27,117 @@ public class DataInitializer {
     
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
 
+    // Everyday wording people use for each symptom in natural-language searches. Only phrases that
+    // name the symptom on their own: generic words such as "heart" or "sore" also occur in
+    // "heart-shaped leaves" or "sore throat" and would match the wrong symptom
+    private static final Map<String, List<String>> SYMPTOM_SYNONYMS = Map.ofEntries(
+        Map.entry("Burns", List.of("burn", "burned", "burnt", "sunburn")),
+        Map.entry("Skin irritation", List.of("rash", "itch", "itchy skin")),
+        Map.entry("Wounds", List.of("wound", "scrape")),
+        Map.entry("Digestive issues", List.of("upset stomach", "stomach ache", "indigestion", "bloating", "stomach ulcer")),
+        Map.entry("Inflammation", List.of("inflamed", "swelling", "swollen")),
+        Map.entry("Nausea", List.of("nauseous", "vomit", "vomiting", "queasy")),
+        Map.entry("Pain", List.of("ache", "aching")),
+        Map.entry("Headache", List.of("migraine", "head pain")),
+        Map.entry("Joint pain", List.of("arthritis", "stiff joints", "aching joints")),
+        Map.entry("Muscle pain", List.of("muscle cramp", "muscle ache", "sore muscles")),
+        Map.entry("Fever", List.of("high temperature", "feverish")),
+        Map.entry("Cough", List.of("coughing")),
+        Map.entry("Cold symptoms", List.of("common cold", "flu", "runny nose", "stuffy nose", "sore throat")),
+        Map.entry("Respiratory issues", List.of("shortness of breath", "breathing difficulty", "asthma")),
+        Map.entry("Anxiety", List.of("anxious", "nervous", "on edge")),
+        Map.entry("Stress", List.of("stressed")),
+        Map.entry("Insomnia", List.of("can't sleep", "cannot sleep", "sleepless")),
+        Map.entry("Sleep disorders", List.of("trouble sleeping", "sleep problems")),
+        Map.entry("Depression", List.of("depressed", "low mood")),
+        Map.entry("Fatigue", List.of("tired", "exhausted")),
+        Map.entry("Immune weakness", List.of("weak immune system", "low immunity")),
+        Map.entry("Infections", List.of("infection", "bacterial infection", "viral infection")),
+        Map.entry("High blood pressure", List.of("blood pressure", "hypertension")),
+        Map.entry("High cholesterol", List.of("cholesterol")),
+        Map.entry("Acne", List.of("pimples", "breakout"))
+    );
+
+    // Generic words earlier versions seeded as synonyms, removed from existing catalogs
+    private static final Map<String, List<String>> RETIRED_SYNONYMS = Map.ofEntries(
+        Map.entry("Skin irritation", List.of("skin", "irritation")),
+        Map.entry("Wounds", List.of("cut")),
+        Map.entry("Digestive issues", List.of("stomach", "digestive", "digestion", "ulcer", "tummy")),
+        Map.entry("Pain", List.of("sore")),
+        Map.entry("Headache", List.of("head")),
+        Map.entry("Joint pain", List.of("joint")),
+        Map.entry("Muscle pain", List.of("muscle", "cramp")),
+        Map.entry("Fever", List.of("temperature")),
+        Map.entry("Cold symptoms", List.of("cold")),
+        Map.entry("Respiratory issues", List.of("respiratory", "breathing")),
+        Map.entry("Anxiety", List.of("worry")),
+        Map.entry("Stress", List.of("tense")),
+        Map.entry("Sleep disorders", List.of("sleep")),
+        Map.entry("Depression", List.of("sad", "mood")),
+        Map.entry("Fatigue", List.of("weak")),
+        Map.entry("Immune weakness", List.of("immune", "immunity")),
+        Map.entry("Infections", List.of("bacteria", "virus")),
+        Map.entry("High blood pressure", List.of("heart"))
+    );
+
+    // Plant type, leaf shape, flower color and size used by the visual search facets
+    private static final Map<String, VisualFeatures> VISUAL_FEATURES = Map.ofEntries(
+        Map.entry("Aloe Vera", new VisualFeatures(PlantType.SUCCULENT, LeafShape.LANCE_SHAPED, FlowerColor.YELLOW, PlantSize.MEDIUM)),
+        Map.entry("Ginger", new VisualFeatures(PlantType.HERB, LeafShape.LANCE_SHAPED, FlowerColor.YELLOW, PlantSize.MEDIUM)),
+        Map.entry("Turmeric", new VisualFeatures(PlantType.HERB, LeafShape.LANCE_SHAPED, FlowerColor.WHITE, PlantSize.MEDIUM)),
+        Map.entry("Lavender", new VisualFeatures(PlantType.SHRUB, LeafShape.LINEAR, FlowerColor.PURPLE, PlantSize.SHORT)),
+        Map.entry("Peppermint", new VisualFeatures(PlantType.HERB, LeafShape.LANCE_SHAPED, FlowerColor.PURPLE, PlantSize.SHORT)),
+        Map.entry("Chamomile", new VisualFeatures(PlantType.HERB, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Echinacea", new VisualFeatures(PlantType.HERB, LeafShape.LANCE_SHAPED, FlowerColor.PINK, PlantSize.MEDIUM)),
+        Map.entry("Garlic", new VisualFeatures(PlantType.HERB, LeafShape.LINEAR, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Holy Basil", new VisualFeatures(PlantType.HERB, LeafShape.OVAL, FlowerColor.PURPLE, PlantSize.SHORT)),
+        Map.entry("Neem", new VisualFeatures(PlantType.TREE, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.TALL)),
+        Map.entry("Ashwagandha", new VisualFeatures(PlantType.SHRUB, LeafShape.OVAL, FlowerColor.GREEN, PlantSize.MEDIUM)),
+        Map.entry("Ginseng", new VisualFeatures(PlantType.HERB, LeafShape.PALMATE, FlowerColor.GREEN, PlantSize.SHORT)),
+        Map.entry("Eucalyptus", new VisualFeatures(PlantType.TREE, LeafShape.LANCE_SHAPED, FlowerColor.WHITE, PlantSize.TALL)),
+        Map.entry("St. John's Wort", new VisualFeatures(PlantType.HERB, LeafShape.OVAL, FlowerColor.YELLOW, PlantSize.SHORT)),
+        Map.entry("Valerian", new VisualFeatures(PlantType.HERB, LeafShape.COMPOUND, FlowerColor.PINK, PlantSize.MEDIUM)),
+        Map.entry("Milk Thistle", new VisualFeatures(PlantType.HERB, LeafShape.LOBED, FlowerColor.PURPLE, PlantSize.MEDIUM)),
+        Map.entry("Ginkgo Biloba", new VisualFeatures(PlantType.TREE, LeafShape.OTHER, FlowerColor.NONE, PlantSize.TALL)),
+        Map.entry("Feverfew", new VisualFeatures(PlantType.HERB, LeafShape.LOBED, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Lemon Balm", new VisualFeatures(PlantType.HERB, LeafShape.HEART_SHAPED, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Dandelion", new VisualFeatures(PlantType.HERB, LeafShape.LOBED, FlowerColor.YELLOW, PlantSize.SHORT)),
+        Map.entry("Licorice Root", new VisualFeatures(PlantType.SHRUB, LeafShape.COMPOUND, FlowerColor.PURPLE, PlantSize.MEDIUM)),
+        Map.entry("Saffron", new VisualFeatures(PlantType.HERB, LeafShape.LINEAR, FlowerColor.PURPLE, PlantSize.SHORT)),
+        Map.entry("Moringa", new VisualFeatures(PlantType.TREE, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.TALL)),
+        Map.entry("Brahmi", new VisualFeatures(PlantType.HERB, LeafShape.OVAL, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Gotu Kola", new VisualFeatures(PlantType.HERB, LeafShape.ROUND, FlowerColor.PINK, PlantSize.SHORT)),
+        Map.entry("Sage", new VisualFeatures(PlantType.SHRUB, LeafShape.OVAL, FlowerColor.PURPLE, PlantSize.SHORT)),
+        Map.entry("Rosemary", new VisualFeatures(PlantType.SHRUB, LeafShape.NEEDLE, FlowerColor.BLUE, PlantSize.MEDIUM)),
+        Map.entry("Thyme", new VisualFeatures(PlantType.SHRUB, LeafShape.OVAL, FlowerColor.PINK, PlantSize.SHORT)),
+        Map.entry("Yarrow", new VisualFeatures(PlantType.HERB, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Elderberry", new VisualFeatures(PlantType.SHRUB, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.TALL)),
+        Map.entry("Nettle", new VisualFeatures(PlantType.HERB, LeafShape.HEART_SHAPED, FlowerColor.GREEN, PlantSize.MEDIUM)),
+        Map.entry("Passionflower", new VisualFeatures(PlantType.VINE, LeafShape.PALMATE, FlowerColor.PURPLE, PlantSize.MEDIUM)),
+        Map.entry("Cinnamon", new VisualFeatures(PlantType.TREE, LeafShape.OVAL, FlowerColor.WHITE, PlantSize.TALL)),
+        Map.entry("Cardamom", new VisualFeatures(PlantType.HERB, LeafShape.LANCE_SHAPED, FlowerColor.WHITE, PlantSize.MEDIUM)),
+        Map.entry("Black Pepper", new VisualFeatures(PlantType.VINE, LeafShape.HEART_SHAPED, FlowerColor.WHITE, PlantSize.MEDIUM)),
+        Map.entry("Clove", new VisualFeatures(PlantType.TREE, LeafShape.OVAL, FlowerColor.RED, PlantSize.TALL)),
+        Map.entry("Fenugreek", new VisualFeatures(PlantType.HERB, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.SHORT)),
+        Map.entry("Hibiscus", new VisualFeatures(PlantType.SHRUB, LeafShape.LOBED, FlowerColor.RED, PlantSize.MEDIUM)),
+        Map.entry("Frankincense", new VisualFeatures(PlantType.TREE, LeafShape.COMPOUND, FlowerColor.WHITE, PlantSize.TALL)),
+        Map.entry("Myrrh", new VisualFeatures(PlantType.SHRUB, LeafShape.COMPOUND, FlowerColor.RED, PlantSize.MEDIUM))
+    );
+
     @Bean
-    public CommandLineRunner loadData(PlantRepository plantRepository, SymptomRepository symptomRepository) {
+    public CommandLineRunner loadData(PlantRepository plantRepository, SymptomRepository symptomRepository,
+                                      PlatformTransactionManager transactionManager) {
         return args -> {
             // Skip if data already exists
             if (plantRepository.count() > 0) {
+                // Catalogs seeded before symptoms had synonyms or plants had visual features still get them
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    seedSynonyms(symptomRepository);
+                    int backfilled = applyVisualFeatures(plantRepository.findAll());
+                    if (backfilled > 0) {
+                        logger.info("✅ Added missing visual features to {} plants", backfilled);
+                    }
+                });
                 logger.info("🌿 Database already contains {} plants, skipping initialization", plantRepository.count());
                 return;
             }
@@ -43,6 +155,7 @@ public class DataInitializer {
                 
                 // Create plants with symptom relationships
                 List<Plant> plants = createPlantsWithSymptoms(symptomMap);
+                applyVisualFeatures(plants);
                 plantRepository.saveAll(plants);
                 logger.info("✅ Created {} plants with symptom relationships", plants.size());
                 
@@ -68,12 +181,40 @@ public class DataInitializer {
         for (String name : symptomNames) {
             Symptom symptom = new Symptom();
             symptom.setName(name);
+            symptom.setSynonyms(new ArrayList<>(SYMPTOM_SYNONYMS.getOrDefault(name, List.of())));
             symptoms.add(symptom);
         }
         
         return symptomRepository.saveAll(symptoms);
     }
     
+    /**
+     * Adds the synonyms of SYMPTOM_SYNONYMS that existing symptoms lack and drops the
+     * RETIRED_SYNONYMS; other synonyms added by hand are kept and running it again changes nothing
+     */
+    private void seedSynonyms(SymptomRepository symptomRepository) {
+        int added = 0;
+        int removed = 0;
+        for (Symptom symptom : symptomRepository.findAll()) {
+            List<String> retired = RETIRED_SYNONYMS.getOrDefault(symptom.getName(), List.of());
+            if (symptom.getSynonyms().removeAll(retired)) {
+                removed++;
+            }
+            for (String synonym : SYMPTOM_SYNONYMS.getOrDefault(symptom.getName(), List.of())) {
+                if (!symptom.getSynonyms().contains(synonym)) {
+                    symptom.getSynonyms().add(synonym);
+                    added++;
+                }
+            }
+        }
+        if (added > 0) {
+            logger.info("✅ Added {} missing symptom synonyms", added);
+        }
+        if (removed > 0) {
+            logger.info("✅ Removed retired synonyms from {} symptoms", removed);
+        }
+    }
+    
     private List<Plant> createPlantsWithSymptoms(Map<String, Symptom> symptomMap) {
         List<Plant> plants = new ArrayList<>();
         
@@ -640,6 +781,38 @@ public class DataInitializer {
         return plants;
     }
     
+    /**
+     * Sets the VISUAL_FEATURES of each plant where they are still null, so values edited by hand
+     * are kept and running it again changes nothing. Returns how many plants it changed.
+     */
+    private int applyVisualFeatures(List<Plant> plants) {
+        int changed = 0;
+        for (Plant plant : plants) {
+            VisualFeatures features = VISUAL_FEATURES.get(plant.getName());
+            if (features == null) {
+                continue;
+            }
+            boolean missing = plant.getPlantType() == null || plant.getLeafShape() == null
+                    || plant.getFlowerColor() == null || plant.getSize() == null;
+            if (plant.getPlantType() == null) {
+                plant.setPlantType(features.plantType());
+            }
+            if (plant.getLeafShape() == null) {
+                plant.setLeafShape(features.leafShape());
+            }
+            if (plant.getFlowerColor() == null) {
+                plant.setFlowerColor(features.flowerColor());
+            }
+            if (plant.getSize() == null) {
+                plant.setSize(features.size());
+            }
+            if (missing) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+    
     private void addSymptomRelationships(Plant plant, Map<String, Symptom> symptomMap, Map<String, Double> symptomEffectiveness) {
         List<PlantSymptom> plantSymptoms = new ArrayList<>();
         
@@ -656,4 +829,10 @@ public class DataInitializer {
         
         plant.setPlantSymptoms(plantSymptoms);
     }
+
+    /**
+     * The visual search facets seeded for one plant
+     */
+    private record VisualFeatures(PlantType plantType, LeafShape leafShape, FlowerColor flowerColor, PlantSize size) {
+    }
 }
@@ -0,0 +1,44 @@
+package com.medicinal.plant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+    private int defaultPageSize = 20;
+    private int maxPageSize = 100;
+    private int searchGenerations = 16;
+
+    public int getDefaultPageSize() {
+        return defaultPageSize;
+    }
+
+    public void setDefaultPageSize(int defaultPageSize) {
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public int getSearchGenerations() {
+        return searchGenerations;
+    }
+
+    public void setSearchGenerations(int searchGenerations) {
+        this.searchGenerations = searchGenerations;
+    }
+
+    /**
+     * Applies the default to a missing size and clamps the result to [1, maxPageSize]
+     */
+    public int resolve(Integer requested) {
+        int size = requested == null ? defaultPageSize : requested;
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+}
@@ -0,0 +1,30 @@
+package com.medicinal.plant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.analysis")
+public class SearchAnalysisProperties {
+    private List<String> filters = new ArrayList<>(List.of("lowercase", "stopwords", "stemmer", "synonyms"));
+    private String synonyms = "classpath:search/synonyms.txt";
+
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    public void setFilters(List<String> filters) {
+        this.filters = filters;
+    }
+
+    public String getSynonyms() {
+        return synonyms;
+    }
+
+    public void setSynonyms(String synonyms) {
+        this.synonyms = synonyms;
+    }
+}
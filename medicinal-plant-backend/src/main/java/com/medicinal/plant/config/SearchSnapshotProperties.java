@@ -0,0 +1,38 @@
+package com.medicinal.plant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.snapshot")
+public class SearchSnapshotProperties {
+    private boolean enabled = true;
+    private String path = System.getProperty("java.io.tmpdir") + "/medicinal-plant/search-index.snapshot";
+    private Duration writeDelay = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Duration getWriteDelay() {
+        return writeDelay;
+    }
+
+    public void setWriteDelay(Duration writeDelay) {
+        this.writeDelay = writeDelay;
+    }
+}
@@ -0,0 +1,63 @@
+package com.medicinal.plant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.vector")
+public class VectorSearchProperties {
+    private int dimension = 256;
+    private int m = 16;
+    private int efConstruction = 100;
+    private int efSearch = 64;
+    private double minSimilarity = 0.15;
+    private double rebuildRatio = 0.2;
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(int dimension) {
+        this.dimension = dimension;
+    }
+
+    public int getM() {
+        return m;
+    }
+
+    public void setM(int m) {
+        this.m = m;
+    }
+
+    public int getEfConstruction() {
+        return efConstruction;
+    }
+
+    public void setEfConstruction(int efConstruction) {
+        this.efConstruction = efConstruction;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    public double getMinSimilarity() {
+        return minSimilarity;
+    }
+
+    public void setMinSimilarity(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    public double getRebuildRatio() {
+        return rebuildRatio;
+    }
+
+    public void setRebuildRatio(double rebuildRatio) {
+        this.rebuildRatio = rebuildRatio;
+    }
+}
@@ -1,7 +1,11 @@
 package com.medicinal.plant.controller;
 
+import com.medicinal.plant.model.dto.request.RelevanceTuningRequest;
+import com.medicinal.plant.model.dto.response.AnalyzerResponse;
 import com.medicinal.plant.model.dto.response.ApiResponse;
+import com.medicinal.plant.model.dto.response.RelevanceTuningResponse;
 import com.medicinal.plant.service.PlantService;
+import com.medicinal.plant.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final PlantService plantService;
+    private final SearchService searchService;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Get admin dashboard data")
@@ -35,6 +40,26 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Plant deleted successfully"));
     }
 
+    @GetMapping("/search/relevance")
+    @Operation(summary = "Get the BM25 parameters and field boosts used by general search")
+    public ResponseEntity<ApiResponse<RelevanceTuningResponse>> getRelevanceTuning() {
+        return ResponseEntity.ok(ApiResponse.success(searchService.getRelevanceTuning()));
+    }
+
+    @PutMapping("/search/relevance")
+    @Operation(summary = "Change BM25 parameters and field boosts without a redeploy")
+    public ResponseEntity<ApiResponse<RelevanceTuningResponse>> updateRelevanceTuning(
+            @RequestBody RelevanceTuningRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Relevance tuning updated",
+                searchService.updateRelevanceTuning(request)));
+    }
+
+    @PostMapping("/search/synonyms/reload")
+    @Operation(summary = "Reload the search synonym file and re-index plants with it")
+    public ResponseEntity<ApiResponse<AnalyzerResponse>> reloadSynonyms() {
+        return ResponseEntity.ok(ApiResponse.success("Search synonyms reloaded", searchService.reloadSynonyms()));
+    }
+
     @GetMapping("/logs")
     @Operation(summary = "Get system logs")
     public ResponseEntity<ApiResponse<String>> getSystemLogs() {
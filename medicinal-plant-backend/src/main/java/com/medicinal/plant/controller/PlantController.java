@@ -1,18 +1,32 @@
 package com.medicinal.plant.controller;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.medicinal.plant.catalog.CatalogSnapshot;
+import com.medicinal.plant.catalog.CatalogSnapshotManager;
+import com.medicinal.plant.exception.InvalidSearchException;
 import com.medicinal.plant.model.dto.response.ApiResponse;
+import com.medicinal.plant.model.dto.response.PageResponse;
 import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
+import com.medicinal.plant.model.enums.PlantView;
 import com.medicinal.plant.service.PlantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Plant Controller - Main API endpoints for plant operations
+ * <p>
+ * Listings return plant summaries unless asked for view=full; a single plant always comes in full.
  */
 @RestController
 @RequestMapping("/api/plants")
@@ -22,39 +36,121 @@ import java.util.List;
 public class PlantController {
 
     private final PlantService plantService;
+    private final CatalogSnapshotManager catalogSnapshotManager;
 
     @GetMapping("/all")
-    @Operation(summary = "Get all plants", description = "Retrieve a list of all medicinal plants")
-    public ResponseEntity<ApiResponse<List<PlantResponse>>> getAllPlants() {
-        List<PlantResponse> plants = plantService.getAllPlants();
-        return ResponseEntity.ok(ApiResponse.success("Plants retrieved successfully", plants));
+    @Operation(summary = "Get all plants", description = "Retrieve medicinal plants one page at a time, ordered by ID, "
+            + "as summaries or with view=full in full. Pages carry an ETag of the catalog version; send it back in "
+            + "If-None-Match to get 304 while nothing changed")
+    public ResponseEntity<ApiResponse<PageResponse<Object>>> getAllPlants(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "summary") String view,
+            WebRequest request) {
+        PlantView plantView = viewOf(view);
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        if (snapshot != null && request.checkNotModified(catalogSnapshotManager.eTag(snapshot, plantView))) {
+            return null;
+        }
+        List<Object> items = new ArrayList<>();
+        PageResponse<?> plants;
+        if (plantView == PlantView.FULL) {
+            PageResponse<PlantResponse> page = plantService.getAllPlants(cursor, size);
+            for (PlantResponse plant : page.getItems()) {
+                items.add(preSerialized(snapshot, plant));
+            }
+            plants = page;
+        } else {
+            PageResponse<PlantSummaryResponse> page = plantService.getPlantSummaries(cursor, size);
+            for (PlantSummaryResponse summary : page.getItems()) {
+                items.add(preSerialized(snapshot, summary));
+            }
+            plants = page;
+        }
+        return revalidated(snapshot).body(ApiResponse.success("Plants retrieved successfully", plants.withItems(items)));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get plant by ID", description = "Retrieve detailed information about a specific plant")
-    public ResponseEntity<ApiResponse<PlantResponse>> getPlantById(@PathVariable Long id) {
+    @Operation(summary = "Get plant by ID", description = "Retrieve detailed information about a specific plant. "
+            + "The response carries an ETag of the plant's version; send it back in If-None-Match to get 304 while it is unchanged")
+    public ResponseEntity<ApiResponse<Object>> getPlantById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        if (snapshot != null && snapshot.get(id) != null
+                && request.checkNotModified(catalogSnapshotManager.eTag(snapshot, id))) {
+            return null;
+        }
         PlantResponse plant = plantService.getPlantById(id);
-        return ResponseEntity.ok(ApiResponse.success(plant));
+        return revalidated(snapshot).body(ApiResponse.success(preSerialized(snapshot, plant)));
+    }
+
+    /**
+     * The JSON the snapshot holds for a plant, written to the response as it is, or the plant
+     * itself when the snapshot has none for it
+     */
+    private static Object preSerialized(CatalogSnapshot snapshot, PlantResponse plant) {
+        SerializableString json = snapshot == null ? null : snapshot.json(plant);
+        return json == null ? plant : new RawValue(json);
+    }
+
+    private static Object preSerialized(CatalogSnapshot snapshot, PlantSummaryResponse summary) {
+        SerializableString json = snapshot == null ? null : snapshot.json(summary);
+        return json == null ? summary : new RawValue(json);
+    }
+
+    /**
+     * Responses with an ETag may be stored, but must be revalidated before reuse
+     */
+    private static ResponseEntity.BodyBuilder revalidated(CatalogSnapshot snapshot) {
+        return snapshot == null ? ResponseEntity.ok() : ResponseEntity.ok().cacheControl(CacheControl.noCache());
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search plants by name", description = "Search for plants by name or scientific name")
-    public ResponseEntity<ApiResponse<List<PlantResponse>>> searchPlants(@RequestParam String query) {
-        List<PlantResponse> plants = plantService.searchPlants(query);
+    @Operation(summary = "Search plants by name", description = "Search for plants by name or scientific name, "
+            + "as summaries or with view=full in full")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> searchPlants(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean autoCorrect,
+            @RequestParam(defaultValue = "summary") String view) {
+        PageResponse<?> plants = viewOf(view) == PlantView.FULL
+                ? plantService.searchPlants(query, cursor, size, autoCorrect)
+                : plantService.searchPlantSummaries(query, cursor, size, autoCorrect);
         return ResponseEntity.ok(ApiResponse.success("Search completed", plants));
     }
 
     @GetMapping("/top-rated")
-    @Operation(summary = "Get top rated plants", description = "Retrieve plants with highest ratings")
-    public ResponseEntity<ApiResponse<List<PlantResponse>>> getTopRatedPlants() {
-        List<PlantResponse> plants = plantService.getTopRatedPlants();
+    @Operation(summary = "Get top rated plants", description = "Retrieve plants with highest ratings, "
+            + "as summaries or with view=full in full")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getTopRatedPlants(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "summary") String view) {
+        PageResponse<?> plants = viewOf(view) == PlantView.FULL
+                ? plantService.getTopRatedPlants(cursor, size)
+                : plantService.getTopRatedPlantSummaries(cursor, size);
         return ResponseEntity.ok(ApiResponse.success(plants));
     }
 
     @GetMapping("/by-type")
-    @Operation(summary = "Get plants by type", description = "Filter plants by their type (herb, shrub, tree, etc.)")
-    public ResponseEntity<ApiResponse<List<PlantResponse>>> getPlantsByType(@RequestParam String type) {
-        List<PlantResponse> plants = plantService.getPlantsByType(type);
+    @Operation(summary = "Get plants by type", description = "Filter plants by their type (herb, shrub, tree, etc.), "
+            + "as summaries or with view=full in full")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getPlantsByType(
+            @RequestParam String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "summary") String view) {
+        PageResponse<?> plants = viewOf(view) == PlantView.FULL
+                ? plantService.getPlantsByType(type, cursor, size)
+                : plantService.getPlantSummariesByType(type, cursor, size);
         return ResponseEntity.ok(ApiResponse.success(plants));
     }
+
+    private static PlantView viewOf(String view) {
+        try {
+            return PlantView.valueOf(view.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchException("Unknown view: " + view);
+        }
+    }
 }
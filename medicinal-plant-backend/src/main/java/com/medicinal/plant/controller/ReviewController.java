@@ -2,6 +2,7 @@ package com.medicinal.plant.controller;
 
 import com.medicinal.plant.dto.ReviewRequest;
 import com.medicinal.plant.dto.ReviewResponse;
+import com.medicinal.plant.mapper.ReviewMapper;
 import com.medicinal.plant.model.entity.Review;
 import com.medicinal.plant.repository.ReviewRepository;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +24,7 @@ import java.util.stream.Collectors;
 public class ReviewController {
 
     private final ReviewRepository reviewRepository;
+    private final ReviewMapper reviewMapper;
 
     @GetMapping
     @Operation(summary = "Get all reviews", description = "Retrieve all community reviews ordered by newest first")
@@ -31,17 +33,7 @@ public class ReviewController {
         List<Review> reviews = reviewRepository.findAllByOrderByCreatedAtDesc();
         
         List<ReviewResponse> response = reviews.stream()
-                .map(review -> {
-                    ReviewResponse dto = new ReviewResponse();
-                    dto.setId(review.getId());
-                    dto.setUserName(review.getUserName());
-                    dto.setUserEmail(review.getUserEmail());
-                    dto.setRating(review.getRating());
-                    dto.setExperience(review.getExperience());
-                    dto.setCreatedAt(review.getCreatedAt());
-                    dto.setTimeAgo(ReviewResponse.calculateTimeAgo(review.getCreatedAt()));
-                    return dto;
-                })
+                .map(reviewMapper::toResponse)
                 .collect(Collectors.toList());
         
         log.info("✅ Found {} reviews", response.size());
@@ -72,14 +64,7 @@ public class ReviewController {
         
         Review saved = reviewRepository.save(review);
         
-        ReviewResponse response = new ReviewResponse();
-        response.setId(saved.getId());
-        response.setUserName(saved.getUserName());
-        response.setUserEmail(saved.getUserEmail());
-        response.setRating(saved.getRating());
-        response.setExperience(saved.getExperience());
-        response.setCreatedAt(saved.getCreatedAt());
-        response.setTimeAgo(ReviewResponse.calculateTimeAgo(saved.getCreatedAt()));
+        ReviewResponse response = reviewMapper.toResponse(saved);
         
         log.info("✅ Review saved with ID: {}", saved.getId());
         return ResponseEntity.ok(response);
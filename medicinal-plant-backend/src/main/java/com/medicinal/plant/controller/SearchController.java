@@ -5,6 +5,7 @@ import com.medicinal.plant.model.dto.request.SymptomSearchRequest;
 import com.medicinal.plant.model.dto.request.VisualSearchRequest;
 import com.medicinal.plant.model.dto.response.ApiResponse;
 import com.medicinal.plant.model.dto.response.SearchResultResponse;
+import com.medicinal.plant.model.dto.response.SuggestionResponse;
 import com.medicinal.plant.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +14,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Search Controller
  */
@@ -27,18 +30,25 @@ public class SearchController {
 
     @PostMapping("/general")
     @Operation(summary = "General plant search")
-    public ResponseEntity<ApiResponse<SearchResultResponse>> generalSearch(
+    public ResponseEntity<ApiResponse<Object>> generalSearch(
             @Valid @RequestBody PlantSearchRequest request) {
         SearchResultResponse result = searchService.performGeneralSearch(request);
-        return ResponseEntity.ok(ApiResponse.success(result));
+        return ResponseEntity.ok(ApiResponse.success(preSerialized(result)));
     }
 
     @PostMapping("/by-symptoms")
     @Operation(summary = "Search plants by symptoms")
-    public ResponseEntity<ApiResponse<SearchResultResponse>> searchBySymptoms(
+    public ResponseEntity<ApiResponse<Object>> searchBySymptoms(
             @Valid @RequestBody SymptomSearchRequest request) {
         SearchResultResponse result = searchService.searchBySymptoms(request);
-        return ResponseEntity.ok(ApiResponse.success(result));
+        return ResponseEntity.ok(ApiResponse.success(preSerialized(result)));
+    }
+
+    /**
+     * The JSON tree an explained search was already serialized to, or the result itself
+     */
+    private static Object preSerialized(SearchResultResponse result) {
+        return result.getJson() == null ? result : result.getJson();
     }
 
     @PostMapping("/by-visual")
@@ -48,4 +58,14 @@ public class SearchController {
         SearchResultResponse result = searchService.searchByVisualFeatures(request);
         return ResponseEntity.ok(ApiResponse.success(result));
     }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplete search input",
+            description = "Most popular plant names, scientific names, symptoms and medicinal uses starting with the prefix")
+    public ResponseEntity<ApiResponse<List<SuggestionResponse>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        List<SuggestionResponse> suggestions = searchService.suggest(prefix, limit);
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
 }
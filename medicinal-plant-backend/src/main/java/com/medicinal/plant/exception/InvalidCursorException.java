@@ -0,0 +1,11 @@
+package com.medicinal.plant.exception;
+
+/**
+ * Invalid Cursor Exception
+ */
+public class InvalidCursorException extends RuntimeException {
+    
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.medicinal.plant.mapper;
+
+import com.medicinal.plant.dto.PlantIdentificationResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.entity.PlantSymptom;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills a PlantNet identification with the medicinal data of the matching catalog plant,
+ * generated at compile time. What PlantNet reported about the species is kept.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface PlantIdentificationMapper {
+
+    @Mapping(target = "commonName", source = "name")
+    @Mapping(target = "symptoms", source = "plantSymptoms")
+    @Mapping(target = "scientificName", ignore = true)
+    @Mapping(target = "confidence", ignore = true)
+    @Mapping(target = "family", ignore = true)
+    @Mapping(target = "genus", ignore = true)
+    void enrich(Plant plant, @MappingTarget PlantIdentificationResponse response);
+
+    default List<String> symptomNames(List<PlantSymptom> links) {
+        List<String> names = new ArrayList<>();
+        if (links != null) {
+            for (PlantSymptom link : links) {
+                if (link.getSymptom() != null) {
+                    names.add(link.getSymptom().getName());
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,19 @@
+package com.medicinal.plant.mapper;
+
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
+import com.medicinal.plant.model.entity.Plant;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Plant entity to DTO mapping, generated at compile time. Enums are mapped to their names and
+ * the element collections are copied into new lists.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface PlantMapper {
+
+    PlantResponse toResponse(Plant plant);
+
+    PlantSummaryResponse toSummary(PlantResponse plant);
+}
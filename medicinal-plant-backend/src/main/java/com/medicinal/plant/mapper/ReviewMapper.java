@@ -0,0 +1,17 @@
+package com.medicinal.plant.mapper;
+
+import com.medicinal.plant.dto.ReviewResponse;
+import com.medicinal.plant.model.entity.Review;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Review entity to DTO mapping, generated at compile time
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface ReviewMapper {
+
+    @Mapping(target = "timeAgo", expression = "java(ReviewResponse.calculateTimeAgo(review.getCreatedAt()))")
+    ReviewResponse toResponse(Review review);
+}
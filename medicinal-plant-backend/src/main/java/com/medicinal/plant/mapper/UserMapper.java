@@ -0,0 +1,15 @@
+package com.medicinal.plant.mapper;
+
+import com.medicinal.plant.model.dto.response.UserResponse;
+import com.medicinal.plant.model.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+
+/**
+ * User entity to DTO mapping, generated at compile time; the password is never mapped
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface UserMapper {
+
+    UserResponse toResponse(User user);
+}
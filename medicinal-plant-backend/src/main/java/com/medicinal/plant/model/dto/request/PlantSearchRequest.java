@@ -19,4 +19,12 @@ public class PlantSearchRequest {
     private String query;
 
     private String searchType;
+
+    private Integer limit; // Maximum number of ranked plants to return
+
+    private Boolean highlight; // Return snippets of descriptions and medicinal uses with the matches marked
+
+    private Boolean omitDescriptions; // Leave full descriptions out of the plants, usually together with highlight
+
+    private Boolean explain; // Add a breakdown of where the time of the search went, bypassing the result cache
 }
@@ -0,0 +1,21 @@
+package com.medicinal.plant.model.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Relevance Tuning Request DTO - BM25 values to change, omitted ones are kept
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelevanceTuningRequest {
+    private Double k1; // Term frequency saturation, >= 0
+    private Double b; // Length normalization, 0 (off) to 1 (full)
+    private Map<String, Double> boosts; // Field key (name, scientific-name, description, ...) -> boost
+}
@@ -17,4 +17,11 @@ import java.util.List;
 public class SymptomSearchRequest {
     private List<String> symptoms;
     private String description; // Natural language description of symptoms
+    private Integer limit; // Maximum number of ranked plants to return
+    private Boolean autoCorrect; // Search for the spelling correction right away when nothing matches
+    private Boolean semantic; // Blend semantically similar plants into the keyword ranking
+    private Integer minMatches; // Listed symptoms a plant must treat (or name in its uses), all of them when unset
+    private Boolean highlight; // Return snippets of descriptions and medicinal uses with the matches marked
+    private Boolean omitDescriptions; // Leave full descriptions out of the plants, usually together with highlight
+    private Boolean explain; // Add a breakdown of where the time of the search went, bypassing the result cache
 }
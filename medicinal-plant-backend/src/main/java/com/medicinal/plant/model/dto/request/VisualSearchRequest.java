@@ -17,4 +17,5 @@ public class VisualSearchRequest {
     private String flowerColor;
     private String plantType;
     private String size;
+    private Integer limit; // Maximum number of plants to return; an empty selection matches the whole catalog
 }
@@ -0,0 +1,21 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Analyzer Response DTO - text analysis pipeline used by the search index
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyzerResponse {
+    private List<String> filters; // Filter names in the order they run
+    private Integer synonymRules;
+    private String fingerprint; // Changes whenever the pipeline or its synonyms change
+}
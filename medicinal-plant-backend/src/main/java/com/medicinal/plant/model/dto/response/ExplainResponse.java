@@ -0,0 +1,27 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explain Response DTO - where the time of a search made with explain=true went
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExplainResponse {
+    private Double totalTimeMs; // Wall time from the start of the search to its serialization
+    private Long allocatedBytes; // Bytes allocated by the request thread, -1 when the JVM cannot measure them
+    private Integer sqlStatements; // SQL statements issued, across all stages
+    private Integer candidates; // Plants scored by the rankings
+    private Integer ranked; // Plants the rankings kept after the limit
+    private Integer returned; // Plants returned, without those deleted since indexing
+    private List<ExplainStageResponse> stages; // In the order they first ran
+    private Map<Long, Map<String, Double>> contributions; // Plant ID -> factor -> share of the score, for the top hits
+}
@@ -0,0 +1,21 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Explain Stage Response DTO - one stage of an explained search, summed over its runs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExplainStageResponse {
+    private String name; // keyword-extraction, ranking, hydration, lazy-loading, mapping, serialization, ...
+    private Integer runs; // Times the stage ran, e.g. once per ranking
+    private Double timeMs;
+    private Long allocatedBytes; // -1 when the JVM cannot measure them
+    private Integer sqlStatements;
+}
@@ -0,0 +1,21 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Highlight Response DTO - an excerpt of one plant field with the matched words marked
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HighlightResponse {
+    private String field; // description or medicinalUses
+    private String snippet; // Excerpt of the field, with an ellipsis where the text was cut
+    private List<Integer> offsets; // Start and end of each match within the snippet, as consecutive pairs
+}
@@ -0,0 +1,38 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Page Response DTO - one page of a keyset-paginated listing.
+ * Immutable, as pages are cached and handed to every caller that asks for them.
+ */
+@Value
+public class PageResponse<T> {
+    List<T> items;
+    String nextCursor; // Opaque token for the next page, null on the last page
+    Integer pageSize;
+    Boolean hasMore;
+    String didYouMean; // Search only: spelling correction when the query matched nothing
+    Boolean autoCorrected; // Search only: items are for didYouMean, and so are the next pages
+
+    @Builder(toBuilder = true)
+    public PageResponse(List<T> items, String nextCursor, Integer pageSize, Boolean hasMore, String didYouMean,
+                        Boolean autoCorrected) {
+        this.items = items == null ? List.of() : List.copyOf(items);
+        this.nextCursor = nextCursor;
+        this.pageSize = pageSize;
+        this.hasMore = hasMore;
+        this.didYouMean = didYouMean;
+        this.autoCorrected = autoCorrected;
+    }
+
+    /**
+     * Returns this page with its items replaced, e.g. by another representation of them
+     */
+    public <R> PageResponse<R> withItems(List<R> replacement) {
+        return new PageResponse<>(replacement, nextCursor, pageSize, hasMore, didYouMean, autoCorrected);
+    }
+}
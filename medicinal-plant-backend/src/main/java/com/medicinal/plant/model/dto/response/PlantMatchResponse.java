@@ -0,0 +1,18 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Plant Match Response DTO - a plant together with how many search keywords it matched and its relevance score.
+ * Immutable, as ranked matches are cached and shared.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class PlantMatchResponse {
+    PlantResponse plant;
+    Integer matchedKeywords;
+    Double score;
+}
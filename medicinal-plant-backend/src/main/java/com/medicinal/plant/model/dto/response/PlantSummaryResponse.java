@@ -0,0 +1,31 @@
+package com.medicinal.plant.model.dto.response;
+
+import com.medicinal.plant.model.enums.SafetyLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Plant Summary Response DTO - the fields a plant listing shows; the rest is in {@link PlantResponse}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlantSummaryResponse {
+    private Long id;
+    private String name;
+    private String scientificName;
+    private String imageUrl;
+    private Double rating;
+    private String safetyRating;
+
+    /**
+     * Used by the projection queries of the plant repository
+     */
+    public PlantSummaryResponse(Long id, String name, String scientificName, String imageUrl, Double rating,
+                                SafetyLevel safetyRating) {
+        this(id, name, scientificName, imageUrl, rating, safetyRating == null ? null : safetyRating.name());
+    }
+}
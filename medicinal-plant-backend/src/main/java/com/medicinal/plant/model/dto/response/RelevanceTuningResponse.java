@@ -0,0 +1,21 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Relevance Tuning Response DTO - BM25 parameters currently used by general search
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelevanceTuningResponse {
+    private Double k1;
+    private Double b;
+    private Map<String, Double> boosts; // Field key -> boost
+}
@@ -1,11 +1,15 @@
 package com.medicinal.plant.model.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Search Result Response DTO
@@ -20,4 +24,15 @@ public class SearchResultResponse {
     private String searchType;
     private String searchQuery;
     private String aiRecommendation; // AI-generated recommendation for symptom searches
+    private Map<Long, Integer> keywordMatches; // Plant ID -> number of matched symptoms and keywords it covers
+    private Map<Long, Double> scores; // Plant ID -> relevance score the plants are ranked by
+    private String didYouMean; // Spelling correction when the description matched nothing
+    private Boolean autoCorrected; // True when the plants are the results for didYouMean
+    private String matchMode; // KEYWORD, BOOLEAN (query language), INTERSECTION (listed symptoms), SEMANTIC (vector fallback) or HYBRID (both blended)
+    private Map<String, Map<String, Integer>> facetCounts; // Facet -> value -> plants left if that value were chosen
+    private Map<Long, List<HighlightResponse>> highlights; // Plant ID -> snippets of its matched text, when requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ExplainResponse explain; // Timings, allocations, SQL and score contributions, when requested
+    @JsonIgnore
+    private ObjectNode json; // This result as a JSON tree when explain serialized it already, written to the response as it is
 }
@@ -0,0 +1,19 @@
+package com.medicinal.plant.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Suggestion Response DTO - a search-box completion
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionResponse {
+    private String text;
+    private String type; // PLANT, SCIENTIFIC_NAME, SYMPTOM or MEDICINAL_USE
+    private Integer weight;
+}
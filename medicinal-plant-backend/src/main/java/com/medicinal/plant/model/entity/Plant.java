@@ -1,5 +1,9 @@
 package com.medicinal.plant.model.entity;
 
+import com.medicinal.plant.catalog.CatalogEntityListener;
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
 import com.medicinal.plant.model.enums.PlantType;
 import com.medicinal.plant.model.enums.SafetyLevel;
 import jakarta.persistence.*;
@@ -24,7 +28,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, CatalogEntityListener.class})
 public class Plant {
 
     @Id
@@ -44,6 +48,18 @@ public class Plant {
     @Column(name = "plant_type")
     private PlantType plantType;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leaf_shape")
+    private LeafShape leafShape;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "flower_color")
+    private FlowerColor flowerColor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "plant_size")
+    private PlantSize size;
+
     @Builder.Default
     @ElementCollection
     @CollectionTable(name = "plant_medicinal_uses", joinColumns = @JoinColumn(name = "plant_id"))
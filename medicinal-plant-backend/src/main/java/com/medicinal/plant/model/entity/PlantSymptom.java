@@ -1,5 +1,6 @@
 package com.medicinal.plant.model.entity;
 
+import com.medicinal.plant.catalog.CatalogEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(CatalogEntityListener.class)
 public class PlantSymptom {
 
     @Id
@@ -1,5 +1,6 @@
 package com.medicinal.plant.model.entity;
 
+import com.medicinal.plant.catalog.CatalogEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,6 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(CatalogEntityListener.class)
 public class Symptom {
 
     @Id
@@ -33,6 +35,12 @@ public class Symptom {
     @Column(length = 500)
     private String category;
 
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "symptom_synonyms", joinColumns = @JoinColumn(name = "symptom_id"))
+    @Column(name = "synonym")
+    private List<String> synonyms = new ArrayList<>();
+
     @Builder.Default
     @OneToMany(mappedBy = "symptom", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PlantSymptom> plantSymptoms = new ArrayList<>();
@@ -0,0 +1,10 @@
+package com.medicinal.plant.model.enums;
+
+/**
+ * Plant Size Enum for Visual Search
+ */
+public enum PlantSize {
+    SHORT,
+    MEDIUM,
+    TALL
+}
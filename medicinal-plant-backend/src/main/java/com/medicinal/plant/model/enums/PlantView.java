@@ -0,0 +1,9 @@
+package com.medicinal.plant.model.enums;
+
+/**
+ * Plant View Enum - how much of each plant a listing returns
+ */
+public enum PlantView {
+    SUMMARY,
+    FULL
+}
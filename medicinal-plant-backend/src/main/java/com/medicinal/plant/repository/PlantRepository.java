@@ -1,11 +1,16 @@
 package com.medicinal.plant.repository;
 
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
 import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.enums.PlantType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,8 +38,44 @@ public interface PlantRepository extends JpaRepository<Plant, Long> {
     @Query("SELECT p FROM Plant p JOIN p.medicinalUses mu WHERE LOWER(mu) LIKE LOWER(CONCAT('%', :use, '%'))")
     List<Plant> findByMedicinalUse(@Param("use") String use);
 
-    List<Plant> findByPlantType(String plantType);
+    List<Plant> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    List<Plant> findByPlantTypeAndIdGreaterThanOrderByIdAsc(PlantType plantType, Long afterId, Pageable pageable);
 
     @Query("SELECT p FROM Plant p WHERE p.rating >= :minRating ORDER BY p.rating DESC")
     List<Plant> findTopRatedPlants(@Param("minRating") Double minRating);
+
+    @Query("SELECT p FROM Plant p WHERE p.rating >= :minRating " +
+           "AND (p.rating < :afterRating OR (p.rating = :afterRating AND p.id > :afterId)) " +
+           "ORDER BY p.rating DESC, p.id ASC")
+    List<Plant> findTopRatedPlantsAfter(@Param("minRating") Double minRating,
+                                        @Param("afterRating") Double afterRating,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Summary projections select only the listed columns and load no collections
+    String SUMMARY = "SELECT new com.medicinal.plant.model.dto.response.PlantSummaryResponse(" +
+                     "p.id, p.name, p.scientificName, p.imageUrl, p.rating, p.safetyRating) FROM Plant p ";
+
+    @Query(SUMMARY + "WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<PlantSummaryResponse> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.plantType = :plantType AND p.id > :afterId ORDER BY p.id ASC")
+    List<PlantSummaryResponse> findSummariesByTypeAfter(@Param("plantType") PlantType plantType,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.rating >= :minRating " +
+           "AND (p.rating < :afterRating OR (p.rating = :afterRating AND p.id > :afterId)) " +
+           "ORDER BY p.rating DESC, p.id ASC")
+    List<PlantSummaryResponse> findTopRatedSummariesAfter(@Param("minRating") Double minRating,
+                                                          @Param("afterRating") Double afterRating,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.id IN :ids")
+    List<PlantSummaryResponse> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MAX(p.updatedAt) FROM Plant p")
+    LocalDateTime findLastUpdatedAt();
 }
@@ -0,0 +1,243 @@
+package com.medicinal.plant.search;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Text analysis shared by indexing and querying: the {@link TextAnalyzer} tokenizer followed
+ * by a chain of {@link TokenFilter}s, by default lowercase, stopwords, {@link EnglishStemmer}
+ * and a {@link SynonymGraph}.
+ * <p>
+ * Every index keeps the analyzer it was built with and analyzes queries with the same one, so
+ * a query always meets terms produced exactly like its own. Tokens keep the offsets of the
+ * text they came from, which lets highlighting mark the original words. Instances are
+ * immutable; changing the pipeline, for example reloading synonyms, means building a new
+ * analyzer and a new index with it. The {@link #fingerprint} identifies the pipeline and its
+ * configuration, so data analyzed by another pipeline can be recognized.
+ */
+public final class Analyzer {
+
+    /**
+     * Common English words that carry no meaning for plant search
+     */
+    public static final Set<String> DEFAULT_STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "i",
+            "if", "in", "into", "is", "it", "its", "me", "my", "no", "not", "of", "on", "or", "so",
+            "such", "that", "the", "their", "then", "there", "these", "they", "this", "to", "was",
+            "were", "will", "with");
+
+    private static final Analyzer STANDARD = builder().lowercase().stopwords(DEFAULT_STOPWORDS).stem().build();
+
+    private final List<TokenFilter> filters;
+    private final long fingerprint;
+
+    private Analyzer(List<TokenFilter> filters) {
+        this.filters = List.copyOf(filters);
+        CRC32 crc = new CRC32();
+        for (TokenFilter filter : filters) {
+            crc.update(filter.signature().getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        this.fingerprint = crc.getValue();
+    }
+
+    /**
+     * Lowercase, default stopwords and stemming, without synonyms
+     */
+    public static Analyzer standard() {
+        return STANDARD;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A term with the offsets of the text it was produced from
+     */
+    @Value
+    public static class Token {
+        String term;
+        int start;
+        int end;
+    }
+
+    /**
+     * One stage of the pipeline. Filters may drop, rewrite or merge tokens but keep them in text
+     * order without overlapping offsets.
+     */
+    public interface TokenFilter {
+
+        List<Token> filter(List<Token> tokens);
+
+        /**
+         * The name the filter is configured by
+         */
+        String name();
+
+        /**
+         * Names the filter and its configuration; filters with equal signatures analyze alike
+         */
+        String signature();
+    }
+
+    /**
+     * Tokenizes the text and runs every filter over the tokens
+     */
+    public List<Token> analyze(String text) {
+        int[] offsets = TextAnalyzer.offsets(text);
+        List<Token> tokens = new ArrayList<>(offsets.length / 2);
+        for (int i = 0; i < offsets.length; i += 2) {
+            tokens.add(new Token(text.substring(offsets[i], offsets[i + 1]), offsets[i], offsets[i + 1]));
+        }
+        for (TokenFilter filter : filters) {
+            if (tokens.isEmpty()) {
+                break;
+            }
+            tokens = filter.filter(tokens);
+        }
+        return tokens;
+    }
+
+    /**
+     * The terms of {@link #analyze}, in text order
+     */
+    public List<String> terms(String text) {
+        List<Token> tokens = analyze(text);
+        List<String> terms = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            terms.add(token.getTerm());
+        }
+        return terms;
+    }
+
+    /**
+     * The names of the filters, in the order they run
+     */
+    public List<String> filterNames() {
+        List<String> names = new ArrayList<>(filters.size());
+        for (TokenFilter filter : filters) {
+            names.add(filter.name());
+        }
+        return names;
+    }
+
+    /**
+     * The number of synonym rules across the synonym stages of the pipeline
+     */
+    public int synonymRuleCount() {
+        int count = 0;
+        for (TokenFilter filter : filters) {
+            if (filter instanceof SynonymGraph) {
+                count += ((SynonymGraph) filter).getRules().size();
+            }
+        }
+        return count;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Assembles a pipeline stage by stage; synonym rules are analyzed by the stages added before them
+     */
+    public static final class Builder {
+
+        private final List<TokenFilter> filters = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder lowercase() {
+            return add(LowercaseFilter.INSTANCE);
+        }
+
+        public Builder stopwords(Collection<String> stopwords) {
+            return add(new StopwordFilter(stopwords));
+        }
+
+        public Builder stem() {
+            return add(new EnglishStemmer());
+        }
+
+        /**
+         * Adds a synonym graph compiled from rules in {@link SynonymGraph#parse} format
+         */
+        public Builder synonyms(String rules) {
+            return add(SynonymGraph.parse(rules, new Analyzer(filters)));
+        }
+
+        public Builder add(TokenFilter filter) {
+            filters.add(filter);
+            return this;
+        }
+
+        public Analyzer build() {
+            return new Analyzer(filters);
+        }
+    }
+
+    private static final class LowercaseFilter implements TokenFilter {
+
+        private static final LowercaseFilter INSTANCE = new LowercaseFilter();
+
+        @Override
+        public List<Token> filter(List<Token> tokens) {
+            List<Token> lowered = new ArrayList<>(tokens.size());
+            for (Token token : tokens) {
+                String term = token.getTerm().toLowerCase(Locale.ROOT);
+                lowered.add(term.equals(token.getTerm()) ? token : new Token(term, token.getStart(), token.getEnd()));
+            }
+            return lowered;
+        }
+
+        @Override
+        public String name() {
+            return "lowercase";
+        }
+
+        @Override
+        public String signature() {
+            return "lowercase";
+        }
+    }
+
+    private static final class StopwordFilter implements TokenFilter {
+
+        private final Set<String> stopwords;
+
+        private StopwordFilter(Collection<String> stopwords) {
+            this.stopwords = Set.copyOf(stopwords);
+        }
+
+        @Override
+        public List<Token> filter(List<Token> tokens) {
+            List<Token> kept = new ArrayList<>(tokens.size());
+            for (Token token : tokens) {
+                if (!stopwords.contains(token.getTerm())) {
+                    kept.add(token);
+                }
+            }
+            return kept;
+        }
+
+        @Override
+        public String name() {
+            return "stopwords";
+        }
+
+        @Override
+        public String signature() {
+            return "stopwords" + new TreeSet<>(stopwords);
+        }
+    }
+}
@@ -0,0 +1,791 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Immutable BM25F index over the text fields of every plant.
+ * <p>
+ * Each term has its own postings: one entry per (plant, field) it occurs in, ordered by plant
+ * and then field, holding the occurrence count and the length of that field. A query walks
+ * the postings of its terms side by side, one plant at a time in id order, and scores each
+ * plant as it passes, so its work and memory are bounded by the postings it reads rather than
+ * by the size of the catalog. Length norms are derived from the stored lengths and the field
+ * averages while scoring.
+ * <p>
+ * Field boosts are applied to the normalized term frequencies before the k1 saturation (BM25F),
+ * so a term repeated across fields does not score as several independent terms. Boosts, k1
+ * and b are read from the {@link Parameters} of each query. Fields and queries are tokenized
+ * by the {@link Analyzer} the index was built with.
+ */
+public final class Bm25Index {
+
+    /**
+     * Scored plant fields with the key used for their boost in configuration
+     */
+    public enum Field {
+        NAME("name"),
+        SCIENTIFIC_NAME("scientific-name"),
+        DESCRIPTION("description"),
+        MEDICINAL_USES("medicinal-uses"),
+        ACTIVE_COMPOUNDS("active-compounds"),
+        PROPERTIES("properties"),
+        SYMPTOM_NAMES("symptom-names");
+
+        private final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public static Field fromKey(String key) {
+            String normalized = key.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+            for (Field field : values()) {
+                if (field.key.equals(normalized)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    // Prefix expansion is for the unfinished last word of a query, not for one-letter wildcards
+    private static final int MAX_EXPANSIONS = 16;
+    private static final Bm25Index EMPTY = build(new PlantDocument[0]);
+
+    private final Analyzer analyzer;
+
+    private final TermDictionary dictionary;                  // terms of the scored fields
+    private final PersistentMap<Integer, TermPostings> postings;  // term id -> postings
+    private final PersistentMap<Long, int[]> fieldLengths;    // plant id -> tokens per field
+    private final long[] totalLengths;                        // field -> tokens over all plants
+
+    private Bm25Index(Analyzer analyzer, TermDictionary dictionary, PersistentMap<Integer, TermPostings> postings,
+                      PersistentMap<Long, int[]> fieldLengths, long[] totalLengths) {
+        this.analyzer = analyzer;
+        this.dictionary = dictionary;
+        this.postings = postings;
+        this.fieldLengths = fieldLengths;
+        this.totalLengths = totalLengths;
+    }
+
+    public static Bm25Index empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the index with the standard analyzer over documents ordered by ascending plant id
+     */
+    public static Bm25Index build(PlantDocument[] documents) {
+        return build(documents, Analyzer.standard());
+    }
+
+    /**
+     * Builds the index over documents ordered by ascending plant id
+     */
+    public static Bm25Index build(PlantDocument[] documents, Analyzer analyzer) {
+        TermDictionary.Builder dictionary = TermDictionary.empty().toBuilder();
+        Map<Integer, PostingsBuilder> builders = new HashMap<>();
+        PersistentMap<Long, int[]> fieldLengths = PersistentMap.empty();
+        long[] totalLengths = new long[FIELDS.length];
+        // Documents and then fields are visited in order, so each term's postings come out sorted
+        for (PlantDocument document : documents) {
+            Analyzed analyzed = new Analyzed(document, analyzer);
+            for (Map.Entry<String, int[]> term : analyzed.frequencies.entrySet()) {
+                int termId = dictionary.intern(term.getKey());
+                dictionary.acquire(termId);
+                builders.computeIfAbsent(termId, t -> new PostingsBuilder())
+                        .add(document.getId(), term.getValue(), analyzed.lengths);
+            }
+            fieldLengths = fieldLengths.plus(document.getId(), analyzed.lengths);
+            for (int f = 0; f < FIELDS.length; f++) {
+                totalLengths[f] += analyzed.lengths[f];
+            }
+        }
+        PersistentMap<Integer, TermPostings> postings = PersistentMap.empty();
+        for (Map.Entry<Integer, PostingsBuilder> builder : builders.entrySet()) {
+            postings = postings.plus(builder.getKey(), builder.getValue().build());
+        }
+        return new Bm25Index(analyzer, dictionary.build(), postings, fieldLengths, totalLengths);
+    }
+
+    /**
+     * Returns the index with changed plants analyzed again: the previous versions of every
+     * changed or removed plant leave the postings of their terms and the current versions join
+     * them. Only the postings of the terms these plants have are rewritten, and the field
+     * totals behind the length averages are adjusted by the difference.
+     */
+    Bm25Index apply(Collection<PlantDocument> previous, Collection<PlantDocument> current) {
+        TermDictionary.Builder terms = dictionary.toBuilder();
+        Map<Integer, PostingsEdit> edits = new HashMap<>();
+        PersistentMap<Long, int[]> nextLengths = fieldLengths;
+        long[] nextTotals = totalLengths.clone();
+        for (PlantDocument document : previous) {
+            int[] lengths = fieldLengths.get(document.getId());
+            for (int f = 0; f < FIELDS.length; f++) {
+                nextTotals[f] -= lengths[f];
+            }
+            nextLengths = nextLengths.minus(document.getId());
+        }
+        // In plant id order, so each term's new postings come out sorted
+        List<PlantDocument> added = new ArrayList<>(current);
+        added.sort(Comparator.comparingLong(PlantDocument::getId));
+        for (PlantDocument document : added) {
+            Analyzed analyzed = new Analyzed(document, analyzer);
+            for (Map.Entry<String, int[]> term : analyzed.frequencies.entrySet()) {
+                int termId = terms.intern(term.getKey());
+                terms.acquire(termId);
+                edits.computeIfAbsent(termId, t -> new PostingsEdit())
+                        .added.add(document.getId(), term.getValue(), analyzed.lengths);
+            }
+            nextLengths = nextLengths.plus(document.getId(), analyzed.lengths);
+            for (int f = 0; f < FIELDS.length; f++) {
+                nextTotals[f] += analyzed.lengths[f];
+            }
+        }
+        // Released after the new versions were counted, so a term that stays in use keeps its ID
+        for (PlantDocument document : previous) {
+            for (String term : new Analyzed(document, analyzer).frequencies.keySet()) {
+                int termId = dictionary.idOf(term);
+                terms.release(termId);
+                edits.computeIfAbsent(termId, t -> new PostingsEdit()).removed.add(document.getId());
+            }
+        }
+        PersistentMap<Integer, TermPostings> nextPostings = postings;
+        for (Map.Entry<Integer, PostingsEdit> edit : edits.entrySet()) {
+            TermPostings edited = edit.getValue().applyTo(postings.get(edit.getKey()));
+            nextPostings = edited == null ? nextPostings.minus(edit.getKey()) : nextPostings.plus(edit.getKey(), edited);
+        }
+        return new Bm25Index(analyzer, terms.build(), nextPostings, nextLengths, nextTotals);
+    }
+
+    /**
+     * Writes the field lengths, the dictionary and the postings of every term, in id order so
+     * equal indexes give equal snapshots
+     */
+    void writeTo(IndexSnapshot.Output out) throws IOException {
+        long[] ids = sortedIds();
+        out.writeLongs(ids);
+        for (long id : ids) {
+            out.writeInts(fieldLengths.get(id));
+        }
+        dictionary.writeTo(out);
+        int[] termIds = new int[postings.size()];
+        int[] n = new int[1];
+        postings.forEach((termId, list) -> termIds[n[0]++] = termId);
+        Arrays.sort(termIds);
+        out.writeInt(termIds.length);
+        for (int termId : termIds) {
+            TermPostings list = postings.get(termId);
+            out.writeInt(termId);
+            out.writeLongs(list.docs);
+            out.writeBytes(list.fields);
+            out.writeInts(list.frequencies);
+            out.writeInts(list.lengths);
+        }
+    }
+
+    /**
+     * Reads what {@link #writeTo} wrote, which must have been analyzed by the given analyzer
+     */
+    static Bm25Index readFrom(IndexSnapshot.Input in, Analyzer analyzer) {
+        long[] ids = in.readLongs();
+        PersistentMap<Long, int[]> fieldLengths = PersistentMap.empty();
+        long[] totalLengths = new long[FIELDS.length];
+        for (long id : ids) {
+            int[] lengths = in.readInts();
+            fieldLengths = fieldLengths.plus(id, lengths);
+            for (int f = 0; f < FIELDS.length; f++) {
+                totalLengths[f] += lengths[f];
+            }
+        }
+        TermDictionary dictionary = TermDictionary.readFrom(in);
+        int count = in.readInt();
+        PersistentMap<Integer, TermPostings> postings = PersistentMap.empty();
+        for (int t = 0; t < count; t++) {
+            int termId = in.readInt();
+            postings = postings.plus(termId, new TermPostings(in.readLongs(), in.readBytes(), in.readInts(), in.readInts()));
+        }
+        return new Bm25Index(analyzer, dictionary, postings, fieldLengths, totalLengths);
+    }
+
+    /**
+     * Scores every plant containing at least one query term and returns the best {@code limit},
+     * highest score first. A query token matches its exact term or, when there is none, up to
+     * {@value #MAX_EXPANSIONS} terms it is a prefix of. Match counts are the number of query
+     * tokens each plant matched.
+     */
+    public RankedHits search(String query, Parameters parameters, int limit) {
+        if (fieldLengths.isEmpty() || limit <= 0) {
+            return RankedHits.EMPTY;
+        }
+        Matches matches = matches(query, parameters);
+        if (matches == null) {
+            return RankedHits.EMPTY;
+        }
+        TopK best = new TopK(limit);
+        Candidates candidates = new Candidates();
+        // Plants arrive in id order, so numbering them as they come breaks ties by id
+        while (matches.next()) {
+            best.offer(candidates.add(matches.doc, matches.score, matches.matched), matches.score);
+        }
+        return candidates.toHits(best);
+    }
+
+    /**
+     * Orders an already selected set of plants by their score for the query and returns the best
+     * {@code limit}. Plants the query does not mention are kept with a score of zero, behind the
+     * others in id order.
+     */
+    public RankedHits rank(String query, Parameters parameters, long[] sortedIds, int limit) {
+        return rank(query, parameters, sortedIds, Double.POSITIVE_INFINITY, Long.MIN_VALUE, limit);
+    }
+
+    /**
+     * Like {@link #rank(String, Parameters, long[], int)}, but keeps only the plants ranked after
+     * the given (score, id) position, so a ranked listing can be continued page by page
+     */
+    public RankedHits rank(String query, Parameters parameters, long[] sortedIds, double afterScore, long afterId,
+                           int limit) {
+        if (fieldLengths.isEmpty() || sortedIds.length == 0 || limit <= 0) {
+            return RankedHits.EMPTY;
+        }
+        Matches matches = matches(query, parameters);
+        boolean more = matches != null && matches.next();
+        TopK best = new TopK(limit);
+        Candidates candidates = new Candidates();
+        for (long id : sortedIds) {
+            if (!fieldLengths.containsKey(id)) {
+                continue;
+            }
+            while (more && matches.doc < id) {
+                more = matches.next();
+            }
+            boolean matched = more && matches.doc == id;
+            double score = matched ? matches.score : 0.0;
+            if (score > afterScore || (score == afterScore && id <= afterId)) {
+                continue;
+            }
+            best.offer(candidates.add(id, score, matched ? matches.matched : 0), score);
+        }
+        return candidates.toHits(best);
+    }
+
+    /**
+     * Breaks one plant's score for the query down by the indexed terms that matched, each with the
+     * fields it was found in. Scores the plant the way {@link #search} does, so the contributions
+     * add up to the score it was ranked by.
+     */
+    public Map<String, Double> explain(String query, Parameters parameters, long plantId) {
+        Map<String, Double> contributions = new LinkedHashMap<>();
+        if (!fieldLengths.containsKey(plantId)) {
+            return contributions;
+        }
+        Scoring scoring = new Scoring(parameters);
+        for (String token : new LinkedHashSet<>(analyzer.terms(query))) {
+            for (int termId : termsFor(token)) {
+                TermPostings list = postings.get(termId);
+                int p = list.first(plantId);
+                if (p < 0) {
+                    continue;
+                }
+                StringJoiner fields = new StringJoiner(", ", " (", ")");
+                for (int q = p; q < list.docs.length && list.docs[q] == plantId; q++) {
+                    fields.add(FIELDS[list.fields[q]].getKey());
+                }
+                double idf = scoring.idf(list);
+                contributions.merge(dictionary.termAt(termId) + fields, scoring.score(list, p, idf), Double::sum);
+            }
+        }
+        contributions.values().removeIf(score -> score <= 0.0);
+        return contributions;
+    }
+
+    /**
+     * Cursors over the postings of every term the query's tokens match, or null when the query
+     * has no tokens
+     */
+    private Matches matches(String query, Parameters parameters) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(analyzer.terms(query)));
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        Scoring scoring = new Scoring(parameters);
+        List<Cursor> cursors = new ArrayList<>();
+        for (int q = 0; q < tokens.size(); q++) {
+            for (int termId : termsFor(tokens.get(q))) {
+                TermPostings list = postings.get(termId);
+                cursors.add(new Cursor(list, q, scoring.idf(list)));
+            }
+        }
+        return new Matches(cursors, tokens.size(), scoring);
+    }
+
+    public int size() {
+        return fieldLengths.size();
+    }
+
+    public int termCount() {
+        return dictionary.size();
+    }
+
+    private long[] sortedIds() {
+        long[] ids = new long[fieldLengths.size()];
+        int[] n = new int[1];
+        fieldLengths.forEach((id, lengths) -> ids[n[0]++] = id);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * The IDs of the token's exact term or, when there is none, of the first
+     * {@value #MAX_EXPANSIONS} terms in term order it is a prefix of
+     */
+    private int[] termsFor(String token) {
+        int exact = dictionary.idOf(token);
+        if (exact >= 0) {
+            return new int[]{exact};
+        }
+        int[] expansions = dictionary.idsWithPrefix(token);
+        if (expansions.length <= MAX_EXPANSIONS) {
+            return expansions;
+        }
+        String[] texts = new String[expansions.length];
+        for (int i = 0; i < expansions.length; i++) {
+            texts[i] = dictionary.termAt(expansions[i]);
+        }
+        Arrays.sort(texts);
+        int[] first = new int[MAX_EXPANSIONS];
+        for (int i = 0; i < MAX_EXPANSIONS; i++) {
+            first[i] = dictionary.idOf(texts[i]);
+        }
+        return first;
+    }
+
+    /**
+     * The parameters of one query together with the field averages of the index they score against
+     */
+    private final class Scoring {
+        private final double k1;
+        private final double b;
+        private final double[] boosts;
+        private final double[] averageLengths = new double[FIELDS.length];
+        private final int documents = fieldLengths.size();
+
+        Scoring(Parameters parameters) {
+            this.k1 = parameters.getK1();
+            this.b = parameters.getB();
+            this.boosts = parameters.boosts;
+            for (int f = 0; f < FIELDS.length; f++) {
+                averageLengths[f] = documents == 0 ? 0.0 : (double) totalLengths[f] / documents;
+            }
+        }
+
+        double idf(TermPostings list) {
+            double df = list.documentFrequency;
+            return Math.log(1.0 + (documents - df + 0.5) / (df + 0.5));
+        }
+
+        /**
+         * BM25F score of the plant whose postings start at p: boosted, length-normalized
+         * frequencies summed over its fields, then saturated once
+         */
+        double score(TermPostings list, int p, double idf) {
+            long doc = list.docs[p];
+            double weighted = 0.0;
+            for (; p < list.docs.length && list.docs[p] == doc; p++) {
+                int field = list.fields[p];
+                double relative = averageLengths[field] == 0.0 ? 1.0 : list.lengths[p] / averageLengths[field];
+                weighted += boosts[field] * list.frequencies[p] / (1.0 - b + b * relative);
+            }
+            return weighted > 0.0 ? idf * weighted * (k1 + 1.0) / (k1 + weighted) : 0.0;
+        }
+    }
+
+    /**
+     * Position in one term's postings, with the query token it stands for
+     */
+    private static final class Cursor {
+        private final TermPostings list;
+        private final int token;
+        private final double idf;
+        private int position;
+
+        Cursor(TermPostings list, int token, double idf) {
+            this.list = list;
+            this.token = token;
+            this.idf = idf;
+        }
+
+        long doc() {
+            return list.docs[position];
+        }
+
+        boolean exhausted() {
+            return position >= list.docs.length;
+        }
+
+        /**
+         * Moves past the postings of the current plant
+         */
+        void advance() {
+            long doc = list.docs[position];
+            while (position < list.docs.length && list.docs[position] == doc) {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Merges the cursors of a query in plant id order with a min-heap on their current plant,
+     * yielding each matching plant once with its score and the number of query tokens it matched
+     */
+    private static final class Matches {
+        private final Cursor[] heap;
+        private final int[] tokenStamps;
+        private final Scoring scoring;
+        private int size;
+        private int stamp;
+
+        private long doc;
+        private double score;
+        private int matched;
+
+        Matches(List<Cursor> cursors, int tokens, Scoring scoring) {
+            this.heap = new Cursor[cursors.size()];
+            this.tokenStamps = new int[tokens];
+            this.scoring = scoring;
+            for (Cursor cursor : cursors) {
+                if (!cursor.exhausted()) {
+                    heap[size] = cursor;
+                    siftUp(size++);
+                }
+            }
+        }
+
+        /**
+         * Moves to the next matching plant; false once every cursor is exhausted
+         */
+        boolean next() {
+            if (size == 0) {
+                return false;
+            }
+            doc = heap[0].doc();
+            score = 0.0;
+            matched = 0;
+            stamp++;
+            while (size > 0 && heap[0].doc() == doc) {
+                Cursor cursor = heap[0];
+                score += scoring.score(cursor.list, cursor.position, cursor.idf);
+                if (tokenStamps[cursor.token] != stamp) {
+                    tokenStamps[cursor.token] = stamp;
+                    matched++;
+                }
+                cursor.advance();
+                if (cursor.exhausted()) {
+                    heap[0] = heap[--size];
+                    heap[size] = null;
+                }
+                if (size > 0) {
+                    siftDown(0);
+                }
+            }
+            return true;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent].doc() <= heap[i].doc()) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int child = left + 1 < size && heap[left + 1].doc() < heap[left].doc() ? left + 1 : left;
+                if (heap[i].doc() <= heap[child].doc()) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Cursor cursor = heap[i];
+            heap[i] = heap[j];
+            heap[j] = cursor;
+        }
+    }
+
+    /**
+     * The plants a query scored, numbered in the order they were offered to a {@link TopK};
+     * grows with the number of candidates only
+     */
+    private static final class Candidates {
+        private long[] ids = new long[16];
+        private int[] matchCounts = new int[16];
+        private double[] scores = new double[16];
+        private int size;
+
+        int add(long id, double score, int matchCount) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                matchCounts = Arrays.copyOf(matchCounts, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            ids[size] = id;
+            matchCounts[size] = matchCount;
+            scores[size] = score;
+            return size++;
+        }
+
+        RankedHits toHits(TopK best) {
+            int[] ordinals = best.drainOrdinals();
+            long[] hitIds = new long[ordinals.length];
+            int[] hitMatches = new int[ordinals.length];
+            double[] hitScores = new double[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                hitIds[i] = ids[ordinals[i]];
+                hitMatches[i] = matchCounts[ordinals[i]];
+                hitScores[i] = scores[ordinals[i]];
+            }
+            return new RankedHits(hitIds, hitMatches, hitScores, size);
+        }
+    }
+
+    /**
+     * The postings of one term: per (plant, field) it occurs in, ordered by plant and then field,
+     * the occurrence count and the length of the field
+     */
+    private static final class TermPostings {
+        private final long[] docs;
+        private final byte[] fields;
+        private final int[] frequencies;
+        private final int[] lengths;
+        private final int documentFrequency;
+
+        TermPostings(long[] docs, byte[] fields, int[] frequencies, int[] lengths) {
+            this.docs = docs;
+            this.fields = fields;
+            this.frequencies = frequencies;
+            this.lengths = lengths;
+            int plants = 0;
+            for (int p = 0; p < docs.length; p++) {
+                if (p == 0 || docs[p] != docs[p - 1]) {
+                    plants++;
+                }
+            }
+            this.documentFrequency = plants;
+        }
+
+        /**
+         * Index of the plant's first posting, or -1 when the term does not occur in it
+         */
+        int first(long plantId) {
+            int p = Arrays.binarySearch(docs, plantId);
+            if (p < 0) {
+                return -1;
+            }
+            while (p > 0 && docs[p - 1] == plantId) {
+                p--;
+            }
+            return p;
+        }
+    }
+
+    /**
+     * The postings one term loses and gains over a batch of changed plants
+     */
+    private static final class PostingsEdit {
+        private final Set<Long> removed = new HashSet<>();
+        private final PostingsBuilder added = new PostingsBuilder();
+
+        /**
+         * Merges the gained postings into the list without the lost ones; null when none is left
+         */
+        TermPostings applyTo(TermPostings list) {
+            TermPostings gained = added.build();
+            long[] docs = list == null ? PostingLists.EMPTY : list.docs;
+            PostingsBuilder merged = new PostingsBuilder();
+            int p = 0;
+            int q = 0;
+            while (p < docs.length || q < gained.docs.length) {
+                if (q == gained.docs.length || p < docs.length && docs[p] < gained.docs[q]) {
+                    if (!removed.contains(docs[p])) {
+                        merged.append(docs[p], list.fields[p], list.frequencies[p], list.lengths[p]);
+                    }
+                    p++;
+                } else {
+                    merged.append(gained.docs[q], gained.fields[q], gained.frequencies[q], gained.lengths[q]);
+                    q++;
+                }
+            }
+            return merged.size == 0 ? null : merged.build();
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private long[] docs = new long[4];
+        private byte[] fields = new byte[4];
+        private int[] frequencies = new int[4];
+        private int[] lengths = new int[4];
+        private int size;
+
+        void add(long plantId, int[] frequencyPerField, int[] lengthPerField) {
+            for (int f = 0; f < FIELDS.length; f++) {
+                if (frequencyPerField[f] != 0) {
+                    append(plantId, (byte) f, frequencyPerField[f], lengthPerField[f]);
+                }
+            }
+        }
+
+        void append(long plantId, byte field, int frequency, int length) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            docs[size] = plantId;
+            fields[size] = field;
+            frequencies[size] = frequency;
+            lengths[size] = length;
+            size++;
+        }
+
+        TermPostings build() {
+            return new TermPostings(Arrays.copyOf(docs, size), Arrays.copyOf(fields, size),
+                    Arrays.copyOf(frequencies, size), Arrays.copyOf(lengths, size));
+        }
+    }
+
+    /**
+     * One plant's scored fields run through the analyzer: per term the occurrences in each
+     * field, and the token count of each field
+     */
+    private static final class Analyzed {
+        private final Map<String, int[]> frequencies = new HashMap<>();
+        private final int[] lengths = new int[FIELDS.length];
+
+        Analyzed(PlantDocument document, Analyzer analyzer) {
+            for (Field field : FIELDS) {
+                for (String text : textOf(document, field)) {
+                    for (String token : analyzer.terms(text)) {
+                        frequencies.computeIfAbsent(token, t -> new int[FIELDS.length])[field.ordinal()]++;
+                        lengths[field.ordinal()]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> textOf(PlantDocument document, Field field) {
+        switch (field) {
+            case NAME:
+                return single(document.getName());
+            case SCIENTIFIC_NAME:
+                return single(document.getScientificName());
+            case DESCRIPTION:
+                return single(document.getDescription());
+            case MEDICINAL_USES:
+                return orEmpty(document.getMedicinalUses());
+            case ACTIVE_COMPOUNDS:
+                return orEmpty(document.getActiveCompounds());
+            case PROPERTIES:
+                return orEmpty(document.getProperties());
+            default:
+                List<String> names = new ArrayList<>();
+                for (PlantDocument.SymptomLink symptom : orEmpty(document.getSymptoms())) {
+                    names.add(symptom.getName());
+                }
+                return names;
+        }
+    }
+
+    private static List<String> single(String text) {
+        return text == null ? List.of() : List.of(text);
+    }
+
+    private static <T> List<T> orEmpty(List<T> values) {
+        return values == null ? List.of() : values;
+    }
+
+    /**
+     * Immutable scoring parameters: term frequency saturation k1, length normalization b and
+     * one boost per field
+     */
+    public static final class Parameters {
+
+        public static final double DEFAULT_K1 = 1.2;
+        public static final double DEFAULT_B = 0.75;
+
+        private final double k1;
+        private final double b;
+        private final double[] boosts;
+
+        public Parameters(double k1, double b, Map<Field, Double> boosts) {
+            if (k1 < 0.0 || b < 0.0 || b > 1.0) {
+                throw new IllegalArgumentException("k1 must be >= 0 and b within [0, 1]");
+            }
+            this.k1 = k1;
+            this.b = b;
+            this.boosts = new double[FIELDS.length];
+            for (Field field : FIELDS) {
+                double boost = boosts.getOrDefault(field, 1.0);
+                if (boost < 0.0) {
+                    throw new IllegalArgumentException("Boost for " + field.getKey() + " must be >= 0");
+                }
+                this.boosts[field.ordinal()] = boost;
+            }
+        }
+
+        public double getK1() {
+            return k1;
+        }
+
+        public double getB() {
+            return b;
+        }
+
+        public double getBoost(Field field) {
+            return boosts[field.ordinal()];
+        }
+
+        public Map<Field, Double> getBoosts() {
+            Map<Field, Double> result = new EnumMap<>(Field.class);
+            for (Field field : FIELDS) {
+                result.put(field, boosts[field.ordinal()]);
+            }
+            return result;
+        }
+    }
+}
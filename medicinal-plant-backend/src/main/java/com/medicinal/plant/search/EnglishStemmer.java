@@ -0,0 +1,416 @@
+package com.medicinal.plant.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Porter stemming algorithm for English, reducing inflected and derived words such as
+ * "digestive", "digestion" and "digesting" to one stem. Stems are not always words
+ * ("inflammation" becomes "inflamm"); they only need to be equal for related words and are
+ * never shown to users. Tokens that are not purely ASCII letters are left unchanged.
+ */
+final class EnglishStemmer implements Analyzer.TokenFilter {
+
+    // Words this short gain nothing from stemming
+    private static final int MIN_LENGTH = 3;
+
+    @Override
+    public List<Analyzer.Token> filter(List<Analyzer.Token> tokens) {
+        List<Analyzer.Token> stemmed = new ArrayList<>(tokens.size());
+        for (Analyzer.Token token : tokens) {
+            String stem = stem(token.getTerm());
+            stemmed.add(stem.equals(token.getTerm()) ? token : new Analyzer.Token(stem, token.getStart(), token.getEnd()));
+        }
+        return stemmed;
+    }
+
+    @Override
+    public String name() {
+        return "stemmer";
+    }
+
+    @Override
+    public String signature() {
+        return "porter-stemmer";
+    }
+
+    static String stem(String word) {
+        if (word.length() < MIN_LENGTH) {
+            return word;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return word;
+            }
+        }
+        return new Stem(word).run();
+    }
+
+    /**
+     * One word being stemmed: the steps of the algorithm shorten {@code end} and rewrite the
+     * buffer in place, {@code j} marks where the suffix under test begins
+     */
+    private static final class Stem {
+
+        private char[] b;
+        private int end;
+        private int j;
+
+        Stem(String word) {
+            this.b = word.toCharArray();
+            this.end = b.length;
+        }
+
+        String run() {
+            step1ab();
+            step1c();
+            step2();
+            step3();
+            step4();
+            step5();
+            return new String(b, 0, end);
+        }
+
+        private boolean consonant(int i) {
+            switch (b[i]) {
+                case 'a':
+                case 'e':
+                case 'i':
+                case 'o':
+                case 'u':
+                    return false;
+                case 'y':
+                    return i == 0 || !consonant(i - 1);
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * The number of vowel-consonant sequences in b[0, j]
+         */
+        private int measure() {
+            int n = 0;
+            int i = 0;
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (!consonant(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+            while (true) {
+                while (true) {
+                    if (i > j) {
+                        return n;
+                    }
+                    if (consonant(i)) {
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                n++;
+                while (true) {
+                    if (i > j) {
+                        return n;
+                    }
+                    if (!consonant(i)) {
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+            }
+        }
+
+        private boolean vowelInStem() {
+            for (int i = 0; i <= j; i++) {
+                if (!consonant(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean doubleConsonant(int i) {
+            return i >= 1 && b[i] == b[i - 1] && consonant(i);
+        }
+
+        /**
+         * Whether b[i - 2, i] is consonant-vowel-consonant and the last is not w, x or y, as in
+         * "hop" but not "snow"
+         */
+        private boolean cvc(int i) {
+            if (i < 2 || !consonant(i) || consonant(i - 1) || !consonant(i - 2)) {
+                return false;
+            }
+            char c = b[i];
+            return c != 'w' && c != 'x' && c != 'y';
+        }
+
+        private boolean endsWith(String suffix) {
+            int length = suffix.length();
+            int start = end - length;
+            if (start < 0) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (b[start + i] != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            j = start - 1;
+            return true;
+        }
+
+        /**
+         * Replaces the suffix after j with the given string
+         */
+        private void setTo(String replacement) {
+            int length = replacement.length();
+            if (j + 1 + length > b.length) {
+                b = Arrays.copyOf(b, j + 1 + length);
+            }
+            for (int i = 0; i < length; i++) {
+                b[j + 1 + i] = replacement.charAt(i);
+            }
+            end = j + 1 + length;
+        }
+
+        private void replaceIfMeasured(String replacement) {
+            if (measure() > 0) {
+                setTo(replacement);
+            }
+        }
+
+        // Plurals and -ed or -ing: caresses -> caress, ponies -> poni, agreed -> agree, hopping -> hop
+        private void step1ab() {
+            if (b[end - 1] == 's') {
+                if (endsWith("sses")) {
+                    end -= 2;
+                } else if (endsWith("ies")) {
+                    setTo("i");
+                } else if (end >= 2 && b[end - 2] != 's') {
+                    end--;
+                }
+            }
+            if (endsWith("eed")) {
+                if (measure() > 0) {
+                    end--;
+                }
+            } else if ((endsWith("ed") || endsWith("ing")) && vowelInStem()) {
+                end = j + 1;
+                if (endsWith("at")) {
+                    setTo("ate");
+                } else if (endsWith("bl")) {
+                    setTo("ble");
+                } else if (endsWith("iz")) {
+                    setTo("ize");
+                } else if (doubleConsonant(end - 1)) {
+                    char c = b[end - 1];
+                    if (c != 'l' && c != 's' && c != 'z') {
+                        end--;
+                    }
+                } else {
+                    j = end - 1;
+                    if (measure() == 1 && cvc(end - 1)) {
+                        setTo("e");
+                    }
+                }
+            }
+        }
+
+        // Terminal y to i when there is another vowel in the stem
+        private void step1c() {
+            if (endsWith("y") && vowelInStem()) {
+                b[end - 1] = 'i';
+            }
+        }
+
+        // Double suffixes to single ones: -ization -> -ize, -fulness -> -ful
+        private void step2() {
+            if (end < 2) {
+                return;
+            }
+            switch (b[end - 2]) {
+                case 'a':
+                    if (endsWith("ational")) {
+                        replaceIfMeasured("ate");
+                    } else if (endsWith("tional")) {
+                        replaceIfMeasured("tion");
+                    }
+                    break;
+                case 'c':
+                    if (endsWith("enci")) {
+                        replaceIfMeasured("ence");
+                    } else if (endsWith("anci")) {
+                        replaceIfMeasured("ance");
+                    }
+                    break;
+                case 'e':
+                    if (endsWith("izer")) {
+                        replaceIfMeasured("ize");
+                    }
+                    break;
+                case 'l':
+                    if (endsWith("bli")) {
+                        replaceIfMeasured("ble");
+                    } else if (endsWith("alli")) {
+                        replaceIfMeasured("al");
+                    } else if (endsWith("entli")) {
+                        replaceIfMeasured("ent");
+                    } else if (endsWith("eli")) {
+                        replaceIfMeasured("e");
+                    } else if (endsWith("ousli")) {
+                        replaceIfMeasured("ous");
+                    }
+                    break;
+                case 'o':
+                    if (endsWith("ization")) {
+                        replaceIfMeasured("ize");
+                    } else if (endsWith("ation")) {
+                        replaceIfMeasured("ate");
+                    } else if (endsWith("ator")) {
+                        replaceIfMeasured("ate");
+                    }
+                    break;
+                case 's':
+                    if (endsWith("alism")) {
+                        replaceIfMeasured("al");
+                    } else if (endsWith("iveness")) {
+                        replaceIfMeasured("ive");
+                    } else if (endsWith("fulness")) {
+                        replaceIfMeasured("ful");
+                    } else if (endsWith("ousness")) {
+                        replaceIfMeasured("ous");
+                    }
+                    break;
+                case 't':
+                    if (endsWith("aliti")) {
+                        replaceIfMeasured("al");
+                    } else if (endsWith("iviti")) {
+                        replaceIfMeasured("ive");
+                    } else if (endsWith("biliti")) {
+                        replaceIfMeasured("ble");
+                    }
+                    break;
+                case 'g':
+                    if (endsWith("logi")) {
+                        replaceIfMeasured("log");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // -ic-, -full, -ness and similar: hopeful -> hope, goodness -> good
+        private void step3() {
+            switch (b[end - 1]) {
+                case 'e':
+                    if (endsWith("icate")) {
+                        replaceIfMeasured("ic");
+                    } else if (endsWith("ative")) {
+                        replaceIfMeasured("");
+                    } else if (endsWith("alize")) {
+                        replaceIfMeasured("al");
+                    }
+                    break;
+                case 'i':
+                    if (endsWith("iciti")) {
+                        replaceIfMeasured("ic");
+                    }
+                    break;
+                case 'l':
+                    if (endsWith("ical")) {
+                        replaceIfMeasured("ic");
+                    } else if (endsWith("ful")) {
+                        replaceIfMeasured("");
+                    }
+                    break;
+                case 's':
+                    if (endsWith("ness")) {
+                        replaceIfMeasured("");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // Remaining suffixes on longer stems: -ant, -ence, -ive, -ion after s or t
+        private void step4() {
+            if (end < 2) {
+                return;
+            }
+            boolean matched;
+            switch (b[end - 2]) {
+                case 'a':
+                    matched = endsWith("al");
+                    break;
+                case 'c':
+                    matched = endsWith("ance") || endsWith("ence");
+                    break;
+                case 'e':
+                    matched = endsWith("er");
+                    break;
+                case 'i':
+                    matched = endsWith("ic");
+                    break;
+                case 'l':
+                    matched = endsWith("able") || endsWith("ible");
+                    break;
+                case 'n':
+                    matched = endsWith("ant") || endsWith("ement") || endsWith("ment") || endsWith("ent");
+                    break;
+                case 'o':
+                    matched = (endsWith("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) || endsWith("ou");
+                    break;
+                case 's':
+                    matched = endsWith("ism");
+                    break;
+                case 't':
+                    matched = endsWith("ate") || endsWith("iti");
+                    break;
+                case 'u':
+                    matched = endsWith("ous");
+                    break;
+                case 'v':
+                    matched = endsWith("ive");
+                    break;
+                case 'z':
+                    matched = endsWith("ize");
+                    break;
+                default:
+                    matched = false;
+                    break;
+            }
+            if (matched && measure() > 1) {
+                end = j + 1;
+            }
+        }
+
+        // A final e on longer stems and a final double l: probate -> probat, controll -> control
+        private void step5() {
+            j = end - 1;
+            if (b[end - 1] == 'e') {
+                int m = measure();
+                if (m > 1 || (m == 1 && !cvc(end - 2))) {
+                    end--;
+                }
+            }
+            if (end > 1 && b[end - 1] == 'l' && doubleConsonant(end - 1)) {
+                j = end - 1;
+                if (measure() > 1) {
+                    end--;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.util.PersistentMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-facet-value bitmaps over the plants of a PlantSearchIndex.
+ * <p>
+ * Every plant is numbered with a dense ordinal, and bit {@code i} of a value's bitmap is set
+ * when the plant with ordinal {@code i} has that value, so a selection is a bitmap OR within a
+ * facet and an AND across facets, and the counts come from the same bitmaps. Ordinals rather
+ * than database ids keep a bitmap at about one bit per plant however sparse or large the ids
+ * are. A plant keeps its ordinal while it is indexed, so a changed plant only touches the
+ * bitmaps of the values it left and joined; every other bitmap is shared with the previous
+ * index. The ordinal of a removed plant is handed to a later new plant, never within the
+ * update that freed it. Bitmaps are never modified once the index is built.
+ */
+public final class FacetIndex {
+
+    /**
+     * Visual attributes a search can be refined by
+     */
+    public enum Facet {
+        LEAF_SHAPE("leafShape", LeafShape.class, PlantDocument::getLeafShape),
+        FLOWER_COLOR("flowerColor", FlowerColor.class, PlantDocument::getFlowerColor),
+        PLANT_TYPE("plantType", PlantType.class, PlantDocument::getPlantType),
+        SIZE("size", PlantSize.class, PlantDocument::getSize);
+
+        private final String key;
+        private final Class<? extends Enum<?>> type;
+        private final Function<PlantDocument, Enum<?>> extractor;
+
+        Facet(String key, Class<? extends Enum<?>> type, Function<PlantDocument, Enum<?>> extractor) {
+            this.key = key;
+            this.type = type;
+            this.extractor = extractor;
+        }
+
+        /**
+         * Name of the facet as used in requests and responses
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Resolves a user-supplied value such as "purple", "heart shaped" or "heart".
+         * Returns null when the value does not identify exactly one constant.
+         */
+        public Enum<?> parse(String raw) {
+            String normalized = raw.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+            Enum<?> prefixMatch = null;
+            int prefixMatches = 0;
+            for (Enum<?> constant : type.getEnumConstants()) {
+                if (constant.name().equals(normalized)) {
+                    return constant;
+                }
+                if (!normalized.isEmpty() && constant.name().startsWith(normalized)) {
+                    prefixMatch = constant;
+                    prefixMatches++;
+                }
+            }
+            return prefixMatches == 1 ? prefixMatch : null;
+        }
+
+        public Enum<?>[] constants() {
+            return type.getEnumConstants();
+        }
+    }
+
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final BitSet NONE = new BitSet();
+
+    static final FacetIndex EMPTY = new FacetIndex(PersistentMap.empty(), PersistentMap.empty(), NO_ORDINALS, 0,
+            new BitSet(), new EnumMap<>(Facet.class));
+
+    private final PersistentMap<Long, Integer> ordinals;  // plant id -> ordinal
+    private final PersistentMap<Integer, Long> plantIds;  // ordinal -> plant id
+    private final int[] free;                             // ordinals free for reuse
+    private final int nextOrdinal;                        // lowest ordinal never handed out
+    private final BitSet plants;
+    private final EnumMap<Facet, Map<Enum<?>, BitSet>> bitmaps;
+
+    private FacetIndex(PersistentMap<Long, Integer> ordinals, PersistentMap<Integer, Long> plantIds, int[] free,
+                       int nextOrdinal, BitSet plants, EnumMap<Facet, Map<Enum<?>, BitSet>> bitmaps) {
+        this.ordinals = ordinals;
+        this.plantIds = plantIds;
+        this.free = free;
+        this.nextOrdinal = nextOrdinal;
+        this.plants = plants;
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * Returns the index with the facet values of changed plants moved to their new bitmaps.
+     * The previous versions are keyed by plant; a plant without a current version was removed.
+     * Only the bitmaps of values a plant left or joined are copied.
+     */
+    FacetIndex apply(Map<Long, PlantDocument> previous, Map<Long, PlantDocument> current) {
+        Set<Long> changed = new HashSet<>(previous.keySet());
+        changed.addAll(current.keySet());
+        PersistentMap<Long, Integer> nextOrdinals = ordinals;
+        PersistentMap<Integer, Long> nextPlantIds = plantIds;
+        BitSet nextPlants = (BitSet) plants.clone();
+        List<Integer> released = new ArrayList<>();
+        for (Long plantId : changed) {
+            Integer ordinal = ordinals.get(plantId);
+            if (ordinal != null && !current.containsKey(plantId)) {
+                nextOrdinals = nextOrdinals.minus(plantId);
+                nextPlantIds = nextPlantIds.minus(ordinal);
+                nextPlants.clear(ordinal);
+                released.add(ordinal);
+            }
+        }
+        int reusable = free.length;
+        int next = nextOrdinal;
+        for (Long plantId : changed) {
+            if (current.containsKey(plantId) && !ordinals.containsKey(plantId)) {
+                int ordinal = reusable > 0 ? free[--reusable] : next++;
+                nextOrdinals = nextOrdinals.plus(plantId, ordinal);
+                nextPlantIds = nextPlantIds.plus(ordinal, plantId);
+                nextPlants.set(ordinal);
+            }
+        }
+        int[] nextFree = Arrays.copyOf(free, reusable + released.size());
+        for (int i = 0; i < released.size(); i++) {
+            nextFree[reusable + i] = released.get(i);
+        }
+        EnumMap<Facet, Map<Enum<?>, BitSet>> nextBitmaps = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            Map<Enum<?>, BitSet> existing = bitmaps.getOrDefault(facet, Map.of());
+            Map<Enum<?>, BitSet> edited = new HashMap<>();
+            for (Long plantId : changed) {
+                Enum<?> before = valueOf(facet, previous.get(plantId));
+                Enum<?> after = valueOf(facet, current.get(plantId));
+                if (before == after) {
+                    continue;
+                }
+                if (before != null) {
+                    edited.computeIfAbsent(before, value -> copyOf(existing, value)).clear(ordinals.get(plantId));
+                }
+                if (after != null) {
+                    edited.computeIfAbsent(after, value -> copyOf(existing, value)).set(nextOrdinals.get(plantId));
+                }
+            }
+            Map<Enum<?>, BitSet> byValue = new LinkedHashMap<>();
+            for (Enum<?> value : facet.constants()) {
+                byValue.put(value, edited.containsKey(value) ? edited.get(value) : existing.getOrDefault(value, NONE));
+            }
+            nextBitmaps.put(facet, byValue);
+        }
+        return new FacetIndex(nextOrdinals, nextPlantIds, nextFree, next, nextPlants, nextBitmaps);
+    }
+
+    private static BitSet copyOf(Map<Enum<?>, BitSet> bitmaps, Enum<?> value) {
+        return (BitSet) bitmaps.getOrDefault(value, NONE).clone();
+    }
+
+    private static Enum<?> valueOf(Facet facet, PlantDocument document) {
+        return document == null ? null : facet.extractor.apply(document);
+    }
+
+    /**
+     * Returns the sorted IDs of the plants matching the selection: any selected value within a
+     * facet, every facet that has a selection. An empty selection matches every plant.
+     */
+    long[] select(Map<Facet, Set<Enum<?>>> selection) {
+        BitSet selected = selectExcept(selection, null);
+        long[] ids = new long[selected.cardinality()];
+        int count = 0;
+        for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(ordinal + 1)) {
+            ids[count++] = plantIds.get(ordinal);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * For every facet value, counts the plants the selection would match if that value were
+     * the only one chosen for its facet, with the other facets' selections still applied
+     */
+    Map<String, Map<String, Integer>> counts(Map<Facet, Set<Enum<?>>> selection) {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            BitSet others = selectExcept(selection, facet);
+            Map<String, Integer> byValue = new LinkedHashMap<>();
+            for (Map.Entry<Enum<?>, BitSet> entry : bitmaps.getOrDefault(facet, Map.of()).entrySet()) {
+                BitSet refined = (BitSet) entry.getValue().clone();
+                refined.and(others);
+                int count = refined.cardinality();
+                if (count > 0) {
+                    byValue.put(entry.getKey().name(), count);
+                }
+            }
+            counts.put(facet.getKey(), byValue);
+        }
+        return counts;
+    }
+
+    private BitSet selectExcept(Map<Facet, Set<Enum<?>>> selection, Facet excluded) {
+        BitSet result = (BitSet) plants.clone();
+        for (Map.Entry<Facet, Set<Enum<?>>> entry : selection.entrySet()) {
+            if (entry.getKey() == excluded || entry.getValue().isEmpty()) {
+                continue;
+            }
+            BitSet union = new BitSet();
+            Map<Enum<?>, BitSet> byValue = bitmaps.getOrDefault(entry.getKey(), Map.of());
+            for (Enum<?> value : entry.getValue()) {
+                union.or(byValue.getOrDefault(value, NONE));
+            }
+            result.and(union);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package com.medicinal.plant.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Local text embedding with hashed TF-IDF features.
+ * <p>
+ * Each word contributes itself and its character trigrams (with word-boundary markers, so
+ * "sleep" and "sleeping" or "can't sleep" and "sleep disorders" share features). Features are
+ * hashed into a fixed number of buckets with a sign bit to cancel collisions on average,
+ * weighted by log term frequency and by inverse document frequency fitted on the catalog,
+ * and L2-normalized so the dot product is the cosine similarity. Instances are immutable.
+ */
+public final class HashedEmbedder {
+
+    public static final int DEFAULT_DIMENSION = 256;
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    private final int dimension;
+    private final float[] idf;
+
+    private HashedEmbedder(int dimension, float[] idf) {
+        this.dimension = dimension;
+        this.idf = idf;
+    }
+
+    /**
+     * Learns bucket document frequencies from the corpus
+     */
+    public static HashedEmbedder fit(Collection<String> corpus, int dimension) {
+        int[] documentFrequency = new int[dimension];
+        boolean[] seen = new boolean[dimension];
+        for (String text : corpus) {
+            Arrays.fill(seen, false);
+            forEachFeature(text, dimension, (bucket, sign, weight) -> seen[bucket] = true);
+            for (int b = 0; b < dimension; b++) {
+                if (seen[b]) {
+                    documentFrequency[b]++;
+                }
+            }
+        }
+        float[] idf = new float[dimension];
+        for (int b = 0; b < dimension; b++) {
+            idf[b] = (float) (Math.log((corpus.size() + 1.0) / (documentFrequency[b] + 1.0)) + 1.0);
+        }
+        return new HashedEmbedder(dimension, idf);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the unit-length embedding of the text, or an all-zero vector when it has no words
+     */
+    public float[] embed(String text) {
+        float[] counts = new float[dimension];
+        forEachFeature(text, dimension, (bucket, sign, weight) -> counts[bucket] += sign * weight);
+        double norm = 0.0;
+        for (int b = 0; b < dimension; b++) {
+            if (counts[b] != 0.0f) {
+                float magnitude = (float) (1.0 + Math.log(Math.abs(counts[b])));
+                counts[b] = Math.copySign(Math.max(magnitude, 0.0f), counts[b]) * idf[b];
+                norm += counts[b] * counts[b];
+            }
+        }
+        if (norm > 0.0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int b = 0; b < dimension; b++) {
+                counts[b] *= scale;
+            }
+        }
+        return counts;
+    }
+
+    @FunctionalInterface
+    private interface FeatureSink {
+        void accept(int bucket, float sign, float weight);
+    }
+
+    private static void forEachFeature(String text, int dimension, FeatureSink sink) {
+        List<String> words = TextAnalyzer.tokenize(text);
+        for (String word : words) {
+            emit(word.hashCode(), dimension, WORD_WEIGHT, sink);
+            String padded = "<" + word + ">";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                int h = 31 * (31 * padded.charAt(i) + padded.charAt(i + 1)) + padded.charAt(i + 2);
+                emit(h * 0x9E3779B9, dimension, TRIGRAM_WEIGHT, sink);
+            }
+        }
+    }
+
+    private static void emit(int hash, int dimension, float weight, FeatureSink sink) {
+        int mixed = hash ^ (hash >>> 16);
+        mixed *= 0x85EBCA6B;
+        mixed ^= mixed >>> 13;
+        int bucket = Math.floorMod(mixed, dimension);
+        float sign = (mixed & 0x80000000) == 0 ? 1.0f : -1.0f;
+        sink.accept(bucket, sign, weight);
+    }
+}
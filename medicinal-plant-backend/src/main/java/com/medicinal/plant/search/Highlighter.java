@@ -0,0 +1,223 @@
+package com.medicinal.plant.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Marks query words in plant descriptions and medicinal uses using the stored
+ * {@link TermPositions}, so matches are found by comparing term IDs and no text is analyzed
+ * per plant.
+ * <p>
+ * The query words go through the index's {@link Analyzer} once, so "digestion" also marks
+ * "digestive" and a synonym marks its canonical word. A query term matches a text term it
+ * equals or, from {@link #MIN_PREFIX} characters on, one it is a prefix of, as in keyword
+ * search. The description is cut to the window of the given
+ * length holding the most distinct query words, widened evenly on both sides and trimmed to
+ * whole words; a description without matches yields its opening words. Medicinal uses are
+ * short and returned whole, but only those with a match.
+ */
+public final class Highlighter {
+
+    public static final String DESCRIPTION = "description";
+    public static final String MEDICINAL_USES = "medicinalUses";
+    static final int MIN_PREFIX = 3;
+    private static final String ELLIPSIS = "…";
+
+    private Highlighter() {
+    }
+
+    /**
+     * A field excerpt with the start and end offsets of each match within it, as consecutive pairs
+     */
+    @Value
+    public static class Fragment {
+        String field;
+        String text;
+        int[] offsets;
+    }
+
+    /**
+     * Returns the highlighted fragments of one plant, description first, or an empty list when
+     * the plant is not indexed
+     */
+    public static List<Fragment> highlight(PlantSearchIndex index, long plantId, Collection<String> queryWords,
+                                           int snippetLength) {
+        PlantDocument document = index.getDocument(plantId);
+        byte[] positions = index.getPositions().positionsOf(plantId);
+        if (document == null || positions == null) {
+            return List.of();
+        }
+        int[][] words = termIds(index, queryWords);
+        List<Fragment> fragments = new ArrayList<>();
+        TermPositions.Reader reader = new TermPositions.Reader(positions);
+
+        Text description = new Text(reader, words);
+        if (document.getDescription() != null && !document.getDescription().isEmpty()) {
+            fragments.add(snippet(document.getDescription(), description, words.length, Math.max(1, snippetLength)));
+        }
+        for (String use : document.getMedicinalUses()) {
+            int[] offsets = matches(new Text(reader, words));
+            if (offsets.length > 0) {
+                fragments.add(new Fragment(MEDICINAL_USES, use, offsets));
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * The sorted IDs of the indexed terms each distinct query term matches
+     */
+    private static int[][] termIds(PlantSearchIndex index, Collection<String> queryWords) {
+        TermDictionary dictionary = index.getPositions().getDictionary();
+        List<int[]> words = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(index.getAnalyzer().terms(String.join(" ", queryWords)))) {
+            if (term.length() >= MIN_PREFIX) {
+                words.add(dictionary.idsWithPrefix(term));
+            } else {
+                int id = dictionary.idOf(term);
+                words.add(id >= 0 ? new int[]{id} : new int[0]);
+            }
+        }
+        return words.toArray(new int[0][]);
+    }
+
+    private static Fragment snippet(String text, Text positions, int wordCount, int length) {
+        long[] tokens = positions.tokens;
+        int[] matchedWord = positions.matchedWord;
+        // Find the window of matched tokens covering the most distinct query words
+        int bestFrom = -1;
+        int bestTo = -1;
+        int bestDistinct = 0;
+        int bestCount = 0;
+        for (int from = 0; from < tokens.length; from++) {
+            if (matchedWord[from] < 0) {
+                continue;
+            }
+            boolean[] seen = new boolean[wordCount];
+            int distinct = 0;
+            int count = 0;
+            int to = from;
+            for (int t = from; t < tokens.length && end(tokens[t]) - start(tokens[from]) <= length; t++) {
+                if (matchedWord[t] >= 0) {
+                    count++;
+                    to = t;
+                    if (!seen[matchedWord[t]]) {
+                        seen[matchedWord[t]] = true;
+                        distinct++;
+                    }
+                }
+            }
+            if (distinct > bestDistinct || (distinct == bestDistinct && count > bestCount)) {
+                bestFrom = from;
+                bestTo = to;
+                bestDistinct = distinct;
+                bestCount = count;
+            }
+        }
+
+        int start = 0;
+        int end = Math.min(text.length(), length);
+        if (bestFrom >= 0) {
+            int matchStart = start(tokens[bestFrom]);
+            int matchEnd = end(tokens[bestTo]);
+            // Centre the matches, shifting the window back where it would run past the end
+            start = Math.max(0, matchStart - (length - (matchEnd - matchStart)) / 2);
+            end = Math.min(text.length(), start + length);
+            start = Math.max(0, Math.min(start, end - length));
+        }
+        // Trim to whole words: start at a token start, end at a token end
+        if (start > 0) {
+            int first = firstTokenFrom(tokens, start);
+            start = first < tokens.length ? start(tokens[first]) : start;
+        }
+        if (end < text.length()) {
+            int last = lastTokenUntil(tokens, end);
+            end = last >= 0 && end(tokens[last]) > start ? end(tokens[last]) : end;
+        }
+
+        String prefix = start > 0 ? ELLIPSIS : "";
+        String suffix = end < text.length() ? ELLIPSIS : "";
+        int shift = prefix.length() - start;
+        int[] offsets = new int[tokens.length * 2];
+        int n = 0;
+        for (int t = firstTokenFrom(tokens, start); t < tokens.length && end(tokens[t]) <= end; t++) {
+            if (matchedWord[t] >= 0) {
+                offsets[n++] = start(tokens[t]) + shift;
+                offsets[n++] = end(tokens[t]) + shift;
+            }
+        }
+        return new Fragment(DESCRIPTION, prefix + text.substring(start, end) + suffix, Arrays.copyOf(offsets, n));
+    }
+
+    private static int[] matches(Text positions) {
+        long[] tokens = positions.tokens;
+        int[] matchedWord = positions.matchedWord;
+        int[] offsets = new int[tokens.length * 2];
+        int n = 0;
+        for (int t = 0; t < tokens.length; t++) {
+            if (matchedWord[t] >= 0) {
+                offsets[n++] = start(tokens[t]);
+                offsets[n++] = end(tokens[t]);
+            }
+        }
+        return Arrays.copyOf(offsets, n);
+    }
+
+    /**
+     * Returns the index of the first query term matching the term ID, or -1
+     */
+    private static int matchingWord(int termId, int[][] words) {
+        for (int w = 0; w < words.length; w++) {
+            if (Arrays.binarySearch(words[w], termId) >= 0) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstTokenFrom(long[] tokens, int offset) {
+        int t = 0;
+        while (t < tokens.length && start(tokens[t]) < offset) {
+            t++;
+        }
+        return t;
+    }
+
+    private static int lastTokenUntil(long[] tokens, int offset) {
+        int t = tokens.length - 1;
+        while (t >= 0 && end(tokens[t]) > offset) {
+            t--;
+        }
+        return t;
+    }
+
+    private static int start(long token) {
+        return (int) (token >>> 32);
+    }
+
+    private static int end(long token) {
+        return (int) token;
+    }
+
+    /**
+     * The packed offsets of one text's tokens with the query term each matched, or -1
+     */
+    private static final class Text {
+        private final long[] tokens;
+        private final int[] matchedWord;
+
+        Text(TermPositions.Reader reader, int[][] words) {
+            this.tokens = new long[reader.nextText()];
+            this.matchedWord = new int[tokens.length];
+            for (int t = 0; t < tokens.length; t++) {
+                tokens[t] = reader.nextToken();
+                matchedWord[t] = matchingWord(reader.termId(), words);
+            }
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Approximate nearest-neighbour index over unit vectors (Hierarchical Navigable Small World).
+ * <p>
+ * Every plant is a node in a stack of proximity graphs: level 0 links all nodes to up to
+ * {@code 2 * m} close neighbours, and each higher level keeps an exponentially thinning random
+ * subset with up to {@code m} links. A query descends greedily from the single entry point on the
+ * top level and runs a best-first beam search of width {@code ef} on level 0, so it visits a
+ * few hundred nodes instead of the whole catalog. Neighbours are chosen with the diversity
+ * heuristic of the original paper and topped up with the closest pruned candidates, which keeps
+ * near-duplicate descriptions from isolating each other. Back links may overshoot the limit by
+ * half before being pruned again, which saves most of the re-selection work during the build,
+ * and every link list is trimmed to its final size once the build is done.
+ * <p>
+ * Vectors are stored quantized to one signed byte per dimension, a quarter of the float size at
+ * a negligible cost in similarity precision. Candidate queues hold (distance, node) pairs packed
+ * into a single long: distances are non-negative floats, whose bit patterns sort like the
+ * values.
+ * <p>
+ * Instances are immutable and safe for concurrent queries. A {@link Builder} grows a graph: it
+ * starts empty or from an existing index via {@link #toBuilder}, copying a node's links before
+ * it first changes them, so the index it started from is never touched. Replacing or removing
+ * a plant leaves its old node in the graph as a tombstone that still routes searches but is
+ * never returned; callers rebuild once tombstones make up a sizeable part of the graph.
+ */
+public final class HnswIndex {
+
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 100;
+    public static final int DEFAULT_EF_SEARCH = 64;
+
+    private static final float QUANTIZATION_SCALE = 127.0f;
+    private static final long NODE_MASK = 0xFFFF_FFFFL;
+    private static final long SEED = 42;
+    private static final HnswIndex EMPTY = builder(1, DEFAULT_M, DEFAULT_EF_CONSTRUCTION).build();
+
+    private final int dimension;
+    private final int m;
+    private final int efConstruction;
+    private final long[] ids;                          // node -> plant id
+    private final byte[][] vectors;                    // node -> quantized unit vector
+    private final int[][][] links;                     // node -> level -> {count, neighbour...}
+    private final BitSet tombstones;                   // nodes of replaced or removed plants
+    private final PersistentMap<Long, Integer> nodes;  // plant id -> live node
+    private final int entryPoint;
+    private final int maxLevel;
+
+    private HnswIndex(Builder builder) {
+        int count = builder.count;
+        this.dimension = builder.dimension;
+        this.m = builder.m;
+        this.efConstruction = builder.efConstruction;
+        this.ids = Arrays.copyOf(builder.ids, count);
+        this.vectors = Arrays.copyOf(builder.vectors, count);
+        this.links = Arrays.copyOf(builder.links, count);
+        this.tombstones = builder.tombstones;
+        this.nodes = builder.nodes;
+        this.entryPoint = builder.entryPoint;
+        this.maxLevel = builder.maxLevel;
+    }
+
+    public static HnswIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Starts an empty graph
+     */
+    public static Builder builder(int dimension, int m, int efConstruction) {
+        return new Builder(dimension, m, efConstruction);
+    }
+
+    /**
+     * Builds the graph by inserting the unit vectors one by one, in order
+     */
+    public static HnswIndex build(long[] ids, float[][] vectors, int dimension, int m, int efConstruction) {
+        if (ids.length != vectors.length) {
+            throw new IllegalArgumentException("ids and vectors differ in length");
+        }
+        Builder builder = builder(dimension, m, efConstruction);
+        for (int i = 0; i < ids.length; i++) {
+            builder.add(ids[i], vectors[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Starts a builder holding this graph, to add, replace and remove plants on top of it
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Number of live plants
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Number of nodes left behind by replaced or removed plants
+     */
+    public int tombstoneCount() {
+        return tombstones.cardinality();
+    }
+
+    public boolean contains(long plantId) {
+        return nodes.containsKey(plantId);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns up to k plants closest to the unit query vector, most similar first, with their
+     * cosine similarity as the score and the number of visited nodes as the candidate count
+     */
+    public RankedHits search(float[] query, int k, int ef) {
+        if (nodes.isEmpty() || k <= 0) {
+            return RankedHits.EMPTY;
+        }
+        BitSet visited = new BitSet(ids.length);
+        int entry = entryPoint;
+        for (int level = maxLevel; level > 0; level--) {
+            entry = node(searchLayer(query, entry, 1, level, visited, vectors, links)[0]);
+            visited.clear();
+        }
+        long[] nearest = searchLayer(query, entry, Math.max(ef, k), 0, visited, vectors, links);
+        long[] hitIds = new long[Math.min(k, nearest.length)];
+        double[] similarities = new double[hitIds.length];
+        int count = 0;
+        for (int i = 0; i < nearest.length && count < hitIds.length; i++) {
+            if (!tombstones.get(node(nearest[i]))) {
+                hitIds[count] = ids[node(nearest[i])];
+                similarities[count] = 1.0 - distance(nearest[i]);
+                count++;
+            }
+        }
+        return new RankedHits(Arrays.copyOf(hitIds, count), new int[count], Arrays.copyOf(similarities, count),
+                visited.cardinality());
+    }
+
+    /**
+     * Approximate retained heap size of the vectors, ids and graph links in bytes
+     */
+    public long memoryBytes() {
+        final long header = 16;
+        final long reference = 4;
+        long bytes = header + 8L * ids.length + 2 * (header + reference * ids.length);
+        for (int node = 0; node < ids.length; node++) {
+            bytes += header + dimension;
+            bytes += header + reference * links[node].length;
+            for (int[] level : links[node]) {
+                bytes += header + 4L * level.length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Inserts plants into a graph it holds privately. Node arrays and link lists it inherited
+     * from an index are copied before their first change, and {@link #build} publishes the
+     * result as a new immutable index, after which the builder must not be used again.
+     */
+    public static final class Builder {
+
+        private final int dimension;
+        private final int m;
+        private final int efConstruction;
+        private final double levelMultiplier;
+        private final Random random;
+        private long[] ids;
+        private byte[][] vectors;
+        private int[][][] links;
+        private BitSet tombstones;
+        private PersistentMap<Long, Integer> nodes;
+        private final BitSet owned = new BitSet();  // nodes whose links this builder has copied
+        private int count;
+        private int entryPoint = -1;
+        private int maxLevel = -1;
+
+        private Builder(int dimension, int m, int efConstruction) {
+            this.dimension = dimension;
+            this.m = m;
+            this.efConstruction = efConstruction;
+            this.levelMultiplier = 1.0 / Math.log(m);
+            this.random = new Random(SEED);
+            this.ids = new long[16];
+            this.vectors = new byte[16][];
+            this.links = new int[16][][];
+            this.tombstones = new BitSet();
+            this.nodes = PersistentMap.empty();
+        }
+
+        private Builder(HnswIndex base) {
+            this.dimension = base.dimension;
+            this.m = base.m;
+            this.efConstruction = base.efConstruction;
+            this.levelMultiplier = 1.0 / Math.log(m);
+            // A seed of its own per generation, so levels stay independent across updates
+            this.random = new Random(SEED + base.ids.length);
+            this.count = base.ids.length;
+            int capacity = Math.max(16, count + count / 8);
+            this.ids = Arrays.copyOf(base.ids, capacity);
+            this.vectors = Arrays.copyOf(base.vectors, capacity);
+            this.links = Arrays.copyOf(base.links, capacity);
+            this.tombstones = (BitSet) base.tombstones.clone();
+            this.nodes = base.nodes;
+            this.entryPoint = base.entryPoint;
+            this.maxLevel = base.maxLevel;
+        }
+
+        /**
+         * Inserts the plant's unit vector, replacing the plant's previous vector if it has one
+         */
+        public Builder add(long plantId, float[] vector) {
+            remove(plantId);
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                vectors = Arrays.copyOf(vectors, capacity);
+                links = Arrays.copyOf(links, capacity);
+            }
+            int node = count++;
+            ids[node] = plantId;
+            insert(node, vector);
+            nodes = nodes.plus(plantId, node);
+            return this;
+        }
+
+        /**
+         * Leaves the plant's node in the graph as a tombstone, if it has one
+         */
+        public Builder remove(long plantId) {
+            Integer node = nodes.get(plantId);
+            if (node != null) {
+                tombstones.set(node);
+                nodes = nodes.minus(plantId);
+            }
+            return this;
+        }
+
+        /**
+         * Trims the link lists this builder changed to their final size and publishes the graph
+         */
+        public HnswIndex build() {
+            for (int node = owned.nextSetBit(0); node >= 0; node = owned.nextSetBit(node + 1)) {
+                int[][] levels = links[node];
+                for (int l = 0; l < levels.length; l++) {
+                    levels[l] = Arrays.copyOf(levels[l], 1 + levels[l][0]);
+                }
+            }
+            owned.clear();
+            return new HnswIndex(this);
+        }
+
+        private void insert(int node, float[] vector) {
+            vectors[node] = quantize(vector);
+            int level = (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            links[node] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[node][l] = new int[1 + capacity(l) + capacity(l) / 2];
+            }
+            owned.set(node);
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return;
+            }
+
+            BitSet visited = new BitSet(count);
+            int entry = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                entry = node(searchLayer(vector, entry, 1, l, visited, vectors, links)[0]);
+                visited.clear();
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                long[] candidates = searchLayer(vector, entry, efConstruction, l, visited, vectors, links);
+                visited.clear();
+                int[] selected = selectNeighbours(candidates, m, vectors);
+                int[] own = links[node][l];
+                own[0] = selected.length;
+                System.arraycopy(selected, 0, own, 1, selected.length);
+                for (int neighbour : selected) {
+                    connect(neighbour, node, l);
+                }
+                entry = node(candidates[0]);
+            }
+            if (level > maxLevel) {
+                entryPoint = node;
+                maxLevel = level;
+            }
+        }
+
+        /**
+         * Adds a back link from target to the new node, re-selecting target's neighbours down to
+         * the level capacity once the slack is used up
+         */
+        private void connect(int target, int added, int level) {
+            int[] neighbours = own(target)[level];
+            int count = neighbours[0];
+            if (count < neighbours.length - 1) {
+                neighbours[++neighbours[0]] = added;
+                return;
+            }
+            long[] candidates = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                candidates[i] = key(distance(vectors[target], vectors[neighbours[i + 1]]), neighbours[i + 1]);
+            }
+            candidates[count] = key(distance(vectors[target], vectors[added]), added);
+            Arrays.sort(candidates);
+            int[] selected = selectNeighbours(candidates, capacity(level), vectors);
+            neighbours[0] = selected.length;
+            System.arraycopy(selected, 0, neighbours, 1, selected.length);
+        }
+
+        /**
+         * The node's link lists, copied with room for back links the first time this builder
+         * changes them
+         */
+        private int[][] own(int node) {
+            if (!owned.get(node)) {
+                int[][] inherited = links[node];
+                int[][] copy = new int[inherited.length][];
+                for (int l = 0; l < inherited.length; l++) {
+                    copy[l] = Arrays.copyOf(inherited[l], Math.max(inherited[l].length, 1 + capacity(l) + capacity(l) / 2));
+                }
+                links[node] = copy;
+                owned.set(node);
+            }
+            return links[node];
+        }
+
+        private int capacity(int level) {
+            return level == 0 ? 2 * m : m;
+        }
+
+        private byte[] quantize(float[] vector) {
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+            }
+            byte[] quantized = new byte[dimension];
+            for (int i = 0; i < dimension; i++) {
+                quantized[i] = (byte) Math.round(Math.max(-1.0f, Math.min(1.0f, vector[i])) * QUANTIZATION_SCALE);
+            }
+            return quantized;
+        }
+    }
+
+    /**
+     * Keeps candidates that are closer to the base than to any neighbour kept so far, then fills
+     * up with the closest remaining ones. Candidates must be sorted by distance.
+     */
+    private static int[] selectNeighbours(long[] candidates, int max, byte[][] vectors) {
+        int[] selected = new int[Math.min(max, candidates.length)];
+        boolean[] taken = new boolean[candidates.length];
+        int count = 0;
+        for (int c = 0; c < candidates.length && count < selected.length; c++) {
+            int candidate = node(candidates[c]);
+            float toBase = distance(candidates[c]);
+            boolean diverse = true;
+            for (int s = 0; s < count && diverse; s++) {
+                diverse = distance(vectors[candidate], vectors[selected[s]]) >= toBase;
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+                taken[c] = true;
+            }
+        }
+        for (int c = 0; c < candidates.length && count < selected.length; c++) {
+            if (!taken[c]) {
+                selected[count++] = node(candidates[c]);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Best-first beam search on one level. Returns up to ef packed (distance, node) keys sorted
+     * closest first.
+     */
+    private static long[] searchLayer(float[] query, int entry, int ef, int level, BitSet visited,
+                                      byte[][] vectors, int[][][] links) {
+        LongHeap candidates = new LongHeap(ef * 2);
+        LongHeap results = new LongHeap(ef + 1);  // max-heap through inverted keys
+        long start = key(distance(query, vectors[entry]), entry);
+        visited.set(entry);
+        candidates.push(start);
+        results.push(~start);
+        while (candidates.size() > 0) {
+            long closest = candidates.pop();
+            if (closest > ~results.peek()) {
+                break;
+            }
+            int[] neighbours = links[node(closest)][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                long candidate = key(distance(query, vectors[neighbour]), neighbour);
+                if (results.size() < ef || candidate < ~results.peek()) {
+                    candidates.push(candidate);
+                    results.push(~candidate);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        long[] sorted = new long[results.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = ~results.pop();
+        }
+        return sorted;
+    }
+
+    private static float distance(float[] query, byte[] vector) {
+        float dot = 0.0f;
+        for (int i = 0; i < vector.length; i++) {
+            dot += query[i] * vector[i];
+        }
+        return 1.0f - dot / QUANTIZATION_SCALE;
+    }
+
+    private static float distance(byte[] a, byte[] b) {
+        int dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1.0f - dot / (QUANTIZATION_SCALE * QUANTIZATION_SCALE);
+    }
+
+    private static long key(float distance, int node) {
+        return ((long) Float.floatToIntBits(Math.max(0.0f, distance)) << 32) | node;
+    }
+
+    private static int node(long key) {
+        return (int) (key & NODE_MASK);
+    }
+
+    private static float distance(long key) {
+        return Float.intBitsToFloat((int) (key >>> 32));
+    }
+
+    /**
+     * Growable binary min-heap of longs
+     */
+    private static final class LongHeap {
+
+        private long[] heap;
+        private int size;
+
+        LongHeap(int capacity) {
+            heap = new long[Math.max(4, capacity)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+import lombok.Value;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of a {@link PlantSearchIndex}, so a restart can skip loading the catalog from
+ * the database and re-analyzing it.
+ * <p>
+ * The file starts with a fixed header: magic, format version, the {@link CatalogStamp} of the
+ * catalog the index was built from, the {@link Analyzer#fingerprint} of the analyzer it was
+ * built with, the payload length and the CRC32 of the payload. The
+ * payload holds the plant documents followed by the term dictionaries, posting lists, trigram
+ * postings, BM25 postings and term positions, all as length-prefixed big-endian arrays. Reading
+ * maps the file with {@link FileChannel#map} and bulk-copies each array out of the mapping, so
+ * loading costs about as much as copying the bytes, with no tokenizing or sorting.
+ * <p>
+ * {@link #FORMAT_VERSION} must be bumped whenever the layout changes. Stored terms are only valid
+ * for the analyzer that produced them, so a snapshot analyzed with another pipeline or other
+ * synonyms is treated like one of another catalog state. Snapshots are written to a
+ * temporary file and moved into place, so readers never see a partial file.
+ */
+public final class IndexSnapshot {
+
+    static final int MAGIC = 0x4D505349; // "MPSI"
+    static final int FORMAT_VERSION = 7;
+    static final int HEADER_BYTES = 64;
+
+    private static final PlantType[] PLANT_TYPES = PlantType.values();
+    private static final SafetyLevel[] SAFETY_LEVELS = SafetyLevel.values();
+    private static final LeafShape[] LEAF_SHAPES = LeafShape.values();
+    private static final FlowerColor[] FLOWER_COLORS = FlowerColor.values();
+    private static final PlantSize[] PLANT_SIZES = PlantSize.values();
+
+    private IndexSnapshot() {
+    }
+
+    /**
+     * Writes the index built from the catalog identified by the stamp, replacing any previous snapshot
+     */
+    public static void write(PlantSearchIndex index, CatalogStamp stamp, Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_BYTES);
+                CheckedOutputStream checked = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+                Output out = new Output(new DataOutputStream(new BufferedOutputStream(checked, 1 << 16)));
+                out.writeInt(index.size());
+                for (PlantDocument document : index.getDocuments()) {
+                    writeDocument(out, document);
+                }
+                index.writeTo(out);
+                out.data.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(FORMAT_VERSION)
+                        .putLong(stamp.getPlants())
+                        .putLong(stamp.getSymptomLinks())
+                        .putLong(stamp.getLastUpdated())
+                        .putLong(stamp.getRevision())
+                        .putLong(index.getAnalyzer().fingerprint())
+                        .putLong(channel.position() - HEADER_BYTES)
+                        .putLong(checked.getChecksum().getValue())
+                        .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads the snapshot at path if it was taken from the catalog identified by the stamp and
+     * analyzed by the given analyzer. Returns null when it belongs to another catalog state or
+     * analyzer, and throws IOException when the file is missing, truncated, corrupt or of
+     * another format version.
+     */
+    public static PlantSearchIndex read(Path path, CatalogStamp expected, Analyzer analyzer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a search index snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Snapshot format " + version + " but expected " + FORMAT_VERSION);
+            }
+            CatalogStamp stamp = new CatalogStamp(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            long fingerprint = buffer.getLong();
+            if (!stamp.equals(expected) || fingerprint != analyzer.fingerprint()) {
+                return null;
+            }
+            long payloadLength = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (payloadLength != size - HEADER_BYTES) {
+                throw new IOException("Snapshot is truncated");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if (crc.getValue() != checksum) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            Input in = new Input(buffer);
+            int count = in.readInt();
+            Map<Long, PlantDocument> documents = new HashMap<>(count * 2);
+            for (int d = 0; d < count; d++) {
+                PlantDocument document = readDocument(in);
+                documents.put(document.getId(), document);
+            }
+            return PlantSearchIndex.readFrom(in, documents, analyzer);
+        } catch (RuntimeException e) {
+            // Underflows or bad enum ordinals despite a valid checksum: written with another layout
+            throw new IOException("Unreadable snapshot: " + e, e);
+        }
+    }
+
+    private static void writeDocument(Output out, PlantDocument document) throws IOException {
+        out.writeLong(document.getId());
+        out.writeString(document.getName());
+        out.writeString(document.getScientificName());
+        out.writeString(document.getDescription());
+        out.writeStringList(document.getMedicinalUses());
+        out.writeStringList(document.getActiveCompounds());
+        out.writeStringList(document.getProperties());
+        out.writeInt(document.getSymptoms().size());
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            out.writeLong(symptom.getSymptomId());
+            out.writeString(symptom.getName());
+            out.writeString(symptom.getDescription());
+            out.writeDouble(symptom.getEffectivenessScore());
+        }
+        out.writeDouble(document.getRating());
+        out.writeInt(document.getReviewCount());
+        out.writeEnum(document.getPlantType());
+        out.writeEnum(document.getSafetyRating());
+        out.writeEnum(document.getLeafShape());
+        out.writeEnum(document.getFlowerColor());
+        out.writeEnum(document.getSize());
+    }
+
+    private static PlantDocument readDocument(Input in) {
+        PlantDocument.PlantDocumentBuilder document = PlantDocument.builder()
+                .id(in.readLong())
+                .name(in.readString())
+                .scientificName(in.readString())
+                .description(in.readString())
+                .medicinalUses(in.readStringList())
+                .activeCompounds(in.readStringList())
+                .properties(in.readStringList());
+        int symptomCount = in.readInt();
+        List<PlantDocument.SymptomLink> symptoms = new ArrayList<>(symptomCount);
+        for (int s = 0; s < symptomCount; s++) {
+            symptoms.add(new PlantDocument.SymptomLink(in.readLong(), in.readString(), in.readString(), in.readDouble()));
+        }
+        return document
+                .symptoms(symptoms)
+                .rating(in.readDouble())
+                .reviewCount(in.readInt())
+                .plantType(in.readEnum(PLANT_TYPES))
+                .safetyRating(in.readEnum(SAFETY_LEVELS))
+                .leafShape(in.readEnum(LEAF_SHAPES))
+                .flowerColor(in.readEnum(FLOWER_COLORS))
+                .size(in.readEnum(PLANT_SIZES))
+                .build();
+    }
+
+    /**
+     * Identifies the catalog state a snapshot was built from: plant and plant-symptom link counts,
+     * which catch deletions, the latest plant modification time in epoch milliseconds, and the
+     * {@link com.medicinal.plant.catalog.CatalogRevision}, which also moves with edits that change
+     * none of those, such as collection-only, symptom and link edits
+     */
+    @Value
+    public static class CatalogStamp {
+        long plants;
+        long symptomLinks;
+        long lastUpdated;
+        long revision;
+    }
+
+    /**
+     * Length-prefixed primitive arrays and strings over a data stream
+     */
+    static final class Output {
+
+        private final DataOutputStream data;
+
+        private Output(DataOutputStream data) {
+            this.data = data;
+        }
+
+        void writeInt(int value) throws IOException {
+            data.writeInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            data.writeLong(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            data.writeDouble(value);
+        }
+
+        void writeLongs(long[] values) throws IOException {
+            data.writeInt(values.length);
+            for (long value : values) {
+                data.writeLong(value);
+            }
+        }
+
+        void writeInts(int[] values) throws IOException {
+            data.writeInt(values.length);
+            for (int value : values) {
+                data.writeInt(value);
+            }
+        }
+
+        void writeBytes(byte[] values) throws IOException {
+            data.writeInt(values.length);
+            data.write(values);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                data.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+
+        void writeStrings(String[] values) throws IOException {
+            data.writeInt(values.length);
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        void writeStringList(List<String> values) throws IOException {
+            writeStrings(values == null ? new String[0] : values.toArray(new String[0]));
+        }
+
+        void writeEnum(Enum<?> value) throws IOException {
+            data.writeInt(value == null ? -1 : value.ordinal());
+        }
+    }
+
+    /**
+     * Reads what {@link Output} wrote, copying arrays in bulk out of the mapped buffer
+     */
+    static final class Input {
+
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        private Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int readInt() {
+            return buffer.getInt();
+        }
+
+        long readLong() {
+            return buffer.getLong();
+        }
+
+        double readDouble() {
+            return buffer.getDouble();
+        }
+
+        long[] readLongs() {
+            long[] values = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(values);
+            buffer.position(buffer.position() + values.length * Long.BYTES);
+            return values;
+        }
+
+        int[] readInts() {
+            int[] values = new int[buffer.getInt()];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + values.length * Integer.BYTES);
+            return values;
+        }
+
+        byte[] readBytes() {
+            byte[] values = new byte[buffer.getInt()];
+            buffer.get(values);
+            return values;
+        }
+
+        String readString() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        String[] readStrings() {
+            String[] values = new String[buffer.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+
+        List<String> readStringList() {
+            return Arrays.asList(readStrings());
+        }
+
+        <E extends Enum<E>> E readEnum(E[] constants) {
+            int ordinal = buffer.getInt();
+            return ordinal < 0 ? null : constants[ordinal];
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.medicinal.plant.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Plants matched by a set of keywords, ordered by how many keywords each plant matched
+ */
+@Getter
+@AllArgsConstructor
+public class KeywordHits {
+
+    public static final KeywordHits EMPTY = new KeywordHits(PostingLists.EMPTY, new int[0]);
+
+    private final long[] ids;
+    private final int[] matchCounts;
+
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,80 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.entity.PlantSymptom;
+import com.medicinal.plant.model.entity.Symptom;
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached, immutable copy of the searchable fields of a Plant.
+ * Built once per plant inside a transaction so the index never touches lazy collections.
+ */
+@Value
+@Builder
+public class PlantDocument {
+
+    long id;
+    String name;
+    String scientificName;
+    String description;
+    List<String> medicinalUses;
+    List<String> activeCompounds;
+    List<String> properties;
+    List<SymptomLink> symptoms;
+    double rating;
+    int reviewCount;
+    PlantType plantType;
+    SafetyLevel safetyRating;
+    LeafShape leafShape;
+    FlowerColor flowerColor;
+    PlantSize size;
+
+    /**
+     * A plant-symptom link together with the symptom text it points to
+     */
+    @Value
+    public static class SymptomLink {
+        long symptomId;
+        String name;
+        String description;
+        double effectivenessScore;
+    }
+
+    public static PlantDocument from(Plant plant) {
+        List<SymptomLink> links = new ArrayList<>(plant.getPlantSymptoms().size());
+        for (PlantSymptom plantSymptom : plant.getPlantSymptoms()) {
+            Symptom symptom = plantSymptom.getSymptom();
+            links.add(new SymptomLink(
+                    symptom.getId(),
+                    symptom.getName(),
+                    symptom.getDescription(),
+                    plantSymptom.getEffectivenessScore() != null ? plantSymptom.getEffectivenessScore() : 0.0));
+        }
+        return PlantDocument.builder()
+                .id(plant.getId())
+                .name(plant.getName())
+                .scientificName(plant.getScientificName())
+                .description(plant.getDescription())
+                .medicinalUses(List.copyOf(plant.getMedicinalUses()))
+                .activeCompounds(List.copyOf(plant.getActiveCompounds()))
+                .properties(List.copyOf(plant.getProperties()))
+                .symptoms(List.copyOf(links))
+                .rating(plant.getRating() != null ? plant.getRating() : 0.0)
+                .reviewCount(plant.getReviewCount() != null ? plant.getReviewCount() : 0)
+                .plantType(plant.getPlantType())
+                .safetyRating(plant.getSafetyRating())
+                .leafShape(plant.getLeafShape())
+                .flowerColor(plant.getFlowerColor())
+                .size(plant.getSize())
+                .build();
+    }
+}
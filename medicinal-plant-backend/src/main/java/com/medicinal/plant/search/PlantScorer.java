@@ -0,0 +1,266 @@
+package com.medicinal.plant.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks search candidates by how well and how effectively they cover the query.
+ * <p>
+ * Every matched keyword contributes the weight of the strongest field it was found in:
+ * plant name or scientific name, then medicinal use, then a linked symptom's name and finally
+ * its description. Matches on symptom text and symptom IDs are scaled by the effectiveness
+ * score of that plant-symptom link. The plant rating adds a small bonus on top, so it only
+ * decides between plants that match the query about equally well.
+ */
+public final class PlantScorer {
+
+    static final double NAME_WEIGHT = 3.0;
+    static final double MEDICINAL_USE_WEIGHT = 2.0;
+    static final double SYMPTOM_WEIGHT = 2.0;
+    static final double DESCRIPTION_WEIGHT = 1.0;
+    static final double RATING_WEIGHT = 0.5;
+    static final double MAX_RATING = 5.0;
+
+    private PlantScorer() {
+    }
+
+    /**
+     * Scores every plant that matched at least one keyword or symptom and keeps the best {@code limit}
+     */
+    public static RankedHits topK(PlantSearchIndex index, Collection<String> keywords,
+                                  Collection<Long> symptomIds, int limit) {
+        KeywordHits candidates = index.searchEach(keywords, symptomIds);
+        if (candidates.size() == 0) {
+            return RankedHits.EMPTY;
+        }
+        List<int[][]> keywordTerms = new ArrayList<>();
+        for (String keyword : new LinkedHashSet<>(keywords)) {
+            int[][] matching = matchingTerms(index, keyword);
+            if (matching.length > 0) {
+                keywordTerms.add(matching);
+            }
+        }
+        Set<Long> symptoms = new LinkedHashSet<>(symptomIds);
+
+        // Candidates arrive ordered by match count, then id, which is also the tie-break we want
+        double[] scores = new double[candidates.size()];
+        TopK best = new TopK(limit);
+        for (int c = 0; c < candidates.size(); c++) {
+            long id = candidates.getIds()[c];
+            PlantDocument document = index.getDocument(id);
+            byte[] positions = index.getPositions().positionsOf(id);
+            scores[c] = document == null || positions == null
+                    ? 0.0 : score(document, positions, keywordTerms, symptoms);
+            best.offer(c, scores[c]);
+        }
+
+        int[] ordinals = best.drainOrdinals();
+        long[] ids = new long[ordinals.length];
+        int[] matchCounts = new int[ordinals.length];
+        double[] topScores = new double[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ids[i] = candidates.getIds()[ordinals[i]];
+            matchCounts[i] = candidates.getMatchCounts()[ordinals[i]];
+            topScores[i] = scores[ordinals[i]];
+        }
+        return new RankedHits(ids, matchCounts, topScores, candidates.size());
+    }
+
+    /**
+     * Breaks one plant's score down into the weight of each keyword with the field it was found
+     * in, each requested symptom the plant treats and the rating bonus. The contributions add up
+     * to the score {@link #topK} ranks the plant by.
+     */
+    public static Map<String, Double> explain(PlantSearchIndex index, Collection<String> keywords,
+                                              Collection<Long> symptomIds, long plantId) {
+        Map<String, Double> contributions = new LinkedHashMap<>();
+        PlantDocument document = index.getDocument(plantId);
+        byte[] positions = index.getPositions().positionsOf(plantId);
+        if (document == null || positions == null) {
+            return contributions;
+        }
+        DocumentFields fields = new DocumentFields(document, positions);
+        for (String keyword : new LinkedHashSet<>(keywords)) {
+            int[][] matching = matchingTerms(index, keyword);
+            if (matching.length == 0) {
+                continue;
+            }
+            // The weakest term decides the phrase, as in score
+            int weakest = 0;
+            double phrase = Double.MAX_VALUE;
+            for (int t = 0; t < matching.length; t++) {
+                double weight = fields.bestWeight(matching[t]);
+                if (weight < phrase) {
+                    phrase = weight;
+                    weakest = t;
+                }
+            }
+            if (phrase > 0.0) {
+                contributions.put(keyword + " (" + fields.bestField(matching[weakest]) + ")", phrase);
+            }
+        }
+        Set<Long> symptoms = new LinkedHashSet<>(symptomIds);
+        for (PlantDocument.SymptomLink link : document.getSymptoms()) {
+            if (symptoms.contains(link.getSymptomId())) {
+                contributions.merge("symptom " + link.getName(), SYMPTOM_WEIGHT * link.getEffectivenessScore(), Double::sum);
+            }
+        }
+        double rating = RATING_WEIGHT * Math.min(document.getRating(), MAX_RATING) / MAX_RATING;
+        if (rating > 0.0) {
+            contributions.put("rating", rating);
+        }
+        return contributions;
+    }
+
+    /**
+     * Per analyzed term of the keyword, the sorted IDs of the indexed terms it matches
+     */
+    private static int[][] matchingTerms(PlantSearchIndex index, String keyword) {
+        TermDictionary dictionary = index.getPositions().getDictionary();
+        List<String> terms = index.getAnalyzer().terms(keyword);
+        int[][] matching = new int[terms.size()][];
+        for (int t = 0; t < terms.size(); t++) {
+            String term = terms.get(t);
+            matching[t] = term.length() >= TrigramIndex.GRAM
+                    ? dictionary.idsContaining(term) : dictionary.idsWithPrefix(term);
+        }
+        return matching;
+    }
+
+    static double score(PlantDocument document, byte[] positions, List<int[][]> keywordTerms, Set<Long> symptomIds) {
+        DocumentFields fields = new DocumentFields(document, positions);
+        double score = 0.0;
+        for (int[][] terms : keywordTerms) {
+            // A phrase is only as strong as its weakest term's best field
+            double phrase = Double.MAX_VALUE;
+            for (int[] matching : terms) {
+                phrase = Math.min(phrase, fields.bestWeight(matching));
+            }
+            score += phrase;
+        }
+        for (PlantDocument.SymptomLink link : document.getSymptoms()) {
+            if (symptomIds.contains(link.getSymptomId())) {
+                score += SYMPTOM_WEIGHT * link.getEffectivenessScore();
+            }
+        }
+        return score + RATING_WEIGHT * Math.min(document.getRating(), MAX_RATING) / MAX_RATING;
+    }
+
+    /**
+     * Term IDs of a single document's fields, decoded once per scoring call from its
+     * {@link TermPositions}
+     */
+    private static final class DocumentFields {
+        private final int[] name;
+        private final int[] medicinalUses;
+        private final int[][] symptomNames;
+        private final int[][] symptomDescriptions;
+        private final List<PlantDocument.SymptomLink> links;
+
+        DocumentFields(PlantDocument document, byte[] positions) {
+            // Texts were encoded as description, uses, name, scientific name, then symptom name and description
+            TermPositions.Reader reader = new TermPositions.Reader(positions);
+            reader.nextText();
+            reader.skipText();
+            int useCount = document.getMedicinalUses().size();
+            int[][] uses = new int[useCount][];
+            for (int u = 0; u < useCount; u++) {
+                uses[u] = termIds(reader);
+            }
+            this.medicinalUses = concat(uses);
+            this.name = concat(new int[][]{termIds(reader), termIds(reader)});
+            this.links = document.getSymptoms();
+            this.symptomNames = new int[links.size()][];
+            this.symptomDescriptions = new int[links.size()][];
+            for (int i = 0; i < links.size(); i++) {
+                symptomNames[i] = termIds(reader);
+                symptomDescriptions[i] = termIds(reader);
+            }
+        }
+
+        double bestWeight(int[] matching) {
+            if (matchesAny(name, matching)) {
+                return NAME_WEIGHT;
+            }
+            if (matchesAny(medicinalUses, matching)) {
+                return MEDICINAL_USE_WEIGHT;
+            }
+            double best = 0.0;
+            for (int i = 0; i < links.size(); i++) {
+                double effectiveness = links.get(i).getEffectivenessScore();
+                if (matchesAny(symptomNames[i], matching)) {
+                    best = Math.max(best, SYMPTOM_WEIGHT * effectiveness);
+                } else if (matchesAny(symptomDescriptions[i], matching)) {
+                    best = Math.max(best, DESCRIPTION_WEIGHT * effectiveness);
+                }
+            }
+            return best;
+        }
+
+        /**
+         * The field {@link #bestWeight} takes its weight from
+         */
+        String bestField(int[] matching) {
+            if (matchesAny(name, matching)) {
+                return "name";
+            }
+            if (matchesAny(medicinalUses, matching)) {
+                return "medicinal use";
+            }
+            double best = 0.0;
+            String field = null;
+            for (int i = 0; i < links.size(); i++) {
+                double effectiveness = links.get(i).getEffectivenessScore();
+                if (matchesAny(symptomNames[i], matching) && SYMPTOM_WEIGHT * effectiveness > best) {
+                    best = SYMPTOM_WEIGHT * effectiveness;
+                    field = "symptom " + links.get(i).getName();
+                } else if (matchesAny(symptomDescriptions[i], matching) && DESCRIPTION_WEIGHT * effectiveness > best) {
+                    best = DESCRIPTION_WEIGHT * effectiveness;
+                    field = "description of symptom " + links.get(i).getName();
+                }
+            }
+            return field;
+        }
+
+        private static int[] termIds(TermPositions.Reader reader) {
+            int[] ids = new int[reader.nextText()];
+            for (int t = 0; t < ids.length; t++) {
+                reader.nextToken();
+                ids[t] = reader.termId();
+            }
+            return ids;
+        }
+
+        private static int[] concat(int[][] parts) {
+            int length = 0;
+            for (int[] part : parts) {
+                length += part.length;
+            }
+            int[] all = new int[length];
+            int n = 0;
+            for (int[] part : parts) {
+                System.arraycopy(part, 0, all, n, part.length);
+                n += part.length;
+            }
+            return all;
+        }
+
+        // The IDs of terms the query term prefixes or, once it has a trigram, contains. This is
+        // looser than the index on symptom descriptions, which it only searches by prefix, so an
+        // infix there can add weight to a candidate but never make one.
+        private static boolean matchesAny(int[] termIds, int[] matching) {
+            for (int termId : termIds) {
+                if (Arrays.binarySearch(matching, termId) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,527 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Immutable inverted index from terms to sorted posting lists of plant IDs.
+ * <p>
+ * Terms come from the plant name, scientific name, medicinal uses and the name and
+ * description of every linked symptom. Query tokens match any indexed term they are a
+ * prefix of, and all query tokens must match, which mirrors the old LIKE search closely
+ * enough while letting every lookup be served by the prefix lists of a {@link TermDictionary}.
+ * Tokens of at least three characters also match infixes of plant names, scientific names,
+ * medicinal uses and symptom names through the {@link TrigramIndex}. Relevance-ranked search
+ * over the same plants is served by the {@link Bm25Index} built alongside, and boolean
+ * queries ({@link QueryNode}) by per-field posting lists keyed "field:word" for text fields
+ * and "field=CONSTANT" for enum fields. The {@link TermPositions} of every text are kept for
+ * highlighting and scoring matches.
+ * <p>
+ * All text, indexed and queried, goes through the index's {@link Analyzer}, so terms are the
+ * analyzed forms (stems, canonical synonyms) and prefixes apply to those. Only infix matches
+ * work on the original words, as trigrams of the stored text.
+ */
+public final class PlantSearchIndex {
+
+    private static final PlantSearchIndex EMPTY = emptyIndex(Analyzer.standard());
+
+    private final Analyzer analyzer;
+    private final PersistentMap<Long, PlantDocument> documents;
+    private final PostingDictionary terms;
+    private final PersistentMap<Long, SymptomPosting> symptomPostings;
+    // Sorted IDs of every plant, derived from the documents on first use so that updates never copy them
+    private volatile long[] allIds;
+    private final FacetIndex facets;
+    private final TrigramIndex trigrams;
+    private final Bm25Index bm25;
+    private final PostingDictionary fieldTerms;
+    private final TermPositions positions;
+
+    private PlantSearchIndex(Analyzer analyzer, PersistentMap<Long, PlantDocument> documents,
+                             PostingDictionary terms, PostingDictionary fieldTerms,
+                             PersistentMap<Long, SymptomPosting> symptomPostings, FacetIndex facets,
+                             TrigramIndex trigrams, Bm25Index bm25, TermPositions positions) {
+        this.analyzer = analyzer;
+        this.documents = documents;
+        this.terms = terms;
+        this.fieldTerms = fieldTerms;
+        this.symptomPostings = symptomPostings;
+        this.facets = facets;
+        this.trigrams = trigrams;
+        this.bm25 = bm25;
+        this.positions = positions;
+    }
+
+    private static PlantSearchIndex emptyIndex(Analyzer analyzer) {
+        return new PlantSearchIndex(analyzer, PersistentMap.empty(), PostingDictionary.EMPTY,
+                PostingDictionary.EMPTY, PersistentMap.empty(), FacetIndex.EMPTY, TrigramIndex.empty(),
+                Bm25Index.build(new PlantDocument[0], analyzer), TermPositions.empty());
+    }
+
+    public static PlantSearchIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds an index analyzing text with the {@link Analyzer#standard() standard} analyzer
+     */
+    public static PlantSearchIndex build(Collection<PlantDocument> documents) {
+        return build(documents, Analyzer.standard());
+    }
+
+    public static PlantSearchIndex build(Collection<PlantDocument> documents, Analyzer analyzer) {
+        Map<Long, PlantDocument> byId = new HashMap<>(documents.size() * 2);
+        for (PlantDocument document : documents) {
+            byId.put(document.getId(), document);
+        }
+        List<PlantDocument> sorted = new ArrayList<>(byId.values());
+        sorted.sort(Comparator.comparingLong(PlantDocument::getId));
+        return emptyIndex(analyzer).update(byId, List.of(), Map.of(), TrigramIndex.build(byId.values()),
+                Bm25Index.build(sorted.toArray(new PlantDocument[0]), analyzer), TermPositions.build(sorted, analyzer));
+    }
+
+    /**
+     * Writes the term dictionaries with their posting lists, the trigram postings, the BM25
+     * arrays and the term positions; the documents are written separately by {@link IndexSnapshot}
+     */
+    void writeTo(IndexSnapshot.Output out) throws IOException {
+        terms.writeTo(out);
+        fieldTerms.writeTo(out);
+        trigrams.writeTo(out);
+        bm25.writeTo(out);
+        positions.writeTo(out);
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo}, whose text must have been analyzed by the given
+     * analyzer. The facets and symptom postings need no tokenizing and are derived from the documents.
+     */
+    static PlantSearchIndex readFrom(IndexSnapshot.Input in, Map<Long, PlantDocument> documents, Analyzer analyzer) {
+        PostingDictionary terms = PostingDictionary.readFrom(in);
+        PostingDictionary fieldTerms = PostingDictionary.readFrom(in);
+        TrigramIndex trigrams = TrigramIndex.readFrom(in, documents.values());
+        Bm25Index bm25 = Bm25Index.readFrom(in, analyzer);
+        TermPositions positions = TermPositions.readFrom(in);
+        return new PlantSearchIndex(analyzer, PersistentMap.copyOf(documents), terms, fieldTerms,
+                symptomPostingsOf(documents.values()), FacetIndex.EMPTY.apply(Map.of(), documents), trigrams, bm25, positions);
+    }
+
+    private static PersistentMap<Long, SymptomPosting> symptomPostingsOf(Collection<PlantDocument> documents) {
+        Map<Long, TreeMap<Long, Double>> links = new HashMap<>();
+        for (PlantDocument document : documents) {
+            for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+                links.computeIfAbsent(symptom.getSymptomId(), s -> new TreeMap<>())
+                        .merge(document.getId(), symptom.getEffectivenessScore(), Math::max);
+            }
+        }
+        PersistentMap<Long, SymptomPosting> postings = PersistentMap.empty();
+        for (Map.Entry<Long, TreeMap<Long, Double>> symptom : links.entrySet()) {
+            postings = postings.plus(symptom.getKey(), SymptomPosting.EMPTY.replace(Set.of(), symptom.getValue()));
+        }
+        return postings;
+    }
+
+    /**
+     * Returns a new index with the given plant added or replaced
+     */
+    public PlantSearchIndex with(PlantDocument document) {
+        return apply(Map.of(document.getId(), document), Set.of());
+    }
+
+    /**
+     * Returns a new index without the given plant
+     */
+    public PlantSearchIndex without(long plantId) {
+        if (!documents.containsKey(plantId)) {
+            return this;
+        }
+        return apply(Map.of(), Set.of(plantId));
+    }
+
+    /**
+     * Returns a new index with a batch of plants added or replaced and others removed.
+     * <p>
+     * Every structure is keyed by plant id and kept in persistent maps, so only what the changed
+     * plants touch is rewritten: the posting lists, facet lists and symptom postings they joined
+     * or left, and their BM25 postings, trigrams and term positions. Everything else is shared
+     * with this index, and only the changed plants are tokenized, so the cost follows the size of
+     * the batch and not of the catalog.
+     */
+    public PlantSearchIndex apply(Map<Long, PlantDocument> upserts, Collection<Long> removals) {
+        Map<Long, PlantDocument> previous = new HashMap<>();
+        TrigramIndex nextTrigrams = trigrams;
+        for (long plantId : removals) {
+            PlantDocument document = documents.get(plantId);
+            if (document != null && !upserts.containsKey(plantId)) {
+                previous.put(plantId, document);
+                nextTrigrams = nextTrigrams.without(plantId);
+            }
+        }
+        for (PlantDocument document : upserts.values()) {
+            PlantDocument replaced = documents.get(document.getId());
+            if (replaced != null) {
+                previous.put(document.getId(), replaced);
+            }
+            nextTrigrams = nextTrigrams.with(document);
+        }
+        if (previous.isEmpty() && upserts.isEmpty()) {
+            return this;
+        }
+        List<Long> removed = new ArrayList<>(previous.keySet());
+        removed.removeAll(upserts.keySet());
+        return update(upserts, removed, previous, nextTrigrams, bm25.apply(previous.values(), upserts.values()),
+                positions.apply(upserts.values(), removed, analyzer));
+    }
+
+    /**
+     * Applies the changed plants to the documents, posting lists, facets and symptom postings,
+     * and assembles them with the trigrams, BM25 index and positions already updated for them
+     */
+    private PlantSearchIndex update(Map<Long, PlantDocument> upserts, Collection<Long> removals,
+                                    Map<Long, PlantDocument> previous, TrigramIndex nextTrigrams, Bm25Index nextBm25,
+                                    TermPositions nextPositions) {
+        PersistentMap<Long, PlantDocument> next = documents;
+        Map<String, PostingEdit> termEdits = new HashMap<>();
+        Map<String, PostingEdit> fieldEdits = new HashMap<>();
+        Map<Long, Set<Long>> symptomChanges = new HashMap<>();
+        Map<Long, TreeMap<Long, Double>> symptomLinks = new HashMap<>();
+        Set<Long> changed = new HashSet<>(removals);
+        changed.addAll(upserts.keySet());
+        for (Long plantId : changed) {
+            PlantDocument before = previous.get(plantId);
+            PlantDocument after = upserts.get(plantId);
+            next = after == null ? next.minus(plantId) : next.plus(plantId, after);
+            PostingEdit.diff(termEdits, plantId, termsOf(before), termsOf(after));
+            PostingEdit.diff(fieldEdits, plantId, fieldTermsOf(before), fieldTermsOf(after));
+            // Every symptom the plant was or is linked to takes its current links, so scores are refreshed too
+            for (PlantDocument document : new PlantDocument[]{before, after}) {
+                for (PlantDocument.SymptomLink symptom : document == null ? List.<PlantDocument.SymptomLink>of() : document.getSymptoms()) {
+                    symptomChanges.computeIfAbsent(symptom.getSymptomId(), s -> new HashSet<>()).add(plantId);
+                    if (document == after) {
+                        symptomLinks.computeIfAbsent(symptom.getSymptomId(), s -> new TreeMap<>())
+                                .merge(plantId, symptom.getEffectivenessScore(), Math::max);
+                    }
+                }
+            }
+        }
+
+        PersistentMap<Long, SymptomPosting> nextSymptoms = symptomPostings;
+        for (Map.Entry<Long, Set<Long>> change : symptomChanges.entrySet()) {
+            SymptomPosting posting = symptomPostings.getOrDefault(change.getKey(), SymptomPosting.EMPTY)
+                    .replace(change.getValue(), symptomLinks.getOrDefault(change.getKey(), new TreeMap<>()));
+            nextSymptoms = posting.size() == 0 ? nextSymptoms.minus(change.getKey()) : nextSymptoms.plus(change.getKey(), posting);
+        }
+
+        return new PlantSearchIndex(analyzer, next, terms.apply(termEdits), fieldTerms.apply(fieldEdits),
+                nextSymptoms, facets.apply(previous, upserts), nextTrigrams, nextBm25, nextPositions);
+    }
+
+    /**
+     * Returns the sorted IDs of plants matching every term of the query. A query without words
+     * matches every plant, one of stopwords only none.
+     */
+    public long[] search(String query) {
+        List<Analyzer.Token> tokens = analyzer.analyze(query);
+        if (tokens.isEmpty()) {
+            return TextAnalyzer.offsets(query).length == 0 ? allIds().clone() : PostingLists.EMPTY;
+        }
+        long[] result = null;
+        Set<String> seen = new HashSet<>();
+        for (Analyzer.Token token : tokens) {
+            if (!seen.add(token.getTerm())) {
+                continue;
+            }
+            long[] matches = tokenPostings(token.getTerm(), query.substring(token.getStart(), token.getEnd()));
+            result = result == null ? matches : PostingLists.intersect(result, matches);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sorted IDs of plants matching the boolean query
+     */
+    public long[] query(QueryNode query) {
+        long[] result = query.evaluate(this);
+        return result == allIds ? result.clone() : result;
+    }
+
+    /**
+     * Plants matching one query term. Words match by prefix, like free-text search; every
+     * word of a phrase must match and, within a field, the words must also be adjacent.
+     */
+    long[] termPostings(QueryField field, String value, boolean phrase) {
+        if (field != null && field.isEnum()) {
+            return fieldTerms.get(field.getKey() + "=" + value);
+        }
+        List<Analyzer.Token> analyzed = analyzer.analyze(value);
+        if (analyzed.isEmpty()) {
+            return PostingLists.EMPTY;
+        }
+        List<String> tokens = new ArrayList<>(analyzed.size());
+        long[] result = null;
+        for (Analyzer.Token token : analyzed) {
+            tokens.add(token.getTerm());
+            long[] matches = field == null
+                    ? tokenPostings(token.getTerm(), value.substring(token.getStart(), token.getEnd()))
+                    : fieldTerms.withPrefix(field.getKey() + ":" + token.getTerm());
+            result = result == null ? matches : PostingLists.intersect(result, matches);
+            if (result.length == 0) {
+                return result;
+            }
+        }
+        if (!phrase || tokens.size() == 1) {
+            return result;
+        }
+        PostingBuilder verified = new PostingBuilder();
+        for (long id : result) {
+            if (containsPhrase(documents.get(id), field, tokens)) {
+                verified.add(id);
+            }
+        }
+        return verified.toArray();
+    }
+
+    /**
+     * Sorted IDs of every plant, shared with the caller and not to be modified
+     */
+    long[] allIds() {
+        long[] ids = allIds;
+        if (ids == null) {
+            // Racing callers compute equal arrays, so whichever is published last is as good
+            long[] collected = new long[documents.size()];
+            int[] n = new int[1];
+            documents.forEach((id, document) -> collected[n[0]++] = id);
+            Arrays.sort(collected);
+            allIds = collected;
+            ids = collected;
+        }
+        return ids;
+    }
+
+    /**
+     * Evaluates every keyword against the index in one pass and counts, per plant,
+     * how many of the keywords it matched. Plants with the widest coverage come first.
+     */
+    public KeywordHits searchEach(Collection<String> keywords) {
+        return searchEach(keywords, List.of());
+    }
+
+    /**
+     * Like {@link #searchEach(Collection)}, with symptom IDs counting as keywords that
+     * match exactly the plants linked to that symptom
+     */
+    public KeywordHits searchEach(Collection<String> keywords, Collection<Long> symptomIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (String keyword : new LinkedHashSet<>(keywords)) {
+            if (analyzer.analyze(keyword).isEmpty()) {
+                continue;
+            }
+            for (long id : search(keyword)) {
+                counts.merge(id, 1, Integer::sum);
+            }
+        }
+        for (Long symptomId : new LinkedHashSet<>(symptomIds)) {
+            for (long id : plantsForSymptom(symptomId)) {
+                counts.merge(id, 1, Integer::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return KeywordHits.EMPTY;
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(counts.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        long[] ids = new long[ranked.size()];
+        int[] matchCounts = new int[ranked.size()];
+        for (int i = 0; i < ranked.size(); i++) {
+            ids[i] = ranked.get(i).getKey();
+            matchCounts[i] = ranked.get(i).getValue();
+        }
+        return new KeywordHits(ids, matchCounts);
+    }
+
+    /**
+     * Returns the sorted IDs of plants linked to the symptom
+     */
+    public long[] plantsForSymptom(long symptomId) {
+        return symptomPostings.getOrDefault(symptomId, SymptomPosting.EMPTY).getIds();
+    }
+
+    /**
+     * Plants linked to any of the symptoms, with the effectiveness of their best link
+     */
+    SymptomPosting symptomPosting(Collection<Long> symptomIds) {
+        List<SymptomPosting> postings = new ArrayList<>(symptomIds.size());
+        for (Long symptomId : symptomIds) {
+            postings.add(symptomPostings.getOrDefault(symptomId, SymptomPosting.EMPTY));
+        }
+        return SymptomPosting.union(postings);
+    }
+
+    /**
+     * Plants with a medicinal use containing the words of the keyword, adjacent and by prefix
+     * like a "use:" phrase query, as a posting whose links carry no effectiveness
+     */
+    SymptomPosting usePosting(String keyword) {
+        long[] ids = termPostings(QueryField.USE, keyword, true);
+        return ids.length == 0 ? SymptomPosting.EMPTY : new SymptomPosting(ids, new double[ids.length]);
+    }
+
+    /**
+     * Returns the sorted IDs of the plants matching the facet selection, see {@link FacetIndex#select}
+     */
+    public long[] selectFacets(Map<FacetIndex.Facet, Set<Enum<?>>> selection) {
+        return facets.select(selection);
+    }
+
+    /**
+     * Counts the plants per facet value under the selection, see {@link FacetIndex#counts}
+     */
+    public Map<String, Map<String, Integer>> countFacets(Map<FacetIndex.Facet, Set<Enum<?>>> selection) {
+        return facets.counts(selection);
+    }
+
+    public Collection<PlantDocument> getDocuments() {
+        return documents.values();
+    }
+
+    public PlantDocument getDocument(long plantId) {
+        return documents.get(plantId);
+    }
+
+    /**
+     * Reports every plant added, changed or removed since the given earlier index, with its
+     * document there and here (null when absent). Parts of the catalog both indexes share are
+     * skipped, so the cost follows the number of changes rather than the size of the catalog.
+     */
+    public void diffSince(PlantSearchIndex earlier, PersistentMap.DiffListener<Long, PlantDocument> listener) {
+        earlier.documents.diff(documents, listener);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Visits every indexed term, in analyzed form, with the number of plants containing it
+     */
+    public void forEachTerm(ObjIntConsumer<String> consumer) {
+        terms.forEach(consumer);
+    }
+
+    public TrigramIndex getTrigrams() {
+        return trigrams;
+    }
+
+    public TermPositions getPositions() {
+        return positions;
+    }
+
+    public Bm25Index getBm25() {
+        return bm25;
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Plants with a term starting with the analyzed term or, for longer words, a field containing
+     * the text the term was analyzed from
+     */
+    private long[] tokenPostings(String term, String text) {
+        long[] matches = terms.withPrefix(term);
+        if (text.length() < TrigramIndex.GRAM) {
+            return matches;
+        }
+        long[] infix = trigrams.search(text);
+        return matches.length == 0 ? infix : PostingLists.union(matches, infix);
+    }
+
+    /**
+     * Whether some text of the field (or of any text field) has the words in sequence, the last
+     * one possibly unfinished
+     */
+    private boolean containsPhrase(PlantDocument document, QueryField field, List<String> phrase) {
+        for (QueryField candidate : field != null ? new QueryField[]{field} : QueryField.values()) {
+            if (candidate.isEnum()) {
+                continue;
+            }
+            for (String text : candidate.textsOf(document)) {
+                List<String> words = analyzer.terms(text);
+                for (int start = 0; start + phrase.size() <= words.size(); start++) {
+                    int matched = 0;
+                    while (matched < phrase.size() - 1 && words.get(start + matched).equals(phrase.get(matched))) {
+                        matched++;
+                    }
+                    if (matched == phrase.size() - 1 && words.get(start + matched).startsWith(phrase.get(matched))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The per-field terms of the plant, none for an absent plant
+     */
+    private Set<String> fieldTermsOf(PlantDocument document) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (document == null) {
+            return terms;
+        }
+        for (QueryField field : QueryField.values()) {
+            if (field.isEnum()) {
+                Enum<?> value = field.valueOf(document);
+                if (value != null) {
+                    terms.add(field.getKey() + "=" + value.name());
+                }
+                continue;
+            }
+            for (String text : field.textsOf(document)) {
+                for (String term : analyzer.terms(text)) {
+                    terms.add(field.getKey() + ":" + term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private Set<String> termsOf(PlantDocument document) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (document == null) {
+            return terms;
+        }
+        terms.addAll(analyzer.terms(document.getName()));
+        terms.addAll(analyzer.terms(document.getScientificName()));
+        for (String use : document.getMedicinalUses()) {
+            terms.addAll(analyzer.terms(use));
+        }
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            terms.addAll(analyzer.terms(symptom.getName()));
+            terms.addAll(analyzer.terms(symptom.getDescription()));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,27 @@
+package com.medicinal.plant.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of plant IDs, appended in ascending order while an index is built
+ */
+final class PostingBuilder {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    void add(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    long last() {
+        return size == 0 ? -1L : ids[size - 1];
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
@@ -0,0 +1,122 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Sorted plant ID lists per term, with the terms interned in a {@link TermDictionary} so they
+ * can be looked up exactly or by prefix.
+ * <p>
+ * Each term counts the plants on its list, so a term drops out of the dictionary with its last
+ * plant. Instances are immutable and an update rewrites only the lists of the terms it edits.
+ */
+final class PostingDictionary {
+
+    static final PostingDictionary EMPTY = new PostingDictionary(TermDictionary.empty(), PersistentMap.empty());
+
+    private final TermDictionary dictionary;
+    private final PersistentMap<Integer, long[]> postings;  // term id -> sorted plant ids
+
+    private PostingDictionary(TermDictionary dictionary, PersistentMap<Integer, long[]> postings) {
+        this.dictionary = dictionary;
+        this.postings = postings;
+    }
+
+    /**
+     * Returns the dictionary with every edit applied
+     */
+    PostingDictionary apply(Map<String, PostingEdit> edits) {
+        if (edits.isEmpty()) {
+            return this;
+        }
+        TermDictionary.Builder terms = dictionary.toBuilder();
+        Map<Integer, PostingEdit> byId = new HashMap<>(edits.size() * 2);
+        // Count the gains before the losses, so a term some plant still uses keeps its ID
+        for (Map.Entry<String, PostingEdit> edit : edits.entrySet()) {
+            int termId = terms.intern(edit.getKey());
+            for (int i = 0; i < edit.getValue().getAdded().size(); i++) {
+                terms.acquire(termId);
+            }
+            byId.put(termId, edit.getValue());
+        }
+        for (Map.Entry<Integer, PostingEdit> edit : byId.entrySet()) {
+            for (int i = 0; i < edit.getValue().getRemoved().size(); i++) {
+                terms.release(edit.getKey());
+            }
+        }
+        PersistentMap<Integer, long[]> next = postings;
+        for (Map.Entry<Integer, PostingEdit> edit : byId.entrySet()) {
+            long[] edited = edit.getValue().applyTo(postings.getOrDefault(edit.getKey(), PostingLists.EMPTY));
+            next = edited.length == 0 ? next.minus(edit.getKey()) : next.plus(edit.getKey(), edited);
+        }
+        return new PostingDictionary(terms.build(), next);
+    }
+
+    /**
+     * Writes the dictionary and then the list of every term, in term id order
+     */
+    void writeTo(IndexSnapshot.Output out) throws IOException {
+        dictionary.writeTo(out);
+        int[] termIds = new int[postings.size()];
+        int[] n = new int[1];
+        postings.forEach((termId, list) -> termIds[n[0]++] = termId);
+        Arrays.sort(termIds);
+        out.writeInt(termIds.length);
+        for (int termId : termIds) {
+            out.writeInt(termId);
+            out.writeLongs(postings.get(termId));
+        }
+    }
+
+    static PostingDictionary readFrom(IndexSnapshot.Input in) {
+        TermDictionary dictionary = TermDictionary.readFrom(in);
+        int count = in.readInt();
+        PersistentMap<Integer, long[]> postings = PersistentMap.empty();
+        for (int t = 0; t < count; t++) {
+            postings = postings.plus(in.readInt(), in.readLongs());
+        }
+        return new PostingDictionary(dictionary, postings);
+    }
+
+    /**
+     * The plants of the term, or an empty list when no plant has it
+     */
+    long[] get(String term) {
+        int termId = dictionary.idOf(term);
+        return termId < 0 ? PostingLists.EMPTY : postings.get(termId);
+    }
+
+    /**
+     * Union of the lists of every term that starts with the prefix
+     */
+    long[] withPrefix(String prefix) {
+        long[] result = PostingLists.EMPTY;
+        for (int termId : dictionary.idsWithPrefix(prefix)) {
+            long[] list = postings.get(termId);
+            result = result.length == 0 ? list : PostingLists.union(result, list);
+        }
+        return result;
+    }
+
+    int size() {
+        return dictionary.size();
+    }
+
+    /**
+     * Visits every term, in term order, with the number of plants that have it
+     */
+    void forEach(ObjIntConsumer<String> consumer) {
+        String[] terms = new String[postings.size()];
+        int[] n = new int[1];
+        postings.forEach((termId, list) -> terms[n[0]++] = dictionary.termAt(termId));
+        Arrays.sort(terms);
+        for (String term : terms) {
+            consumer.accept(term, get(term).length);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.medicinal.plant.search;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Plant IDs to add to and remove from one sorted posting list, collected over a batch of
+ * changed plants so that each list is rewritten once per batch
+ */
+final class PostingEdit {
+
+    private final Set<Long> added = new TreeSet<>();
+    private final Set<Long> removed = new TreeSet<>();
+
+    /**
+     * Records the keys the plant lost and gained between two versions of its document
+     */
+    static <K> void diff(Map<K, PostingEdit> edits, long plantId, Set<K> before, Set<K> after) {
+        for (K key : before) {
+            if (!after.contains(key)) {
+                edits.computeIfAbsent(key, k -> new PostingEdit()).removed.add(plantId);
+            }
+        }
+        for (K key : after) {
+            if (!before.contains(key)) {
+                edits.computeIfAbsent(key, k -> new PostingEdit()).added.add(plantId);
+            }
+        }
+    }
+
+    Set<Long> getAdded() {
+        return added;
+    }
+
+    Set<Long> getRemoved() {
+        return removed;
+    }
+
+    long[] applyTo(long[] posting) {
+        long[] result = added.isEmpty() ? posting : PostingLists.union(posting, toArray(added));
+        return removed.isEmpty() ? result : PostingLists.difference(result, toArray(removed));
+    }
+
+    private static long[] toArray(Set<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
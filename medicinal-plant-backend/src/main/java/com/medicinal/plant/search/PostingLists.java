@@ -0,0 +1,126 @@
+package com.medicinal.plant.search;
+
+import java.util.Arrays;
+
+/**
+ * Set operations over sorted, duplicate-free posting lists of plant IDs.
+ * <p>
+ * When one list is much longer than the other, intersection and difference walk the longer
+ * list through implicit skip pointers every sqrt(n) entries instead of merging linearly, so a
+ * rare term combined with a common one costs about |short| * sqrt(|long|) comparisons.
+ */
+public final class PostingLists {
+
+    public static final long[] EMPTY = new long[0];
+
+    private PostingLists() {
+    }
+
+    // Below this length ratio a plain merge is cheaper than skipping
+    private static final int SKIP_RATIO = 8;
+
+    public static long[] intersect(long[] a, long[] b) {
+        if (a.length > b.length) {
+            long[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.length == 0) {
+            return EMPTY;
+        }
+        if (b.length >= SKIP_RATIO * a.length) {
+            return intersectSkipping(a, b);
+        }
+        long[] out = new long[a.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    public static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * IDs in a that are not in b
+     */
+    public static long[] difference(long[] a, long[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return a;
+        }
+        long[] out = new long[a.length];
+        int skip = skipLength(b);
+        int j = 0;
+        int n = 0;
+        for (long value : a) {
+            j = advance(b, j, value, skip);
+            if (j >= b.length || b[j] != value) {
+                out[n++] = value;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static long[] intersectSkipping(long[] shorter, long[] longer) {
+        long[] out = new long[shorter.length];
+        int skip = skipLength(longer);
+        int j = 0;
+        int n = 0;
+        for (long value : shorter) {
+            j = advance(longer, j, value, skip);
+            if (j >= longer.length) {
+                break;
+            }
+            if (longer[j] == value) {
+                out[n++] = value;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * First position at or after j holding a value >= target, following skip pointers first
+     */
+    private static int advance(long[] list, int j, long target, int skip) {
+        while (j + skip < list.length && list[j + skip] <= target) {
+            j += skip;
+        }
+        while (j < list.length && list[j] < target) {
+            j++;
+        }
+        return j;
+    }
+
+    private static int skipLength(long[] list) {
+        return Math.max(1, (int) Math.sqrt(list.length));
+    }
+}
@@ -0,0 +1,123 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Field prefixes of the query language and the plant attributes they search.
+ * <p>
+ * Text fields match words (by prefix) and quoted phrases inside the attribute; enum fields
+ * match one constant, given in any case, with '-' for '_' and unambiguous prefixes allowed
+ * ("safety:toxic", "type:herb", "safety:generally-safe", "safety:use").
+ */
+public enum QueryField {
+    NAME("name", document -> single(document.getName())),
+    SCIENTIFIC("scientific", document -> single(document.getScientificName())),
+    DESCRIPTION("description", document -> single(document.getDescription())),
+    USE("use", document -> orEmpty(document.getMedicinalUses())),
+    COMPOUND("compound", document -> orEmpty(document.getActiveCompounds())),
+    PROPERTY("property", document -> orEmpty(document.getProperties())),
+    SYMPTOM("symptom", QueryField::symptomNames),
+    SAFETY("safety", SafetyLevel.class, PlantDocument::getSafetyRating),
+    TYPE("type", PlantType.class, PlantDocument::getPlantType),
+    LEAF("leaf", LeafShape.class, PlantDocument::getLeafShape),
+    FLOWER("flower", FlowerColor.class, PlantDocument::getFlowerColor),
+    SIZE("size", PlantSize.class, PlantDocument::getSize);
+
+    private final String key;
+    private final Function<PlantDocument, List<String>> texts;
+    private final Class<? extends Enum<?>> enumType;
+    private final Function<PlantDocument, Enum<?>> enumValue;
+
+    QueryField(String key, Function<PlantDocument, List<String>> texts) {
+        this.key = key;
+        this.texts = texts;
+        this.enumType = null;
+        this.enumValue = null;
+    }
+
+    QueryField(String key, Class<? extends Enum<?>> enumType, Function<PlantDocument, Enum<?>> enumValue) {
+        this.key = key;
+        this.texts = null;
+        this.enumType = enumType;
+        this.enumValue = enumValue;
+    }
+
+    /**
+     * Prefix as written in queries, without the colon
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isEnum() {
+        return enumType != null;
+    }
+
+    public static QueryField fromKey(String key) {
+        String normalized = key.toLowerCase(Locale.ROOT);
+        for (QueryField field : values()) {
+            if (field.key.equals(normalized)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Text values of a text field for the plant
+     */
+    List<String> textsOf(PlantDocument document) {
+        return texts.apply(document);
+    }
+
+    /**
+     * Value of an enum field for the plant, or null when unset
+     */
+    Enum<?> valueOf(PlantDocument document) {
+        return enumValue.apply(document);
+    }
+
+    /**
+     * Resolves a user-supplied enum value, or null when it does not identify exactly one constant
+     */
+    Enum<?> parse(String raw) {
+        String normalized = raw.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        Enum<?> prefixMatch = null;
+        int prefixMatches = 0;
+        for (Enum<?> constant : enumType.getEnumConstants()) {
+            if (constant.name().equals(normalized)) {
+                return constant;
+            }
+            if (!normalized.isEmpty() && constant.name().startsWith(normalized)) {
+                prefixMatch = constant;
+                prefixMatches++;
+            }
+        }
+        return prefixMatches == 1 ? prefixMatch : null;
+    }
+
+    private static List<String> symptomNames(PlantDocument document) {
+        List<String> names = new ArrayList<>();
+        for (PlantDocument.SymptomLink symptom : orEmpty(document.getSymptoms())) {
+            names.add(symptom.getName());
+        }
+        return names;
+    }
+
+    private static List<String> single(String text) {
+        return text == null ? List.of() : List.of(text);
+    }
+
+    private static <T> List<T> orEmpty(List<T> values) {
+        return values == null ? List.of() : values;
+    }
+}
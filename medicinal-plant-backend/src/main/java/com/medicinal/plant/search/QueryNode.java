@@ -0,0 +1,127 @@
+package com.medicinal.plant.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Parsed boolean query. Evaluating a node against an index yields the sorted IDs of the
+ * matching plants.
+ */
+public interface QueryNode {
+
+    long[] evaluate(PlantSearchIndex index);
+
+    /**
+     * Appends the words of every term that is not negated, which is what results are ranked by
+     */
+    void collectPositiveText(StringBuilder text);
+
+    /**
+     * A word or quoted phrase, optionally restricted to one field
+     */
+    @Value
+    class Term implements QueryNode {
+        QueryField field; // null searches every text field
+        String value;
+        boolean phrase;
+
+        @Override
+        public long[] evaluate(PlantSearchIndex index) {
+            return index.termPostings(field, value, phrase);
+        }
+
+        @Override
+        public void collectPositiveText(StringBuilder text) {
+            if (field == null || !field.isEnum()) {
+                text.append(' ').append(value);
+            }
+        }
+    }
+
+    /**
+     * Plants matching every clause. Negated clauses are subtracted from the intersection of the
+     * others instead of being complemented on their own.
+     */
+    @Value
+    class And implements QueryNode {
+        List<QueryNode> clauses;
+
+        @Override
+        public long[] evaluate(PlantSearchIndex index) {
+            List<long[]> included = new ArrayList<>();
+            List<long[]> excluded = new ArrayList<>();
+            for (QueryNode clause : clauses) {
+                if (clause instanceof Not not) {
+                    excluded.add(not.getClause().evaluate(index));
+                } else {
+                    included.add(clause.evaluate(index));
+                }
+            }
+            long[] result;
+            if (included.isEmpty()) {
+                result = index.allIds();
+            } else {
+                // Shortest lists first keep every intermediate result as small as possible
+                included.sort(Comparator.comparingInt(list -> list.length));
+                result = included.get(0);
+                for (int i = 1; i < included.size() && result.length > 0; i++) {
+                    result = PostingLists.intersect(result, included.get(i));
+                }
+            }
+            for (long[] exclusion : excluded) {
+                if (result.length == 0) {
+                    break;
+                }
+                result = PostingLists.difference(result, exclusion);
+            }
+            return result;
+        }
+
+        @Override
+        public void collectPositiveText(StringBuilder text) {
+            clauses.forEach(clause -> clause.collectPositiveText(text));
+        }
+    }
+
+    /**
+     * Plants matching any clause
+     */
+    @Value
+    class Or implements QueryNode {
+        List<QueryNode> clauses;
+
+        @Override
+        public long[] evaluate(PlantSearchIndex index) {
+            long[] result = PostingLists.EMPTY;
+            for (QueryNode clause : clauses) {
+                result = PostingLists.union(result, clause.evaluate(index));
+            }
+            return result;
+        }
+
+        @Override
+        public void collectPositiveText(StringBuilder text) {
+            clauses.forEach(clause -> clause.collectPositiveText(text));
+        }
+    }
+
+    /**
+     * Plants not matching the clause
+     */
+    @Value
+    class Not implements QueryNode {
+        QueryNode clause;
+
+        @Override
+        public long[] evaluate(PlantSearchIndex index) {
+            return PostingLists.difference(index.allIds(), clause.evaluate(index));
+        }
+
+        @Override
+        public void collectPositiveText(StringBuilder text) {
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.exception.InvalidSearchException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser for the boolean query language:
+ * <pre>
+ * query   := or
+ * or      := and ("OR" and)*
+ * and     := unary (["AND"] unary)*
+ * unary   := ("NOT" | "-") unary | primary
+ * primary := "(" or ")" | [field ":"] (word | "quoted phrase")
+ * </pre>
+ * Operators are upper case, adjacent clauses are joined with AND, and field names are those of
+ * {@link QueryField}. For example {@code use:anti-inflammatory AND compound:curcumin NOT
+ * safety:TOXIC} or {@code symptom:"joint pain" type:HERB}.
+ */
+public final class QueryParser {
+
+    private final String input;
+    private int position;
+
+    private QueryParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Parses the query or throws InvalidSearchException describing the first problem
+     */
+    public static QueryNode parse(String query) {
+        QueryParser parser = new QueryParser(query == null ? "" : query);
+        parser.skipWhitespace();
+        if (parser.atEnd()) {
+            throw new InvalidSearchException("Query is empty");
+        }
+        QueryNode node = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected '" + parser.input.charAt(parser.position) + "'");
+        }
+        return node;
+    }
+
+    /**
+     * True when the query uses field prefixes or operators, so it should not be treated as free text
+     */
+    public static boolean looksStructured(String query) {
+        if (query == null) {
+            return false;
+        }
+        for (String word : query.trim().split("\\s+")) {
+            int colon = word.indexOf(':');
+            if (colon > 0 && QueryField.fromKey(word.substring(0, colon).replace("(", "").replace("-", "")) != null) {
+                return true;
+            }
+            if (word.equals("AND") || word.equals("OR") || word.equals("NOT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private QueryNode parseOr() {
+        List<QueryNode> clauses = new ArrayList<>();
+        clauses.add(parseAnd());
+        while (consumeKeyword("OR")) {
+            clauses.add(parseAnd());
+        }
+        return clauses.size() == 1 ? clauses.get(0) : new QueryNode.Or(List.copyOf(clauses));
+    }
+
+    private QueryNode parseAnd() {
+        List<QueryNode> clauses = new ArrayList<>();
+        clauses.add(parseUnary());
+        while (true) {
+            skipWhitespace();
+            if (atEnd() || peek() == ')' || peekKeyword("OR")) {
+                break;
+            }
+            consumeKeyword("AND");
+            clauses.add(parseUnary());
+        }
+        return clauses.size() == 1 ? clauses.get(0) : new QueryNode.And(List.copyOf(clauses));
+    }
+
+    private QueryNode parseUnary() {
+        skipWhitespace();
+        if (consumeKeyword("NOT")) {
+            return new QueryNode.Not(parseUnary());
+        }
+        if (!atEnd() && peek() == '-') {
+            position++;
+            return new QueryNode.Not(parseUnary());
+        }
+        return parsePrimary();
+    }
+
+    private QueryNode parsePrimary() {
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("Expected a term");
+        }
+        if (peek() == '(') {
+            position++;
+            QueryNode inner = parseOr();
+            skipWhitespace();
+            if (atEnd() || peek() != ')') {
+                throw error("Missing ')'");
+            }
+            position++;
+            return inner;
+        }
+
+        QueryField field = null;
+        int colon = fieldColon();
+        if (colon >= 0) {
+            String name = input.substring(position, colon);
+            field = QueryField.fromKey(name);
+            if (field == null) {
+                throw error("Unknown field '" + name + "'");
+            }
+            position = colon + 1;
+        }
+        boolean phrase = !atEnd() && peek() == '"';
+        String value = phrase ? readQuoted() : readWord();
+        if (value.isBlank()) {
+            throw error("Expected a value" + (field != null ? " for " + field.getKey() + ":" : ""));
+        }
+        if (field != null && field.isEnum()) {
+            Enum<?> constant = field.parse(value);
+            if (constant == null) {
+                throw new InvalidSearchException("Unknown " + field.getKey() + ": " + value);
+            }
+            return new QueryNode.Term(field, constant.name(), false);
+        }
+        // Words joined by punctuation ("anti-inflammatory") must stay together like a phrase
+        return new QueryNode.Term(field, value, phrase || TextAnalyzer.tokenize(value).size() > 1);
+    }
+
+    /**
+     * Position of the colon if the input continues with a field prefix such as "use:", else -1
+     */
+    private int fieldColon() {
+        int i = position;
+        while (i < input.length() && Character.isLetter(input.charAt(i))) {
+            i++;
+        }
+        return i > position && i < input.length() && input.charAt(i) == ':' ? i : -1;
+    }
+
+    private String readQuoted() {
+        int start = ++position;
+        int end = input.indexOf('"', start);
+        if (end < 0) {
+            throw error("Missing closing quote");
+        }
+        position = end + 1;
+        return input.substring(start, end);
+    }
+
+    private String readWord() {
+        int start = position;
+        while (!atEnd() && !Character.isWhitespace(peek()) && peek() != '(' && peek() != ')') {
+            position++;
+        }
+        return input.substring(start, position);
+    }
+
+    private boolean peekKeyword(String keyword) {
+        skipWhitespace();
+        int end = position + keyword.length();
+        return input.startsWith(keyword, position)
+                && (end == input.length() || Character.isWhitespace(input.charAt(end)) || input.charAt(end) == '(');
+    }
+
+    private boolean consumeKeyword(String keyword) {
+        if (peekKeyword(keyword)) {
+            position += keyword.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(peek())) {
+            position++;
+        }
+    }
+
+    private boolean atEnd() {
+        return position >= input.length();
+    }
+
+    private char peek() {
+        return input.charAt(position);
+    }
+
+    private InvalidSearchException error(String message) {
+        return new InvalidSearchException(message + " at position " + position + " in query: " + input);
+    }
+}
@@ -0,0 +1,23 @@
+package com.medicinal.plant.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The best-scoring plants of a search, best first, together with how many candidates were scored
+ */
+@Getter
+@AllArgsConstructor
+public class RankedHits {
+
+    public static final RankedHits EMPTY = new RankedHits(PostingLists.EMPTY, new int[0], new double[0], 0);
+
+    private final long[] ids;
+    private final int[] matchCounts;
+    private final double[] scores;
+    private final int totalCandidates;
+
+    public int size() {
+        return ids.length;
+    }
+}
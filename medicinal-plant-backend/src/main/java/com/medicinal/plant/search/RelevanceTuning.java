@@ -0,0 +1,87 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.config.Bm25Properties;
+import com.medicinal.plant.config.CacheConfig;
+import com.medicinal.plant.exception.InvalidSearchException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds the BM25 parameters in effect. They start from search.bm25.* and can be changed at
+ * runtime through the admin API. Every change bumps a version that is part of the search
+ * cache key, so a query still running with the old values can only cache its result under a
+ * key no later lookup uses; the cache is also cleared to free those entries.
+ */
+@Component
+@Slf4j
+public class RelevanceTuning {
+
+    private final CacheManager cacheManager;
+
+    private volatile Bm25Index.Parameters parameters;
+    private volatile long version;
+
+    public RelevanceTuning(Bm25Properties properties, CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        this.parameters = parse(properties.getK1(), properties.getB(), properties.getBoosts(), Map.of());
+    }
+
+    public Bm25Index.Parameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Changes with every update. Read before {@link #getParameters}, a version never pairs
+     * with parameters older than itself.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Replaces the given values and keeps the rest; unknown fields and out-of-range values are rejected
+     */
+    public synchronized Bm25Index.Parameters update(Double k1, Double b, Map<String, Double> boosts) {
+        Bm25Index.Parameters current = parameters;
+        Bm25Index.Parameters updated = parse(
+                k1 != null ? k1 : current.getK1(),
+                b != null ? b : current.getB(),
+                boosts != null ? boosts : Map.of(),
+                current.getBoosts());
+        // Parameters first: a reader that sees the new version then sees them too
+        parameters = updated;
+        version++;
+        Cache cache = cacheManager.getCache(CacheConfig.PLANT_SEARCH);
+        if (cache != null) {
+            cache.clear();
+        }
+        log.info("BM25 parameters updated: k1={}, b={}, boosts={}", updated.getK1(), updated.getB(), updated.getBoosts());
+        return updated;
+    }
+
+    private static Bm25Index.Parameters parse(double k1, double b, Map<String, Double> boosts,
+                                              Map<Bm25Index.Field, Double> defaults) {
+        Map<Bm25Index.Field, Double> byField = new EnumMap<>(Bm25Index.Field.class);
+        byField.putAll(defaults);
+        boosts.forEach((key, boost) -> {
+            Bm25Index.Field field = Bm25Index.Field.fromKey(key);
+            if (field == null) {
+                throw new InvalidSearchException("Unknown BM25 field: " + key);
+            }
+            if (boost == null) {
+                throw new InvalidSearchException("Missing boost for BM25 field: " + key);
+            }
+            byField.put(field, boost);
+        });
+        try {
+            return new Bm25Index.Parameters(k1, b, byField);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.catalog.CatalogChangeTracker;
+import com.medicinal.plant.catalog.CatalogChangedEvent;
+import com.medicinal.plant.catalog.CatalogRevision;
+import com.medicinal.plant.config.PaginationProperties;
+import com.medicinal.plant.config.SearchAnalysisProperties;
+import com.medicinal.plant.config.SearchSnapshotProperties;
+import com.medicinal.plant.exception.InvalidSearchException;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.entity.Symptom;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.repository.PlantSymptomRepository;
+import com.medicinal.plant.repository.SymptomRepository;
+import com.medicinal.plant.util.PersistentMap;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the current PlantSearchIndex, SymptomMatcher and SpellingCorrector and keeps them in
+ * step with the database.
+ * <p>
+ * Readers always see a complete structure through a single volatile reference; the symptom
+ * matcher and spelling corrector compiled from the same catalog are published together as one
+ * {@link Vocabulary}. At startup the index is read from its {@link IndexSnapshot} when that was
+ * taken from the current catalog. Every rebuild writes a fresh snapshot; applied changes write
+ * one once search.snapshot.write-delay has passed since the first of them, and at shutdown, so
+ * a burst of edits costs a single write. After that, committed catalog
+ * changes arrive as {@link CatalogChangedEvent}s naming the plants and symptoms they touched.
+ * A single writer thread reloads just those plants, applies them to a copy of the index and
+ * publishes the copy, so writes never race each other and readers never take a lock or see a
+ * half-applied change. Changes arriving while an update is queued are folded into it. Once a
+ * new index is published, a catalog change named "PlantSearchIndex" tells dependent indexes
+ * to rebuild from it.
+ * <p>
+ * Every published index is a numbered {@link Generation}. The most recent ones stay
+ * reachable by number, so search cursors keep paging through the index their first page was
+ * ranked on while later changes are published.
+ * <p>
+ * The {@link Analyzer} is assembled from {@link SearchAnalysisProperties}. Reloading the
+ * synonym file builds a new analyzer and re-indexes the current documents with it on the
+ * writer thread, so no index ever mixes terms of two analyzers.
+ */
+@Component
+@Slf4j
+public class SearchIndexManager {
+
+    static final String INDEX_PUBLISHED = "PlantSearchIndex";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final PlantRepository plantRepository;
+    private final SymptomRepository symptomRepository;
+    private final PlantSymptomRepository plantSymptomRepository;
+    private final CatalogChangeTracker catalogChangeTracker;
+    private final CatalogRevision catalogRevision;
+    private final SearchSnapshotProperties snapshotProperties;
+    private final SearchAnalysisProperties analysisProperties;
+    private final PaginationProperties paginationProperties;
+    private final ResourceLoader resourceLoader;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+    private final Set<Long> pendingPlants = new HashSet<>();
+    private final Set<Long> pendingSymptoms = new HashSet<>();
+    private final Map<Long, Generation> recentGenerations = new LinkedHashMap<>();
+    // Stamp of the last change applied since the snapshot was written, only used on the writer thread
+    private IndexSnapshot.CatalogStamp unsavedStamp;
+    private boolean snapshotScheduled;
+
+    private volatile boolean started;
+    private volatile Analyzer analyzer;
+    // Numbered from a random start, so a cursor from another run or node never names one of ours
+    private volatile Generation current = new Generation(ThreadLocalRandom.current().nextLong(1L << 62),
+            PlantSearchIndex.empty());
+    private volatile Vocabulary vocabulary = Vocabulary.EMPTY;
+
+    public SearchIndexManager(PlantRepository plantRepository, SymptomRepository symptomRepository,
+                              PlantSymptomRepository plantSymptomRepository, CatalogChangeTracker catalogChangeTracker,
+                              CatalogRevision catalogRevision, SearchSnapshotProperties snapshotProperties,
+                              SearchAnalysisProperties analysisProperties, PaginationProperties paginationProperties,
+                              ResourceLoader resourceLoader, PlatformTransactionManager transactionManager) {
+        this.plantRepository = plantRepository;
+        this.symptomRepository = symptomRepository;
+        this.plantSymptomRepository = plantSymptomRepository;
+        this.catalogChangeTracker = catalogChangeTracker;
+        this.catalogRevision = catalogRevision;
+        this.snapshotProperties = snapshotProperties;
+        this.analysisProperties = analysisProperties;
+        this.paginationProperties = paginationProperties;
+        this.resourceLoader = resourceLoader;
+        this.analyzer = buildAnalyzer();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public PlantSearchIndex getIndex() {
+        return current.getIndex();
+    }
+
+    /**
+     * The current index together with its generation number
+     */
+    public Generation getGeneration() {
+        return current;
+    }
+
+    /**
+     * Returns the index published as the given generation, or null when it is no longer among
+     * the last pagination.search-generations published
+     */
+    public Generation getGeneration(long id) {
+        synchronized (recentGenerations) {
+            return recentGenerations.get(id);
+        }
+    }
+
+    public SymptomMatcher getSymptomMatcher() {
+        return vocabulary.getSymptomMatcher();
+    }
+
+    public SpellingCorrector getSpellingCorrector() {
+        return vocabulary.getSpellingCorrector();
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Loads or rebuilds the index once the data initializer has seeded the catalog, on the
+     * writer thread, and waits for it so the application only reports ready with an index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Future<?> done = writer.submit(() -> readOnlyTransaction.executeWithoutResult(status -> load()));
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not build the search index", e.getCause());
+        }
+    }
+
+    /**
+     * Reads the synonym file again and, when the analysis changed, re-indexes every plant with
+     * the new analyzer before publishing it. Returns the analyzer in use afterwards.
+     *
+     * @throws InvalidSearchException when the synonym file has an invalid rule
+     * @throws IllegalStateException when re-indexing fails or the caller is interrupted waiting for it
+     */
+    public Analyzer reloadSynonyms() {
+        Analyzer next;
+        try {
+            next = buildAnalyzer();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchException(e.getMessage());
+        }
+        Future<?> done = writer.submit(() -> readOnlyTransaction.executeWithoutResult(status -> reindex(next)));
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while re-indexing with the reloaded synonyms", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not re-index with the reloaded synonyms", e.getCause());
+        }
+        return analyzer;
+    }
+
+    private void reindex(Analyzer next) {
+        if (next.fingerprint() == analyzer.fingerprint()) {
+            log.info("Search synonyms unchanged, keeping the current index");
+            return;
+        }
+        long start = System.nanoTime();
+        PlantSearchIndex rebuilt = PlantSearchIndex.build(getIndex().getDocuments(), next);
+        analyzer = next;
+        publish(rebuilt);
+        log.info("Search index re-analyzed with {} synonym rules: {} plants and {} terms in {} ms",
+                next.synonymRuleCount(), rebuilt.size(), rebuilt.termCount(), (System.nanoTime() - start) / 1_000_000);
+        rebuildVocabulary();
+        catalogChangeTracker.invalidate(Set.of(INDEX_PUBLISHED));
+        saveSnapshot(rebuilt, currentStamp());
+    }
+
+    private Analyzer buildAnalyzer() {
+        Analyzer.Builder builder = Analyzer.builder();
+        for (String filter : analysisProperties.getFilters()) {
+            switch (filter.trim().toLowerCase(Locale.ROOT)) {
+                case "lowercase":
+                    builder.lowercase();
+                    break;
+                case "stopwords":
+                    builder.stopwords(Analyzer.DEFAULT_STOPWORDS);
+                    break;
+                case "stemmer":
+                    builder.stem();
+                    break;
+                case "synonyms":
+                    builder.synonyms(readSynonyms());
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown search analysis filter: " + filter);
+            }
+        }
+        return builder.build();
+    }
+
+    private String readSynonyms() {
+        Resource resource = resourceLoader.getResource(analysisProperties.getSynonyms());
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read search synonyms from " + analysisProperties.getSynonyms(), e);
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        // Changes committed from here on are read by the load itself or applied after it
+        started = true;
+        synchronized (pendingPlants) {
+            pendingPlants.clear();
+            pendingSymptoms.clear();
+        }
+        IndexSnapshot.CatalogStamp stamp = currentStamp();
+        PlantSearchIndex loaded = loadSnapshot(stamp);
+        if (loaded != null) {
+            publish(loaded);
+            log.info("Search index built with {} plants and {} terms in {} ms from snapshot {}",
+                    loaded.size(), loaded.termCount(), (System.nanoTime() - start) / 1_000_000, snapshotProperties.getPath());
+        } else {
+            List<Plant> plants = plantRepository.findAll();
+            List<PlantDocument> documents = new ArrayList<>(plants.size());
+            for (Plant plant : plants) {
+                documents.add(PlantDocument.from(plant));
+            }
+            PlantSearchIndex rebuilt = PlantSearchIndex.build(documents, analyzer);
+            publish(rebuilt);
+            log.info("Search index built with {} plants and {} terms in {} ms",
+                    rebuilt.size(), rebuilt.termCount(), (System.nanoTime() - start) / 1_000_000);
+            saveSnapshot(rebuilt, stamp);
+        }
+        rebuildVocabulary();
+        // Results cached before the index was ready were computed against the old one
+        catalogChangeTracker.invalidate(Set.of(INDEX_PUBLISHED));
+    }
+
+    /**
+     * Queues the plants and symptoms of a committed change for the writer thread. Changes made
+     * before the initial load are covered by that load.
+     */
+    @EventListener(CatalogChangedEvent.class)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!started || (event.getPlantIds().isEmpty() && event.getSymptomIds().isEmpty())) {
+            return;
+        }
+        synchronized (pendingPlants) {
+            pendingPlants.addAll(event.getPlantIds());
+            pendingSymptoms.addAll(event.getSymptomIds());
+        }
+        if (updatePending.compareAndSet(false, true)) {
+            writer.execute(this::applyPendingChanges);
+        }
+    }
+
+    void applyPendingChanges() {
+        updatePending.set(false);
+        Set<Long> plantIds;
+        Set<Long> symptomIds;
+        synchronized (pendingPlants) {
+            plantIds = new HashSet<>(pendingPlants);
+            symptomIds = new HashSet<>(pendingSymptoms);
+            pendingPlants.clear();
+            pendingSymptoms.clear();
+        }
+        if (plantIds.isEmpty() && symptomIds.isEmpty()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            IndexSnapshot.CatalogStamp stamp = readOnlyTransaction.execute(status -> {
+                // Stamped before reading, so a change committed meanwhile leaves the snapshot stale
+                IndexSnapshot.CatalogStamp before = currentStamp();
+                PlantSearchIndex current = getIndex();
+                // Plants denormalize the names of their symptoms, so a symptom change touches every plant linked to it
+                Set<Long> affected = new HashSet<>(plantIds);
+                for (Long symptomId : symptomIds) {
+                    for (long plantId : current.plantsForSymptom(symptomId)) {
+                        affected.add(plantId);
+                    }
+                }
+                Map<Long, PlantDocument> upserts = new HashMap<>();
+                for (Plant plant : plantRepository.findAllById(affected)) {
+                    upserts.put(plant.getId(), PlantDocument.from(plant));
+                }
+                Set<Long> removals = new HashSet<>(affected);
+                removals.removeAll(upserts.keySet());
+                PlantSearchIndex updated = current.apply(upserts, removals);
+                publish(updated);
+                log.info("Search index updated with {} plants and {} removals in {} ms",
+                        upserts.size(), removals.size(), (System.nanoTime() - start) / 1_000_000);
+                updateVocabulary(current, upserts, removals, !symptomIds.isEmpty());
+                return before;
+            });
+            catalogChangeTracker.invalidate(Set.of(INDEX_PUBLISHED));
+            scheduleSnapshot(stamp);
+        } catch (RuntimeException e) {
+            log.error("Failed to update search index for plants {} and symptoms {}", plantIds, symptomIds, e);
+        }
+    }
+
+    /**
+     * Makes the index current under the next generation number and forgets the oldest
+     * generation beyond the retained ones. Only called on the writer thread.
+     */
+    private void publish(PlantSearchIndex next) {
+        Generation generation = new Generation(current.getId() + 1, next);
+        synchronized (recentGenerations) {
+            recentGenerations.put(generation.getId(), generation);
+            int retained = Math.max(1, paginationProperties.getSearchGenerations());
+            while (recentGenerations.size() > retained) {
+                recentGenerations.remove(recentGenerations.keySet().iterator().next());
+            }
+        }
+        current = generation;
+    }
+
+    /**
+     * Identifies the catalog as it is now in the database
+     */
+    public IndexSnapshot.CatalogStamp currentStamp() {
+        long revision = catalogRevision.current();
+        LocalDateTime lastUpdated = plantRepository.findLastUpdatedAt();
+        return new IndexSnapshot.CatalogStamp(plantRepository.count(), plantSymptomRepository.count(),
+                lastUpdated == null ? 0L : lastUpdated.toInstant(ZoneOffset.UTC).toEpochMilli(), revision);
+    }
+
+    private PlantSearchIndex loadSnapshot(IndexSnapshot.CatalogStamp stamp) {
+        Path path = Path.of(snapshotProperties.getPath());
+        if (!snapshotProperties.isEnabled() || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            PlantSearchIndex loaded = IndexSnapshot.read(path, stamp, analyzer);
+            if (loaded == null) {
+                log.info("Search index snapshot {} is stale, rebuilding from the database", path);
+            }
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable search index snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot of the changes applied since the last one now, on the writer thread,
+     * and waits for it. Does nothing when the snapshot is up to date.
+     */
+    public void flushSnapshot() {
+        Future<?> done = writer.submit(this::saveUnsavedSnapshot);
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not write the search index snapshot", e.getCause());
+        }
+    }
+
+    /**
+     * Notes that the published index is ahead of the snapshot and, unless a write is already
+     * scheduled, schedules one after the write delay. Only called on the writer thread.
+     */
+    private void scheduleSnapshot(IndexSnapshot.CatalogStamp stamp) {
+        if (!snapshotProperties.isEnabled()) {
+            return;
+        }
+        unsavedStamp = stamp;
+        if (!snapshotScheduled) {
+            snapshotScheduled = true;
+            writer.schedule(this::saveUnsavedSnapshot, snapshotProperties.getWriteDelay().toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void saveUnsavedSnapshot() {
+        snapshotScheduled = false;
+        if (unsavedStamp != null) {
+            saveSnapshot(getIndex(), unsavedStamp);
+        }
+    }
+
+    /**
+     * Writes the snapshot of the index as of the stamp. Only called on the writer thread.
+     */
+    private void saveSnapshot(PlantSearchIndex built, IndexSnapshot.CatalogStamp stamp) {
+        // Whatever was applied before is covered by this snapshot too
+        unsavedStamp = null;
+        if (!snapshotProperties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path path = Path.of(snapshotProperties.getPath());
+        try {
+            IndexSnapshot.write(built, stamp, path);
+            log.info("Search index snapshot written to {} in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            // The next start just rebuilds again
+            log.warn("Could not write search index snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Compiles the symptom matcher and spelling dictionary from the symptom table and every
+     * indexed plant. Only called on the writer thread, inside its transaction.
+     */
+    private void rebuildVocabulary() {
+        List<SymptomPhrase> phrases = symptomPhrases();
+        SpellingCorrector.Builder dictionary = SpellingCorrector.builder();
+        Map<String, Integer> uses = new HashMap<>();
+        // Index terms are stems, so suggestions come from the words as written, counted per plant
+        for (PlantDocument document : getIndex().getDocuments()) {
+            wordsOf(document).forEach(word -> dictionary.add(word, 1));
+            document.getMedicinalUses().forEach(use -> uses.merge(use, 1, Integer::sum));
+        }
+        phraseWords(phrases).forEach(dictionary::add);
+        vocabulary = compile(phrases, PersistentMap.copyOf(uses), dictionary.build());
+    }
+
+    /**
+     * Brings the vocabulary in step with an applied change: the spelling dictionary gains the
+     * words of the new documents and loses those of the replaced and removed ones, and the
+     * automaton is only recompiled when symptoms changed or a medicinal use appeared in or
+     * disappeared from the catalog. Only called on the writer thread, inside its transaction.
+     */
+    private void updateVocabulary(PlantSearchIndex previous, Map<Long, PlantDocument> upserts, Set<Long> removals,
+                                  boolean symptomsChanged) {
+        Vocabulary before = vocabulary;
+        Map<String, Integer> words = new HashMap<>();
+        Map<String, Integer> useCounts = new HashMap<>();
+        for (Long plantId : removals) {
+            count(previous.getDocument(plantId), -1, words, useCounts);
+        }
+        for (PlantDocument document : upserts.values()) {
+            count(previous.getDocument(document.getId()), -1, words, useCounts);
+            count(document, 1, words, useCounts);
+        }
+        List<SymptomPhrase> phrases = before.getSymptomPhrases();
+        if (symptomsChanged) {
+            phraseWords(phrases).forEach((word, count) -> words.merge(word, -count, Integer::sum));
+            phrases = symptomPhrases();
+            phraseWords(phrases).forEach((word, count) -> words.merge(word, count, Integer::sum));
+        }
+        PersistentMap<String, Integer> uses = before.getUses();
+        boolean usesChanged = false;
+        for (Map.Entry<String, Integer> change : useCounts.entrySet()) {
+            int count = uses.getOrDefault(change.getKey(), 0) + change.getValue();
+            usesChanged |= (count > 0) != uses.containsKey(change.getKey());
+            uses = count > 0 ? uses.plus(change.getKey(), count) : uses.minus(change.getKey());
+        }
+        SpellingCorrector corrector = before.getSpellingCorrector().apply(words);
+        vocabulary = symptomsChanged || usesChanged
+                ? compile(phrases, uses, corrector)
+                : new Vocabulary(before.getSymptomMatcher(), corrector, phrases, uses);
+    }
+
+    /**
+     * Adds the sign to the count of every dictionary word and medicinal use of the document
+     */
+    private static void count(PlantDocument document, int sign, Map<String, Integer> words,
+                              Map<String, Integer> uses) {
+        if (document == null) {
+            return;
+        }
+        wordsOf(document).forEach(word -> words.merge(word, sign, Integer::sum));
+        document.getMedicinalUses().forEach(use -> uses.merge(use, sign, Integer::sum));
+    }
+
+    private Vocabulary compile(List<SymptomPhrase> phrases, PersistentMap<String, Integer> uses,
+                               SpellingCorrector corrector) {
+        SymptomMatcher.Builder builder = SymptomMatcher.builder();
+        for (SymptomPhrase phrase : phrases) {
+            builder.addSymptom(phrase.getPhrase(), phrase.getSymptomId());
+        }
+        Set<String> keywords = new TreeSet<>();
+        uses.forEach((use, count) -> keywords.add(use));
+        keywords.forEach(builder::addKeyword);
+        SymptomMatcher matcher = builder.build();
+        log.info("Symptom matcher compiled with {} phrases, spelling dictionary with {} words",
+                matcher.patternCount(), corrector.size());
+        return new Vocabulary(matcher, corrector, phrases, uses);
+    }
+
+    /**
+     * The name and every synonym of each symptom in the symptom table
+     */
+    private List<SymptomPhrase> symptomPhrases() {
+        List<SymptomPhrase> phrases = new ArrayList<>();
+        for (Symptom symptom : symptomRepository.findAll()) {
+            phrases.add(new SymptomPhrase(symptom.getName(), symptom.getId()));
+            for (String synonym : symptom.getSynonyms()) {
+                phrases.add(new SymptomPhrase(synonym, symptom.getId()));
+            }
+        }
+        return List.copyOf(phrases);
+    }
+
+    /**
+     * How often each word occurs in the symptom phrases, as counted into the spelling dictionary
+     */
+    private static Map<String, Integer> phraseWords(List<SymptomPhrase> phrases) {
+        Map<String, Integer> words = new HashMap<>();
+        for (SymptomPhrase phrase : phrases) {
+            TextAnalyzer.tokenize(phrase.getPhrase()).forEach(word -> words.merge(word, 1, Integer::sum));
+        }
+        return words;
+    }
+
+    /**
+     * The words of the plant's texts as written, which feed the spelling dictionary
+     */
+    private static Set<String> wordsOf(PlantDocument document) {
+        Set<String> words = new HashSet<>();
+        words.addAll(TextAnalyzer.tokenize(document.getName()));
+        words.addAll(TextAnalyzer.tokenize(document.getScientificName()));
+        for (String use : document.getMedicinalUses()) {
+            words.addAll(TextAnalyzer.tokenize(use));
+        }
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            words.addAll(TextAnalyzer.tokenize(symptom.getName()));
+            words.addAll(TextAnalyzer.tokenize(symptom.getDescription()));
+        }
+        return words;
+    }
+
+    /**
+     * The symptom matcher and spelling corrector published together, with the symptom phrases
+     * and the number of plants per medicinal use they were compiled from
+     */
+    @Value
+    static class Vocabulary {
+        static final Vocabulary EMPTY = new Vocabulary(SymptomMatcher.empty(), SpellingCorrector.empty(), List.of(),
+                PersistentMap.empty());
+
+        SymptomMatcher symptomMatcher;
+        SpellingCorrector spellingCorrector;
+        List<SymptomPhrase> symptomPhrases;
+        PersistentMap<String, Integer> uses;
+    }
+
+    @Value
+    static class SymptomPhrase {
+        String phrase;
+        long symptomId;
+    }
+
+    /**
+     * A published index and the number it was published under
+     */
+    @Value
+    public static class Generation {
+        long id;
+        PlantSearchIndex index;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Changes applied since the last snapshot would otherwise cost the next start a rebuild
+        Future<?> done = writer.submit(this::saveUnsavedSnapshot);
+        try {
+            done.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Search index snapshot not written at shutdown", e);
+        }
+        writer.shutdownNow();
+    }
+}
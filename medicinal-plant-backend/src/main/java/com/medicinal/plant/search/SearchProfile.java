@@ -0,0 +1,205 @@
+package com.medicinal.plant.search;
+
+import lombok.Getter;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects where the time of one search went, for requests made with explain=true.
+ * <p>
+ * A profile is bound to the thread handling the request, so the layers a search passes through
+ * report into it without it being passed along: code wraps its work in {@link #stage} and notes
+ * candidate counts and score contributions, and {@link SqlStatementCounter} counts every SQL
+ * statement Hibernate prepares. Without a bound profile all of these return after a single
+ * thread-local lookup, which keeps the instrumentation free for ordinary requests. Stages of the
+ * same name add up; a stage opened inside another one is also part of the outer one.
+ * <p>
+ * Allocations are the bytes the thread allocated, as reported by the JVM, or -1 where the JVM
+ * does not support measuring them.
+ */
+public final class SearchProfile {
+
+    /**
+     * Top hits of a ranking whose score contributions are recorded
+     */
+    public static final int EXPLAINED_HITS = 5;
+
+    private static final ThreadLocal<SearchProfile> CURRENT = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private static final Stage NOOP = new Stage(null, null);
+
+    private final long startNanos;
+    private final long startBytes;
+    private final Map<String, StageTotals> stages = new LinkedHashMap<>();
+    private final Map<Long, Map<String, Double>> contributions = new LinkedHashMap<>();
+    private int sqlStatements;
+    private int candidates;
+    private int ranked;
+    private long elapsedNanos = -1;
+    private long allocatedBytes = -1;
+
+    private SearchProfile() {
+        this.startNanos = System.nanoTime();
+        this.startBytes = allocatedBytes();
+    }
+
+    /**
+     * Binds a new profile to the current thread; {@link #finish} must be called on the same thread
+     */
+    public static SearchProfile start() {
+        SearchProfile profile = new SearchProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Starts timing a stage of the current profile, to be closed when the stage is done
+     */
+    public static Stage stage(String name) {
+        SearchProfile profile = CURRENT.get();
+        return profile == null ? NOOP : new Stage(profile, name);
+    }
+
+    /**
+     * Counts a ranking of the current profile: the plants it scored and those it kept
+     */
+    public static void candidates(int scored, int kept) {
+        SearchProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.candidates += scored;
+            profile.ranked += kept;
+        }
+    }
+
+    /**
+     * Records what made up a plant's score in the current profile, replacing earlier contributions
+     */
+    public static void contributions(long plantId, Map<String, Double> factors) {
+        SearchProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.contributions.put(plantId, factors);
+        }
+    }
+
+    static void statementPrepared() {
+        SearchProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.sqlStatements++;
+        }
+    }
+
+    /**
+     * Stops the clock and unbinds the profile from the thread
+     */
+    public void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        allocatedBytes = startBytes < 0 ? -1 : allocatedBytes() - startBytes;
+        CURRENT.remove();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getSqlStatements() {
+        return sqlStatements;
+    }
+
+    /**
+     * Plants scored by the rankings the search ran
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Plants the rankings kept, before plants deleted since indexing were dropped
+     */
+    public int getRanked() {
+        return ranked;
+    }
+
+    public List<StageTotals> getStages() {
+        return new ArrayList<>(stages.values());
+    }
+
+    public Map<String, Double> getContributions(long plantId) {
+        return contributions.getOrDefault(plantId, Collections.emptyMap());
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * A running stage, added to its profile's totals when closed
+     */
+    public static final class Stage implements AutoCloseable {
+
+        private final SearchProfile profile;
+        private final String name;
+        private final long startNanos;
+        private final long startBytes;
+        private final int startStatements;
+
+        private Stage(SearchProfile profile, String name) {
+            this.profile = profile;
+            this.name = name;
+            this.startNanos = profile == null ? 0 : System.nanoTime();
+            this.startBytes = profile == null ? 0 : allocatedBytes();
+            this.startStatements = profile == null ? 0 : profile.sqlStatements;
+        }
+
+        @Override
+        public void close() {
+            if (profile == null) {
+                return;
+            }
+            StageTotals totals = profile.stages.computeIfAbsent(name, StageTotals::new);
+            totals.count++;
+            totals.nanos += System.nanoTime() - startNanos;
+            totals.allocatedBytes = startBytes < 0 ? -1 : totals.allocatedBytes + allocatedBytes() - startBytes;
+            totals.sqlStatements += profile.sqlStatements - startStatements;
+        }
+    }
+
+    /**
+     * Time, allocations and SQL statements of all runs of one stage
+     */
+    @Getter
+    public static final class StageTotals {
+
+        private final String name;
+        private int count;
+        private long nanos;
+        private long allocatedBytes;
+        private int sqlStatements;
+
+        private StageTotals(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetric-delete spelling corrector over the search vocabulary.
+ * <p>
+ * Every vocabulary word is stored under each string obtained by deleting up to two characters
+ * from its first {@value #PREFIX_LENGTH} characters. A misspelling is corrected by generating the
+ * same deletes of the input and looking them up, so a lookup costs a bounded number of hash
+ * probes regardless of vocabulary size; only the handful of words found that way are checked
+ * with an exact edit distance.
+ * <p>
+ * Frequencies are counts, so {@link #apply} can add the words of a changed plant and subtract
+ * the ones it had before. Instances are immutable and kept in {@link PersistentMap}s, so such an
+ * update copies only the entries of the words it changes.
+ */
+public final class SpellingCorrector {
+
+    static final int MAX_EDIT_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+    // Short words get one edit, otherwise almost any short word is two edits from a vocabulary word
+    static final int SHORT_WORD_LENGTH = 4;
+
+    private static final String[] NO_WORDS = new String[0];
+
+    private static final SpellingCorrector EMPTY = new Builder().build();
+
+    private final PersistentMap<String, Integer> frequencies;  // word -> frequency
+    private final PersistentMap<String, String[]> deletes;     // delete of a word's prefix -> words
+    private final PersistentMap<String, Integer> prefixes;     // leading characters -> words starting with them
+
+    private SpellingCorrector(PersistentMap<String, Integer> frequencies, PersistentMap<String, String[]> deletes,
+                              PersistentMap<String, Integer> prefixes) {
+        this.frequencies = frequencies;
+        this.deletes = deletes;
+        this.prefixes = prefixes;
+    }
+
+    public static SpellingCorrector empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a corrector with the frequency changes added; a word is dropped once its
+     * frequency is no longer positive, and a new word is added with its first positive one
+     */
+    public SpellingCorrector apply(Map<String, Integer> changes) {
+        PersistentMap<String, Integer> nextFrequencies = frequencies;
+        PersistentMap<String, String[]> nextDeletes = deletes;
+        PersistentMap<String, Integer> nextPrefixes = prefixes;
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            String word = change.getKey();
+            if (word == null || word.isEmpty() || change.getValue() == 0) {
+                continue;
+            }
+            Integer before = nextFrequencies.get(word);
+            int after = (before == null ? 0 : before) + change.getValue();
+            if (after > 0) {
+                nextFrequencies = nextFrequencies.plus(word, after);
+                if (before == null) {
+                    for (String delete : deletesOf(prefixOf(word), MAX_EDIT_DISTANCE)) {
+                        String[] words = nextDeletes.getOrDefault(delete, NO_WORDS);
+                        String[] grown = Arrays.copyOf(words, words.length + 1);
+                        grown[words.length] = word;
+                        nextDeletes = nextDeletes.plus(delete, grown);
+                    }
+                    for (int end = 1; end <= word.length(); end++) {
+                        String prefix = word.substring(0, end);
+                        nextPrefixes = nextPrefixes.plus(prefix, nextPrefixes.getOrDefault(prefix, 0) + 1);
+                    }
+                }
+            } else if (before != null) {
+                nextFrequencies = nextFrequencies.minus(word);
+                for (String delete : deletesOf(prefixOf(word), MAX_EDIT_DISTANCE)) {
+                    String[] words = nextDeletes.get(delete);
+                    nextDeletes = words.length == 1 ? nextDeletes.minus(delete) : nextDeletes.plus(delete, without(words, word));
+                }
+                for (int end = 1; end <= word.length(); end++) {
+                    String prefix = word.substring(0, end);
+                    int count = nextPrefixes.get(prefix);
+                    nextPrefixes = count == 1 ? nextPrefixes.minus(prefix) : nextPrefixes.plus(prefix, count - 1);
+                }
+            }
+        }
+        return new SpellingCorrector(nextFrequencies, nextDeletes, nextPrefixes);
+    }
+
+    /**
+     * Rewrites every unknown token of the text to its closest vocabulary word.
+     * Returns null when no token needed or had a correction.
+     */
+    public String correct(String text) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        List<String> corrected = new ArrayList<>(tokens.size());
+        boolean changed = false;
+        for (String token : tokens) {
+            String suggestion = suggest(token);
+            if (suggestion != null) {
+                corrected.add(suggestion);
+                changed = true;
+            } else {
+                corrected.add(token);
+            }
+        }
+        return changed ? String.join(" ", corrected) : null;
+    }
+
+    /**
+     * Returns the most frequent vocabulary word at the smallest edit distance, or null when the
+     * word is already known (it starts some vocabulary word) or nothing is close enough
+     */
+    public String suggest(String word) {
+        if (word.isEmpty() || isKnown(word)) {
+            return null;
+        }
+        int maxDistance = word.length() <= SHORT_WORD_LENGTH ? 1 : MAX_EDIT_DISTANCE;
+
+        Set<String> checked = new HashSet<>();
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestFrequency = 0;
+        for (String delete : deletesOf(prefixOf(word), maxDistance)) {
+            String[] candidates = deletes.get(delete);
+            if (candidates == null) {
+                continue;
+            }
+            for (String target : candidates) {
+                if (!checked.add(target) || Math.abs(target.length() - word.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = distance(word, target, maxDistance);
+                if (distance < 0) {
+                    continue;
+                }
+                int frequency = frequencies.get(target);
+                // Equally close and frequent words are ranked alphabetically, whatever order they were added in
+                if (distance < bestDistance || (distance == bestDistance && (frequency > bestFrequency
+                        || (frequency == bestFrequency && target.compareTo(best) < 0)))) {
+                    best = target;
+                    bestDistance = distance;
+                    bestFrequency = frequency;
+                }
+            }
+        }
+        return best;
+    }
+
+    public int size() {
+        return frequencies.size();
+    }
+
+    private boolean isKnown(String word) {
+        return prefixes.containsKey(word);
+    }
+
+    private static String prefixOf(String word) {
+        return word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+    }
+
+    private static String[] without(String[] words, String word) {
+        String[] remaining = new String[words.length - 1];
+        int n = 0;
+        for (String other : words) {
+            if (!other.equals(word)) {
+                remaining[n++] = other;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * The string itself and every string reachable by deleting up to maxDistance characters
+     */
+    private static Set<String> deletesOf(String word, int maxDistance) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        List<String> frontier = List.of(word);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String deleted = current.substring(0, i) + current.substring(i + 1);
+                    if (result.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance, or -1 once it is certain to exceed the limit
+     */
+    static int distance(String a, String b, int limit) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return -1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= limit ? previous[b.length()] : -1;
+    }
+
+    /**
+     * Collects vocabulary words with their frequencies; adding a word again adds to its frequency
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> frequencies = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String word, int frequency) {
+            if (word != null && !word.isEmpty()) {
+                frequencies.merge(word, frequency, Integer::sum);
+            }
+            return this;
+        }
+
+        public SpellingCorrector build() {
+            Map<String, List<String>> byDelete = new HashMap<>();
+            Map<String, Integer> prefixCounts = new HashMap<>();
+            for (String word : frequencies.keySet()) {
+                for (String delete : deletesOf(prefixOf(word), MAX_EDIT_DISTANCE)) {
+                    byDelete.computeIfAbsent(delete, d -> new ArrayList<>(2)).add(word);
+                }
+                for (int end = 1; end <= word.length(); end++) {
+                    prefixCounts.merge(word.substring(0, end), 1, Integer::sum);
+                }
+            }
+            Map<String, String[]> deletes = new HashMap<>(byDelete.size() * 2);
+            byDelete.forEach((delete, words) -> deletes.put(delete, words.toArray(NO_WORDS)));
+            return new SpellingCorrector(PersistentMap.copyOf(frequencies), PersistentMap.copyOf(deletes),
+                    PersistentMap.copyOf(prefixCounts));
+        }
+    }
+}
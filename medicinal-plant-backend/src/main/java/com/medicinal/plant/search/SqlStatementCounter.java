@@ -0,0 +1,16 @@
+package com.medicinal.plant.search;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares into the {@link SearchProfile} of the current
+ * thread, if any; registered as hibernate.session_factory.statement_inspector
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SearchProfile.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,358 @@
+package com.medicinal.plant.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable completion index over plant names, scientific names, symptom names and
+ * medicinal uses.
+ * <p>
+ * Every suggestion is reachable from the start of each of its words ("vera" completes
+ * "Aloe Vera"). The lookup keys are kept in one sorted array, so the keys starting with a
+ * prefix form a contiguous range found by two binary searches. A max-weight segment tree over
+ * the same order then yields the top-N of that range in O(N log n) without visiting the rest
+ * of it, which is what a weighted completion trie or FST would give at a fraction of the code.
+ * <p>
+ * Weight changes are applied with {@link #adjust}: the changed suggestions go into a small
+ * overlay index and their entries in the shared arrays are masked, so an update costs about
+ * the number of suggestions it touches. Lookups merge the two by the same order a full build
+ * would give.
+ */
+public final class SuggestionIndex {
+
+    /**
+     * What a suggestion completes to
+     */
+    public enum Kind {
+        PLANT, SCIENTIFIC_NAME, SYMPTOM, MEDICINAL_USE
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final SuggestionIndex EMPTY = new Builder().build();
+
+    private final String[] keys;          // sorted, lower-cased lookup keys
+    private final int[] suggestionOf;     // key -> suggestion ordinal
+    private final String[] texts;         // suggestion ordinal -> display text
+    private final byte[] kinds;           // suggestion ordinal -> Kind ordinal
+    private final int[] weights;          // suggestion ordinal -> popularity
+    private final int[] tree;             // segment tree of key positions with the highest weight
+    private final int leaves;
+    private final Map<String, Integer> ordinals;  // kind and lower-cased text -> suggestion ordinal
+    private final Set<Integer> masked;            // suggestion ordinals superseded by the overlay
+    private final SuggestionIndex overlay;        // suggestions changed since the arrays were built, or null
+
+    private SuggestionIndex(String[] keys, int[] suggestionOf, String[] texts, byte[] kinds, int[] weights,
+                            Map<String, Integer> ordinals) {
+        this.keys = keys;
+        this.suggestionOf = suggestionOf;
+        this.texts = texts;
+        this.kinds = kinds;
+        this.weights = weights;
+        this.ordinals = ordinals;
+        this.masked = Set.of();
+        this.overlay = null;
+        this.leaves = keys.length;
+        this.tree = new int[Math.max(1, 2 * leaves)];
+        for (int i = 0; i < leaves; i++) {
+            tree[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Shares the arrays of the base index, with the given suggestions masked and the overlay on top
+     */
+    private SuggestionIndex(SuggestionIndex base, Set<Integer> masked, SuggestionIndex overlay) {
+        this.keys = base.keys;
+        this.suggestionOf = base.suggestionOf;
+        this.texts = base.texts;
+        this.kinds = base.kinds;
+        this.weights = base.weights;
+        this.tree = base.tree;
+        this.leaves = base.leaves;
+        this.ordinals = base.ordinals;
+        this.masked = masked;
+        this.overlay = overlay;
+    }
+
+    public static SuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns up to {@code limit} distinct suggestions completing the prefix, most popular first
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String needle = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Completion> completions = collect(needle, limit);
+        if (overlay != null) {
+            completions.addAll(overlay.collect(needle, limit));
+            completions.sort(Comparator.comparingInt((Completion completion) -> -completion.suggestion.getWeight())
+                    .thenComparing(completion -> completion.key));
+        }
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, completions.size()));
+        for (int i = 0; i < completions.size() && i < limit; i++) {
+            result.add(completions.get(i).suggestion);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an index with the weights of suggestions changed by the deltas, which are collected
+     * like a build (by kind and case-insensitive text) and may be negative. A suggestion whose
+     * weight drops to zero or below is dropped.
+     */
+    public SuggestionIndex adjust(Builder deltas) {
+        Set<String> identities = new LinkedHashSet<>(deltas.ordinals.keySet());
+        if (overlay != null) {
+            identities.addAll(overlay.ordinals.keySet());
+        }
+        Builder changed = new Builder();
+        Set<Integer> nextMasked = new HashSet<>(masked);
+        for (String identity : identities) {
+            Integer delta = deltas.ordinals.get(identity);
+            Integer inOverlay = overlay == null ? null : overlay.ordinals.get(identity);
+            Integer inBase = ordinals.get(identity);
+            int weight = delta == null ? 0 : deltas.weights.get(delta);
+            String text;
+            Kind kind;
+            if (inOverlay != null) {
+                weight += overlay.weights[inOverlay];
+                text = overlay.texts[inOverlay];
+                kind = KINDS[overlay.kinds[inOverlay]];
+            } else if (inBase != null && !masked.contains(inBase)) {
+                weight += weights[inBase];
+                text = texts[inBase];
+                kind = KINDS[kinds[inBase]];
+            } else {
+                text = deltas.texts.get(delta);
+                kind = deltas.kinds.get(delta);
+            }
+            if (inBase != null) {
+                nextMasked.add(inBase);
+            }
+            if (weight > 0) {
+                changed.add(text, kind, weight);
+            }
+        }
+        return new SuggestionIndex(this, nextMasked, changed.build());
+    }
+
+    /**
+     * Number of suggestions held in the overlay rather than in the shared arrays
+     */
+    public int overlaySize() {
+        return overlay == null ? 0 : overlay.size();
+    }
+
+    /**
+     * The best completions of the needle in these arrays, without the masked suggestions, each
+     * with the first key it was reached by
+     */
+    private List<Completion> collect(String needle, int limit) {
+        List<Completion> result = new ArrayList<>(limit);
+        if (leaves == 0) {
+            return result;
+        }
+        int from = lowerBound(needle);
+        int to = upperBound(needle, from);
+        if (from >= to) {
+            return result;
+        }
+
+        // Ranges ordered by the weight of their best key; each pop emits one key and splits its range
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compareKeys(a[0], b[0]));
+        ranges.add(new int[]{argMax(from, to), from, to});
+        Set<Integer> emitted = new HashSet<>();
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[0];
+            int suggestion = suggestionOf[key];
+            if (!masked.contains(suggestion) && emitted.add(suggestion)) {
+                result.add(new Completion(new Suggestion(texts[suggestion], KINDS[kinds[suggestion]], weights[suggestion]),
+                        keys[key]));
+            }
+            if (range[1] < key) {
+                ranges.add(new int[]{argMax(range[1], key), range[1], key});
+            }
+            if (key + 1 < range[2]) {
+                ranges.add(new int[]{argMax(key + 1, range[2]), key + 1, range[2]});
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return texts.length - masked.size() + overlaySize();
+    }
+
+    public int keyCount() {
+        return keys.length + (overlay == null ? 0 : overlay.keyCount());
+    }
+
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                best = best < 0 ? tree[lo] : better(best, tree[lo]);
+                lo++;
+            }
+            if ((hi & 1) == 1) {
+                hi--;
+                best = best < 0 ? tree[hi] : better(best, tree[hi]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        return compareKeys(a, b) <= 0 ? a : b;
+    }
+
+    /**
+     * Orders key positions by suggestion weight, heaviest first, then alphabetically
+     */
+    private int compareKeys(int a, int b) {
+        int byWeight = Integer.compare(weights[suggestionOf[b]], weights[suggestionOf[a]]);
+        return byWeight != 0 ? byWeight : Integer.compare(a, b);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A single completion
+     */
+    @Value
+    public static class Suggestion {
+        String text;
+        Kind kind;
+        int weight;
+    }
+
+    /**
+     * A suggestion found for a prefix with the key that reached it
+     */
+    private static final class Completion {
+        private final Suggestion suggestion;
+        private final String key;
+
+        Completion(Suggestion suggestion, String key) {
+            this.suggestion = suggestion;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Collects weighted suggestions; adding the same text and kind twice sums the weights
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<Kind> kinds = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String text, Kind kind, int weight) {
+            if (text == null || text.isBlank()) {
+                return this;
+            }
+            String display = text.trim();
+            String identity = kind.ordinal() + ":" + display.toLowerCase(Locale.ROOT);
+            Integer ordinal = ordinals.get(identity);
+            if (ordinal == null) {
+                ordinals.put(identity, texts.size());
+                texts.add(display);
+                kinds.add(kind);
+                weights.add(weight);
+            } else {
+                weights.set(ordinal, weights.get(ordinal) + weight);
+            }
+            return this;
+        }
+
+        public SuggestionIndex build() {
+            List<String> keyList = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for (int s = 0; s < texts.size(); s++) {
+                String lower = texts.get(s).toLowerCase(Locale.ROOT);
+                for (int i = 0; i < lower.length(); i++) {
+                    boolean wordStart = Character.isLetterOrDigit(lower.charAt(i))
+                            && (i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1)));
+                    if (wordStart) {
+                        keyList.add(lower.substring(i));
+                        owners.add(s);
+                    }
+                }
+            }
+            Integer[] order = new Integer[keyList.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keyList.get(a).compareTo(keyList.get(b)));
+
+            String[] keys = new String[order.length];
+            int[] suggestionOf = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                suggestionOf[i] = owners.get(order[i]);
+            }
+            byte[] kindArray = new byte[kinds.size()];
+            int[] weightArray = new int[weights.size()];
+            for (int s = 0; s < kindArray.length; s++) {
+                kindArray[s] = (byte) kinds.get(s).ordinal();
+                weightArray[s] = weights.get(s);
+            }
+            return new SuggestionIndex(keys, suggestionOf, texts.toArray(new String[0]), kindArray, weightArray,
+                    new HashMap<>(ordinals));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.catalog.CatalogChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the current SuggestionIndex. Updates run on a dedicated background thread from the
+ * documents of the search index, and the result is published through a single volatile
+ * reference, so lookups never wait for or observe a partial build.
+ * <p>
+ * Only the plants changed since the last update are read: their old contributions are taken
+ * off and their new ones added through {@link SuggestionIndex#adjust}. Once the adjusted
+ * suggestions outgrow {@value #MAX_OVERLAY_RATIO} of the index it is built again in full.
+ */
+@Component
+@Slf4j
+public class SuggestionIndexManager {
+
+    // Adjusted suggestions beyond this share of the index are folded into a full build
+    static final double MAX_OVERLAY_RATIO = 0.1;
+
+    private final SearchIndexManager searchIndexManager;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile SuggestionIndex index = SuggestionIndex.empty();
+    // The search index the suggestions reflect; only touched on the executor thread
+    private PlantSearchIndex indexed;
+
+    public SuggestionIndexManager(SearchIndexManager searchIndexManager) {
+        this.searchIndexManager = searchIndexManager;
+    }
+
+    public List<SuggestionIndex.Suggestion> complete(String prefix, int limit) {
+        return index.complete(prefix, limit);
+    }
+
+    /**
+     * Schedules a rebuild whenever the search index publishes a new version, which follows every
+     * committed catalog change. Changes arriving while a rebuild is still queued are folded into it.
+     */
+    @EventListener(CatalogChangedEvent.class)
+    public void scheduleRebuild(CatalogChangedEvent event) {
+        if (!event.getChangedEntities().contains(SearchIndexManager.INDEX_PUBLISHED)) {
+            return;
+        }
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    void rebuild() {
+        rebuildPending.set(false);
+        try {
+            long start = System.nanoTime();
+            PlantSearchIndex searchIndex = searchIndexManager.getIndex();
+            SuggestionIndex current = index;
+            if (indexed != null) {
+                SuggestionIndex.Builder deltas = SuggestionIndex.builder();
+                int[] changed = new int[1];
+                searchIndex.diffSince(indexed, (plantId, before, after) -> {
+                    add(deltas, before, -1);
+                    add(deltas, after, 1);
+                    changed[0]++;
+                });
+                SuggestionIndex adjusted = current.adjust(deltas);
+                if (adjusted.overlaySize() <= MAX_OVERLAY_RATIO * adjusted.size()) {
+                    index = adjusted;
+                    indexed = searchIndex;
+                    log.info("Suggestion index updated for {} plants in {} ms",
+                            changed[0], (System.nanoTime() - start) / 1_000_000);
+                    return;
+                }
+            }
+            SuggestionIndex rebuilt = build(searchIndex);
+            index = rebuilt;
+            indexed = searchIndex;
+            log.info("Suggestion index built with {} suggestions and {} keys in {} ms",
+                    rebuilt.size(), rebuilt.keyCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild suggestion index, keeping the previous one", e);
+        }
+    }
+
+    /**
+     * Weighs plants by review count and rating, and symptoms and medicinal uses by how many
+     * plants they lead to
+     */
+    static SuggestionIndex build(PlantSearchIndex searchIndex) {
+        SuggestionIndex.Builder builder = SuggestionIndex.builder();
+        for (PlantDocument document : searchIndex.getDocuments()) {
+            add(builder, document, 1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds the plant's suggestions with their weights multiplied by the sign; nothing for null
+     */
+    private static void add(SuggestionIndex.Builder builder, PlantDocument document, int sign) {
+        if (document == null) {
+            return;
+        }
+        int popularity = 1 + document.getReviewCount() + (int) Math.round(document.getRating() * 2);
+        builder.add(document.getName(), SuggestionIndex.Kind.PLANT, sign * popularity);
+        builder.add(document.getScientificName(), SuggestionIndex.Kind.SCIENTIFIC_NAME, sign * popularity);
+        for (String use : document.getMedicinalUses()) {
+            builder.add(use, SuggestionIndex.Kind.MEDICINAL_USE, sign);
+        }
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            builder.add(symptom.getName(), SuggestionIndex.Kind.SYMPTOM, sign);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
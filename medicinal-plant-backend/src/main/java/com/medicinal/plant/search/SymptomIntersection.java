@@ -0,0 +1,167 @@
+package com.medicinal.plant.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the plants that treat all, or at least a given number, of several symptoms, ranked by
+ * the sum of their effectiveness scores for the symptoms they treat.
+ * <p>
+ * A plant linked to at least n of m symptoms is necessarily linked to one of the m - n + 1
+ * rarest ones, so only those posting lists are read sequentially, most effective plants first;
+ * every plant read there is looked up in all other lists by binary search. For an ALL query
+ * that is just the rarest symptom's list. Reading stops as soon as the k-th best combined score
+ * exceeds what any unread plant could still reach: the effectiveness at the read position of
+ * each driving list plus the best effectiveness in each remaining list (the threshold algorithm,
+ * as in WAND). The cost therefore grows with the rarest lists and not with the catalog.
+ */
+public final class SymptomIntersection {
+
+    private SymptomIntersection() {
+    }
+
+    /**
+     * Returns up to limit plants treating at least minMatches of the symptom groups, best first.
+     * Each group is the symptom IDs one requested symptom resolved to and counts once. Match
+     * counts are the number of groups each plant treats, and the candidate count is the number of
+     * plants examined.
+     */
+    public static RankedHits topK(PlantSearchIndex index, List<? extends Collection<Long>> symptomGroups,
+                                  int minMatches, int limit) {
+        return topK(index, symptomGroups, List.of(), minMatches, limit);
+    }
+
+    /**
+     * Like {@link #topK(PlantSearchIndex, List, int, int)}, with each of the use keywords counting
+     * as one more group: the plants with a medicinal use containing it. Such a match counts
+     * towards minMatches but adds no effectiveness to the score.
+     */
+    public static RankedHits topK(PlantSearchIndex index, List<? extends Collection<Long>> symptomGroups,
+                                  List<String> useKeywords, int minMatches, int limit) {
+        if ((symptomGroups.isEmpty() && useKeywords.isEmpty()) || limit <= 0) {
+            return RankedHits.EMPTY;
+        }
+        SymptomPosting[] lists = new SymptomPosting[symptomGroups.size() + useKeywords.size()];
+        for (int i = 0; i < symptomGroups.size(); i++) {
+            lists[i] = index.symptomPosting(symptomGroups.get(i));
+        }
+        for (int i = 0; i < useKeywords.size(); i++) {
+            lists[symptomGroups.size() + i] = index.usePosting(useKeywords.get(i));
+        }
+        Arrays.sort(lists, Comparator.comparingInt(SymptomPosting::size));
+        int required = Math.max(1, Math.min(minMatches, lists.length));
+        int drivers = lists.length - required + 1;
+
+        // Unread plants score at most the read position of each driving list plus the best of the rest
+        double remainingBound = 0.0;
+        for (int i = drivers; i < lists.length; i++) {
+            remainingBound += lists[i].size() == 0 ? 0.0 : lists[i].scoreAt(0);
+        }
+
+        // Tracks the k-th best score for the stopping rule; which of several tied plants it holds does not matter
+        TopK best = new TopK(limit);
+        Map<Long, Double> qualified = new HashMap<>();
+        Set<Long> examined = new HashSet<>();
+        int[] position = new int[drivers];
+        while (true) {
+            boolean read = false;
+            double bound = remainingBound;
+            for (int d = 0; d < drivers; d++) {
+                SymptomPosting driver = lists[d];
+                if (position[d] == driver.size()) {
+                    continue;
+                }
+                read = true;
+                long plantId = driver.idAt(position[d]++);
+                if (examined.add(plantId) && index.getDocument(plantId) != null && matches(lists, plantId) >= required) {
+                    double score = score(lists, plantId);
+                    best.offer(qualified.size(), score);
+                    qualified.put(plantId, score);
+                }
+                if (position[d] < driver.size()) {
+                    bound += driver.scoreAt(position[d]);
+                }
+            }
+            // Strictly greater, so a tie with an unread plant of smaller id is still resolved by id
+            if (!read || (best.isFull() && best.worstScore() > bound)) {
+                break;
+            }
+        }
+
+        // Numbered in id order, so equal scores are ranked by id
+        long[] candidates = qualified.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        TopK ranked = new TopK(limit);
+        for (int c = 0; c < candidates.length; c++) {
+            ranked.offer(c, qualified.get(candidates[c]));
+        }
+        int[] ordinals = ranked.drainOrdinals();
+        long[] ids = new long[ordinals.length];
+        int[] matchCounts = new int[ordinals.length];
+        double[] scores = new double[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ids[i] = candidates[ordinals[i]];
+            matchCounts[i] = matches(lists, ids[i]);
+            scores[i] = qualified.get(ids[i]);
+        }
+        return new RankedHits(ids, matchCounts, scores, examined.size());
+    }
+
+    /**
+     * The effectiveness each symptom group adds to the plant's score, keyed by the group's symptom
+     * IDs; groups the plant does not treat are left out
+     */
+    public static Map<String, Double> explain(PlantSearchIndex index, List<? extends Collection<Long>> symptomGroups,
+                                              long plantId) {
+        return explain(index, symptomGroups, List.of(), plantId);
+    }
+
+    /**
+     * Like {@link #explain(PlantSearchIndex, List, long)}, with the use keywords the plant matches
+     * listed at no effectiveness
+     */
+    public static Map<String, Double> explain(PlantSearchIndex index, List<? extends Collection<Long>> symptomGroups,
+                                              List<String> useKeywords, long plantId) {
+        Map<String, Double> contributions = new LinkedHashMap<>();
+        for (Collection<Long> group : symptomGroups) {
+            double effectiveness = index.symptomPosting(group).scoreOf(plantId);
+            if (!Double.isNaN(effectiveness)) {
+                contributions.put("symptoms " + group, effectiveness);
+            }
+        }
+        for (String keyword : useKeywords) {
+            double effectiveness = index.usePosting(keyword).scoreOf(plantId);
+            if (!Double.isNaN(effectiveness)) {
+                contributions.put("use \"" + keyword + "\"", effectiveness);
+            }
+        }
+        return contributions;
+    }
+
+    private static int matches(SymptomPosting[] lists, long plantId) {
+        int matches = 0;
+        for (SymptomPosting list : lists) {
+            if (!Double.isNaN(list.scoreOf(plantId))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static double score(SymptomPosting[] lists, long plantId) {
+        double score = 0.0;
+        for (SymptomPosting list : lists) {
+            double effectiveness = list.scoreOf(plantId);
+            if (!Double.isNaN(effectiveness)) {
+                score += effectiveness;
+            }
+        }
+        return score;
+    }
+}
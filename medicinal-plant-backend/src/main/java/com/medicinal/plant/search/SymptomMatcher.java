@@ -0,0 +1,394 @@
+package com.medicinal.plant.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton over symptom names, symptom synonyms and medicinal-use phrases.
+ * <p>
+ * A description is scanned once, character by character, and every phrase that occurs as whole
+ * words is reported; a plural "s" or "es" may follow, so "headaches" matches Headache while
+ * "painful" does not match Pain. Symptom phrases resolve to their symptom ID, vocabulary phrases
+ * to the keyword that should be looked up in the plant index. Instances are immutable and are
+ * swapped as a whole when the symptom table changes.
+ * <p>
+ * A symptom ID finds plants through their symptom links only. A plant that lists the symptom
+ * among its medicinal uses without a link is found when the description contains that
+ * medicinal-use phrase, which is vocabulary in its own right.
+ */
+public final class SymptomMatcher {
+
+    public static final long NO_SYMPTOM = -1L;
+
+    private static final SymptomMatcher EMPTY = new Builder().build();
+
+    /**
+     * Receives pattern ordinals as they are found during a scan
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int pattern);
+    }
+
+    // Goto function as an open-addressing hash table keyed by (state << 16 | char)
+    private final long[] transitionKeys;
+    private final int[] transitionTargets;
+    private final int transitionMask;
+
+    private final int[] fail;
+    // Outputs of each state, including those inherited through failure links, in CSR layout
+    private final int[] outputStart;
+    private final int[] outputs;
+
+    private final int[] patternLengths;
+    private final long[] patternSymptomIds;
+    private final String[] patternKeywords;
+
+    private SymptomMatcher(long[] transitionKeys, int[] transitionTargets, int[] fail,
+                           int[] outputStart, int[] outputs,
+                           int[] patternLengths, long[] patternSymptomIds, String[] patternKeywords) {
+        this.transitionKeys = transitionKeys;
+        this.transitionTargets = transitionTargets;
+        this.transitionMask = transitionKeys.length - 1;
+        this.fail = fail;
+        this.outputStart = outputStart;
+        this.outputs = outputs;
+        this.patternLengths = patternLengths;
+        this.patternSymptomIds = patternSymptomIds;
+        this.patternKeywords = patternKeywords;
+    }
+
+    public static SymptomMatcher empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Scans the text once and reports every pattern that starts and ends on a word boundary.
+     * Performs no allocation.
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            for (int o = outputStart[state]; o < outputStart[state + 1]; o++) {
+                if (isWholeWords(text, i, outputs[o])) {
+                    listener.onMatch(outputs[o]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the text once and emits the symptom ID or keyword of every pattern found, once per
+     * occurrence and in the order the occurrences end. Performs no allocation; the sink decides
+     * whether repeats are collapsed.
+     */
+    public void match(CharSequence text, MatchSink sink) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            for (int o = outputStart[state]; o < outputStart[state + 1]; o++) {
+                int pattern = outputs[o];
+                if (!isWholeWords(text, i, pattern)) {
+                    continue;
+                }
+                if (patternSymptomIds[pattern] != NO_SYMPTOM) {
+                    sink.symptom(patternSymptomIds[pattern]);
+                } else {
+                    sink.keyword(patternKeywords[pattern]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves text naming a single symptom to the IDs behind its longest matching symptom name or
+     * synonym, so "joint pain" resolves to Joint pain alone and not also to Pain
+     */
+    public List<Long> resolveSymptom(CharSequence text) {
+        int[] longest = {0};
+        Set<Long> symptomIds = new LinkedHashSet<>();
+        scan(text, pattern -> {
+            if (patternSymptomIds[pattern] == NO_SYMPTOM || patternLengths[pattern] < longest[0]) {
+                return;
+            }
+            if (patternLengths[pattern] > longest[0]) {
+                longest[0] = patternLengths[pattern];
+                symptomIds.clear();
+            }
+            symptomIds.add(patternSymptomIds[pattern]);
+        });
+        return List.copyOf(symptomIds);
+    }
+
+    public long symptomIdOf(int pattern) {
+        return patternSymptomIds[pattern];
+    }
+
+    public String keywordOf(int pattern) {
+        return patternKeywords[pattern];
+    }
+
+    public int patternCount() {
+        return patternLengths.length;
+    }
+
+    /**
+     * Case folding applied to phrases and scanned text alike. Folding char by char keeps every
+     * pattern as long as the text it matches, which String.toLowerCase does not guarantee
+     * ("İ" lowercases to two chars).
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private int step(int state, char c) {
+        int next = transition(state, c);
+        while (next < 0 && state != 0) {
+            state = fail[state];
+            next = transition(state, c);
+        }
+        return next < 0 ? 0 : next;
+    }
+
+    /**
+     * Whether the pattern ending at {@code end} starts and ends on a word boundary
+     */
+    private boolean isWholeWords(CharSequence text, int end, int pattern) {
+        int start = end - patternLengths[pattern] + 1;
+        return (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1))) && endsWord(text, end + 1);
+    }
+
+    /**
+     * Whether a match ending before {@code end} ends a word, allowing for a plural ending
+     */
+    private static boolean endsWord(CharSequence text, int end) {
+        if (isBoundary(text, end)) {
+            return true;
+        }
+        if (Character.toLowerCase(text.charAt(end)) != 's') {
+            return isPluralEs(text, end);
+        }
+        return isBoundary(text, end + 1);
+    }
+
+    private static boolean isPluralEs(CharSequence text, int end) {
+        return end + 1 < text.length()
+                && Character.toLowerCase(text.charAt(end)) == 'e'
+                && Character.toLowerCase(text.charAt(end + 1)) == 's'
+                && isBoundary(text, end + 2);
+    }
+
+    private static boolean isBoundary(CharSequence text, int index) {
+        return index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private int transition(int state, char c) {
+        long key = ((long) state << 16) | c;
+        int slot = mix(key) & transitionMask;
+        while (true) {
+            long candidate = transitionKeys[slot];
+            if (candidate == key) {
+                return transitionTargets[slot];
+            }
+            if (candidate == -1L) {
+                return -1;
+            }
+            slot = (slot + 1) & transitionMask;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Receives the symptom IDs and keywords found by {@link #match}
+     */
+    public interface MatchSink {
+
+        void symptom(long symptomId);
+
+        void keyword(String keyword);
+
+        /**
+         * Sink adding to the given collections, so sets collect the distinct symptoms and keywords
+         */
+        static MatchSink into(Collection<Long> symptomIds, Collection<String> keywords) {
+            return new MatchSink() {
+                @Override
+                public void symptom(long symptomId) {
+                    symptomIds.add(symptomId);
+                }
+
+                @Override
+                public void keyword(String keyword) {
+                    keywords.add(keyword);
+                }
+            };
+        }
+    }
+
+    /**
+     * Collects phrases and compiles them into an automaton
+     */
+    public static final class Builder {
+
+        private final List<String> phrases = new ArrayList<>();
+        private final List<Long> symptomIds = new ArrayList<>();
+        private final List<String> keywords = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder addSymptom(String phrase, long symptomId) {
+            return add(phrase, symptomId, phrase);
+        }
+
+        public Builder addKeyword(String phrase) {
+            return add(phrase, NO_SYMPTOM, phrase);
+        }
+
+        private Builder add(String phrase, long symptomId, String keyword) {
+            if (phrase == null || phrase.isBlank()) {
+                return this;
+            }
+            phrases.add(fold(phrase.trim()));
+            symptomIds.add(symptomId);
+            keywords.add(keyword.trim().toLowerCase(Locale.ROOT));
+            return this;
+        }
+
+        private static String fold(String phrase) {
+            char[] folded = new char[phrase.length()];
+            for (int i = 0; i < folded.length; i++) {
+                folded[i] = SymptomMatcher.fold(phrase.charAt(i));
+            }
+            return new String(folded);
+        }
+
+        public SymptomMatcher build() {
+            // Trie construction with child lists, flattened into arrays afterwards
+            List<int[]> children = new ArrayList<>();      // per state: pairs of (char, target)
+            List<int[]> ownOutputs = new ArrayList<>();
+            children.add(new int[0]);
+            ownOutputs.add(new int[0]);
+            int[] lengths = new int[phrases.size()];
+            for (int p = 0; p < phrases.size(); p++) {
+                String phrase = phrases.get(p);
+                lengths[p] = phrase.length();
+                int state = 0;
+                for (int i = 0; i < phrase.length(); i++) {
+                    char c = phrase.charAt(i);
+                    int next = child(children.get(state), c);
+                    if (next < 0) {
+                        next = children.size();
+                        children.add(new int[0]);
+                        ownOutputs.add(new int[0]);
+                        int[] edges = children.get(state);
+                        int[] grown = Arrays.copyOf(edges, edges.length + 2);
+                        grown[edges.length] = c;
+                        grown[edges.length + 1] = next;
+                        children.set(state, grown);
+                    }
+                    state = next;
+                }
+                int[] own = ownOutputs.get(state);
+                int[] grown = Arrays.copyOf(own, own.length + 1);
+                grown[own.length] = p;
+                ownOutputs.set(state, grown);
+            }
+
+            int stateCount = children.size();
+            int edgeCount = 0;
+            for (int[] edges : children) {
+                edgeCount += edges.length / 2;
+            }
+            int capacity = Integer.highestOneBit(Math.max(4, edgeCount * 2 - 1)) << 1;
+            long[] keys = new long[capacity];
+            int[] targets = new int[capacity];
+            Arrays.fill(keys, -1L);
+            for (int state = 0; state < stateCount; state++) {
+                int[] edges = children.get(state);
+                for (int e = 0; e < edges.length; e += 2) {
+                    long key = ((long) state << 16) | edges[e];
+                    int slot = mix(key) & (capacity - 1);
+                    while (keys[slot] != -1L) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    keys[slot] = key;
+                    targets[slot] = edges[e + 1];
+                }
+            }
+
+            // Breadth-first failure links; outputs are merged with those of the failure state
+            int[] fail = new int[stateCount];
+            int[][] merged = new int[stateCount][];
+            merged[0] = ownOutputs.get(0);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int e = 0; e < children.get(0).length; e += 2) {
+                int target = children.get(0)[e + 1];
+                fail[target] = 0;
+                merged[target] = ownOutputs.get(target);
+                queue.add(target);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                int[] edges = children.get(state);
+                for (int e = 0; e < edges.length; e += 2) {
+                    char c = (char) edges[e];
+                    int target = edges[e + 1];
+                    int f = fail[state];
+                    int next = child(children.get(f), c);
+                    while (next < 0 && f != 0) {
+                        f = fail[f];
+                        next = child(children.get(f), c);
+                    }
+                    fail[target] = next < 0 || next == target ? 0 : next;
+                    int[] own = ownOutputs.get(target);
+                    int[] inherited = merged[fail[target]];
+                    int[] all = Arrays.copyOf(own, own.length + inherited.length);
+                    System.arraycopy(inherited, 0, all, own.length, inherited.length);
+                    merged[target] = all;
+                    queue.add(target);
+                }
+            }
+
+            int[] outputStart = new int[stateCount + 1];
+            for (int state = 0; state < stateCount; state++) {
+                outputStart[state + 1] = outputStart[state] + merged[state].length;
+            }
+            int[] outputs = new int[outputStart[stateCount]];
+            for (int state = 0; state < stateCount; state++) {
+                System.arraycopy(merged[state], 0, outputs, outputStart[state], merged[state].length);
+            }
+
+            long[] ids = new long[symptomIds.size()];
+            for (int p = 0; p < ids.length; p++) {
+                ids[p] = symptomIds.get(p);
+            }
+            return new SymptomMatcher(keys, targets, fail, outputStart, outputs,
+                    lengths, ids, keywords.toArray(new String[0]));
+        }
+
+        private static int child(int[] edges, char c) {
+            for (int e = 0; e < edges.length; e += 2) {
+                if (edges[e] == c) {
+                    return edges[e + 1];
+                }
+            }
+            return -1;
+        }
+    }
+}
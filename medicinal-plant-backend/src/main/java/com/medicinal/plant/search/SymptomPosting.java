@@ -0,0 +1,149 @@
+package com.medicinal.plant.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Plants linked to a symptom with the effectiveness of each link.
+ * <p>
+ * Entries are stored by ascending plant id, for membership and score lookups by binary search,
+ * together with a permutation listing them by decreasing effectiveness, for reading the most
+ * effective plants first. A plant linked to the symptom more than once keeps its best score.
+ */
+final class SymptomPosting {
+
+    static final SymptomPosting EMPTY = new SymptomPosting(PostingLists.EMPTY, new double[0]);
+
+    private final long[] ids;
+    private final double[] scores;
+    private final int[] byEffectiveness;
+
+    SymptomPosting(long[] ids, double[] scores) {
+        this.ids = ids;
+        this.scores = scores;
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Stable sort, so equally effective plants stay in id order
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        this.byEffectiveness = new int[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            byEffectiveness[i] = order[i];
+        }
+    }
+
+    /**
+     * Merges the postings of several symptoms into one, as if they were a single symptom
+     */
+    static SymptomPosting union(Collection<SymptomPosting> postings) {
+        List<SymptomPosting> nonEmpty = postings.stream().filter(posting -> posting.size() > 0).toList();
+        if (nonEmpty.isEmpty()) {
+            return EMPTY;
+        }
+        if (nonEmpty.size() == 1) {
+            return nonEmpty.get(0);
+        }
+        long[] ids = PostingLists.EMPTY;
+        for (SymptomPosting posting : nonEmpty) {
+            ids = PostingLists.union(ids, posting.ids);
+        }
+        double[] scores = new double[ids.length];
+        Arrays.fill(scores, Double.NEGATIVE_INFINITY);
+        for (SymptomPosting posting : nonEmpty) {
+            int j = 0;
+            for (int i = 0; i < posting.ids.length; i++) {
+                while (ids[j] < posting.ids[i]) {
+                    j++;
+                }
+                scores[j] = Math.max(scores[j], posting.scores[i]);
+            }
+        }
+        return new SymptomPosting(ids, scores);
+    }
+
+    /**
+     * Returns the posting with the links of the given plants replaced by the new links, which
+     * are keyed by plant id and hold each plant's best effectiveness
+     */
+    SymptomPosting replace(Set<Long> plantIds, SortedMap<Long, Double> links) {
+        Builder builder = new Builder();
+        Iterator<Map.Entry<Long, Double>> added = links.entrySet().iterator();
+        Map.Entry<Long, Double> next = added.hasNext() ? added.next() : null;
+        for (int i = 0; i < ids.length; i++) {
+            while (next != null && next.getKey() < ids[i]) {
+                builder.add(next.getKey(), next.getValue());
+                next = added.hasNext() ? added.next() : null;
+            }
+            if (!plantIds.contains(ids[i])) {
+                builder.add(ids[i], scores[i]);
+            }
+        }
+        for (; next != null; next = added.hasNext() ? added.next() : null) {
+            builder.add(next.getKey(), next.getValue());
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long[] getIds() {
+        return ids;
+    }
+
+    /**
+     * Plant id of the rank-th most effective entry
+     */
+    long idAt(int rank) {
+        return ids[byEffectiveness[rank]];
+    }
+
+    /**
+     * Effectiveness of the rank-th most effective entry
+     */
+    double scoreAt(int rank) {
+        return scores[byEffectiveness[rank]];
+    }
+
+    /**
+     * Effectiveness of the plant's link, or NaN when the plant is not linked
+     */
+    double scoreOf(long plantId) {
+        int i = Arrays.binarySearch(ids, plantId);
+        return i >= 0 ? scores[i] : Double.NaN;
+    }
+
+    /**
+     * Collects links in ascending plant id order
+     */
+    static final class Builder {
+
+        private long[] ids = new long[4];
+        private double[] scores = new double[4];
+        private int size;
+
+        void add(long id, double score) {
+            if (size > 0 && ids[size - 1] == id) {
+                scores[size - 1] = Math.max(scores[size - 1], score);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            ids[size] = id;
+            scores[size++] = score;
+        }
+
+        SymptomPosting build() {
+            return new SymptomPosting(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+        }
+    }
+}
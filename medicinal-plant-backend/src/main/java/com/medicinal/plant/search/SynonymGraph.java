@@ -0,0 +1,145 @@
+package com.medicinal.plant.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rewrites words and phrases with the same meaning to one canonical term, so "tummy ache" and
+ * "stomach ache" index and query alike.
+ * <p>
+ * Rules are read one per line, {@code #} starting a comment. {@code tummy, belly => stomach}
+ * maps every listed variant to the form after the arrow; {@code anxiety, nervousness, worry}
+ * maps all entries to the first. Every side is analyzed by the filters preceding the graph,
+ * so rules may be written in plain words and still meet stemmed tokens. The variants are kept
+ * in a trie over their terms and each position of the token stream takes the longest variant
+ * starting there, which may span several tokens. The matched tokens become one token covering
+ * their offsets; a canonical form of several words is joined into one term with spaces.
+ */
+final class SynonymGraph implements Analyzer.TokenFilter {
+
+    private final Node root;
+    private final List<String> rules;
+
+    private SynonymGraph(Node root, List<String> rules) {
+        this.root = root;
+        this.rules = rules;
+    }
+
+    /**
+     * Compiles the rules, analyzing their words with the given preceding pipeline
+     *
+     * @throws IllegalArgumentException when a rule has no variants or no canonical form
+     */
+    static SynonymGraph parse(String rules, Analyzer preceding) {
+        Node root = new Node();
+        Set<String> normalized = new TreeSet<>();
+        int lineNumber = 0;
+        for (String line : rules.split("\\R")) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String rule = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            int arrow = rule.indexOf("=>");
+            List<List<String>> variants = analyzeAll(arrow >= 0 ? rule.substring(0, arrow) : rule, preceding);
+            List<List<String>> targets = arrow >= 0 ? analyzeAll(rule.substring(arrow + 2), preceding) : variants;
+            if (variants.isEmpty() || targets.size() != (arrow >= 0 ? 1 : variants.size())) {
+                throw new IllegalArgumentException("Invalid synonym rule on line " + lineNumber + ": " + line);
+            }
+            List<String> canonical = targets.get(0);
+            String term = String.join(" ", canonical);
+            Set<List<String>> sources = new LinkedHashSet<>(variants);
+            if (canonical.size() > 1) {
+                // The canonical phrase itself also has to become the joined term
+                sources.add(canonical);
+            }
+            List<String> sourceNames = new ArrayList<>();
+            for (List<String> source : sources) {
+                if (source.size() == 1 && source.get(0).equals(term)) {
+                    continue;
+                }
+                Node node = root;
+                for (String word : source) {
+                    node = node.children.computeIfAbsent(word, w -> new Node());
+                }
+                node.canonical = term;
+                sourceNames.add(String.join(" ", source));
+            }
+            if (!sourceNames.isEmpty()) {
+                normalized.add(String.join("|", sourceNames) + "=>" + term);
+            }
+        }
+        return new SynonymGraph(root, List.copyOf(normalized));
+    }
+
+    private static List<List<String>> analyzeAll(String side, Analyzer preceding) {
+        List<List<String>> analyzed = new ArrayList<>();
+        for (String entry : side.split(",")) {
+            List<String> terms = preceding.terms(entry);
+            if (!terms.isEmpty()) {
+                analyzed.add(terms);
+            }
+        }
+        return analyzed;
+    }
+
+    @Override
+    public List<Analyzer.Token> filter(List<Analyzer.Token> tokens) {
+        if (root.children.isEmpty()) {
+            return tokens;
+        }
+        List<Analyzer.Token> rewritten = new ArrayList<>(tokens.size());
+        int i = 0;
+        while (i < tokens.size()) {
+            Node node = root;
+            String canonical = null;
+            int matchedEnd = i;
+            for (int k = i; k < tokens.size(); k++) {
+                node = node.children.get(tokens.get(k).getTerm());
+                if (node == null) {
+                    break;
+                }
+                if (node.canonical != null) {
+                    canonical = node.canonical;
+                    matchedEnd = k + 1;
+                }
+            }
+            if (canonical == null) {
+                rewritten.add(tokens.get(i));
+                i++;
+            } else {
+                rewritten.add(new Analyzer.Token(canonical, tokens.get(i).getStart(), tokens.get(matchedEnd - 1).getEnd()));
+                i = matchedEnd;
+            }
+        }
+        return rewritten;
+    }
+
+    /**
+     * The rules in analyzed form, one "variant|variant=>canonical" line each, sorted
+     */
+    List<String> getRules() {
+        return rules;
+    }
+
+    @Override
+    public String name() {
+        return "synonyms";
+    }
+
+    @Override
+    public String signature() {
+        return "synonyms" + rules;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private String canonical;
+    }
+}
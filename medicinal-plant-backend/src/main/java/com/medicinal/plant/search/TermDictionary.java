@@ -0,0 +1,371 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interns analyzed terms to dense int IDs, so per-plant data can store and compare terms as
+ * ints instead of strings.
+ * <p>
+ * Every term counts the plants whose texts use it. A term whose count drops to zero is
+ * dropped and its ID is handed to a later new term, so the dictionary holds the live
+ * vocabulary rather than every term ever seen, and a full rebuild numbers the terms densely
+ * again. An ID is never reused within the update that freed it, and positions encoded against
+ * a dictionary only ever name terms that are live in it.
+ * <p>
+ * Lookups by prefix and by fragment are answered from two small inverted indexes over the
+ * terms themselves: the IDs of the terms per leading one or two characters, and per trigram.
+ * A fragment intersects the lists of its trigrams and verifies the few candidates left.
+ * Instances are immutable and kept in {@link PersistentMap}s, so an update copies only the
+ * entries and lists of the terms it adds or drops.
+ */
+public final class TermDictionary {
+
+    private static final int PREFIX = 2;
+    private static final int[] NONE = new int[0];
+
+    private static final TermDictionary EMPTY = new TermDictionary(PersistentMap.empty(), PersistentMap.empty(),
+            PersistentMap.empty(), PersistentMap.empty(), NONE, 0);
+
+    private final PersistentMap<String, Integer> ids;     // term -> id
+    private final PersistentMap<Integer, Term> terms;     // id -> term
+    private final PersistentMap<String, int[]> prefixes;  // first one or two characters -> sorted ids
+    private final PersistentMap<Long, int[]> grams;       // trigram -> sorted ids of the terms containing it
+    private final int[] free;                             // ids free for reuse
+    private final int nextId;                             // lowest id never handed out
+
+    private TermDictionary(PersistentMap<String, Integer> ids, PersistentMap<Integer, Term> terms,
+                           PersistentMap<String, int[]> prefixes, PersistentMap<Long, int[]> grams,
+                           int[] free, int nextId) {
+        this.ids = ids;
+        this.terms = terms;
+        this.prefixes = prefixes;
+        this.grams = grams;
+        this.free = free;
+        this.nextId = nextId;
+    }
+
+    public static TermDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Starts a dictionary holding every term of this one under the same IDs
+     */
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Writes the term and plant count of every ID, with null for the free ones
+     */
+    void writeTo(IndexSnapshot.Output out) throws IOException {
+        String[] texts = new String[nextId];
+        int[] counts = new int[nextId];
+        terms.forEach((id, term) -> {
+            texts[id] = term.text;
+            counts[id] = term.documents;
+        });
+        out.writeStrings(texts);
+        out.writeInts(counts);
+    }
+
+    static TermDictionary readFrom(IndexSnapshot.Input in) {
+        String[] texts = in.readStrings();
+        int[] counts = in.readInts();
+        Builder builder = EMPTY.toBuilder();
+        for (int id = 0; id < texts.length; id++) {
+            if (texts[id] == null) {
+                builder.released.add(id);
+            } else {
+                builder.add(texts[id], id, counts[id]);
+            }
+        }
+        builder.nextId = texts.length;
+        return builder.build();
+    }
+
+    /**
+     * Returns the ID of the term, or -1 when it is not in the dictionary
+     */
+    public int idOf(String term) {
+        Integer id = ids.get(term);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the term with the ID, or null when the ID is free
+     */
+    public String termAt(int id) {
+        Term term = terms.get(id);
+        return term == null ? null : term.text;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the sorted IDs of the terms starting with the prefix
+     */
+    public int[] idsWithPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return allIds();
+        }
+        if (prefix.length() <= PREFIX) {
+            return prefixes.getOrDefault(prefix, NONE).clone();
+        }
+        List<int[]> lists = gramLists(prefix);
+        if (lists == null) {
+            return NONE;
+        }
+        lists.add(prefixes.getOrDefault(prefix.substring(0, PREFIX), NONE));
+        return verify(intersect(lists), prefix, true);
+    }
+
+    /**
+     * Returns the sorted IDs of the terms containing the fragment anywhere
+     */
+    public int[] idsContaining(String fragment) {
+        if (fragment.length() < TrigramIndex.GRAM) {
+            // Too short to have a trigram: every term is a candidate
+            return verify(allIds(), fragment, false);
+        }
+        List<int[]> lists = gramLists(fragment);
+        return lists == null ? NONE : verify(intersect(lists), fragment, false);
+    }
+
+    private int[] allIds() {
+        int[] all = new int[terms.size()];
+        int[] n = new int[1];
+        terms.forEach((id, term) -> all[n[0]++] = id);
+        Arrays.sort(all);
+        return all;
+    }
+
+    /**
+     * The posting lists of the fragment's trigrams, or null when one of them has none
+     */
+    private List<int[]> gramLists(String fragment) {
+        List<int[]> lists = new ArrayList<>();
+        for (long gram : gramsOf(fragment)) {
+            int[] list = grams.get(gram);
+            if (list == null) {
+                return null;
+            }
+            lists.add(list);
+        }
+        return lists;
+    }
+
+    private int[] verify(int[] candidates, String fragment, boolean prefix) {
+        int[] matches = new int[candidates.length];
+        int n = 0;
+        for (int id : candidates) {
+            String text = terms.get(id).text;
+            if (prefix ? text.startsWith(fragment) : text.contains(fragment)) {
+                matches[n++] = id;
+            }
+        }
+        return n == matches.length ? matches : Arrays.copyOf(matches, n);
+    }
+
+    private static int[] intersect(List<int[]> lists) {
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            int[] other = lists.get(l);
+            int[] both = new int[result.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < result.length && j < other.length) {
+                if (result[i] < other[j]) {
+                    i++;
+                } else if (result[i] > other[j]) {
+                    j++;
+                } else {
+                    both[n++] = result[i];
+                    i++;
+                    j++;
+                }
+            }
+            result = Arrays.copyOf(both, n);
+        }
+        return result;
+    }
+
+    private static Set<Long> gramsOf(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + TrigramIndex.GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * A live term and the number of plants whose texts use it
+     */
+    private static final class Term {
+        private final String text;
+        private final int documents;
+
+        Term(String text, int documents) {
+            this.text = text;
+            this.documents = documents;
+        }
+    }
+
+    /**
+     * Adds and drops terms on top of an existing dictionary. Edits to the prefix and trigram
+     * lists are collected and merged into each list once, when the dictionary is built.
+     */
+    static final class Builder {
+
+        private PersistentMap<String, Integer> ids;
+        private PersistentMap<Integer, Term> terms;
+        private final PersistentMap<String, int[]> prefixes;
+        private final PersistentMap<Long, int[]> grams;
+        private final Map<String, ListEdit> prefixEdits = new HashMap<>();
+        private final Map<Long, ListEdit> gramEdits = new HashMap<>();
+        private final int[] reusable;
+        private int reused;
+        private final IntList released = new IntList();
+        private int nextId;
+
+        private Builder(TermDictionary base) {
+            this.ids = base.ids;
+            this.terms = base.terms;
+            this.prefixes = base.prefixes;
+            this.grams = base.grams;
+            this.reusable = base.free;
+            this.nextId = base.nextId;
+        }
+
+        /**
+         * Returns the ID of the term, assigning a free one when the term is new. A new term
+         * counts no plants until {@link #acquire} is called for it.
+         */
+        int intern(String term) {
+            Integer id = ids.get(term);
+            if (id != null) {
+                return id;
+            }
+            int assigned = reused < reusable.length ? reusable[reused++] : nextId++;
+            add(term, assigned, 0);
+            return assigned;
+        }
+
+        /**
+         * Counts one more plant using the term
+         */
+        void acquire(int id) {
+            Term term = terms.get(id);
+            terms = terms.plus(id, new Term(term.text, term.documents + 1));
+        }
+
+        /**
+         * Counts one plant less using the term, dropping it when none is left
+         */
+        void release(int id) {
+            Term term = terms.get(id);
+            if (term.documents > 1) {
+                terms = terms.plus(id, new Term(term.text, term.documents - 1));
+                return;
+            }
+            ids = ids.minus(term.text);
+            terms = terms.minus(id);
+            for (String prefix : prefixesOf(term.text)) {
+                prefixEdits.computeIfAbsent(prefix, p -> new ListEdit()).removed.add(id);
+            }
+            for (long gram : gramsOf(term.text)) {
+                gramEdits.computeIfAbsent(gram, g -> new ListEdit()).removed.add(id);
+            }
+            released.add(id);
+        }
+
+        private void add(String text, int id, int documents) {
+            ids = ids.plus(text, id);
+            terms = terms.plus(id, new Term(text, documents));
+            for (String prefix : prefixesOf(text)) {
+                prefixEdits.computeIfAbsent(prefix, p -> new ListEdit()).added.add(id);
+            }
+            for (long gram : gramsOf(text)) {
+                gramEdits.computeIfAbsent(gram, g -> new ListEdit()).added.add(id);
+            }
+        }
+
+        TermDictionary build() {
+            PersistentMap<String, int[]> nextPrefixes = prefixes;
+            for (Map.Entry<String, ListEdit> edit : prefixEdits.entrySet()) {
+                nextPrefixes = edit.getValue().applyTo(nextPrefixes, edit.getKey());
+            }
+            PersistentMap<Long, int[]> nextGrams = grams;
+            for (Map.Entry<Long, ListEdit> edit : gramEdits.entrySet()) {
+                nextGrams = edit.getValue().applyTo(nextGrams, edit.getKey());
+            }
+            // IDs freed by this update only become reusable in the next one
+            int[] free = new int[reusable.length - reused + released.size];
+            System.arraycopy(reusable, reused, free, 0, reusable.length - reused);
+            System.arraycopy(released.values, 0, free, reusable.length - reused, released.size);
+            return new TermDictionary(ids, terms, nextPrefixes, nextGrams, free, nextId);
+        }
+
+        private static List<String> prefixesOf(String text) {
+            return text.length() < PREFIX ? List.of(text) : List.of(text.substring(0, 1), text.substring(0, PREFIX));
+        }
+    }
+
+    /**
+     * IDs to add to and remove from one sorted list. An ID is never both added and removed
+     * from the same list unless it was assigned and dropped within the update.
+     */
+    private static final class ListEdit {
+        private final IntList added = new IntList();
+        private final IntList removed = new IntList();
+
+        <K> PersistentMap<K, int[]> applyTo(PersistentMap<K, int[]> lists, K key) {
+            int[] base = lists.getOrDefault(key, NONE);
+            int[] plus = added.sorted();
+            int[] minus = removed.sorted();
+            int[] merged = new int[base.length + plus.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < base.length || j < plus.length) {
+                int next = j == plus.length || i < base.length && base[i] < plus[j] ? base[i++] : plus[j++];
+                if (Arrays.binarySearch(minus, next) < 0) {
+                    merged[n++] = next;
+                }
+            }
+            return n == 0 ? lists.minus(key) : lists.plus(key, Arrays.copyOf(merged, n));
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] sorted() {
+            int[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The analyzed terms of every plant text with the character offsets they came from, so
+ * matches can be highlighted and scored without analyzing the text again per request.
+ * <p>
+ * Each plant's positions are one compact byte array: for the description, each medicinal use,
+ * the name, the scientific name and then the name and description of each linked symptom, the
+ * token count followed by, per token, the gap since the end of the previous token, the token
+ * length and the {@link TermDictionary} ID of its term, all as unsigned varints. Most values fit
+ * one byte, so a position costs about three bytes. Instances are immutable; an update copies
+ * only the changed plants' entries and the dictionary terms they add or drop.
+ */
+public final class TermPositions {
+
+    private static final TermPositions EMPTY = new TermPositions(PersistentMap.empty(), TermDictionary.empty());
+
+    private final PersistentMap<Long, byte[]> positions;
+    private final TermDictionary dictionary;
+
+    private TermPositions(PersistentMap<Long, byte[]> positions, TermDictionary dictionary) {
+        this.positions = positions;
+        this.dictionary = dictionary;
+    }
+
+    public static TermPositions empty() {
+        return EMPTY;
+    }
+
+    public static TermPositions build(Collection<PlantDocument> documents, Analyzer analyzer) {
+        return EMPTY.apply(documents, List.of(), analyzer);
+    }
+
+    /**
+     * Returns new positions with the given plants added or replaced and others removed
+     */
+    TermPositions apply(Collection<PlantDocument> upserts, Collection<Long> removals, Analyzer analyzer) {
+        PersistentMap<Long, byte[]> next = positions;
+        TermDictionary.Builder terms = dictionary.toBuilder();
+        // Count the new texts' terms before releasing the old ones, so a term that stays in use
+        // keeps its ID
+        for (PlantDocument document : upserts) {
+            byte[] encoded = encode(document, analyzer, terms);
+            for (int termId : distinctTermIds(encoded)) {
+                terms.acquire(termId);
+            }
+            next = next.plus(document.getId(), encoded);
+        }
+        for (PlantDocument document : upserts) {
+            release(positions.get(document.getId()), terms);
+        }
+        for (long plantId : removals) {
+            release(positions.get(plantId), terms);
+            next = next.minus(plantId);
+        }
+        return new TermPositions(next, terms.build());
+    }
+
+    private static void release(byte[] encoded, TermDictionary.Builder terms) {
+        if (encoded != null) {
+            for (int termId : distinctTermIds(encoded)) {
+                terms.release(termId);
+            }
+        }
+    }
+
+    private static int[] distinctTermIds(byte[] encoded) {
+        int[] ids = new int[16];
+        int n = 0;
+        Reader reader = new Reader(encoded);
+        while (reader.hasNextText()) {
+            reader.nextText();
+            while (reader.hasNextToken()) {
+                reader.nextToken();
+                if (n == ids.length) {
+                    ids = Arrays.copyOf(ids, n * 2);
+                }
+                ids[n++] = reader.termId();
+            }
+        }
+        Arrays.sort(ids, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    void writeTo(IndexSnapshot.Output out) throws IOException {
+        dictionary.writeTo(out);
+        long[] ids = new long[positions.size()];
+        int[] n = new int[1];
+        positions.forEach((id, encoded) -> ids[n[0]++] = id);
+        Arrays.sort(ids);
+        out.writeInt(ids.length);
+        for (long id : ids) {
+            out.writeLong(id);
+            out.writeBytes(positions.get(id));
+        }
+    }
+
+    static TermPositions readFrom(IndexSnapshot.Input in) {
+        TermDictionary dictionary = TermDictionary.readFrom(in);
+        int count = in.readInt();
+        PersistentMap<Long, byte[]> positions = PersistentMap.empty();
+        for (int p = 0; p < count; p++) {
+            long id = in.readLong();
+            positions = positions.plus(id, in.readBytes());
+        }
+        return new TermPositions(positions, dictionary);
+    }
+
+    /**
+     * Returns the encoded positions of a plant, or null when it is not indexed
+     */
+    byte[] positionsOf(long plantId) {
+        return positions.get(plantId);
+    }
+
+    public TermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    private static byte[] encode(PlantDocument document, Analyzer analyzer, TermDictionary.Builder terms) {
+        Encoder encoder = new Encoder(analyzer, terms);
+        encoder.addText(document.getDescription());
+        for (String use : document.getMedicinalUses()) {
+            encoder.addText(use);
+        }
+        encoder.addText(document.getName());
+        encoder.addText(document.getScientificName());
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            encoder.addText(symptom.getName());
+            encoder.addText(symptom.getDescription());
+        }
+        return encoder.toArray();
+    }
+
+    /**
+     * Walks encoded positions text by text, in the order they were encoded
+     */
+    static final class Reader {
+
+        private final byte[] data;
+        private int position;
+        private int remaining;
+        private int end;
+        private int termId;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * Moves to the next text and returns its token count
+         */
+        int nextText() {
+            remaining = readVarint();
+            end = 0;
+            return remaining;
+        }
+
+        /**
+         * Reads the next token of the current text and returns its start and end offsets packed
+         * as start in the high and end in the low 32 bits
+         */
+        long nextToken() {
+            int start = end + readVarint();
+            end = start + readVarint();
+            termId = readVarint();
+            remaining--;
+            return ((long) start << 32) | end;
+        }
+
+        /**
+         * The term ID of the token last read by {@link #nextToken}
+         */
+        int termId() {
+            return termId;
+        }
+
+        /**
+         * Skips the remaining tokens of the current text
+         */
+        void skipText() {
+            while (remaining > 0) {
+                nextToken();
+            }
+        }
+
+        boolean hasNextToken() {
+            return remaining > 0;
+        }
+
+        /**
+         * Whether another text follows the current one; the encoding needs no count of them
+         */
+        boolean hasNextText() {
+            return remaining == 0 && position < data.length;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static final class Encoder {
+
+        private final Analyzer analyzer;
+        private final TermDictionary.Builder terms;
+        private byte[] data = new byte[64];
+        private int size;
+
+        Encoder(Analyzer analyzer, TermDictionary.Builder terms) {
+            this.analyzer = analyzer;
+            this.terms = terms;
+        }
+
+        void addText(String text) {
+            List<Analyzer.Token> tokens = text == null ? List.of() : analyzer.analyze(text);
+            writeVarint(tokens.size());
+            int end = 0;
+            for (Analyzer.Token token : tokens) {
+                writeVarint(token.getStart() - end);
+                writeVarint(token.getEnd() - token.getStart());
+                writeVarint(terms.intern(token.getTerm()));
+                end = token.getEnd();
+            }
+        }
+
+        private void writeVarint(int value) {
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.medicinal.plant.search;
+
+/**
+ * Bounded min-heap that keeps the k best (score, ordinal) pairs seen so far.
+ * <p>
+ * Offering n candidates costs O(n log k) and never sorts the full candidate set. On equal
+ * scores the smaller ordinal wins, so callers control tie-breaking through the order in which
+ * they number their candidates.
+ */
+public final class TopK {
+
+    private final double[] scores;
+    private final int[] ordinals;
+    private int size;
+
+    public TopK(int k) {
+        this.scores = new double[Math.max(0, k)];
+        this.ordinals = new int[Math.max(0, k)];
+    }
+
+    public void offer(int ordinal, double score) {
+        if (scores.length == 0) {
+            return;
+        }
+        if (size < scores.length) {
+            scores[size] = score;
+            ordinals[size] = ordinal;
+            siftUp(size++);
+        } else if (better(score, ordinal, scores[0], ordinals[0])) {
+            scores[0] = score;
+            ordinals[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == scores.length;
+    }
+
+    /**
+     * Score a candidate has to beat to enter the heap once it is full
+     */
+    public double worstScore() {
+        return size == 0 ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * Empties the heap and returns the retained ordinals, best first
+     */
+    public int[] drainOrdinals() {
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ordinals[0];
+            size--;
+            scores[0] = scores[size];
+            ordinals[0] = ordinals[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(scores[parent], ordinals[parent], scores[i], ordinals[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(scores[left], ordinals[left], scores[right], ordinals[right])) {
+                worst = right;
+            }
+            if (!better(scores[i], ordinals[i], scores[worst], ordinals[worst])) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private static boolean better(double score, int ordinal, double otherScore, int otherOrdinal) {
+        return score > otherScore || (score == otherScore && ordinal < otherOrdinal);
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+    }
+}
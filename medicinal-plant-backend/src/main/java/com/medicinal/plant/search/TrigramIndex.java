@@ -0,0 +1,256 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.util.PersistentMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Character-trigram index for substring search over plant names, scientific names,
+ * medicinal uses and symptom names.
+ * <p>
+ * A fragment is answered by intersecting the posting lists of its trigrams, shortest first,
+ * and then verifying the few remaining candidates against the stored field text, so the
+ * result is exactly what {@code LIKE '%fragment%'} would return. Instances are immutable and
+ * kept in {@link PersistentMap}s, so {@link #with} and {@link #without} copy only the posting
+ * lists of the trigrams the plant gains or loses, plus a few map nodes, and share everything
+ * else with the previous version.
+ */
+public final class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private static final TrigramIndex EMPTY = new TrigramIndex(PersistentMap.empty(), PersistentMap.empty());
+
+    private final PersistentMap<Long, long[]> postings;
+    private final PersistentMap<Long, String[]> fields;
+
+    private TrigramIndex(PersistentMap<Long, long[]> postings, PersistentMap<Long, String[]> fields) {
+        this.postings = postings;
+        this.fields = fields;
+    }
+
+    public static TrigramIndex empty() {
+        return EMPTY;
+    }
+
+    public static TrigramIndex build(Collection<PlantDocument> documents) {
+        Map<Long, String[]> fields = new HashMap<>(documents.size() * 2);
+        for (PlantDocument document : documents) {
+            fields.put(document.getId(), fieldsOf(document));
+        }
+        long[] ids = fields.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        // Visiting plants in ascending id order keeps every posting list sorted
+        Map<Long, PostingBuilder> builders = new HashMap<>();
+        for (long id : ids) {
+            for (long gram : gramsOf(fields.get(id))) {
+                builders.computeIfAbsent(gram, g -> new PostingBuilder()).add(id);
+            }
+        }
+        Map<Long, long[]> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, builder) -> postings.put(gram, builder.toArray()));
+        return new TrigramIndex(PersistentMap.copyOf(postings), PersistentMap.copyOf(fields));
+    }
+
+    /**
+     * Writes the trigram posting lists, in gram order so equal indexes give equal snapshots
+     */
+    void writeTo(IndexSnapshot.Output out) throws IOException {
+        long[] grams = sortedKeys(postings);
+        out.writeInt(grams.length);
+        for (long gram : grams) {
+            out.writeLong(gram);
+            out.writeLongs(postings.get(gram));
+        }
+    }
+
+    /**
+     * Reads the posting lists written by {@link #writeTo}; the field texts are cheap to derive
+     * from the documents and are not stored
+     */
+    static TrigramIndex readFrom(IndexSnapshot.Input in, Collection<PlantDocument> documents) {
+        int count = in.readInt();
+        PersistentMap<Long, long[]> postings = PersistentMap.empty();
+        for (int g = 0; g < count; g++) {
+            long gram = in.readLong();
+            postings = postings.plus(gram, in.readLongs());
+        }
+        PersistentMap<Long, String[]> fields = PersistentMap.empty();
+        for (PlantDocument document : documents) {
+            fields = fields.plus(document.getId(), fieldsOf(document));
+        }
+        return new TrigramIndex(postings, fields);
+    }
+
+    /**
+     * Returns a new index with the given plant added or replaced
+     */
+    public TrigramIndex with(PlantDocument document) {
+        long id = document.getId();
+        String[] previous = fields.get(id);
+        String[] current = fieldsOf(document);
+        Set<Long> removed = previous == null ? Set.of() : gramsOf(previous);
+        Set<Long> added = gramsOf(current);
+
+        PersistentMap<Long, long[]> nextPostings = postings;
+        for (long gram : removed) {
+            if (!added.contains(gram)) {
+                nextPostings = remove(nextPostings, gram, id);
+            }
+        }
+        for (long gram : added) {
+            if (!removed.contains(gram)) {
+                nextPostings = insert(nextPostings, gram, id);
+            }
+        }
+        return new TrigramIndex(nextPostings, fields.plus(id, current));
+    }
+
+    /**
+     * Returns a new index without the given plant
+     */
+    public TrigramIndex without(long plantId) {
+        String[] previous = fields.get(plantId);
+        if (previous == null) {
+            return this;
+        }
+        PersistentMap<Long, long[]> nextPostings = postings;
+        for (long gram : gramsOf(previous)) {
+            nextPostings = remove(nextPostings, gram, plantId);
+        }
+        return new TrigramIndex(nextPostings, fields.minus(plantId));
+    }
+
+    /**
+     * Returns the sorted IDs of plants with a field containing the fragment, ignoring case
+     */
+    public long[] search(String fragment) {
+        String needle = fragment == null ? "" : fragment.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return PostingLists.EMPTY;
+        }
+        long[] candidates;
+        if (needle.length() < GRAM) {
+            // Too short to have a trigram: every plant is a candidate
+            candidates = sortedKeys(fields);
+        } else {
+            List<long[]> lists = new ArrayList<>();
+            for (long gram : gramsOf(needle)) {
+                long[] list = postings.get(gram);
+                if (list == null) {
+                    return PostingLists.EMPTY;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            candidates = lists.get(0);
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = PostingLists.intersect(candidates, lists.get(i));
+            }
+        }
+
+        long[] verified = new long[candidates.length];
+        int n = 0;
+        for (long id : candidates) {
+            if (containsFragment(fields.get(id), needle)) {
+                verified[n++] = id;
+            }
+        }
+        return n == verified.length ? verified : Arrays.copyOf(verified, n);
+    }
+
+    public int size() {
+        return fields.size();
+    }
+
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    private static boolean containsFragment(String[] texts, String needle) {
+        for (String text : texts) {
+            if (text.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] fieldsOf(PlantDocument document) {
+        List<String> texts = new ArrayList<>();
+        addField(texts, document.getName());
+        addField(texts, document.getScientificName());
+        for (String use : document.getMedicinalUses()) {
+            addField(texts, use);
+        }
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            addField(texts, symptom.getName());
+        }
+        return texts.toArray(new String[0]);
+    }
+
+    private static void addField(List<String> texts, String value) {
+        if (value != null && !value.isBlank()) {
+            texts.add(value.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static Set<Long> gramsOf(String... texts) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static long[] sortedKeys(PersistentMap<Long, ?> map) {
+        long[] keys = new long[map.size()];
+        int[] n = new int[1];
+        map.forEach((key, value) -> keys[n[0]++] = key);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static PersistentMap<Long, long[]> insert(PersistentMap<Long, long[]> postings, long gram, long id) {
+        long[] list = postings.getOrDefault(gram, PostingLists.EMPTY);
+        int at = Arrays.binarySearch(list, id);
+        if (at >= 0) {
+            return postings;
+        }
+        at = -at - 1;
+        long[] grown = new long[list.length + 1];
+        System.arraycopy(list, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(list, at, grown, at + 1, list.length - at);
+        return postings.plus(gram, grown);
+    }
+
+    private static PersistentMap<Long, long[]> remove(PersistentMap<Long, long[]> postings, long gram, long id) {
+        long[] list = postings.get(gram);
+        if (list == null) {
+            return postings;
+        }
+        int at = Arrays.binarySearch(list, id);
+        if (at < 0) {
+            return postings;
+        }
+        if (list.length == 1) {
+            return postings.minus(gram);
+        }
+        long[] shrunk = new long[list.length - 1];
+        System.arraycopy(list, 0, shrunk, 0, at);
+        System.arraycopy(list, at + 1, shrunk, at, list.length - at - 1);
+        return postings.plus(gram, shrunk);
+    }
+}
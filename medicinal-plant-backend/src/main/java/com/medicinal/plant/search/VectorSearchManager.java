@@ -0,0 +1,239 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.catalog.CatalogChangedEvent;
+import com.medicinal.plant.config.VectorSearchProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the semantic index over plant descriptions, medicinal uses and symptom text.
+ * <p>
+ * It is updated on a background thread whenever the search index publishes a new version and
+ * published through one volatile reference. Only the plants that differ from the search index
+ * version last applied are read, and those whose text changed are embedded with the current
+ * embedder and inserted into a copy of the graph; once the plants changed since the embedder
+ * was fitted exceed search.vector.rebuild-ratio of the catalog, the embedder is fitted
+ * again and the graph rebuilt, which also drops the tombstones of replaced plants. Build time,
+ * retained memory and query latency are exported as search.vector.* meters (see /actuator/metrics).
+ */
+@Component
+@Slf4j
+public class VectorSearchManager {
+
+    private final SearchIndexManager searchIndexManager;
+    private final VectorSearchProperties properties;
+    private final Timer queryTimer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "vector-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+    // Owned by the executor thread: the search index the graph reflects, and the number of
+    // plants added, changed or removed since the embedder was fitted
+    private PlantSearchIndex indexed;
+    private int changesSinceFit;
+
+    public VectorSearchManager(SearchIndexManager searchIndexManager, VectorSearchProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.searchIndexManager = searchIndexManager;
+        this.properties = properties;
+        this.snapshot = new Snapshot(HashedEmbedder.fit(List.of(), properties.getDimension()), HnswIndex.empty(), 0, 0);
+        this.queryTimer = Timer.builder("search.vector.query")
+                .description("Semantic nearest-neighbour query latency, embedding included")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("search.vector.plants", this, manager -> manager.snapshot.getIndex().size())
+                .description("Plants in the semantic index")
+                .register(meterRegistry);
+        Gauge.builder("search.vector.memory", this, manager -> manager.snapshot.getMemoryBytes())
+                .description("Approximate heap retained by vectors and graph links")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("search.vector.memory.per.plant", this, VectorSearchManager::memoryPerPlant)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        TimeGauge.builder("search.vector.build.time", this, TimeUnit.MILLISECONDS, manager -> manager.snapshot.getBuildMillis())
+                .description("Duration of the last semantic index build")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns up to limit plants whose text is semantically closest to the query and at least
+     * as similar as the configured minimum, most similar first
+     */
+    public RankedHits search(String text, int limit) {
+        Snapshot current = snapshot;
+        if (current.getIndex().size() == 0) {
+            return RankedHits.EMPTY;
+        }
+        long start = System.nanoTime();
+        try {
+            RankedHits nearest = current.getIndex().search(current.getEmbedder().embed(text), limit, properties.getEfSearch());
+            int keep = 0;
+            while (keep < nearest.size() && nearest.getScores()[keep] >= properties.getMinSimilarity()) {
+                keep++;
+            }
+            if (keep == nearest.size()) {
+                return nearest;
+            }
+            return new RankedHits(Arrays.copyOf(nearest.getIds(), keep), new int[keep],
+                    Arrays.copyOf(nearest.getScores(), keep), nearest.getTotalCandidates());
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener(CatalogChangedEvent.class)
+    public void scheduleRebuild(CatalogChangedEvent event) {
+        if (!event.getChangedEntities().contains(SearchIndexManager.INDEX_PUBLISHED)) {
+            return;
+        }
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    void rebuild() {
+        rebuildPending.set(false);
+        try {
+            long start = System.nanoTime();
+            PlantSearchIndex current = searchIndexManager.getIndex();
+            Map<Long, String> changed = new HashMap<>();
+            List<Long> removed = new ArrayList<>();
+            if (indexed != null) {
+                current.diffSince(indexed, (id, before, after) -> {
+                    if (after == null) {
+                        removed.add(id);
+                        return;
+                    }
+                    String text = textOf(after);
+                    if (before == null || !text.equals(textOf(before))) {
+                        changed.put(id, text);
+                    }
+                });
+            }
+            int changes = changed.size() + removed.size();
+            if (indexed != null && changes == 0) {
+                indexed = current;
+                return;
+            }
+            Snapshot updated;
+            if (indexed == null || changesSinceFit + changes > properties.getRebuildRatio() * current.size()) {
+                updated = build(current.getDocuments(), properties, start);
+                changesSinceFit = 0;
+                log.info("Vector index built with {} plants in {} ms, {} bytes per plant",
+                        updated.getIndex().size(), updated.getBuildMillis(), Math.round(bytesPerPlant(updated)));
+            } else {
+                updated = update(snapshot, changed, removed, start);
+                changesSinceFit += changes;
+                log.info("Vector index updated with {} changed plants in {} ms", changes, updated.getBuildMillis());
+            }
+            snapshot = updated;
+            indexed = current;
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild vector index, keeping the previous one", e);
+        }
+    }
+
+    /**
+     * Embeds the changed plants with the snapshot's embedder and inserts them into a copy of its
+     * graph, leaving the replaced and removed plants' nodes behind as tombstones
+     */
+    static Snapshot update(Snapshot base, Map<Long, String> changed, Collection<Long> removed, long startNanos) {
+        HnswIndex.Builder builder = base.getIndex().toBuilder();
+        for (long id : removed) {
+            builder.remove(id);
+        }
+        changed.forEach((id, text) -> builder.add(id, base.getEmbedder().embed(text)));
+        HnswIndex index = builder.build();
+        return new Snapshot(base.getEmbedder(), index, (System.nanoTime() - startNanos) / 1_000_000, index.memoryBytes());
+    }
+
+    /**
+     * Fits the embedder on the catalog text and inserts every plant vector into a new graph
+     */
+    static Snapshot build(Collection<PlantDocument> documents, VectorSearchProperties properties, long startNanos) {
+        List<String> texts = new ArrayList<>(documents.size());
+        long[] ids = new long[documents.size()];
+        int next = 0;
+        for (PlantDocument document : documents) {
+            texts.add(textOf(document));
+            ids[next++] = document.getId();
+        }
+        HashedEmbedder embedder = HashedEmbedder.fit(texts, properties.getDimension());
+        float[][] vectors = new float[texts.size()][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = embedder.embed(texts.get(i));
+        }
+        HnswIndex index = HnswIndex.build(ids, vectors, properties.getDimension(),
+                properties.getM(), properties.getEfConstruction());
+        return new Snapshot(embedder, index, (System.nanoTime() - startNanos) / 1_000_000, index.memoryBytes());
+    }
+
+    /**
+     * The text a plant is embedded from: its name, description, uses and linked symptoms
+     */
+    static String textOf(PlantDocument document) {
+        StringBuilder text = new StringBuilder(256);
+        text.append(document.getName());
+        if (document.getDescription() != null) {
+            text.append(' ').append(document.getDescription());
+        }
+        for (String use : document.getMedicinalUses()) {
+            text.append(' ').append(use);
+        }
+        for (PlantDocument.SymptomLink symptom : document.getSymptoms()) {
+            text.append(' ').append(symptom.getName());
+            if (symptom.getDescription() != null) {
+                text.append(' ').append(symptom.getDescription());
+            }
+        }
+        return text.toString();
+    }
+
+    private static double memoryPerPlant(VectorSearchManager manager) {
+        return bytesPerPlant(manager.snapshot);
+    }
+
+    private static double bytesPerPlant(Snapshot snapshot) {
+        int size = snapshot.getIndex().size();
+        return size == 0 ? 0.0 : (double) snapshot.getMemoryBytes() / size;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * An embedder together with the index built from its vectors
+     */
+    @Value
+    static class Snapshot {
+        HashedEmbedder embedder;
+        HnswIndex index;
+        long buildMillis;
+        long memoryBytes;
+    }
+}
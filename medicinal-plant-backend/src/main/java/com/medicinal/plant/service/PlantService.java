@@ -1,7 +1,11 @@
 package com.medicinal.plant.service;
 
+import com.medicinal.plant.model.dto.response.PageResponse;
+import com.medicinal.plant.model.dto.response.PlantMatchResponse;
 import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -9,15 +13,36 @@ import java.util.List;
  */
 public interface PlantService {
 
-    List<PlantResponse> getAllPlants();
+    PageResponse<PlantResponse> getAllPlants(String cursor, Integer size);
+
+    PageResponse<PlantSummaryResponse> getPlantSummaries(String cursor, Integer size);
 
     PlantResponse getPlantById(Long id);
 
+    List<PlantResponse> getPlantsByIds(long[] ids);
+
     List<PlantResponse> searchPlants(String query);
 
-    List<PlantResponse> getTopRatedPlants();
+    PageResponse<PlantResponse> searchPlants(String query, String cursor, Integer size, boolean autoCorrect);
+
+    PageResponse<PlantSummaryResponse> searchPlantSummaries(String query, String cursor, Integer size, boolean autoCorrect);
+
+    List<PlantMatchResponse> searchPlantsByKeywords(Collection<String> keywords, Collection<Long> symptomIds, int limit);
+
+    List<PlantMatchResponse> rankPlants(String query, int limit);
+
+    List<PlantMatchResponse> searchPlantsTreating(List<List<Long>> symptomGroups, List<String> useKeywords, int minMatches,
+                                                 int limit);
+
+    List<PlantMatchResponse> queryPlants(String query, int limit);
+
+    PageResponse<PlantResponse> getTopRatedPlants(String cursor, Integer size);
+
+    PageResponse<PlantSummaryResponse> getTopRatedPlantSummaries(String cursor, Integer size);
+
+    PageResponse<PlantResponse> getPlantsByType(String type, String cursor, Integer size);
 
-    List<PlantResponse> getPlantsByType(String type);
+    PageResponse<PlantSummaryResponse> getPlantSummariesByType(String type, String cursor, Integer size);
 
     void deletePlant(Long id);
 }
@@ -1,9 +1,15 @@
 package com.medicinal.plant.service;
 
 import com.medicinal.plant.model.dto.request.PlantSearchRequest;
+import com.medicinal.plant.model.dto.request.RelevanceTuningRequest;
 import com.medicinal.plant.model.dto.request.SymptomSearchRequest;
 import com.medicinal.plant.model.dto.request.VisualSearchRequest;
+import com.medicinal.plant.model.dto.response.AnalyzerResponse;
+import com.medicinal.plant.model.dto.response.RelevanceTuningResponse;
 import com.medicinal.plant.model.dto.response.SearchResultResponse;
+import com.medicinal.plant.model.dto.response.SuggestionResponse;
+
+import java.util.List;
 
 /**
  * Search Service Interface
@@ -15,4 +21,12 @@ public interface SearchService {
     SearchResultResponse searchBySymptoms(SymptomSearchRequest request);
 
     SearchResultResponse searchByVisualFeatures(VisualSearchRequest request);
+
+    List<SuggestionResponse> suggest(String prefix, Integer limit);
+
+    RelevanceTuningResponse getRelevanceTuning();
+
+    RelevanceTuningResponse updateRelevanceTuning(RelevanceTuningRequest request);
+
+    AnalyzerResponse reloadSynonyms();
 }
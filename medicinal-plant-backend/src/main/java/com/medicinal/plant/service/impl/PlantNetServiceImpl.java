@@ -3,6 +3,7 @@ package com.medicinal.plant.service.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medicinal.plant.dto.PlantIdentificationResponse;
+import com.medicinal.plant.mapper.PlantIdentificationMapper;
 import com.medicinal.plant.model.entity.Plant;
 import com.medicinal.plant.repository.PlantRepository;
 import com.medicinal.plant.service.PlantNetService;
@@ -18,7 +19,6 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -29,6 +29,7 @@ public class PlantNetServiceImpl implements PlantNetService {
     private final RestTemplate restTemplate;
     private final PlantRepository plantRepository;
     private final ObjectMapper objectMapper;
+    private final PlantIdentificationMapper plantIdentificationMapper;
 
     @Value("${plantnet.api.key}")
     private String apiKey;
@@ -136,22 +137,7 @@ public class PlantNetServiceImpl implements PlantNetService {
             Plant plant = plantOpt.get();
             log.info("✅ Found medicinal data for: {}", plant.getName());
             
-            response.setCommonName(plant.getName());
-            response.setMedicinalUses(plant.getMedicinalUses());
-            response.setDescription(plant.getDescription());
-            response.setDosage(plant.getDosage());
-            response.setPrecautions(plant.getPrecautions());
-            
-            // Extract symptoms from relationships
-            List<String> symptoms = new ArrayList<>();
-            if (plant.getPlantSymptoms() != null) {
-                plant.getPlantSymptoms().forEach(rel -> {
-                    if (rel.getSymptom() != null) {
-                        symptoms.add(rel.getSymptom().getName());
-                    }
-                });
-            }
-            response.setSymptoms(symptoms);
+            plantIdentificationMapper.enrich(plant, response);
         } else {
             log.warn("⚠️ No medicinal data found in database for: {}", scientificName);
             response.setDescription("Plant identified but medicinal information not available in our database.");
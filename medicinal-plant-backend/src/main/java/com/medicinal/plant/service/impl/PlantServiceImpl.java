@@ -1,78 +1,434 @@
 package com.medicinal.plant.service.impl;
 
+import com.medicinal.plant.catalog.CatalogSnapshot;
+import com.medicinal.plant.catalog.CatalogSnapshotManager;
+import com.medicinal.plant.config.CacheConfig;
+import com.medicinal.plant.config.PaginationProperties;
+import com.medicinal.plant.exception.InvalidCursorException;
+import com.medicinal.plant.exception.InvalidSearchException;
 import com.medicinal.plant.exception.PlantNotFoundException;
+import com.medicinal.plant.mapper.PlantMapper;
+import com.medicinal.plant.model.dto.response.PageResponse;
+import com.medicinal.plant.model.dto.response.PlantMatchResponse;
 import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
 import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.enums.PlantType;
 import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.search.Bm25Index;
+import com.medicinal.plant.search.PlantScorer;
+import com.medicinal.plant.search.PlantSearchIndex;
+import com.medicinal.plant.search.PostingLists;
+import com.medicinal.plant.search.QueryNode;
+import com.medicinal.plant.search.QueryParser;
+import com.medicinal.plant.search.RankedHits;
+import com.medicinal.plant.search.RelevanceTuning;
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.search.SearchProfile;
+import com.medicinal.plant.search.SymptomIntersection;
 import com.medicinal.plant.service.PlantService;
-import lombok.RequiredArgsConstructor;
+import com.medicinal.plant.util.CursorCodec;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
 
 /**
  * Plant Service Implementation
+ * <p>
+ * Listings and lookups by ID are answered from the {@link CatalogSnapshot} without a
+ * transaction; only while the snapshot is behind a committed change do they query the
+ * database, in a read-only transaction of their own. Listings come as full plants or as
+ * summaries; summaries read from the database are projections that load no collections.
  */
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 @Slf4j
 public class PlantServiceImpl implements PlantService {
 
+    private static final double TOP_RATED_THRESHOLD = 4.0;
+
     private final PlantRepository plantRepository;
-    private final ModelMapper modelMapper;
+    private final PlantMapper plantMapper;
+    private final SearchIndexManager searchIndexManager;
+    private final RelevanceTuning relevanceTuning;
+    private final PaginationProperties paginationProperties;
+    private final CatalogSnapshotManager catalogSnapshotManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PlantServiceImpl(PlantRepository plantRepository, PlantMapper plantMapper, SearchIndexManager searchIndexManager,
+                            RelevanceTuning relevanceTuning, PaginationProperties paginationProperties,
+                            CatalogSnapshotManager catalogSnapshotManager, PlatformTransactionManager transactionManager) {
+        this.plantRepository = plantRepository;
+        this.plantMapper = plantMapper;
+        this.searchIndexManager = searchIndexManager;
+        this.relevanceTuning = relevanceTuning;
+        this.paginationProperties = paginationProperties;
+        this.catalogSnapshotManager = catalogSnapshotManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     @Override
-    public List<PlantResponse> getAllPlants() {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PageResponse<PlantResponse> getAllPlants(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        long afterId = CursorCodec.decodeId(cursor);
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        List<PlantResponse> plants = snapshot != null
+                ? snapshot.after(afterId, pageSize + 1)
+                : readOnlyTransaction.execute(status -> mapAll(
+                        plantRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1))));
         // Return dummy data if database is empty
-        List<Plant> plants = plantRepository.findAll();
-        if (plants.isEmpty()) {
-            return getDummyPlants();
+        if (plants.isEmpty() && afterId == 0L) {
+            return dummyPage(Function.identity());
         }
-        return plants.stream()
-                .map(plant -> modelMapper.map(plant, PlantResponse.class))
-                .collect(Collectors.toList());
+        return toPage(plants, pageSize, plant -> CursorCodec.encodeId(plant.getId()));
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PageResponse<PlantSummaryResponse> getPlantSummaries(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        long afterId = CursorCodec.decodeId(cursor);
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        List<PlantSummaryResponse> plants = snapshot != null
+                ? summaries(snapshot, snapshot.after(afterId, pageSize + 1))
+                : readOnlyTransaction.execute(status ->
+                        plantRepository.findSummariesAfter(afterId, PageRequest.of(0, pageSize + 1)));
+        // Return dummy data if database is empty
+        if (plants.isEmpty() && afterId == 0L) {
+            return dummyPage(plant -> plantMapper.toSummary(plant));
+        }
+        return toPage(plants, pageSize, plant -> CursorCodec.encodeId(plant.getId()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PlantResponse getPlantById(Long id) {
-        Plant plant = plantRepository.findById(id)
-                .orElseThrow(() -> new PlantNotFoundException("Plant not found with id: " + id));
-        return modelMapper.map(plant, PlantResponse.class);
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        if (snapshot != null) {
+            PlantResponse plant = snapshot.get(id);
+            if (plant == null) {
+                throw new PlantNotFoundException("Plant not found with id: " + id);
+            }
+            return plant;
+        }
+        return readOnlyTransaction.execute(status -> plantRepository.findById(id)
+                .map(plant -> plantMapper.toResponse(plant))
+                .orElseThrow(() -> new PlantNotFoundException("Plant not found with id: " + id)));
+    }
+
+    @Override
+    public List<PlantResponse> getPlantsByIds(long[] ids) {
+        List<Plant> plants = hydrate(ids);
+        try (SearchProfile.Stage stage = SearchProfile.stage("mapping")) {
+            return plants.stream()
+                    .map(plant -> plantMapper.toResponse(plant))
+                    .collect(Collectors.toList());
+        }
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator")
     public List<PlantResponse> searchPlants(String query) {
         log.info("Searching plants with query: {}", query);
-        List<Plant> plants = plantRepository.searchByKeyword(query);
-        log.info("Repository returned {} plants", plants.size());
-        if (!plants.isEmpty()) {
-            log.info("First plant found: {}", plants.get(0).getName());
-        }
+        long[] ids = searchIndexManager.getIndex().search(query);
+        List<Plant> plants = hydrate(ids);
+        log.info("Search index returned {} plants", plants.size());
+        // Cached and shared between callers
         return plants.stream()
-                .map(plant -> modelMapper.map(plant, PlantResponse.class))
-                .collect(Collectors.toList());
+                .map(plant -> plantMapper.toResponse(plant))
+                .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
-    public List<PlantResponse> getTopRatedPlants() {
-        List<Plant> plants = plantRepository.findTopRatedPlants(4.0);
-        return plants.stream()
-                .map(plant -> modelMapper.map(plant, PlantResponse.class))
-                .collect(Collectors.toList());
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator")
+    public PageResponse<PlantResponse> searchPlants(String query, String cursor, Integer size, boolean autoCorrect) {
+        return search(query, cursor, size, autoCorrect, ids -> mapAll(hydrate(ids)), PlantResponse::getId);
     }
 
     @Override
-    public List<PlantResponse> getPlantsByType(String type) {
-        List<Plant> plants = plantRepository.findByPlantType(type.toUpperCase());
-        return plants.stream()
-                .map(plant -> modelMapper.map(plant, PlantResponse.class))
-                .collect(Collectors.toList());
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator")
+    public PageResponse<PlantSummaryResponse> searchPlantSummaries(String query, String cursor, Integer size,
+                                                                   boolean autoCorrect) {
+        return search(query, cursor, size, autoCorrect, this::summarize, PlantSummaryResponse::getId);
+    }
+
+    private <T> PageResponse<T> search(String query, String cursor, Integer size, boolean autoCorrect,
+                                       Function<long[], List<T>> load, Function<T, Long> idOf) {
+        int pageSize = paginationProperties.resolve(size);
+        CursorCodec.ScorePosition after = CursorCodec.decodeScoreAndId(cursor);
+        // Version before parameters, see RelevanceTuning
+        long tuningVersion = relevanceTuning.getVersion();
+        if (after != null) {
+            return nextSearchPage(query, after, tuningVersion, pageSize, load, idOf);
+        }
+        SearchIndexManager.Generation generation = searchIndexManager.getGeneration();
+        PlantSearchIndex index = generation.getIndex();
+        long[] ids = index.search(query);
+        if (ids.length > 0) {
+            return searchPage(generation, tuningVersion, query, ids, null, pageSize, null, load, idOf);
+        }
+
+        // Nothing matched: offer the spelling correction if it finds something
+        String correction = searchIndexManager.getSpellingCorrector().correct(query);
+        long[] correctedIds = correction == null ? PostingLists.EMPTY : index.search(correction);
+        if (correctedIds.length == 0) {
+            return searchPage(generation, tuningVersion, query, ids, null, pageSize, null, load, idOf);
+        }
+        log.info("No plants for '{}', did you mean '{}'", query, correction);
+        return (autoCorrect
+                ? searchPage(generation, tuningVersion, correction, correctedIds, null, pageSize, correction, load, idOf)
+                : searchPage(generation, tuningVersion, query, ids, null, pageSize, null, load, idOf)).toBuilder()
+                .didYouMean(correction)
+                .autoCorrected(autoCorrect)
+                .build();
+    }
+
+    /**
+     * Continues a search on the index generation and relevance tuning its first page was ranked
+     * with, so plants added or rescored since neither shift nor repeat rows. The pages still
+     * show the plants as they are now. A cursor whose generation is no longer retained, or
+     * whose tuning has changed, is rejected and the client starts over.
+     */
+    private <T> PageResponse<T> nextSearchPage(String query, CursorCodec.ScorePosition after, long tuningVersion,
+                                               int pageSize, Function<long[], List<T>> load, Function<T, Long> idOf) {
+        SearchIndexManager.Generation generation = searchIndexManager.getGeneration(after.getGeneration());
+        if (generation == null || after.getTuningVersion() != tuningVersion) {
+            throw new InvalidCursorException("Search results have changed since this cursor was issued; "
+                    + "search again from the first page");
+        }
+        // Later pages of corrected results keep the correction the first page was made with
+        String correction = after.getCorrection();
+        String searched = correction != null ? correction : query;
+        PageResponse<T> page = searchPage(generation, tuningVersion, searched, generation.getIndex().search(searched),
+                after, pageSize, correction, load, idOf);
+        return correction == null ? page : page.toBuilder()
+                .didYouMean(correction)
+                .autoCorrected(true)
+                .build();
+    }
+
+    /**
+     * Ranks the matching plants by their BM25 score for the query and returns the page after the
+     * cursor's (score, id) position, so the pages follow the ranking instead of the id order. The
+     * next cursor names the generation and tuning version the page was ranked with and the
+     * correction it lists the results of, if any.
+     */
+    private <T> PageResponse<T> searchPage(SearchIndexManager.Generation generation, long tuningVersion, String query,
+                                           long[] ids, CursorCodec.ScorePosition after, int pageSize, String correction,
+                                           Function<long[], List<T>> load, Function<T, Long> idOf) {
+        Bm25Index bm25 = generation.getIndex().getBm25();
+        RankedHits hits;
+        try (SearchProfile.Stage stage = SearchProfile.stage("ranking")) {
+            hits = after == null
+                    ? bm25.rank(query, relevanceTuning.getParameters(), ids, pageSize + 1)
+                    : bm25.rank(query, relevanceTuning.getParameters(), ids, after.getScore(), after.getId(), pageSize + 1);
+        }
+        Map<Long, Double> scores = new HashMap<>(hits.size() * 2);
+        for (int i = 0; i < hits.size(); i++) {
+            scores.put(hits.getIds()[i], hits.getScores()[i]);
+        }
+        List<T> plants = load.apply(hits.getIds());
+        return toPage(plants, pageSize, plant -> {
+            long id = idOf.apply(plant);
+            return CursorCodec.encodeScoreAndId(scores.get(id), id, generation.getId(), tuningVersion, correction);
+        });
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator",
+            condition = CacheConfig.NOT_EXPLAINED)
+    public List<PlantMatchResponse> searchPlantsByKeywords(Collection<String> keywords, Collection<Long> symptomIds, int limit) {
+        PlantSearchIndex index = searchIndexManager.getIndex();
+        RankedHits hits;
+        try (SearchProfile.Stage stage = SearchProfile.stage("ranking")) {
+            hits = PlantScorer.topK(index, keywords, symptomIds, limit);
+        }
+        log.debug("Ranked {} of {} candidate plants", hits.size(), hits.getTotalCandidates());
+        profile(hits, id -> PlantScorer.explain(index, keywords, symptomIds, id));
+        return toMatches(hits);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator",
+            condition = CacheConfig.NOT_EXPLAINED)
+    public List<PlantMatchResponse> rankPlants(String query, int limit) {
+        Bm25Index bm25 = searchIndexManager.getIndex().getBm25();
+        Bm25Index.Parameters parameters = relevanceTuning.getParameters();
+        RankedHits hits;
+        try (SearchProfile.Stage stage = SearchProfile.stage("ranking")) {
+            hits = bm25.search(query, parameters, limit);
+        }
+        log.debug("BM25 ranked {} of {} candidate plants for query: {}", hits.size(), hits.getTotalCandidates(), query);
+        profile(hits, id -> bm25.explain(query, parameters, id));
+        return toMatches(hits);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator",
+            condition = CacheConfig.NOT_EXPLAINED)
+    public List<PlantMatchResponse> searchPlantsTreating(List<List<Long>> symptomGroups, List<String> useKeywords,
+                                                        int minMatches, int limit) {
+        PlantSearchIndex index = searchIndexManager.getIndex();
+        RankedHits hits;
+        try (SearchProfile.Stage stage = SearchProfile.stage("ranking")) {
+            hits = SymptomIntersection.topK(index, symptomGroups, useKeywords, minMatches, limit);
+        }
+        log.debug("Examined {} plants for {} of {} symptoms", hits.getTotalCandidates(), minMatches,
+                symptomGroups.size() + useKeywords.size());
+        profile(hits, id -> SymptomIntersection.explain(index, symptomGroups, useKeywords, id));
+        return toMatches(hits);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PLANT_SEARCH, keyGenerator = "catalogKeyGenerator",
+            condition = CacheConfig.NOT_EXPLAINED)
+    public List<PlantMatchResponse> queryPlants(String query, int limit) {
+        QueryNode parsed = QueryParser.parse(query);
+        PlantSearchIndex index = searchIndexManager.getIndex();
+        Bm25Index.Parameters parameters = relevanceTuning.getParameters();
+        // Matching is decided by the boolean query, the order by BM25 over its positive words
+        StringBuilder text = new StringBuilder();
+        parsed.collectPositiveText(text);
+        long[] ids;
+        RankedHits hits;
+        try (SearchProfile.Stage stage = SearchProfile.stage("ranking")) {
+            ids = index.query(parsed);
+            hits = index.getBm25().rank(text.toString(), parameters, ids, limit);
+        }
+        log.debug("Boolean query matched {} plants: {}", ids.length, query);
+        profile(hits, id -> index.getBm25().explain(text.toString(), parameters, id));
+        return toMatches(hits);
+    }
+
+    /**
+     * Notes a ranking in the profile of an explained search, with the score contributions of its
+     * top hits
+     */
+    private void profile(RankedHits hits, LongFunction<Map<String, Double>> explain) {
+        if (!SearchProfile.isActive()) {
+            return;
+        }
+        SearchProfile.candidates(hits.getTotalCandidates(), hits.size());
+        try (SearchProfile.Stage stage = SearchProfile.stage("explain")) {
+            for (int i = 0; i < Math.min(SearchProfile.EXPLAINED_HITS, hits.size()); i++) {
+                SearchProfile.contributions(hits.getIds()[i], explain.apply(hits.getIds()[i]));
+            }
+        }
+    }
+
+    /**
+     * Hydrates ranked hits in rank order, skipping plants deleted since the index was built
+     */
+    private List<PlantMatchResponse> toMatches(RankedHits hits) {
+        Map<Long, Plant> byId = new HashMap<>(hits.size() * 2);
+        for (Plant plant : hydrate(hits.getIds())) {
+            byId.put(plant.getId(), plant);
+        }
+        List<PlantMatchResponse> matches = new ArrayList<>(byId.size());
+        try (SearchProfile.Stage stage = SearchProfile.stage("mapping")) {
+            for (int i = 0; i < hits.size(); i++) {
+                Plant plant = byId.get(hits.getIds()[i]);
+                if (plant != null) {
+                    matches.add(PlantMatchResponse.builder()
+                            .plant(plantMapper.toResponse(plant))
+                            .matchedKeywords(hits.getMatchCounts()[i])
+                            .score(hits.getScores()[i])
+                            .build());
+                }
+            }
+        }
+        // Cached and shared between callers
+        return Collections.unmodifiableList(matches);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.TOP_RATED_PLANTS, keyGenerator = "catalogKeyGenerator")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PageResponse<PlantResponse> getTopRatedPlants(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        CursorCodec.RatingPosition after = CursorCodec.decodeRatingAndId(cursor);
+        double afterRating = after == null ? Double.MAX_VALUE : after.getRating();
+        long afterId = after == null ? 0L : after.getId();
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        List<PlantResponse> plants = snapshot != null
+                ? snapshot.ratedAfter(TOP_RATED_THRESHOLD, afterRating, afterId, pageSize + 1)
+                : readOnlyTransaction.execute(status -> mapAll(plantRepository.findTopRatedPlantsAfter(
+                        TOP_RATED_THRESHOLD, afterRating, afterId, PageRequest.of(0, pageSize + 1))));
+        return toPage(plants, pageSize, plant -> CursorCodec.encodeRatingAndId(plant.getRating(), plant.getId()));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.TOP_RATED_PLANTS, keyGenerator = "catalogKeyGenerator")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PageResponse<PlantSummaryResponse> getTopRatedPlantSummaries(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        CursorCodec.RatingPosition after = CursorCodec.decodeRatingAndId(cursor);
+        double afterRating = after == null ? Double.MAX_VALUE : after.getRating();
+        long afterId = after == null ? 0L : after.getId();
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        List<PlantSummaryResponse> plants = snapshot != null
+                ? summaries(snapshot, snapshot.ratedAfter(TOP_RATED_THRESHOLD, afterRating, afterId, pageSize + 1))
+                : readOnlyTransaction.execute(status -> plantRepository.findTopRatedSummariesAfter(
+                        TOP_RATED_THRESHOLD, afterRating, afterId, PageRequest.of(0, pageSize + 1)));
+        return toPage(plants, pageSize, plant -> CursorCodec.encodeRatingAndId(plant.getRating(), plant.getId()));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PLANTS_BY_TYPE, keyGenerator = "catalogKeyGenerator")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PageResponse<PlantResponse> getPlantsByType(String type, String cursor, Integer size) {
+        PlantType plantType = parsePlantType(type);
+        int pageSize = paginationProperties.resolve(size);
+        long afterId = CursorCodec.decodeId(cursor);
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        List<PlantResponse> plants = snapshot != null
+                ? snapshot.ofTypeAfter(plantType, afterId, pageSize + 1)
+                : readOnlyTransaction.execute(status -> mapAll(plantRepository.findByPlantTypeAndIdGreaterThanOrderByIdAsc(
+                        plantType, afterId, PageRequest.of(0, pageSize + 1))));
+        return toPage(plants, pageSize, plant -> CursorCodec.encodeId(plant.getId()));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PLANTS_BY_TYPE, keyGenerator = "catalogKeyGenerator")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PageResponse<PlantSummaryResponse> getPlantSummariesByType(String type, String cursor, Integer size) {
+        PlantType plantType = parsePlantType(type);
+        int pageSize = paginationProperties.resolve(size);
+        long afterId = CursorCodec.decodeId(cursor);
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        List<PlantSummaryResponse> plants = snapshot != null
+                ? summaries(snapshot, snapshot.ofTypeAfter(plantType, afterId, pageSize + 1))
+                : readOnlyTransaction.execute(status -> plantRepository.findSummariesByTypeAfter(
+                        plantType, afterId, PageRequest.of(0, pageSize + 1)));
+        return toPage(plants, pageSize, plant -> CursorCodec.encodeId(plant.getId()));
+    }
+
+    private static PlantType parsePlantType(String type) {
+        try {
+            return PlantType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchException("Unknown plant type: " + type);
+        }
     }
 
     @Override
@@ -84,6 +440,109 @@ public class PlantServiceImpl implements PlantService {
         plantRepository.deleteById(id);
     }
 
+    /**
+     * Builds a page from a result fetched with one extra row; the extra row only signals
+     * that another page exists, and the cursor points at the last row actually returned
+     */
+    private <T> PageResponse<T> toPage(List<T> plants, int pageSize, Function<T, String> cursorOf) {
+        boolean hasMore = plants.size() > pageSize;
+        List<T> items = hasMore ? plants.subList(0, pageSize) : plants;
+        return PageResponse.<T>builder()
+                .items(items)
+                .nextCursor(hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null)
+                .pageSize(pageSize)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private List<PlantResponse> mapAll(List<Plant> plants) {
+        return plants.stream()
+                .map(plant -> plantMapper.toResponse(plant))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The snapshot's summaries of plants taken from it
+     */
+    private static List<PlantSummaryResponse> summaries(CatalogSnapshot snapshot, List<PlantResponse> plants) {
+        List<PlantSummaryResponse> summaries = new ArrayList<>(plants.size());
+        for (PlantResponse plant : plants) {
+            summaries.add(snapshot.summaryOf(plant));
+        }
+        return summaries;
+    }
+
+    /**
+     * Loads the summaries for a list of index hits, preserving the index order
+     */
+    private List<PlantSummaryResponse> summarize(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> boxed = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            boxed.add(id);
+        }
+        Map<Long, PlantSummaryResponse> byId = new HashMap<>(ids.length * 2);
+        for (PlantSummaryResponse summary : plantRepository.findSummariesByIdIn(boxed)) {
+            byId.put(summary.getId(), summary);
+        }
+        List<PlantSummaryResponse> summaries = new ArrayList<>(byId.size());
+        for (long id : ids) {
+            PlantSummaryResponse summary = byId.get(id);
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Loads the plants for a list of index hits, preserving the index order
+     */
+    private List<Plant> hydrate(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> boxed = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            boxed.add(id);
+        }
+        Map<Long, Plant> byId = new HashMap<>(ids.length * 2);
+        try (SearchProfile.Stage stage = SearchProfile.stage("hydration")) {
+            for (Plant plant : plantRepository.findAllById(boxed)) {
+                byId.put(plant.getId(), plant);
+            }
+        }
+        List<Plant> plants = new ArrayList<>(byId.size());
+        for (long id : ids) {
+            Plant plant = byId.get(id);
+            if (plant != null) {
+                plants.add(plant);
+            }
+        }
+        if (SearchProfile.isActive()) {
+            // Loads the collections mapping would load anyway, so lazy loading shows as its own stage
+            try (SearchProfile.Stage stage = SearchProfile.stage("lazy-loading")) {
+                for (Plant plant : plants) {
+                    Hibernate.initialize(plant.getMedicinalUses());
+                    Hibernate.initialize(plant.getActiveCompounds());
+                    Hibernate.initialize(plant.getProperties());
+                }
+            }
+        }
+        return plants;
+    }
+
+    private <T> PageResponse<T> dummyPage(Function<PlantResponse, T> view) {
+        List<T> dummies = getDummyPlants().stream().map(view).collect(Collectors.toList());
+        return PageResponse.<T>builder()
+                .items(dummies)
+                .pageSize(dummies.size())
+                .hasMore(false)
+                .build();
+    }
+
     /**
      * Returns dummy plant data for demonstration
      */
@@ -1,16 +1,55 @@
 package com.medicinal.plant.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medicinal.plant.config.PaginationProperties;
+import com.medicinal.plant.exception.InvalidSearchException;
 import com.medicinal.plant.model.dto.request.PlantSearchRequest;
+import com.medicinal.plant.model.dto.request.RelevanceTuningRequest;
 import com.medicinal.plant.model.dto.request.SymptomSearchRequest;
 import com.medicinal.plant.model.dto.request.VisualSearchRequest;
+import com.medicinal.plant.model.dto.response.AnalyzerResponse;
+import com.medicinal.plant.model.dto.response.ExplainResponse;
+import com.medicinal.plant.model.dto.response.ExplainStageResponse;
+import com.medicinal.plant.model.dto.response.HighlightResponse;
+import com.medicinal.plant.model.dto.response.PlantMatchResponse;
 import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.RelevanceTuningResponse;
 import com.medicinal.plant.model.dto.response.SearchResultResponse;
+import com.medicinal.plant.model.dto.response.SuggestionResponse;
+import com.medicinal.plant.search.Analyzer;
+import com.medicinal.plant.search.Bm25Index;
+import com.medicinal.plant.search.FacetIndex;
+import com.medicinal.plant.search.Highlighter;
+import com.medicinal.plant.search.PlantSearchIndex;
+import com.medicinal.plant.search.QueryParser;
+import com.medicinal.plant.search.RankedHits;
+import com.medicinal.plant.search.RelevanceTuning;
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.search.SearchProfile;
+import com.medicinal.plant.search.SuggestionIndexManager;
+import com.medicinal.plant.search.SymptomMatcher;
+import com.medicinal.plant.search.TextAnalyzer;
+import com.medicinal.plant.search.VectorSearchManager;
 import com.medicinal.plant.service.PlantService;
 import com.medicinal.plant.service.SearchService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Search Service Implementation
@@ -19,67 +58,234 @@ import java.util.List;
 @Slf4j
 public class SearchServiceImpl implements SearchService {
 
+    private static final int DEFAULT_SUGGESTIONS = 8;
+    private static final int MAX_SUGGESTIONS = 25;
+    // Reciprocal rank fusion damping: ranks past the first few contribute nearly equally
+    private static final int FUSION_RANK_OFFSET = 60;
+    // Characters of description shown around the matches when highlighting
+    private static final int SNIPPET_LENGTH = 160;
+
     private final PlantService plantService;
+    private final SearchIndexManager searchIndexManager;
+    private final SuggestionIndexManager suggestionIndexManager;
+    private final VectorSearchManager vectorSearchManager;
+    private final RelevanceTuning relevanceTuning;
+    private final PaginationProperties paginationProperties;
+    private final ObjectMapper objectMapper;
 
-    public SearchServiceImpl(PlantService plantService) {
+    public SearchServiceImpl(PlantService plantService, SearchIndexManager searchIndexManager,
+                             SuggestionIndexManager suggestionIndexManager,
+                             VectorSearchManager vectorSearchManager,
+                             RelevanceTuning relevanceTuning,
+                             PaginationProperties paginationProperties,
+                             ObjectMapper objectMapper) {
         this.plantService = plantService;
+        this.searchIndexManager = searchIndexManager;
+        this.suggestionIndexManager = suggestionIndexManager;
+        this.vectorSearchManager = vectorSearchManager;
+        this.relevanceTuning = relevanceTuning;
+        this.paginationProperties = paginationProperties;
+        this.objectMapper = objectMapper;
     }
 
     @Override
     public SearchResultResponse performGeneralSearch(PlantSearchRequest request) {
-        List<PlantResponse> plants = plantService.searchPlants(request.getQuery());
-        return SearchResultResponse.builder()
-                .plants(plants)
-                .totalResults(plants.size())
-                .searchType(request.getSearchType())
-                .searchQuery(request.getQuery())
-                .build();
+        return explained(request.getExplain(), () -> {
+            SearchResultResponse result = generalSearch(request);
+            return present(result, request.getHighlight(), request.getOmitDescriptions(), () -> {
+                if (!"BOOLEAN".equals(result.getMatchMode())) {
+                    return TextAnalyzer.tokenize(request.getQuery());
+                }
+                StringBuilder text = new StringBuilder();
+                QueryParser.parse(request.getQuery()).collectPositiveText(text);
+                return TextAnalyzer.tokenize(text.toString());
+            });
+        });
+    }
+
+    private SearchResultResponse generalSearch(PlantSearchRequest request) {
+        int limit = paginationProperties.resolve(request.getLimit());
+        if (isBooleanQuery(request)) {
+            // Fielded boolean query, evaluated over the posting lists of the search index
+            SearchResultResponse result = toResult(plantService.queryPlants(request.getQuery(), limit),
+                    request.getSearchType(), request.getQuery());
+            result.setMatchMode("BOOLEAN");
+            return result;
+        }
+        // BM25 over whole words and completions of them, boosted by field
+        List<PlantMatchResponse> matches = plantService.rankPlants(request.getQuery(), limit);
+        if (matches.isEmpty()) {
+            // Word fragments inside names and uses are only found through the trigram index
+            matches = plantService.searchPlantsByKeywords(List.of(request.getQuery()), List.of(), limit);
+        }
+        SearchResultResponse result = toResult(matches, request.getSearchType(), request.getQuery());
+        result.setMatchMode("KEYWORD");
+        return result;
+    }
+
+    /**
+     * searchType QUERY (or BOOLEAN) forces the query language and KEYWORD (or TEXT) forces free
+     * text; otherwise queries with field prefixes or AND/OR/NOT are treated as boolean queries
+     */
+    private boolean isBooleanQuery(PlantSearchRequest request) {
+        String searchType = request.getSearchType() == null ? "" : request.getSearchType().trim().toUpperCase(Locale.ROOT);
+        return switch (searchType) {
+            case "QUERY", "BOOLEAN" -> true;
+            case "KEYWORD", "TEXT" -> false;
+            default -> QueryParser.looksStructured(request.getQuery());
+        };
     }
 
     @Override
     public SearchResultResponse searchBySymptoms(SymptomSearchRequest request) {
+        return explained(request.getExplain(), () -> {
+            SearchResultResponse result = symptomSearch(request);
+            return present(result, request.getHighlight(), request.getOmitDescriptions(), () -> {
+                if (request.getDescription() == null || request.getDescription().isBlank()) {
+                    return request.getSymptoms() == null ? List.of()
+                            : TextAnalyzer.tokenize(String.join(" ", request.getSymptoms()));
+                }
+                String description = Boolean.TRUE.equals(result.getAutoCorrected())
+                        ? result.getDidYouMean() : request.getDescription().toLowerCase();
+                Set<String> keywords = new LinkedHashSet<>();
+                searchIndexManager.getSymptomMatcher().match(description,
+                        SymptomMatcher.MatchSink.into(new HashSet<>(), keywords));
+                return keywords.isEmpty() ? extractFallbackKeywords(description)
+                        : TextAnalyzer.tokenize(String.join(" ", keywords));
+            });
+        });
+    }
+
+    /**
+     * Runs the search, profiled with the breakdown attached to its result when explain is set.
+     * Serialization is timed by converting the result to a JSON tree here, and the response is
+     * written from that tree with the breakdown set on it.
+     */
+    private SearchResultResponse explained(Boolean explain, Supplier<SearchResultResponse> search) {
+        if (!Boolean.TRUE.equals(explain)) {
+            return search.get();
+        }
+        SearchProfile profile = SearchProfile.start();
+        SearchResultResponse result;
+        ObjectNode json;
+        try {
+            result = search.get();
+            try (SearchProfile.Stage stage = SearchProfile.stage("serialization")) {
+                json = objectMapper.valueToTree(result);
+            }
+        } finally {
+            profile.finish();
+        }
+        ExplainResponse breakdown = toExplainResponse(profile, result.getPlants());
+        result.setExplain(breakdown);
+        json.set("explain", objectMapper.valueToTree(breakdown));
+        result.setJson(json);
+        return result;
+    }
+
+    private ExplainResponse toExplainResponse(SearchProfile profile, List<PlantResponse> plants) {
+        List<ExplainStageResponse> stages = new ArrayList<>();
+        for (SearchProfile.StageTotals stage : profile.getStages()) {
+            stages.add(ExplainStageResponse.builder()
+                    .name(stage.getName())
+                    .runs(stage.getCount())
+                    .timeMs(toMillis(stage.getNanos()))
+                    .allocatedBytes(stage.getAllocatedBytes())
+                    .sqlStatements(stage.getSqlStatements())
+                    .build());
+        }
+        Map<Long, Map<String, Double>> contributions = new LinkedHashMap<>();
+        for (PlantResponse plant : plants.subList(0, Math.min(SearchProfile.EXPLAINED_HITS, plants.size()))) {
+            contributions.put(plant.getId(), profile.getContributions(plant.getId()));
+        }
+        return ExplainResponse.builder()
+                .totalTimeMs(toMillis(profile.getElapsedNanos()))
+                .allocatedBytes(profile.getAllocatedBytes())
+                .sqlStatements(profile.getSqlStatements())
+                .candidates(profile.getCandidates())
+                .ranked(profile.getRanked())
+                .returned(plants.size())
+                .stages(stages)
+                .contributions(contributions)
+                .build();
+    }
+
+    // Milliseconds with microsecond precision
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private SearchResultResponse symptomSearch(SymptomSearchRequest request) {
         // Natural language symptom search
         if (request.getDescription() != null && !request.getDescription().trim().isEmpty()) {
             String description = request.getDescription().toLowerCase();
             log.info("Symptom search for: {}", description);
-            
-            // Extract potential symptom keywords from natural language
-            String[] keywords = extractSymptomKeywords(description);
-            log.info("Extracted keywords: {}", String.join(", ", keywords));
-            
-            // Search for plants matching any of the extracted keywords
-            List<PlantResponse> allPlants = new java.util.ArrayList<>();
-            java.util.Set<Long> addedPlantIds = new java.util.HashSet<>();
-            
-            for (String keyword : keywords) {
-                List<PlantResponse> plants = plantService.searchPlants(keyword);
-                for (PlantResponse plant : plants) {
-                    if (!addedPlantIds.contains(plant.getId())) {
-                        allPlants.add(plant);
-                        addedPlantIds.add(plant.getId());
-                    }
-                }
+            int limit = paginationProperties.resolve(request.getLimit());
+            List<PlantMatchResponse> matches = matchDescription(description, limit);
+            if (Boolean.TRUE.equals(request.getSemantic())) {
+                SearchResultResponse result = toResult(fuse(matches, matchSemantic(description, limit), limit),
+                        "BY_SYMPTOM", request.getDescription());
+                result.setMatchMode("HYBRID");
+                return result;
+            }
+            if (!matches.isEmpty()) {
+                SearchResultResponse result = toResult(matches, "BY_SYMPTOM", request.getDescription());
+                result.setMatchMode("KEYWORD");
+                return result;
+            }
+
+            // Nothing matched: offer the spelling correction if it finds something
+            String correction;
+            try (SearchProfile.Stage stage = SearchProfile.stage("spelling-correction")) {
+                correction = searchIndexManager.getSpellingCorrector().correct(description);
             }
-            
-            log.info("Found {} plants for query: {}", allPlants.size(), description);
-            
-            return SearchResultResponse.builder()
-                    .plants(allPlants)
-                    .totalResults(allPlants.size())
-                    .searchType("BY_SYMPTOM")
-                    .searchQuery(request.getDescription())
-                    .build();
+            List<PlantMatchResponse> corrected = correction == null ? List.of() : matchDescription(correction, limit);
+            boolean autoCorrect = Boolean.TRUE.equals(request.getAutoCorrect()) && !corrected.isEmpty();
+            SearchResultResponse result;
+            if (autoCorrect) {
+                result = toResult(corrected, "BY_SYMPTOM", request.getDescription());
+                result.setMatchMode("KEYWORD");
+            } else {
+                // Still nothing by keyword: fall back to plants with semantically similar text
+                result = toResult(matchSemantic(description, limit), "BY_SYMPTOM", request.getDescription());
+                result.setMatchMode("SEMANTIC");
+            }
+            if (!corrected.isEmpty()) {
+                result.setDidYouMean(correction);
+                result.setAutoCorrected(autoCorrect);
+            }
+            return result;
         }
         
-        // Fallback to old keyword-based search if description is empty
+        // Listed symptoms: plants treating all of them, or at least minMatches
         if (request.getSymptoms() != null && !request.getSymptoms().isEmpty()) {
-            List<PlantResponse> plants = plantService.searchPlants(request.getSymptoms().get(0));
-            return SearchResultResponse.builder()
-                    .plants(plants)
-                    .totalResults(plants.size())
-                    .searchType("BY_SYMPTOM")
-                    .searchQuery(String.join(", ", request.getSymptoms()))
-                    .build();
+            List<List<Long>> symptomGroups = new ArrayList<>(request.getSymptoms().size());
+            // Names of no known symptom still match plants whose medicinal uses mention them
+            List<String> useKeywords = new ArrayList<>();
+            for (String symptom : new LinkedHashSet<>(request.getSymptoms())) {
+                List<Long> symptomIds = searchIndexManager.getSymptomMatcher().resolveSymptom(symptom);
+                if (symptomIds.isEmpty()) {
+                    useKeywords.add(symptom);
+                } else {
+                    symptomGroups.add(symptomIds);
+                }
+            }
+            int groups = symptomGroups.size() + useKeywords.size();
+            int minMatches = request.getMinMatches() == null ? groups : request.getMinMatches();
+            if (minMatches < 1) {
+                throw new InvalidSearchException("minMatches must be at least 1");
+            }
+            if (minMatches > groups) {
+                throw new InvalidSearchException("minMatches must be at most the " + groups + " distinct symptoms listed");
+            }
+            log.info("Symptom intersection of {} (at least {}): {}, uses {}", request.getSymptoms(), minMatches,
+                    symptomGroups, useKeywords);
+            int limit = paginationProperties.resolve(request.getLimit());
+            SearchResultResponse result = toResult(
+                    plantService.searchPlantsTreating(symptomGroups, useKeywords, minMatches, limit),
+                    "BY_SYMPTOM", String.join(", ", request.getSymptoms()));
+            result.setMatchMode("INTERSECTION");
+            return result;
         }
         
         return SearchResultResponse.builder()
@@ -90,58 +296,246 @@ public class SearchServiceImpl implements SearchService {
                 .build();
     }
     
+    private List<PlantMatchResponse> matchDescription(String description, int limit) {
+        // Match symptom names, synonyms and medicinal uses in a single scan
+        Set<Long> symptomIds = new LinkedHashSet<>();
+        Collection<String> keywords = new LinkedHashSet<>();
+        try (SearchProfile.Stage stage = SearchProfile.stage("keyword-extraction")) {
+            searchIndexManager.getSymptomMatcher().match(description, SymptomMatcher.MatchSink.into(symptomIds, keywords));
+            if (symptomIds.isEmpty() && keywords.isEmpty()) {
+                keywords = extractFallbackKeywords(description);
+            }
+        }
+        log.info("Matched symptom ids: {}, keywords: {}", symptomIds, keywords);
+
+        // Evaluate all terms in one pass and keep the best-ranked plants
+        List<PlantMatchResponse> matches = plantService.searchPlantsByKeywords(keywords, symptomIds, limit);
+        log.info("Found {} plants for query: {}", matches.size(), description);
+        return matches;
+    }
+
+    private List<PlantMatchResponse> matchSemantic(String description, int limit) {
+        RankedHits hits;
+        try (SearchProfile.Stage stage = SearchProfile.stage("semantic-ranking")) {
+            hits = vectorSearchManager.search(description, limit);
+        }
+        if (SearchProfile.isActive()) {
+            SearchProfile.candidates(hits.getTotalCandidates(), hits.size());
+            for (int i = 0; i < Math.min(SearchProfile.EXPLAINED_HITS, hits.size()); i++) {
+                SearchProfile.contributions(hits.getIds()[i], Map.of("semantic similarity", hits.getScores()[i]));
+            }
+        }
+        List<PlantResponse> plants = plantService.getPlantsByIds(hits.getIds());
+        List<PlantMatchResponse> matches = new ArrayList<>(plants.size());
+        for (int i = 0, p = 0; i < hits.size() && p < plants.size(); i++) {
+            // Plants deleted since the vector index was built are missing from the hydrated list
+            if (plants.get(p).getId() == hits.getIds()[i]) {
+                matches.add(new PlantMatchResponse(plants.get(p++), 0, hits.getScores()[i]));
+            }
+        }
+        log.info("Semantic search returned {} plants for query: {}", matches.size(), description);
+        return matches;
+    }
+
     /**
-     * Extract symptom keywords from natural language description
+     * Merges the keyword and semantic rankings by reciprocal rank fusion; a plant's score is the
+     * sum of 1 / (offset + rank) over the rankings it appears in
      */
-    private String[] extractSymptomKeywords(String description) {
-        // Common symptom-related words
-        String[] commonSymptoms = {
-            "headache", "head", "pain", "ache", "migraine",
-            "stomach", "ulcer", "digestive", "digestion", "nausea", "vomit",
-            "stress", "anxiety", "anxious", "nervous", "worry",
-            "cold", "flu", "cough", "fever", "temperature",
-            "skin", "rash", "irritation", "burn", "wound", "cut",
-            "sleep", "insomnia", "tired", "fatigue", "weak",
-            "joint", "muscle", "inflammation", "swelling",
-            "blood pressure", "cholesterol", "heart",
-            "infection", "bacteria", "virus",
-            "respiratory", "breathing", "asthma",
-            "depression", "sad", "mood"
-        };
-        
-        java.util.List<String> foundKeywords = new java.util.ArrayList<>();
-        String lowerDesc = description.toLowerCase();
-        
-        for (String symptom : commonSymptoms) {
-            if (lowerDesc.contains(symptom)) {
-                foundKeywords.add(symptom);
+    private List<PlantMatchResponse> fuse(List<PlantMatchResponse> keyword, List<PlantMatchResponse> semantic, int limit) {
+        Map<Long, PlantMatchResponse> fused = new LinkedHashMap<>();
+        for (List<PlantMatchResponse> ranking : List.of(keyword, semantic)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                PlantMatchResponse match = ranking.get(rank);
+                double contribution = 1.0 / (FUSION_RANK_OFFSET + rank + 1);
+                fused.merge(match.getPlant().getId(),
+                        new PlantMatchResponse(match.getPlant(), match.getMatchedKeywords(), contribution),
+                        (a, b) -> new PlantMatchResponse(a.getPlant(),
+                                Math.max(a.getMatchedKeywords(), b.getMatchedKeywords()), a.getScore() + b.getScore()));
             }
         }
-        
-        // If no specific symptoms found, use the whole description as keywords
-        if (foundKeywords.isEmpty()) {
-            // Split by common words and punctuation
-            String[] words = lowerDesc.split("[\\s,;.!?]+");
-            for (String word : words) {
-                if (word.length() > 3) { // Only words longer than 3 characters
-                    foundKeywords.add(word);
+        List<PlantMatchResponse> ranked = fused.values().stream()
+                .sorted(Comparator.comparingDouble(PlantMatchResponse::getScore).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (SearchProfile.isActive()) {
+            // The fused score replaces the scores of both rankings, so it is explained by its terms
+            for (PlantMatchResponse match : ranked.subList(0, Math.min(SearchProfile.EXPLAINED_HITS, ranked.size()))) {
+                Map<String, Double> contributions = new LinkedHashMap<>();
+                addFusionContribution(contributions, "keyword rank ", keyword, match.getPlant().getId());
+                addFusionContribution(contributions, "semantic rank ", semantic, match.getPlant().getId());
+                SearchProfile.contributions(match.getPlant().getId(), contributions);
+            }
+        }
+        return ranked;
+    }
+
+    private void addFusionContribution(Map<String, Double> contributions, String label,
+                                       List<PlantMatchResponse> ranking, long plantId) {
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            if (ranking.get(rank).getPlant().getId() == plantId) {
+                contributions.put(label + (rank + 1), 1.0 / (FUSION_RANK_OFFSET + rank + 1));
+                return;
+            }
+        }
+    }
+
+    private SearchResultResponse toResult(List<PlantMatchResponse> matches, String searchType, String searchQuery) {
+        List<PlantResponse> plants = new ArrayList<>(matches.size());
+        Map<Long, Integer> keywordMatches = new LinkedHashMap<>();
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (PlantMatchResponse match : matches) {
+            plants.add(match.getPlant());
+            keywordMatches.put(match.getPlant().getId(), match.getMatchedKeywords());
+            scores.put(match.getPlant().getId(), match.getScore());
+        }
+        return SearchResultResponse.builder()
+                .plants(plants)
+                .totalResults(plants.size())
+                .searchType(searchType)
+                .searchQuery(searchQuery)
+                .keywordMatches(keywordMatches)
+                .scores(scores)
+                .build();
+    }
+
+    /**
+     * Adds highlighted snippets of the words the plants were found by and drops full
+     * descriptions, as requested
+     */
+    private SearchResultResponse present(SearchResultResponse result, Boolean highlight, Boolean omitDescriptions,
+                                         Supplier<List<String>> highlightWords) {
+        if (Boolean.TRUE.equals(highlight)) {
+            try (SearchProfile.Stage stage = SearchProfile.stage("highlighting")) {
+                PlantSearchIndex index = searchIndexManager.getIndex();
+                List<String> words = highlightWords.get();
+                Map<Long, List<HighlightResponse>> highlights = new LinkedHashMap<>();
+                for (PlantResponse plant : result.getPlants()) {
+                    highlights.put(plant.getId(), Highlighter.highlight(index, plant.getId(), words, SNIPPET_LENGTH).stream()
+                            .map(fragment -> HighlightResponse.builder()
+                                    .field(fragment.getField())
+                                    .snippet(fragment.getText())
+                                    .offsets(Arrays.stream(fragment.getOffsets()).boxed().collect(Collectors.toList()))
+                                    .build())
+                            .collect(Collectors.toList()));
                 }
+                result.setHighlights(highlights);
             }
         }
-        
-        return foundKeywords.toArray(new String[0]);
+        if (Boolean.TRUE.equals(omitDescriptions)) {
+            // Plants come from the result caches and are shared, so they are copied, not cleared
+            result.setPlants(result.getPlants().stream()
+                    .map(plant -> plant.toBuilder().description(null).build())
+                    .collect(Collectors.toList()));
+        }
+        return result;
+    }
+
+    /**
+     * Splits a description into candidate keywords when no known symptom phrase matched
+     */
+    private List<String> extractFallbackKeywords(String description) {
+        List<String> keywords = new ArrayList<>();
+        for (String word : description.split("[\\s,;.!?]+")) {
+            if (word.length() > 3) { // Only words longer than 3 characters
+                keywords.add(word);
+            }
+        }
+        return keywords;
     }
 
     @Override
     public SearchResultResponse searchByVisualFeatures(VisualSearchRequest request) {
-        // Simplified: Return all plants for demo
-        List<PlantResponse> plants = plantService.getAllPlants();
+        Map<FacetIndex.Facet, Set<Enum<?>>> selection = new EnumMap<>(FacetIndex.Facet.class);
+        addSelection(selection, FacetIndex.Facet.LEAF_SHAPE, request.getLeafShape());
+        addSelection(selection, FacetIndex.Facet.FLOWER_COLOR, request.getFlowerColor());
+        addSelection(selection, FacetIndex.Facet.PLANT_TYPE, request.getPlantType());
+        addSelection(selection, FacetIndex.Facet.SIZE, request.getSize());
+
+        PlantSearchIndex index = searchIndexManager.getIndex();
+        long[] ids = index.selectFacets(selection);
+        // Only the first page is loaded; the total and the facet counts still cover every match
+        int limit = paginationProperties.resolve(request.getLimit());
+        List<PlantResponse> plants = plantService.getPlantsByIds(ids.length > limit ? Arrays.copyOf(ids, limit) : ids);
         return SearchResultResponse.builder()
                 .plants(plants)
-                .totalResults(plants.size())
+                .totalResults(ids.length)
                 .searchType("BY_VISUAL")
-                .searchQuery("Visual features search")
+                .searchQuery(describeSelection(selection))
+                .facetCounts(index.countFacets(selection))
                 .build();
     }
-}
 
+    @Override
+    public List<SuggestionResponse> suggest(String prefix, Integer limit) {
+        int size = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return suggestionIndexManager.complete(prefix, size).stream()
+                .map(suggestion -> SuggestionResponse.builder()
+                        .text(suggestion.getText())
+                        .type(suggestion.getKind().name())
+                        .weight(suggestion.getWeight())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public RelevanceTuningResponse getRelevanceTuning() {
+        return toTuningResponse(relevanceTuning.getParameters());
+    }
+
+    @Override
+    public RelevanceTuningResponse updateRelevanceTuning(RelevanceTuningRequest request) {
+        return toTuningResponse(relevanceTuning.update(request.getK1(), request.getB(), request.getBoosts()));
+    }
+
+    private RelevanceTuningResponse toTuningResponse(Bm25Index.Parameters parameters) {
+        Map<String, Double> boosts = new LinkedHashMap<>();
+        parameters.getBoosts().forEach((field, boost) -> boosts.put(field.getKey(), boost));
+        return RelevanceTuningResponse.builder()
+                .k1(parameters.getK1())
+                .b(parameters.getB())
+                .boosts(boosts)
+                .build();
+    }
+
+    @Override
+    public AnalyzerResponse reloadSynonyms() {
+        Analyzer analyzer = searchIndexManager.reloadSynonyms();
+        return AnalyzerResponse.builder()
+                .filters(analyzer.filterNames())
+                .synonymRules(analyzer.synonymRuleCount())
+                .fingerprint(Long.toHexString(analyzer.fingerprint()))
+                .build();
+    }
+
+    /**
+     * Parses a comma-separated list of facet values into the selection
+     */
+    private void addSelection(Map<FacetIndex.Facet, Set<Enum<?>>> selection, FacetIndex.Facet facet, String raw) {
+        if (raw == null || raw.isBlank()) {
+            return;
+        }
+        Set<Enum<?>> values = new LinkedHashSet<>();
+        for (String part : raw.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            Enum<?> value = facet.parse(part);
+            if (value == null) {
+                throw new InvalidSearchException("Unknown " + facet.getKey() + ": " + part.trim());
+            }
+            values.add(value);
+        }
+        selection.put(facet, values);
+    }
+
+    private String describeSelection(Map<FacetIndex.Facet, Set<Enum<?>>> selection) {
+        if (selection.isEmpty()) {
+            return "Visual features search";
+        }
+        return selection.entrySet().stream()
+                .map(entry -> entry.getKey().getKey() + "=" + entry.getValue().stream()
+                        .map(Enum::name)
+                        .collect(Collectors.joining("|")))
+                .collect(Collectors.joining(", "));
+    }
+}
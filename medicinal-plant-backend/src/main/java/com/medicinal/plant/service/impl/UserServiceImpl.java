@@ -1,6 +1,7 @@
 package com.medicinal.plant.service.impl;
 
 import com.medicinal.plant.exception.UserNotFoundException;
+import com.medicinal.plant.mapper.UserMapper;
 import com.medicinal.plant.model.dto.request.AuthRequest;
 import com.medicinal.plant.model.dto.request.UserRegistrationRequest;
 import com.medicinal.plant.model.dto.response.AuthResponse;
@@ -10,7 +11,6 @@ import com.medicinal.plant.model.enums.UserRole;
 import com.medicinal.plant.repository.UserRepository;
 import com.medicinal.plant.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +25,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     @Override
     public UserResponse registerUser(UserRegistrationRequest request) {
@@ -39,7 +39,7 @@ public class UserServiceImpl implements UserService {
                 .build();
         
         user = userRepository.save(user);
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toResponse(user);
     }
 
     @Override
@@ -48,7 +48,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         
-        UserResponse userResponse = modelMapper.map(user, UserResponse.class);
+        UserResponse userResponse = userMapper.toResponse(user);
         
         return AuthResponse.builder()
                 .token("dummy-jwt-token-" + user.getId())
@@ -61,6 +61,6 @@ public class UserServiceImpl implements UserService {
     public UserResponse getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toResponse(user);
     }
 }
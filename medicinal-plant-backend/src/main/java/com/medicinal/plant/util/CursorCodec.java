@@ -0,0 +1,182 @@
+package com.medicinal.plant.util;
+
+import com.medicinal.plant.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe continuation tokens
+ */
+public final class CursorCodec {
+
+    private static final String VERSION = "v1";
+
+    private CursorCodec() {
+    }
+
+    public static String encodeId(long id) {
+        return encode(VERSION + ":" + id);
+    }
+
+    /**
+     * Returns the plant id the previous page ended at, or 0 when there is no cursor
+     */
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String[] parts = decode(cursor, 2);
+        return parseLong(parts[1], cursor);
+    }
+
+    public static String encodeRatingAndId(double rating, long id) {
+        return encode(VERSION + ":" + rating + ":" + id);
+    }
+
+    /**
+     * Returns the (rating, id) position the previous page ended at, or null when there is no cursor
+     */
+    public static RatingPosition decodeRatingAndId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor, 3);
+        try {
+            return new RatingPosition(Double.parseDouble(parts[1]), parseLong(parts[2], cursor));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Encodes a position in a ranked search, bound to the index generation and relevance tuning
+     * version it was ranked with. The correction, if not null, is the corrected query the pages
+     * list the results of.
+     */
+    public static String encodeScoreAndId(double score, long id, long generation, long tuningVersion,
+                                          String correction) {
+        String raw = VERSION + ":" + score + ":" + id + ":" + generation + ":" + tuningVersion;
+        return encode(correction == null ? raw : raw + ":" + encode(correction));
+    }
+
+    /**
+     * Returns the position the previous page of a ranked search ended at, or null when there
+     * is no cursor
+     */
+    public static ScorePosition decodeScoreAndId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor, 5, 6);
+        try {
+            return new ScorePosition(Double.parseDouble(parts[1]), parseLong(parts[2], cursor),
+                    parseLong(parts[3], cursor), parseLong(parts[4], cursor),
+                    parts.length == 6 ? new String(decodeBase64(parts[5], cursor), StandardCharsets.UTF_8) : null);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, int expectedParts) {
+        return decode(cursor, expectedParts, expectedParts);
+    }
+
+    private static String[] decode(String cursor, int minParts, int maxParts) {
+        String raw = new String(decodeBase64(cursor, cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split(":");
+        if (parts.length < minParts || parts.length > maxParts || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        return parts;
+    }
+
+    private static byte[] decodeBase64(String value, String cursor) {
+        try {
+            return Base64.getUrlDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static long parseLong(String value, String cursor) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Position in a rating-descending, id-ascending ordering
+     */
+    public static final class RatingPosition {
+        private final double rating;
+        private final long id;
+
+        public RatingPosition(double rating, long id) {
+            this.rating = rating;
+            this.id = id;
+        }
+
+        public double getRating() {
+            return rating;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Position in a score-descending, id-ascending ordering of one index generation
+     */
+    public static final class ScorePosition {
+        private final double score;
+        private final long id;
+        private final long generation;
+        private final long tuningVersion;
+        private final String correction;
+
+        public ScorePosition(double score, long id, long generation, long tuningVersion, String correction) {
+            this.score = score;
+            this.id = id;
+            this.generation = generation;
+            this.tuningVersion = tuningVersion;
+            this.correction = correction;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * The search index generation the scores were computed on
+         */
+        public long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * The relevance tuning version the scores were computed with
+         */
+        public long getTuningVersion() {
+            return tuningVersion;
+        }
+
+        /**
+         * The corrected query the pages list the results of, or null when they list the query's own
+         */
+        public String getCorrection() {
+            return correction;
+        }
+    }
+}
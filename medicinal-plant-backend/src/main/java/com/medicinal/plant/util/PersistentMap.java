@@ -0,0 +1,545 @@
+package com.medicinal.plant.util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map whose versions share structure (a hash array mapped trie).
+ * <p>
+ * Entries hang off a tree of nodes with up to 32 slots, picked by successive five-bit slices
+ * of the key's hash. Adding, replacing or removing an entry copies only the few nodes on the
+ * path to it and shares every other node with the previous version, so updating an index for a
+ * handful of plants costs a handful of small array copies instead of a copy of the whole map.
+ * {@link #diff} compares two versions and skips every subtree they share. Keys and values must
+ * not be null.
+ */
+public final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    /**
+     * Receives the entries two versions of a map disagree on; before or after is null when the
+     * key is absent from that version
+     */
+    @FunctionalInterface
+    public interface DiffListener<K, V> {
+        void onDifference(K key, V before, V after);
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> entries) {
+        PersistentMap<K, V> map = empty();
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            map = map.plus(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (root == null) {
+            return null;
+        }
+        Object value = root.find(key, hash(key), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    public V getOrDefault(Object key, V fallback) {
+        V value = get(key);
+        return value == null ? fallback : value;
+    }
+
+    public boolean containsKey(Object key) {
+        return root != null && root.find(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    /**
+     * Returns a map with the key mapped to the value, or this map when it already is
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        boolean[] added = new boolean[1];
+        Node next = root == null
+                ? new BitmapNode(bit(hash, 0), new Object[]{key, value})
+                : root.put(key, value, hash, 0, added);
+        if (root == null) {
+            added[0] = true;
+        }
+        return next == root ? this : new PersistentMap<>(next, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the key, or this map when it has no such key
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Node next = root.remove(key, hash(key), 0);
+        if (next == root) {
+            return this;
+        }
+        return next == null ? empty() : new PersistentMap<>(next, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    /**
+     * Read-only view of the values, in no particular order
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Reports every key whose value differs, by reference, between this map and the other one.
+     * Subtrees both maps share are skipped, so comparing a map with a version derived from it by
+     * a few updates costs about as much as those updates did.
+     */
+    @SuppressWarnings("unchecked")
+    public void diff(PersistentMap<K, V> other, DiffListener<? super K, ? super V> listener) {
+        diff(root, other.root, 0, (DiffListener<Object, Object>) listener);
+    }
+
+    private static void diff(Node before, Node after, int shift, DiffListener<Object, Object> listener) {
+        if (before == after) {
+            return;
+        }
+        if (before == null) {
+            after.forEach((key, value) -> listener.onDifference(key, null, value));
+        } else if (after == null) {
+            before.forEach((key, value) -> listener.onDifference(key, value, null));
+        } else if (before instanceof BitmapNode a && after instanceof BitmapNode b) {
+            int bits = a.bitmap | b.bitmap;
+            while (bits != 0) {
+                int bit = Integer.lowestOneBit(bits);
+                bits &= bits - 1;
+                diffSlot(a, b, bit, shift, listener);
+            }
+        } else {
+            diffEntries(before, after, shift, listener);
+        }
+    }
+
+    private static void diffSlot(BitmapNode a, BitmapNode b, int bit, int shift, DiffListener<Object, Object> listener) {
+        Object beforeKey = null;
+        Object beforeValue = null;
+        Object afterKey = null;
+        Object afterValue = null;
+        if ((a.bitmap & bit) != 0) {
+            int i = 2 * a.index(bit);
+            beforeKey = a.array[i];
+            beforeValue = a.array[i + 1];
+        }
+        if ((b.bitmap & bit) != 0) {
+            int i = 2 * b.index(bit);
+            afterKey = b.array[i];
+            afterValue = b.array[i + 1];
+        }
+        Node beforeNode = beforeKey == null && beforeValue != null ? (Node) beforeValue : null;
+        Node afterNode = afterKey == null && afterValue != null ? (Node) afterValue : null;
+        if (beforeNode != null || afterNode != null) {
+            Node left = beforeNode != null ? beforeNode : singleton(beforeKey, beforeValue, shift + BITS);
+            Node right = afterNode != null ? afterNode : singleton(afterKey, afterValue, shift + BITS);
+            diff(left, right, shift + BITS, listener);
+        } else if (beforeKey == null) {
+            listener.onDifference(afterKey, null, afterValue);
+        } else if (afterKey == null) {
+            listener.onDifference(beforeKey, beforeValue, null);
+        } else if (beforeKey.equals(afterKey)) {
+            if (beforeValue != afterValue) {
+                listener.onDifference(beforeKey, beforeValue, afterValue);
+            }
+        } else {
+            listener.onDifference(beforeKey, beforeValue, null);
+            listener.onDifference(afterKey, null, afterValue);
+        }
+    }
+
+    private static Node singleton(Object key, Object value, int shift) {
+        return key == null ? null : new BitmapNode(bit(hash(key), shift), new Object[]{key, value});
+    }
+
+    /**
+     * Compares two subtrees of different shapes entry by entry
+     */
+    private static void diffEntries(Node before, Node after, int shift, DiffListener<Object, Object> listener) {
+        before.forEach((key, value) -> {
+            Object other = after.find(key, hash(key), shift);
+            if (other == NOT_FOUND) {
+                listener.onDifference(key, value, null);
+            } else if (other != value) {
+                listener.onDifference(key, value, other);
+            }
+        });
+        after.forEach((key, value) -> {
+            if (before.find(key, hash(key), shift) == NOT_FOUND) {
+                listener.onDifference(key, null, value);
+            }
+        });
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private abstract static class Node {
+
+        /**
+         * The value of the key, or NOT_FOUND
+         */
+        abstract Object find(Object key, int hash, int shift);
+
+        /**
+         * This node with the entry set; the node itself when nothing changed
+         */
+        abstract Node put(Object key, Object value, int hash, int shift, boolean[] added);
+
+        /**
+         * This node without the key; the node itself when absent, null when left empty
+         */
+        abstract Node remove(Object key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+
+        /**
+         * Whether the node holds exactly one entry and no child, so its parent can hold it directly
+         */
+        abstract boolean isSingleEntry();
+
+        abstract Object firstKey();
+
+        abstract Object firstValue();
+    }
+
+    /**
+     * Slots in use are flagged in the bitmap; the array holds a key and a value per slot, or a
+     * null key and a child node
+     */
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = 2 * index(bit);
+            Object existing = array[i];
+            if (existing == null) {
+                return ((Node) array[i + 1]).find(key, hash, shift + BITS);
+            }
+            return existing.equals(key) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, i);
+                grown[i] = key;
+                grown[i + 1] = value;
+                System.arraycopy(array, i, grown, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, grown);
+            }
+            Object existing = array[i];
+            Object slot = array[i + 1];
+            if (existing == null) {
+                Node child = ((Node) slot).put(key, value, hash, shift + BITS, added);
+                return child == slot ? this : with(i + 1, null, child);
+            }
+            if (existing.equals(key)) {
+                return slot == value ? this : with(i + 1, key, value);
+            }
+            added[0] = true;
+            return with(i + 1, null, merge(existing, slot, hash(existing), key, value, hash, shift + BITS));
+        }
+
+        private BitmapNode with(int valueIndex, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[valueIndex - 1] = key;
+            copy[valueIndex] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object existing = array[i];
+            if (existing == null) {
+                Node child = (Node) array[i + 1];
+                Node next = child.remove(key, hash, shift + BITS);
+                if (next == child) {
+                    return this;
+                }
+                if (next == null) {
+                    return without(bit, i);
+                }
+                // A child left with a single entry is folded into this node
+                return next.isSingleEntry() ? with(i + 1, next.firstKey(), next.firstValue()) : with(i + 1, null, next);
+            }
+            return existing.equals(key) ? without(bit, i) : this;
+        }
+
+        private Node without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, shrunk);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return array.length == 2 && array[0] != null;
+        }
+
+        @Override
+        Object firstKey() {
+            return array[0];
+        }
+
+        @Override
+        Object firstValue() {
+            return array[1];
+        }
+    }
+
+    /**
+     * Keys whose hashes are equal in every bit, compared one by one
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    return array[i + 1];
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // Nest this node under a bitmap node at its own level, next to the new entry
+                return new BitmapNode(bit(this.hash, shift), new Object[]{null, this}).put(key, value, hash, shift, added);
+            }
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    if (array[i + 1] == value) {
+                        return this;
+                    }
+                    Object[] copy = array.clone();
+                    copy[i + 1] = value;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, grown);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    if (array.length == 2) {
+                        return null;
+                    }
+                    Object[] shrunk = new Object[array.length - 2];
+                    System.arraycopy(array, 0, shrunk, 0, i);
+                    System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+                    return new CollisionNode(hash, shrunk);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return array.length == 2;
+        }
+
+        @Override
+        Object firstKey() {
+            return array[0];
+        }
+
+        @Override
+        Object firstValue() {
+            return array[1];
+        }
+    }
+
+    /**
+     * A node holding two entries whose hashes agree up to the given shift
+     */
+    private static Node merge(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+        if (hash1 == hash2) {
+            return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+        }
+        int bit1 = bit(hash1, shift);
+        int bit2 = bit(hash2, shift);
+        if (bit1 == bit2) {
+            return new BitmapNode(bit1, new Object[]{null, merge(key1, value1, hash1, key2, value2, hash2, shift + BITS)});
+        }
+        return Integer.compareUnsigned(bit1, bit2) < 0
+                ? new BitmapNode(bit1 | bit2, new Object[]{key1, value1, key2, value2})
+                : new BitmapNode(bit1 | bit2, new Object[]{key2, value2, key1, value1});
+    }
+
+    /**
+     * Depth-first walk over the values, holding the path as a stack of (node, next slot) frames
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+
+        private final ArrayDeque<Object[]> stack = new ArrayDeque<>();
+        private Object next = NOT_FOUND;
+
+        ValueIterator(Node root) {
+            if (root != null) {
+                stack.push(new Object[]{root, 0});
+            }
+            advance();
+        }
+
+        private void advance() {
+            next = NOT_FOUND;
+            while (!stack.isEmpty()) {
+                Object[] frame = stack.peek();
+                Object[] array = frame[0] instanceof BitmapNode node ? node.array : ((CollisionNode) frame[0]).array;
+                int i = (Integer) frame[1];
+                if (i >= array.length) {
+                    stack.pop();
+                    continue;
+                }
+                frame[1] = i + 2;
+                if (array[i] == null) {
+                    stack.push(new Object[]{array[i + 1], 0});
+                } else {
+                    next = array[i + 1];
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != NOT_FOUND;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next == NOT_FOUND) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) next;
+            advance();
+            return value;
+        }
+    }
+}
@@ -68,8 +68,17 @@ const ApiClient = (() => {
      */
     const fetchAllPlants = async () => {
         try {
-            const response = await fetchWithErrorHandling(`${API_BASE_URL}/plants/all`);
-            return response.data || [];
+            // The listing is cursor-paginated; follow nextCursor until the last page
+            const plants = [];
+            let cursor = null;
+            do {
+                const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+                const response = await fetchWithErrorHandling(`${API_BASE_URL}/plants/all${query}`);
+                const page = response.data || {};
+                plants.push(...(page.items || []));
+                cursor = page.nextCursor;
+            } while (cursor);
+            return plants;
         } catch (error) {
             console.error('Failed to fetch plants:', error);
             return [];
@@ -93,7 +102,7 @@ const ApiClient = (() => {
         const response = await fetchWithErrorHandling(
             `${API_BASE_URL}/plants/search?query=${encodeURIComponent(query)}`
         );
-        return response.data || [];
+        return (response.data && response.data.items) || [];
     };
 
     /**
@@ -102,7 +111,7 @@ const ApiClient = (() => {
      */
     const fetchTopRatedPlants = async () => {
         const response = await fetchWithErrorHandling(`${API_BASE_URL}/plants/top-rated`);
-        return response.data || [];
+        return (response.data && response.data.items) || [];
     };
 
     /**
@@ -113,7 +122,7 @@ const ApiClient = (() => {
         const response = await fetchWithErrorHandling(
             `${API_BASE_URL}/plants/by-type?type=${encodeURIComponent(type)}`
         );
-        return response.data || [];
+        return (response.data && response.data.items) || [];
     };
 
     // ============================================
@@ -165,6 +174,27 @@ const ApiClient = (() => {
         return response.data;
     };
 
+    /**
+     * Autocomplete suggestions for the search box
+     * GET /api/search/suggest?prefix=...
+     */
+    const fetchSuggestions = async (prefix, limit = 8) => {
+        // Called while typing: no spinner and no error toast
+        try {
+            const response = await fetch(
+                `${API_BASE_URL}/search/suggest?prefix=${encodeURIComponent(prefix)}&limit=${limit}`
+            );
+            if (!response.ok) {
+                return [];
+            }
+            const result = await response.json();
+            return result.data || [];
+        } catch (error) {
+            console.error('Failed to fetch suggestions:', error);
+            return [];
+        }
+    };
+
     // ============================================
     // IMAGE ENDPOINTS
     // ============================================
@@ -456,6 +486,7 @@ const ApiClient = (() => {
         performGeneralSearch,
         searchBySymptoms,
         searchByVisualFeatures,
+        fetchSuggestions,
         
         // Image operations
         uploadPlantImage,
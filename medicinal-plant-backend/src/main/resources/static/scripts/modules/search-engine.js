@@ -297,7 +297,7 @@ const SearchEngine = (() => {
     }
 
     // Show search suggestions
-    function showSearchSuggestions(e) {
+    async function showSearchSuggestions(e) {
         const input = e.target;
         const suggestions = input.closest('.search-input-container')?.querySelector('.search-suggestions');
         if (!suggestions) return;
@@ -310,6 +310,16 @@ const SearchEngine = (() => {
         } else if (activeTab === 'name') {
             suggestionItems = ["Aloe Vera", "Turmeric", "Ginger", "Lavender", "Peppermint"];
         }
+
+        // Complete what has been typed so far from the server-side suggestion index
+        const prefix = input.value.trim();
+        if (prefix) {
+            const completions = await ApiClient.fetchSuggestions(prefix);
+            if (input.value.trim() !== prefix) return; // a newer keystroke has taken over
+            if (completions.length) {
+                suggestionItems = completions.map(completion => completion.text);
+            }
+        }
         
         suggestions.innerHTML = '';
         for (const item of suggestionItems) {
@@ -0,0 +1,118 @@
+package com.medicinal.plant;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicinal.plant.catalog.CatalogSnapshotManager;
+import com.medicinal.plant.model.dto.response.ApiResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.service.PlantService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Plants served from the catalog snapshot carry ETags, and polling with If-None-Match is
+ * answered with 304 until the catalog changes
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class PlantConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlantService plantService;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private CatalogSnapshotManager catalogSnapshotManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void preSerializedResponsesMatchRegularSerialization() throws Exception {
+        MvcResult page = mockMvc.perform(get("/api/plants/all").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(serialized(ApiResponse.success("Plants retrieved successfully", plantService.getPlantSummaries(null, 5))),
+                objectMapper.readTree(page.getResponse().getContentAsByteArray()));
+
+        MvcResult fullPage = mockMvc.perform(get("/api/plants/all").param("size", "5").param("view", "full"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(serialized(ApiResponse.success("Plants retrieved successfully", plantService.getAllPlants(null, 5))),
+                objectMapper.readTree(fullPage.getResponse().getContentAsByteArray()));
+
+        MvcResult plant = mockMvc.perform(get("/api/plants/2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(serialized(ApiResponse.success(plantService.getPlantById(2L))),
+                objectMapper.readTree(plant.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void answersUnchangedPollsWithNotModified() throws Exception {
+        String pageTag = eTagOf("/api/plants/all");
+        String plantTag = eTagOf("/api/plants/1");
+        // Each view is its own representation
+        assertNotEquals(pageTag, eTagOf("/api/plants/all?view=full"));
+        mockMvc.perform(get("/api/plants/all").header(HttpHeaders.IF_NONE_MATCH, pageTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/api/plants/1").header(HttpHeaders.IF_NONE_MATCH, plantTag))
+                .andExpect(status().isNotModified());
+
+        Plant other = plantRepository.findAll().stream()
+                .filter(plant -> plant.getId() != 1L)
+                .findFirst()
+                .orElseThrow();
+        transactionTemplate.executeWithoutResult(status ->
+                plantRepository.findById(other.getId()).orElseThrow().setDosage("Changed dosage"));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogSnapshotManager.current() == null && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+
+        // The listing changed, the plant polled for did not
+        mockMvc.perform(get("/api/plants/all").header(HttpHeaders.IF_NONE_MATCH, pageTag))
+                .andExpect(status().isOk());
+        assertNotEquals(pageTag, eTagOf("/api/plants/all"));
+        mockMvc.perform(get("/api/plants/1").header(HttpHeaders.IF_NONE_MATCH, plantTag))
+                .andExpect(status().isNotModified());
+        assertNotEquals(eTagOf("/api/plants/1"), eTagOf("/api/plants/" + other.getId()));
+    }
+
+    private JsonNode serialized(Object value) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsBytes(value));
+    }
+
+    private String eTagOf(String path) throws Exception {
+        MvcResult result = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        // Strong validators only
+        assertTrue(eTag.startsWith("\""), eTag);
+        return eTag;
+    }
+}
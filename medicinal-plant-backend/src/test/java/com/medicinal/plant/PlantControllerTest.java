@@ -1,11 +1,17 @@
 package com.medicinal.plant;
 
+import com.medicinal.plant.catalog.CatalogSnapshotManager;
 import com.medicinal.plant.controller.PlantController;
+import com.medicinal.plant.model.dto.response.PageResponse;
 import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
 import com.medicinal.plant.service.PlantService;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -20,6 +26,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Plant Controller Integration Test
  */
 @WebMvcTest(PlantController.class)
+@AutoConfigureMockMvc(addFilters = false)
 class PlantControllerTest {
 
     private static final String ALOE_VERA = "Aloe Vera";
@@ -30,6 +37,15 @@ class PlantControllerTest {
     @MockBean
     private PlantService plantService;
 
+    // No snapshot, so responses are serialized as usual
+    @MockBean
+    private CatalogSnapshotManager catalogSnapshotManager;
+
+    // Required by @EnableJpaAuditing on the application class
+    @MockBean
+    private JpaMetamodelMappingContext jpaMetamodelMappingContext;
+
+    @Autowired
     PlantControllerTest(MockMvc mockMvc) {
         this.mockMvc = mockMvc;
     }
@@ -37,29 +53,74 @@ class PlantControllerTest {
     @Test
     void testGetAllPlants() throws Exception {
         // Given
-        List<PlantResponse> plants = Arrays.asList(
-                PlantResponse.builder()
+        List<PlantSummaryResponse> plants = Arrays.asList(
+                PlantSummaryResponse.builder()
                         .id(1L)
                         .name(ALOE_VERA)
                         .scientificName(ALOE_VERA_SCIENTIFIC)
                         .build(),
-                PlantResponse.builder()
+                PlantSummaryResponse.builder()
                         .id(2L)
                         .name("Turmeric")
                         .scientificName("Curcuma longa")
                         .build()
         );
 
-        when(plantService.getAllPlants()).thenReturn(plants);
+        PageResponse<PlantSummaryResponse> page = PageResponse.<PlantSummaryResponse>builder()
+                .items(plants)
+                .nextCursor("next")
+                .pageSize(2)
+                .hasMore(true)
+                .build();
+
+        when(plantService.getPlantSummaries(null, 2)).thenReturn(page);
 
         // When & Then
         mockMvc.perform(get("/api/plants/all")
+                        .param("size", "2")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data").isArray())
-                .andExpect(jsonPath("$.data[0].name").value(ALOE_VERA))
-                .andExpect(jsonPath("$.data[1].name").value("Turmeric"));
+                .andExpect(jsonPath("$.data.items").isArray())
+                .andExpect(jsonPath("$.data.items[0].name").value(ALOE_VERA))
+                .andExpect(jsonPath("$.data.items[1].name").value("Turmeric"))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"))
+                .andExpect(jsonPath("$.data.hasMore").value(true));
+    }
+
+    @Test
+    void testGetAllPlantsInFull() throws Exception {
+        // Given
+        PageResponse<PlantResponse> page = PageResponse.<PlantResponse>builder()
+                .items(List.of(PlantResponse.builder()
+                        .id(1L)
+                        .name(ALOE_VERA)
+                        .description("A succulent plant with medicinal properties")
+                        .medicinalUses(List.of("Burns"))
+                        .build()))
+                .pageSize(1)
+                .hasMore(false)
+                .build();
+
+        when(plantService.getAllPlants(null, 1)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/plants/all")
+                        .param("size", "1")
+                        .param("view", "full")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].description").exists())
+                .andExpect(jsonPath("$.data.items[0].medicinalUses[0]").value("Burns"));
+    }
+
+    @Test
+    void testUnknownViewIsRejected() throws Exception {
+        mockMvc.perform(get("/api/plants/top-rated")
+                        .param("view", "detailed")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
     }
 
     @Test
@@ -0,0 +1,137 @@
+package com.medicinal.plant;
+
+import com.medicinal.plant.catalog.CatalogSnapshotManager;
+import com.medicinal.plant.config.CatalogSnapshotProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listing and searching plants must take the same number of SQL statements however many plants
+ * a response holds: one for the plants and one per collection the response includes, so a single
+ * one for summaries. Listings and lookups by ID served from the catalog snapshot take none.
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc(addFilters = false)
+class PlantQueryCountTest {
+
+    // The plants, then their medicinal uses, active compounds and properties
+    private static final long PAGE_STATEMENTS = 4;
+
+    // The summary projection
+    private static final long SUMMARY_STATEMENTS = 1;
+
+    private static final long SNAPSHOT_STATEMENTS = 0;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogSnapshotManager catalogSnapshotManager;
+
+    @Autowired
+    private CatalogSnapshotProperties catalogSnapshotProperties;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // The seed data has no ratings; plain JDBC so no catalog change reaches the index writer
+        if (jdbcTemplate.update("UPDATE plants SET rating = 4.5 WHERE rating IS NULL") > 0) {
+            catalogSnapshotManager.rebuild();
+        }
+    }
+
+    @Test
+    void listingAllPlants() throws Exception {
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/all").param("size", "2")));
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/all").param("size", "100")));
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/all").param("size", "100").param("view", "full")));
+    }
+
+    @Test
+    void listingSummariesWithoutTheSnapshot() throws Exception {
+        catalogSnapshotProperties.setEnabled(false);
+        try {
+            assertEquals(SUMMARY_STATEMENTS, statementsFor(get("/api/plants/all").param("size", "100")));
+            assertEquals(SUMMARY_STATEMENTS, statementsFor(get("/api/plants/top-rated").param("size", "100")));
+            assertEquals(SUMMARY_STATEMENTS, statementsFor(get("/api/plants/by-type").param("type", "HERB").param("size", "100")));
+            assertEquals(PAGE_STATEMENTS, statementsFor(get("/api/plants/all").param("size", "100").param("view", "full")));
+        } finally {
+            catalogSnapshotProperties.setEnabled(true);
+        }
+    }
+
+    @Test
+    void lookingUpAPlant() throws Exception {
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/1")));
+    }
+
+    @Test
+    void listingPlantsByType() throws Exception {
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/by-type").param("type", "HERB").param("size", "2")));
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/by-type").param("type", "HERB").param("size", "100")));
+    }
+
+    @Test
+    void listingTopRatedPlants() throws Exception {
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/top-rated").param("size", "2")));
+        assertEquals(SNAPSHOT_STATEMENTS, statementsFor(get("/api/plants/top-rated").param("size", "100")));
+    }
+
+    @Test
+    void searchingPlantsByName() throws Exception {
+        assertEquals(SUMMARY_STATEMENTS, statementsFor(get("/api/plants/search").param("query", "pain").param("size", "2")));
+        assertEquals(SUMMARY_STATEMENTS, statementsFor(get("/api/plants/search").param("query", "pain").param("size", "100")));
+        assertEquals(PAGE_STATEMENTS, statementsFor(get("/api/plants/search").param("query", "pain").param("size", "100")
+                .param("view", "full")));
+    }
+
+    @Test
+    void generalSearch() throws Exception {
+        assertEquals(PAGE_STATEMENTS, statementsFor(searchRequest("/api/search/general", "{\"query\":\"pain\",\"limit\":2}")));
+        assertEquals(PAGE_STATEMENTS, statementsFor(searchRequest("/api/search/general", "{\"query\":\"pain\",\"limit\":100}")));
+    }
+
+    @Test
+    void searchingBySymptoms() throws Exception {
+        String few = "{\"description\":\"headache and stomach pain\",\"limit\":2}";
+        String many = "{\"description\":\"headache and stomach pain\",\"limit\":100}";
+        assertEquals(PAGE_STATEMENTS, statementsFor(searchRequest("/api/search/by-symptoms", few)));
+        assertEquals(PAGE_STATEMENTS, statementsFor(searchRequest("/api/search/by-symptoms", many)));
+    }
+
+    private long statementsFor(RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static RequestBuilder searchRequest(String path, String body) {
+        return post(path).contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,146 @@
+package com.medicinal.plant;
+
+import com.medicinal.plant.catalog.CatalogChangeTracker;
+import com.medicinal.plant.exception.InvalidCursorException;
+import com.medicinal.plant.model.dto.response.PageResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.search.Bm25Index;
+import com.medicinal.plant.search.RelevanceTuning;
+import com.medicinal.plant.service.PlantService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Search pages follow the ranking of the first page to the end: plants added in between
+ * neither shift nor repeat rows, and auto-corrected searches page through the results of the
+ * correction, not of the misspelled query
+ */
+@SpringBootTest
+class PlantSearchPaginationTest {
+
+    private static final String QUERY = "digestive";
+    private static final String MISSPELLED = "digestve";
+
+    @Autowired
+    private PlantService plantService;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private CatalogChangeTracker catalogChangeTracker;
+
+    @Autowired
+    private RelevanceTuning relevanceTuning;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void plantAddedBetweenPagesNeitherRepeatsNorSkipsRows() throws InterruptedException {
+        List<Long> expected = idsOf(plantService.searchPlantSummaries(QUERY, null, 100, false));
+        assertTrue(expected.size() > 2);
+        PageResponse<PlantSummaryResponse> first = plantService.searchPlantSummaries(QUERY, null, 2, false);
+
+        long version = catalogChangeTracker.getVersion();
+        Long added = transactionTemplate.execute(status -> plantRepository.save(Plant.builder()
+                .name("Digestive pagination plant")
+                .medicinalUses(new ArrayList<>(List.of("Digestive aid")))
+                .plantType(PlantType.HERB)
+                .build()).getId());
+        try {
+            awaitIndexPublished(version);
+            // The new plant changes every score, and a fresh search finds it
+            assertTrue(idsOf(plantService.searchPlantSummaries(QUERY, null, 100, false)).contains(added));
+
+            List<Long> paged = new ArrayList<>(idsOf(first));
+            String cursor = first.getNextCursor();
+            while (cursor != null) {
+                PageResponse<PlantSummaryResponse> page = plantService.searchPlantSummaries(QUERY, cursor, 2, false);
+                paged.addAll(idsOf(page));
+                cursor = page.getNextCursor();
+            }
+            assertEquals(expected, paged);
+        } finally {
+            version = catalogChangeTracker.getVersion();
+            transactionTemplate.executeWithoutResult(status -> plantRepository.deleteById(added));
+            awaitIndexPublished(version);
+        }
+    }
+
+    @Test
+    void retuningRejectsCursorsRankedWithTheOldTuning() {
+        PageResponse<PlantSummaryResponse> first = plantService.searchPlantSummaries(QUERY, null, 1, false);
+        assertNotNull(first.getNextCursor());
+
+        Bm25Index.Parameters before = relevanceTuning.getParameters();
+        relevanceTuning.update(before.getK1() + 0.1, null, null);
+        try {
+            assertThrows(InvalidCursorException.class,
+                    () -> plantService.searchPlantSummaries(QUERY, first.getNextCursor(), 1, false));
+        } finally {
+            relevanceTuning.update(before.getK1(), null, null);
+        }
+    }
+
+    @Test
+    void laterPagesKeepTheCorrection() {
+        PageResponse<PlantSummaryResponse> first = plantService.searchPlantSummaries(MISSPELLED, null, 1, true);
+        String correction = first.getDidYouMean();
+        assertNotNull(correction);
+        List<Long> expected = idsOf(plantService.searchPlantSummaries(correction, null, 100, false));
+        assertTrue(expected.size() > 1);
+
+        List<Long> paged = new ArrayList<>(idsOf(first));
+        String cursor = first.getNextCursor();
+        while (cursor != null) {
+            PageResponse<PlantSummaryResponse> page = plantService.searchPlantSummaries(MISSPELLED, cursor, 1, true);
+            assertEquals(correction, page.getDidYouMean());
+            assertTrue(page.getAutoCorrected());
+            paged.addAll(idsOf(page));
+            cursor = page.getNextCursor();
+        }
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void suggestsWithoutPagingTheCorrection() {
+        PageResponse<PlantSummaryResponse> page = plantService.searchPlantSummaries(MISSPELLED, null, 1, false);
+        assertNotNull(page.getDidYouMean());
+        assertFalse(page.getAutoCorrected());
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.getHasMore());
+    }
+
+    /**
+     * Waits for the index the writer thread publishes after a single committed change: the
+     * commit moves the catalog version once and the published index once more
+     */
+    private void awaitIndexPublished(long versionBefore) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogChangeTracker.getVersion() < versionBefore + 2) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Search index did not catch up with the committed change");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static List<Long> idsOf(PageResponse<PlantSummaryResponse> page) {
+        return page.getItems().stream().map(PlantSummaryResponse::getId).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.medicinal.plant;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicinal.plant.exception.InvalidSearchException;
+import com.medicinal.plant.model.dto.request.PlantSearchRequest;
+import com.medicinal.plant.model.dto.request.SymptomSearchRequest;
+import com.medicinal.plant.model.dto.request.VisualSearchRequest;
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.SearchResultResponse;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.service.SearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Search endpoints on the seeded catalog
+ */
+@SpringBootTest
+class SearchServiceTest {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void visualSearchWithoutFeaturesLoadsOnlyOnePage() {
+        SearchResultResponse result = searchService.searchByVisualFeatures(VisualSearchRequest.builder().limit(3).build());
+
+        assertEquals(3, result.getPlants().size());
+        assertEquals(plantRepository.count(), result.getTotalResults().longValue());
+    }
+
+    @Test
+    void explainedSearchReusesTheJsonItTimed() throws Exception {
+        SearchResultResponse result = searchService.performGeneralSearch(
+                PlantSearchRequest.builder().query("digestive").explain(true).build());
+
+        JsonNode json = result.getJson();
+        assertEquals(result.getTotalResults(), json.get("plants").size());
+        assertEquals(result.getPlants().get(0).getId(), json.get("plants").get(0).get("id").asLong());
+        assertEquals(objectMapper.valueToTree(result.getExplain()), json.get("explain"));
+        assertFalse(json.has("json"));
+
+        SearchResultResponse plain = searchService.performGeneralSearch(
+                PlantSearchRequest.builder().query("digestive").build());
+        assertNull(plain.getJson());
+        assertFalse(objectMapper.valueToTree(plain).has("explain"));
+    }
+
+    @Test
+    void listedSymptomsWithoutAKnownSymptomMatchMedicinalUsesWithinTheIntersection() {
+        SearchResultResponse uses = searchService.searchBySymptoms(
+                SymptomSearchRequest.builder().symptoms(List.of("Liver health")).build());
+        assertEquals("INTERSECTION", uses.getMatchMode());
+        assertTrue(uses.getPlants().stream().map(PlantResponse::getName).anyMatch("Turmeric"::equals));
+
+        // An unknown name is one more group every plant must match, not a switch to matching any
+        SearchResultResponse all = searchService.searchBySymptoms(
+                SymptomSearchRequest.builder().symptoms(List.of("Headache", "Joint pain", "typo")).build());
+        assertEquals("INTERSECTION", all.getMatchMode());
+        assertTrue(all.getPlants().isEmpty());
+        SearchResultResponse known = searchService.searchBySymptoms(SymptomSearchRequest.builder()
+                .symptoms(List.of("Headache", "Joint pain", "typo")).minMatches(2).build());
+        assertFalse(known.getPlants().isEmpty());
+        assertEquals(searchService.searchBySymptoms(SymptomSearchRequest.builder()
+                        .symptoms(List.of("Headache", "Joint pain")).build()).getPlants(),
+                known.getPlants());
+
+        assertThrows(InvalidSearchException.class, () -> searchService.searchBySymptoms(SymptomSearchRequest.builder()
+                .symptoms(List.of("Headache", "Joint pain")).minMatches(3).build()));
+    }
+}
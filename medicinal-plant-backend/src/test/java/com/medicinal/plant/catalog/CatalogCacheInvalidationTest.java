@@ -0,0 +1,125 @@
+package com.medicinal.plant.catalog;
+
+import com.medicinal.plant.model.dto.response.PageResponse;
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.service.PlantService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cached plant queries must never outlive a committed catalog change
+ */
+@SpringBootTest
+class CatalogCacheInvalidationTest {
+
+    @Autowired
+    private PlantService plantService;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private CatalogChangeTracker catalogChangeTracker;
+
+    @Autowired
+    private SearchIndexManager searchIndexManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void committedChangeInvalidatesCachedResults() throws InterruptedException {
+        PageResponse<PlantResponse> first = plantService.getPlantsByType("HERB", null, 100);
+        assertSame(first, plantService.getPlantsByType("HERB", null, 100));
+        // Cached pages are shared, so nobody may change them
+        assertThrows(UnsupportedOperationException.class, () -> first.getItems().clear());
+
+        Long id = first.getItems().get(0).getId();
+        long versionBefore = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status -> {
+            Plant plant = plantRepository.findById(id).orElseThrow();
+            plant.setDescription("Updated description");
+        });
+
+        assertTrue(catalogChangeTracker.getVersion() > versionBefore);
+        PageResponse<PlantResponse> second = plantService.getPlantsByType("HERB", null, 100);
+        assertNotSame(first, second);
+        assertEquals("Updated description", second.getItems().get(0).getDescription());
+
+        // The search index applies the change on its own thread and then evicts once more
+        awaitVersion(versionBefore + 2);
+        assertEquals("Updated description", searchIndexManager.getIndex().getDocument(id).getDescription());
+    }
+
+    @Test
+    void committedCollectionOnlyChangeInvalidatesCachedResults() throws InterruptedException {
+        Plant plant = plantRepository.findAll().get(2);
+        Long id = plant.getId();
+        List<PlantResponse> first = plantService.searchPlants(plant.getName());
+        assertSame(first, plantService.searchPlants(plant.getName()));
+
+        long versionBefore = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status ->
+                plantRepository.findById(id).orElseThrow().getMedicinalUses().add("Quillwort fatigue"));
+        try {
+            assertTrue(catalogChangeTracker.getVersion() > versionBefore);
+            List<PlantResponse> second = plantService.searchPlants(plant.getName());
+            assertNotSame(first, second);
+            assertTrue(second.stream()
+                    .filter(match -> match.getId().equals(id))
+                    .anyMatch(match -> match.getMedicinalUses().contains("Quillwort fatigue")));
+
+            awaitVersion(versionBefore + 2);
+            assertTrue(searchIndexManager.getIndex().getDocument(id).getMedicinalUses().contains("Quillwort fatigue"));
+        } finally {
+            long versionBeforeRestore = catalogChangeTracker.getVersion();
+            transactionTemplate.executeWithoutResult(status ->
+                    plantRepository.findById(id).orElseThrow().getMedicinalUses().remove("Quillwort fatigue"));
+            awaitVersion(versionBeforeRestore + 2);
+        }
+        assertFalse(searchIndexManager.getIndex().getDocument(id).getMedicinalUses().contains("Quillwort fatigue"));
+    }
+
+    @Test
+    void rolledBackChangeKeepsCachedResults() {
+        PageResponse<PlantResponse> first = plantService.getPlantsByType("TREE", null, 100);
+        Long id = first.getItems().get(0).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Plant plant = plantRepository.findById(id).orElseThrow();
+            plant.setDescription("Never committed");
+            plantRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertSame(first, plantService.getPlantsByType("TREE", null, 100));
+    }
+
+    /**
+     * Waits for the catalog version to reach a value, e.g. the one the search index publishes
+     * after applying a committed change
+     */
+    private void awaitVersion(long version) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogChangeTracker.getVersion() < version) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Catalog did not reach version " + version);
+            }
+            Thread.sleep(20);
+        }
+    }
+}
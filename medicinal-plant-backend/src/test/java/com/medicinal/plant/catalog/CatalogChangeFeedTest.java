@@ -0,0 +1,208 @@
+package com.medicinal.plant.catalog;
+
+import com.medicinal.plant.config.SearchSnapshotProperties;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.entity.PlantSymptom;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.repository.PlantSymptomRepository;
+import com.medicinal.plant.repository.SymptomRepository;
+import com.medicinal.plant.search.IndexSnapshot;
+import com.medicinal.plant.search.PlantSearchIndex;
+import com.medicinal.plant.search.QueryParser;
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.search.SymptomMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Committed plant changes, including edits to a plant's collections alone, reach the search
+ * index without a rebuild; rolled back ones never do. Every committed change, symptom and
+ * link edits included, moves the catalog stamp and is written to the index snapshot once the
+ * write delay has passed.
+ */
+@SpringBootTest
+class CatalogChangeFeedTest {
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private SymptomRepository symptomRepository;
+
+    @Autowired
+    private PlantSymptomRepository plantSymptomRepository;
+
+    @Autowired
+    private SearchIndexManager searchIndexManager;
+
+    @Autowired
+    private SearchSnapshotProperties snapshotProperties;
+
+    @Autowired
+    private CatalogChangeTracker catalogChangeTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void committedInsertsUpdatesAndDeletesAreAppliedToTheIndex() throws InterruptedException {
+        int plantsBefore = searchIndexManager.getIndex().size();
+        long version = catalogChangeTracker.getVersion();
+        Long id = transactionTemplate.execute(status -> plantRepository.save(Plant.builder()
+                .name("Zanthoxylum test plant")
+                .scientificName("Zanthoxylum testum")
+                .plantType(PlantType.SHRUB)
+                .build()).getId());
+        PlantSearchIndex inserted = awaitIndexPublished(version);
+        assertArrayEquals(new long[]{id}, inserted.search("zanthoxylum"));
+        assertEquals(plantsBefore + 1, inserted.size());
+
+        assertEquals("zanthoxylum", searchIndexManager.getSpellingCorrector().suggest("zanthoxilum"));
+
+        // Neither symptoms nor medicinal uses changed, so the symptom matcher is not recompiled
+        SymptomMatcher matcher = searchIndexManager.getSymptomMatcher();
+        version = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status ->
+                plantRepository.findById(id).orElseThrow().setDescription("Resinous numbing aftertaste"));
+        PlantSearchIndex updated = awaitIndexPublished(version);
+        assertEquals("Resinous numbing aftertaste", updated.getDocument(id).getDescription());
+        assertArrayEquals(new long[]{id}, updated.query(QueryParser.parse("description:numbing")));
+        assertSame(matcher, searchIndexManager.getSymptomMatcher());
+
+        version = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status -> plantRepository.deleteById(id));
+        PlantSearchIndex deleted = awaitIndexPublished(version);
+        assertEquals(plantsBefore, deleted.size());
+        assertEquals(0, deleted.search("zanthoxylum").length);
+        assertNull(searchIndexManager.getSpellingCorrector().suggest("zanthoxilum"));
+    }
+
+    @Test
+    void collectionOnlyEditsAreAppliedToTheIndex() throws InterruptedException {
+        Long id = plantRepository.findAll().get(2).getId();
+        long version = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status ->
+                plantRepository.findById(id).orElseThrow().getMedicinalUses().add("Xerophthalmia poultice"));
+        try {
+            PlantSearchIndex updated = awaitIndexPublished(version);
+            assertTrue(updated.getDocument(id).getMedicinalUses().contains("Xerophthalmia poultice"));
+            assertArrayEquals(new long[]{id}, updated.search("xerophthalmia"));
+            // A medicinal use new to the catalog is compiled into the symptom matcher
+            assertEquals(List.of("xerophthalmia poultice"), matchedKeywords("a xerophthalmia poultice"));
+        } finally {
+            version = catalogChangeTracker.getVersion();
+            transactionTemplate.executeWithoutResult(status ->
+                    plantRepository.findById(id).orElseThrow().getMedicinalUses().remove("Xerophthalmia poultice"));
+            awaitIndexPublished(version);
+        }
+        assertEquals(0, searchIndexManager.getIndex().search("xerophthalmia").length);
+        assertTrue(matchedKeywords("a xerophthalmia poultice").isEmpty());
+        assertNull(searchIndexManager.getSpellingCorrector().suggest("xerophtalmia"));
+    }
+
+    @Test
+    void rolledBackChangesNeverReachTheIndex() throws InterruptedException {
+        Long id = plantRepository.findAll().get(1).getId();
+        long version = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status -> {
+            plantRepository.findById(id).orElseThrow().setDescription("Quillworthish never committed");
+            plantRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertEquals(version, catalogChangeTracker.getVersion());
+
+        // Changes are applied in commit order, so once a later commit is indexed the rolled back
+        // one would have been too
+        Long marker = transactionTemplate.execute(status -> plantRepository.save(Plant.builder()
+                .name("Quillwort marker plant")
+                .plantType(PlantType.HERB)
+                .build()).getId());
+        PlantSearchIndex index = awaitIndexPublished(version);
+        version = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status -> plantRepository.deleteById(marker));
+        awaitIndexPublished(version);
+
+        assertEquals(1, index.search("quillwort").length);
+        assertEquals(0, index.query(QueryParser.parse("description:quillworthish")).length);
+    }
+
+    @Test
+    void symptomOnlyEditsAreWrittenToANewSnapshotAfterTheWriteDelay() throws Exception {
+        Long id = symptomRepository.findAll().get(0).getId();
+        // No write left scheduled by earlier changes
+        searchIndexManager.flushSnapshot();
+        IndexSnapshot.CatalogStamp before = searchIndexManager.currentStamp();
+        long version = catalogChangeTracker.getVersion();
+        transactionTemplate.executeWithoutResult(status ->
+                symptomRepository.findById(id).orElseThrow().getSynonyms().add("Quillwort twinge"));
+        try {
+            awaitIndexPublished(version);
+            // Plant counts, link counts and plant timestamps are all unchanged
+            IndexSnapshot.CatalogStamp after = searchIndexManager.currentStamp();
+            assertNotEquals(before, after);
+            Path path = Path.of(snapshotProperties.getPath());
+            assertNull(IndexSnapshot.read(path, after, searchIndexManager.getAnalyzer()));
+            // The write is only scheduled, and a flush writes it right away
+            searchIndexManager.flushSnapshot();
+            assertNotNull(IndexSnapshot.read(path, after, searchIndexManager.getAnalyzer()));
+        } finally {
+            version = catalogChangeTracker.getVersion();
+            transactionTemplate.executeWithoutResult(status ->
+                    symptomRepository.findById(id).orElseThrow().getSynonyms().remove("Quillwort twinge"));
+            awaitIndexPublished(version);
+        }
+    }
+
+    @Test
+    void linkOnlyEditsMoveTheCatalogStamp() {
+        PlantSymptom link = plantSymptomRepository.findAll().get(0);
+        Double score = link.getEffectivenessScore();
+        IndexSnapshot.CatalogStamp before = searchIndexManager.currentStamp();
+        transactionTemplate.executeWithoutResult(status ->
+                plantSymptomRepository.findById(link.getId()).orElseThrow().setEffectivenessScore(score / 2));
+        try {
+            assertNotEquals(before, searchIndexManager.currentStamp());
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    plantSymptomRepository.findById(link.getId()).orElseThrow().setEffectivenessScore(score));
+            // Lets the writer apply both edits, so they cannot move the catalog version in later tests
+            searchIndexManager.flushSnapshot();
+        }
+    }
+
+    /**
+     * Waits for the index the writer thread publishes after a single committed change: the
+     * commit moves the catalog version once and the published index once more
+     */
+    private PlantSearchIndex awaitIndexPublished(long versionBefore) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogChangeTracker.getVersion() < versionBefore + 2) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Search index did not catch up with the committed change");
+            }
+            Thread.sleep(20);
+        }
+        return searchIndexManager.getIndex();
+    }
+
+    private List<String> matchedKeywords(String text) {
+        List<String> keywords = new ArrayList<>();
+        searchIndexManager.getSymptomMatcher().match(text, SymptomMatcher.MatchSink.into(new ArrayList<>(), keywords));
+        return keywords;
+    }
+}
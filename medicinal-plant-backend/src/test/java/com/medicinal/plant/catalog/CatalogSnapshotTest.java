@@ -0,0 +1,104 @@
+package com.medicinal.plant.catalog;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.dto.response.PlantSummaryResponse;
+import com.medicinal.plant.model.enums.PlantType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CatalogSnapshotTest {
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(3, List.of(
+            plant(4L, PlantType.TREE, 4.5),
+            plant(1L, PlantType.HERB, 4.8),
+            plant(7L, PlantType.HERB, null),
+            plant(3L, PlantType.HERB, 4.5),
+            plant(9L, PlantType.SHRUB, 3.0)),
+            plant -> PlantSummaryResponse.builder().id(plant.getId()).name(plant.getName()).build(),
+            CatalogSnapshotTest::json);
+
+    @Test
+    void pagesThroughPlantsInIdOrder() {
+        assertEquals(List.of(1L, 3L, 4L), ids(snapshot.after(0L, 3)));
+        assertEquals(List.of(7L, 9L), ids(snapshot.after(4L, 3)));
+        // A cursor at a plant deleted since still continues after it
+        assertEquals(List.of(7L, 9L), ids(snapshot.after(5L, 2)));
+        assertEquals(List.of(), ids(snapshot.after(9L, 3)));
+    }
+
+    @Test
+    void pagesThroughPlantsOfOneType() {
+        assertEquals(List.of(1L, 3L), ids(snapshot.ofTypeAfter(PlantType.HERB, 0L, 2)));
+        assertEquals(List.of(7L), ids(snapshot.ofTypeAfter(PlantType.HERB, 3L, 2)));
+        assertEquals(List.of(7L), ids(snapshot.ofTypeAfter(PlantType.HERB, 5L, 2)));
+        assertEquals(List.of(), ids(snapshot.ofTypeAfter(PlantType.VINE, 0L, 2)));
+    }
+
+    @Test
+    void pagesThroughRatedPlantsHighestFirst() {
+        assertEquals(List.of(1L, 3L, 4L), ids(snapshot.ratedAfter(4.0, Double.MAX_VALUE, 0L, 10)));
+        // Equal ratings continue by ID after the cursor
+        assertEquals(List.of(4L), ids(snapshot.ratedAfter(4.0, 4.5, 3L, 10)));
+        assertEquals(List.of(9L), ids(snapshot.ratedAfter(1.0, 4.5, 4L, 10)));
+    }
+
+    @Test
+    void appliesChangesToACopy() {
+        PlantResponse updated = plant(9L, PlantType.HERB, 5.0);
+        CatalogSnapshot next = snapshot.apply(4, Map.of(9L, updated, 10L, plant(10L, PlantType.VINE, 4.1)), Set.of(1L));
+
+        assertEquals(4, next.getGeneration());
+        assertSame(updated, next.get(9L));
+        assertNull(next.get(1L));
+        // Unchanged plants keep their response, JSON and generation
+        assertSame(snapshot.get(3L), next.get(3L));
+        assertSame(snapshot.json(snapshot.get(3L)), next.json(next.get(3L)));
+        assertSame(snapshot.summaryOf(snapshot.get(3L)), next.summaryOf(next.get(3L)));
+        assertEquals(9L, next.summaryOf(updated).getId());
+        assertEquals(3, next.generationOf(3L));
+        assertEquals(4, next.generationOf(9L));
+        assertEquals(-1, next.generationOf(1L));
+        assertEquals(List.of(3L, 7L, 9L), ids(next.ofTypeAfter(PlantType.HERB, 0L, 10)));
+        assertEquals(List.of(9L, 3L, 4L, 10L), ids(next.ratedAfter(4.0, Double.MAX_VALUE, 0L, 10)));
+        // The original is left as it was
+        assertEquals(3, snapshot.getGeneration());
+        assertEquals(PlantType.SHRUB.name(), snapshot.get(9L).getPlantType());
+        assertEquals(5, snapshot.size());
+    }
+
+    @Test
+    void servesJsonOnlyForItsOwnResponses() {
+        assertEquals("{\"id\":4}", snapshot.json(snapshot.get(4L)).getValue());
+        assertEquals("{\"summary\":4}", snapshot.json(snapshot.summaryOf(snapshot.get(4L))).getValue());
+        // An equal response read elsewhere is not known to match the JSON
+        assertNull(snapshot.json(plant(4L, PlantType.TREE, 4.5)));
+        assertNull(snapshot.json(PlantSummaryResponse.builder().id(4L).name("Plant 4").build()));
+    }
+
+    private static SerializedString json(Object response) {
+        return response instanceof PlantSummaryResponse summary
+                ? new SerializedString("{\"summary\":" + summary.getId() + "}")
+                : new SerializedString("{\"id\":" + ((PlantResponse) response).getId() + "}");
+    }
+
+    private static PlantResponse plant(long id, PlantType type, Double rating) {
+        return PlantResponse.builder()
+                .id(id)
+                .name("Plant " + id)
+                .plantType(type.name())
+                .rating(rating)
+                .build();
+    }
+
+    private static List<Long> ids(List<PlantResponse> plants) {
+        return plants.stream().map(PlantResponse::getId).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.medicinal.plant.config;
+
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantSize;
+import com.medicinal.plant.repository.PlantRepository;
+import com.medicinal.plant.repository.SymptomRepository;
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.search.SymptomMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starting on an existing catalog fills in the visual features its plants lack, and keeps the
+ * ones already set; symptom synonyms are brought up to date the same way
+ */
+@SpringBootTest
+class DataInitializerTest {
+
+    @Autowired
+    @Qualifier("loadData")
+    private CommandLineRunner loadData;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private SymptomRepository symptomRepository;
+
+    @Autowired
+    private SearchIndexManager searchIndexManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void backfillsMissingVisualFeatures() throws Exception {
+        Long id = plantRepository.findByName("Lavender").orElseThrow().getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            Plant plant = plantRepository.findById(id).orElseThrow();
+            plant.setLeafShape(null);
+            plant.setSize(null);
+            plant.setFlowerColor(FlowerColor.BLUE);
+        });
+        try {
+            loadData.run();
+
+            Plant plant = plantRepository.findById(id).orElseThrow();
+            assertEquals(LeafShape.LINEAR, plant.getLeafShape());
+            assertEquals(PlantSize.SHORT, plant.getSize());
+            assertEquals(FlowerColor.BLUE, plant.getFlowerColor());
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    plantRepository.findById(id).orElseThrow().setFlowerColor(FlowerColor.PURPLE));
+        }
+    }
+
+    @Test
+    void dropsRetiredGenericSynonyms() throws Exception {
+        Long id = symptomRepository.findByName("High blood pressure").orElseThrow().getId();
+        transactionTemplate.executeWithoutResult(status ->
+                symptomRepository.findById(id).orElseThrow().getSynonyms().add("heart"));
+        try {
+            loadData.run();
+
+            List<String> synonyms = transactionTemplate.execute(status ->
+                    List.copyOf(symptomRepository.findById(id).orElseThrow().getSynonyms()));
+            assertFalse(synonyms.contains("heart"));
+            assertTrue(synonyms.contains("hypertension"));
+        } finally {
+            // Lets the writer recompile the matcher, so later tests see the seeded synonyms
+            searchIndexManager.flushSnapshot();
+        }
+    }
+
+    @Test
+    void synonymsMatchOnlyTheSymptomTheyName() {
+        SymptomMatcher matcher = searchIndexManager.getSymptomMatcher();
+        Long cold = symptomRepository.findByName("Cold symptoms").orElseThrow().getId();
+
+        assertTrue(matcher.resolveSymptom("heart-shaped leaves").isEmpty());
+        assertTrue(matcher.resolveSymptom("a head of lettuce").isEmpty());
+        assertEquals(List.of(cold), matcher.resolveSymptom("a sore throat"));
+    }
+}
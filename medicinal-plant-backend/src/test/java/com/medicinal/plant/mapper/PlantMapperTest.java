@@ -0,0 +1,59 @@
+package com.medicinal.plant.mapper;
+
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlantMapperTest {
+
+    private final PlantMapper mapper = Mappers.getMapper(PlantMapper.class);
+
+    @Test
+    void mapsEnumsByNameAndCopiesCollections() {
+        Plant plant = Plant.builder()
+                .id(7L)
+                .name("Peppermint")
+                .scientificName("Mentha piperita")
+                .plantType(PlantType.HERB)
+                .safetyRating(SafetyLevel.GENERALLY_SAFE)
+                .medicinalUses(new ArrayList<>(List.of("Digestive aid", "Headache relief")))
+                .activeCompounds(new ArrayList<>(List.of("Menthol")))
+                .properties(new ArrayList<>())
+                .rating(4.5)
+                .reviewCount(12)
+                .build();
+
+        PlantResponse response = mapper.toResponse(plant);
+
+        assertEquals(7L, response.getId());
+        assertEquals("Peppermint", response.getName());
+        assertEquals("Mentha piperita", response.getScientificName());
+        assertEquals("HERB", response.getPlantType());
+        assertEquals("GENERALLY_SAFE", response.getSafetyRating());
+        assertEquals(List.of("Digestive aid", "Headache relief"), response.getMedicinalUses());
+        assertEquals(4.5, response.getRating());
+        assertEquals(12, response.getReviewCount());
+        // The response must not hold on to the entity's (possibly lazy) collections
+        assertNotSame(plant.getMedicinalUses(), response.getMedicinalUses());
+    }
+
+    @Test
+    void leavesMissingValuesUnset() {
+        PlantResponse response = mapper.toResponse(Plant.builder().id(1L).name("Unknown").medicinalUses(null).build());
+
+        assertNull(response.getPlantType());
+        assertNull(response.getSafetyRating());
+        assertNull(response.getMedicinalUses());
+        assertNull(mapper.toResponse(null));
+    }
+}
@@ -0,0 +1,57 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnalyzerTest {
+
+    private static final String RULES = """
+            # comments and blank lines are ignored
+
+            tummy, belly => stomach
+            indigestion, upset stomach, dyspepsia
+            """;
+
+    private final Analyzer analyzer = Analyzer.builder()
+            .lowercase()
+            .stopwords(Analyzer.DEFAULT_STOPWORDS)
+            .stem()
+            .synonyms(RULES)
+            .build();
+
+    @Test
+    void stemsInflectedAndDerivedWordsToOneTermAndDropsStopwords() {
+        List<String> terms = Analyzer.standard().terms("Digestive digestion digesting");
+        assertEquals(3, terms.size());
+        assertEquals(1, terms.stream().distinct().count(), terms.toString());
+        assertEquals(List.of("calm", "leav", "plant"), Analyzer.standard().terms("Calming the leaves of a plant"));
+        assertEquals(EnglishStemmer.stem("inflammation"), EnglishStemmer.stem("inflammations"));
+        assertEquals("x-ray", EnglishStemmer.stem("x-ray"));
+    }
+
+    @Test
+    void rewritesSynonymsAndPhrasesToTheirCanonicalTermKeepingOffsets() {
+        assertEquals(analyzer.terms("stomach ache"), analyzer.terms("Tummy aches"));
+
+        List<Analyzer.Token> tokens = analyzer.analyze("An upset stomach and bellies");
+        assertEquals(List.of("indigest", "stomach"), tokens.stream().map(Analyzer.Token::getTerm).toList());
+        assertEquals(3, tokens.get(0).getStart());
+        assertEquals(16, tokens.get(0).getEnd());
+        assertEquals(21, tokens.get(1).getStart());
+    }
+
+    @Test
+    void fingerprintChangesWithTheRulesAndRejectsInvalidOnes() {
+        Analyzer other = Analyzer.builder().lowercase().stopwords(Analyzer.DEFAULT_STOPWORDS).stem()
+                .synonyms("tummy => stomach").build();
+        assertNotEquals(analyzer.fingerprint(), other.fingerprint());
+        assertEquals(2, analyzer.synonymRuleCount());
+        assertThrows(IllegalArgumentException.class, () -> Analyzer.builder().synonyms("=> stomach"));
+        assertThrows(IllegalArgumentException.class, () -> Analyzer.builder().synonyms("a => b, c"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Bm25IndexTest {
+
+    private static final Bm25Index.Parameters DEFAULTS = new Bm25Index.Parameters(1.2, 0.75, Map.of(
+            Bm25Index.Field.NAME, 3.0,
+            Bm25Index.Field.DESCRIPTION, 1.0));
+
+    private final Bm25Index index = Bm25Index.build(new PlantDocument[]{
+            plant(1L, "Willow").description("Bark that eases pain and fever").build(),
+            plant(2L, "Pain Root").description("A bitter root").build(),
+            plant(3L, "Meadowsweet").description("Flowers for pain").build(),
+            plant(4L, "Feverfew").description("Leaves for headaches").build()
+    });
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMentions() {
+        RankedHits hits = index.search("pain", DEFAULTS, 10);
+        assertArrayEquals(new long[]{2L, 3L, 1L}, hits.getIds());
+        assertEquals(3, hits.getTotalCandidates());
+    }
+
+    @Test
+    void boostsChangeTheRankingAtQueryTime() {
+        Bm25Index.Parameters descriptionOnly = new Bm25Index.Parameters(1.2, 0.75, Map.of(
+                Bm25Index.Field.NAME, 0.0,
+                Bm25Index.Field.DESCRIPTION, 1.0));
+        assertArrayEquals(new long[]{3L, 1L, 2L}, index.search("pain", descriptionOnly, 10).getIds());
+        // Without length normalization the shorter description loses its advantage and ids break the tie
+        Bm25Index.Parameters flat = new Bm25Index.Parameters(1.2, 0.0, Map.of(Bm25Index.Field.NAME, 0.0));
+        assertArrayEquals(new long[]{1L, 3L}, Arrays.copyOf(index.search("pain", flat, 10).getIds(), 2));
+    }
+
+    @Test
+    void countsMatchedTokensAndExpandsPrefixes() {
+        RankedHits hits = index.search("fever pain", DEFAULTS, 1);
+        assertArrayEquals(new long[]{1L}, hits.getIds());
+        assertArrayEquals(new int[]{2}, hits.getMatchCounts());
+        assertArrayEquals(new long[]{4L}, index.search("feverf", DEFAULTS, 10).getIds());
+        assertEquals(0, index.search("xyz", DEFAULTS, 10).size());
+    }
+
+    @Test
+    void explainsScoresByMatchedTermAndField() {
+        RankedHits hits = index.search("fever pain", DEFAULTS, 1);
+        Map<String, Double> contributions = index.explain("fever pain", DEFAULTS, 1L);
+        assertEquals(Set.of("fever (description)", "pain (description)"), contributions.keySet());
+        assertEquals(hits.getScores()[0], contributions.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9);
+        assertEquals(Map.of(), index.explain("fever pain", DEFAULTS, 99L));
+    }
+
+    @Test
+    void ranksASelectionKeepingUnmatchedPlantsInIdOrder() {
+        RankedHits hits = index.rank("pain", DEFAULTS, new long[]{1L, 2L, 4L, 99L}, 10);
+        assertArrayEquals(new long[]{2L, 1L, 4L}, hits.getIds());
+        assertArrayEquals(new int[]{1, 1, 0}, hits.getMatchCounts());
+        assertEquals(0.0, hits.getScores()[2]);
+        assertEquals(3, hits.getTotalCandidates());
+    }
+
+    @Test
+    void continuesARankingAfterAScoreAndIdPosition() {
+        long[] all = {1L, 2L, 3L, 4L};
+        RankedHits first = index.rank("pain", DEFAULTS, all, 2);
+        assertArrayEquals(new long[]{2L, 3L}, first.getIds());
+        RankedHits second = index.rank("pain", DEFAULTS, all, first.getScores()[1], first.getIds()[1], 2);
+        assertArrayEquals(new long[]{1L, 4L}, second.getIds());
+        // Plants tied on the position's score continue in id order
+        assertArrayEquals(new long[]{4L}, index.rank("pain", DEFAULTS, all, 0.0, 3L, 2).getIds());
+        assertEquals(0, index.rank("pain", DEFAULTS, all, 0.0, 4L, 2).size());
+    }
+
+    @Test
+    void rejectsOutOfRangeParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new Bm25Index.Parameters(1.2, 1.5, Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Bm25Index.Parameters(1.2, 0.75, Map.of(Bm25Index.Field.NAME, -1.0)));
+    }
+}
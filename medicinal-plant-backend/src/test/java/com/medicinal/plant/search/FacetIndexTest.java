@@ -0,0 +1,100 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.FlowerColor;
+import com.medicinal.plant.model.enums.LeafShape;
+import com.medicinal.plant.model.enums.PlantType;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetIndexTest {
+
+    private static final long[] ALL = {1L, 2L, 3L, 4L};
+
+    private final Map<Long, PlantDocument> plants = plants(
+            plant(1L).plantType(PlantType.HERB).flowerColor(FlowerColor.PURPLE).leafShape(LeafShape.OVAL).build(),
+            plant(2L).plantType(PlantType.HERB).flowerColor(FlowerColor.WHITE).leafShape(LeafShape.LINEAR).build(),
+            plant(3L).plantType(PlantType.SHRUB).flowerColor(FlowerColor.PURPLE).leafShape(LeafShape.OVAL).build(),
+            plant(4L).plantType(PlantType.TREE).leafShape(LeafShape.COMPOUND).build());
+    private final FacetIndex facets = FacetIndex.EMPTY.apply(Map.of(), plants);
+
+    @Test
+    void combinesValuesWithOrWithinAFacetAndAndAcrossFacets() {
+        Map<FacetIndex.Facet, Set<Enum<?>>> selection = Map.of(
+                FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.HERB, PlantType.SHRUB),
+                FacetIndex.Facet.FLOWER_COLOR, Set.of(FlowerColor.PURPLE));
+
+        assertArrayEquals(new long[]{1L, 3L}, facets.select(selection));
+        assertArrayEquals(ALL, facets.select(Map.of()));
+        Map<String, Map<String, Integer>> counts = facets.counts(selection);
+        // Each facet is counted under the other facets' selections only
+        assertEquals(Map.of("HERB", 1, "SHRUB", 1), counts.get("plantType"));
+        assertEquals(Map.of("PURPLE", 2, "WHITE", 1), counts.get("flowerColor"));
+        assertEquals(Map.of("OVAL", 2), counts.get("leafShape"));
+    }
+
+    @Test
+    void anEmptyIntersectionSelectsNothingAndCountsNothing() {
+        Map<FacetIndex.Facet, Set<Enum<?>>> selection = Map.of(
+                FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.TREE),
+                FacetIndex.Facet.FLOWER_COLOR, Set.of(FlowerColor.PURPLE));
+
+        assertArrayEquals(new long[0], facets.select(selection));
+        Map<String, Map<String, Integer>> counts = facets.counts(selection);
+        assertTrue(counts.get("leafShape").isEmpty());
+        assertTrue(counts.get("size").isEmpty());
+        // Dropping one facet's choice shows what the other one still allows
+        assertEquals(Map.of("HERB", 1, "SHRUB", 1), counts.get("plantType"));
+        assertTrue(counts.get("flowerColor").isEmpty());
+    }
+
+    @Test
+    void movesChangedPlantsBetweenValues() {
+        FacetIndex updated = facets.apply(Map.of(3L, plants.get(3L), 4L, plants.get(4L)),
+                Map.of(3L, plant(3L).plantType(PlantType.HERB).flowerColor(FlowerColor.WHITE)
+                        .leafShape(LeafShape.OVAL).build()));
+
+        assertArrayEquals(new long[]{1L, 2L, 3L},
+                updated.select(Map.of(FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.HERB))));
+        assertArrayEquals(new long[0],
+                updated.select(Map.of(FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.TREE, PlantType.SHRUB))));
+        // The removed plant is gone from every bitmap, including the one of all plants
+        assertArrayEquals(new long[]{1L, 2L, 3L}, updated.select(Map.of()));
+        assertEquals(Map.of("WHITE", 2, "PURPLE", 1), updated.counts(Map.of()).get("flowerColor"));
+        // The original index is left as it was
+        assertArrayEquals(new long[]{4L}, facets.select(Map.of(FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.TREE))));
+    }
+
+    @Test
+    void numbersSparseAndLargeIdsDenselyAndReusesFreedOrdinals() {
+        long large = Integer.MAX_VALUE + 10L;
+        Map<Long, PlantDocument> sparse = plants(
+                plant(large).plantType(PlantType.HERB).build(),
+                plant(7L).plantType(PlantType.TREE).build());
+        FacetIndex index = FacetIndex.EMPTY.apply(Map.of(), sparse);
+        assertArrayEquals(new long[]{7L, large}, index.select(Map.of()));
+        assertArrayEquals(new long[]{large}, index.select(Map.of(FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.HERB))));
+
+        // The removed plant's ordinal goes to the plant added by the next update
+        FacetIndex removed = index.apply(Map.of(large, sparse.get(large)), Map.of());
+        FacetIndex added = removed.apply(Map.of(), Map.of(3L, plant(3L).plantType(PlantType.SHRUB).build()));
+        assertArrayEquals(new long[]{3L, 7L}, added.select(Map.of()));
+        assertArrayEquals(new long[0], added.select(Map.of(FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.HERB))));
+        assertEquals(Map.of("SHRUB", 1, "TREE", 1), added.counts(Map.of()).get("plantType"));
+    }
+
+    private static Map<Long, PlantDocument> plants(PlantDocument... documents) {
+        Map<Long, PlantDocument> byId = new LinkedHashMap<>();
+        for (PlantDocument document : documents) {
+            byId.put(document.getId(), document);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,77 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HighlighterTest {
+
+    private static final String LONG_DESCRIPTION = "Perennial herb of the mint family grown in temperate gardens. "
+            + "The leaves are dried for tea. Traditionally taken for sleep problems and restlessness, "
+            + "it is also applied to insect bites. Calming effects on digestion and mild anxiety are reported, "
+            + "and the fresh plant smells of lemon.";
+
+    private final PlantSearchIndex index = PlantSearchIndex.build(List.of(
+            plant(1L, "Lemon Balm")
+                    .description(LONG_DESCRIPTION)
+                    .medicinalUses(List.of("Anxiety relief", "Sleep aid", "Cold sores"))
+                    .build(),
+            plant(2L, "Nettle")
+                    .description("Stinging plant")
+                    .build()));
+
+    @Test
+    void cutsTheDescriptionAroundTheMatchesAndMarksWholeWords() {
+        List<Highlighter.Fragment> fragments = Highlighter.highlight(index, 1L, List.of("calm", "anxiety"), 80);
+
+        Highlighter.Fragment description = fragments.get(0);
+        assertEquals(Highlighter.DESCRIPTION, description.getField());
+        assertTrue(description.getText().startsWith("…") && description.getText().endsWith("…"), description.getText());
+        assertTrue(description.getText().length() <= 80 + 2, description.getText());
+        assertEquals(List.of("Calming", "anxiety"), marked(description));
+
+        assertEquals(1, fragments.size() - 1);
+        Highlighter.Fragment use = fragments.get(1);
+        assertEquals(Highlighter.MEDICINAL_USES, use.getField());
+        assertEquals("Anxiety relief", use.getText());
+        assertArrayEquals(new int[]{0, 7}, use.getOffsets());
+    }
+
+    @Test
+    void shortPrefixesOnlyMatchWholeWordsAndUnmatchedDescriptionsKeepTheirStart() {
+        List<Highlighter.Fragment> fragments = Highlighter.highlight(index, 1L, List.of("te", "zzz"), 40);
+        assertEquals(1, fragments.size());
+        assertEquals(0, fragments.get(0).getOffsets().length);
+        assertTrue(fragments.get(0).getText().startsWith("Perennial herb"), fragments.get(0).getText());
+
+        Highlighter.Fragment whole = Highlighter.highlight(index, 2L, List.of("sting"), 40).get(0);
+        assertEquals("Stinging plant", whole.getText());
+        assertEquals(List.of("Stinging"), marked(whole));
+        assertEquals(List.of(), Highlighter.highlight(index, 3L, List.of("sting"), 40));
+    }
+
+    @Test
+    void highlightsPlantsAddedAfterTheBuild() {
+        PlantSearchIndex updated = index.with(plant(2L, "Nettle")
+                .description("Leaves rich in iron; the sting fades once cooked")
+                .medicinalUses(List.of("Iron deficiency"))
+                .build());
+        List<Highlighter.Fragment> fragments = Highlighter.highlight(updated, 2L, List.of("iron"), 160);
+        assertEquals(List.of("iron"), marked(fragments.get(0)));
+        assertEquals(List.of("Iron"), marked(fragments.get(1)));
+    }
+
+    private static List<String> marked(Highlighter.Fragment fragment) {
+        int[] offsets = fragment.getOffsets();
+        String[] words = new String[offsets.length / 2];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = fragment.getText().substring(offsets[2 * i], offsets[2 * i + 1]);
+        }
+        return List.of(words);
+    }
+}
@@ -0,0 +1,163 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    void findsAlmostAllExactNearestNeighbours() {
+        Random random = new Random(7);
+        float[][] vectors = new float[3_000][];
+        long[] ids = new long[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnitVector(random);
+            ids[i] = 1000L + i;
+        }
+        HnswIndex index = HnswIndex.build(ids, vectors, DIMENSION, HnswIndex.DEFAULT_M, HnswIndex.DEFAULT_EF_CONSTRUCTION);
+
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < 100; q++) {
+            float[] query = randomUnitVector(random);
+            long[] exact = bruteForce(ids, vectors, query, k);
+            RankedHits approximate = index.search(query, k, HnswIndex.DEFAULT_EF_SEARCH);
+            assertEquals(k, approximate.size());
+            for (long id : approximate.getIds()) {
+                if (Arrays.stream(exact).anyMatch(e -> e == id)) {
+                    found++;
+                }
+            }
+            assertTrue(approximate.getTotalCandidates() < vectors.length);
+        }
+        double recall = found / (100.0 * k);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void returnsTheStoredVectorItselfFirst() {
+        float[][] vectors = {unit(1, 0, 0), unit(0, 1, 0), unit(1, 1, 0), unit(0, 0, 1)};
+        HnswIndex index = HnswIndex.build(new long[]{1, 2, 3, 4}, vectors, 3, 4, 8);
+
+        RankedHits hits = index.search(unit(1, 0.9f, 0), 2, 8);
+        assertArrayEquals(new long[]{3, 1}, hits.getIds());
+        assertTrue(hits.getScores()[0] > 0.99);
+        assertEquals(0, HnswIndex.empty().search(unit(1, 0, 0), 3, 8).size());
+    }
+
+    @Test
+    void updatesACopyAndLeavesTheBaseIndexUntouched() {
+        float[][] vectors = {unit(1, 0, 0), unit(0, 1, 0), unit(1, 1, 0), unit(0, 0, 1)};
+        HnswIndex base = HnswIndex.build(new long[]{1, 2, 3, 4}, vectors, 3, 4, 8);
+
+        HnswIndex updated = base.toBuilder()
+                .add(2, unit(0, 0.1f, 1))
+                .remove(4)
+                .add(5, unit(0, 1, 0.1f))
+                .build();
+
+        assertArrayEquals(new long[]{2}, base.search(unit(0, 1, 0), 1, 8).getIds());
+        assertArrayEquals(new long[]{4}, base.search(unit(0, 0, 1), 1, 8).getIds());
+        assertArrayEquals(new long[]{5}, updated.search(unit(0, 1, 0), 1, 8).getIds());
+        assertArrayEquals(new long[]{2}, updated.search(unit(0, 0, 1), 1, 8).getIds());
+        assertEquals(4, updated.size());
+        assertEquals(2, updated.tombstoneCount());
+        assertEquals(4, base.size());
+        assertEquals(0, base.tombstoneCount());
+    }
+
+    @Test
+    void keepsRecallWhenAFifthOfTheGraphIsInsertedIncrementally() {
+        Random random = new Random(11);
+        float[][] vectors = new float[2_000][];
+        long[] ids = new long[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnitVector(random);
+            ids[i] = i;
+        }
+        int initial = 1_600;
+        HnswIndex.Builder builder = HnswIndex.build(Arrays.copyOf(ids, initial), Arrays.copyOf(vectors, initial),
+                DIMENSION, HnswIndex.DEFAULT_M, HnswIndex.DEFAULT_EF_CONSTRUCTION).toBuilder();
+        for (int i = initial; i < vectors.length; i++) {
+            builder.add(ids[i], vectors[i]);
+        }
+        HnswIndex index = builder.build();
+
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomUnitVector(random);
+            long[] exact = bruteForce(ids, vectors, query, k);
+            for (long id : index.search(query, k, HnswIndex.DEFAULT_EF_SEARCH).getIds()) {
+                if (Arrays.stream(exact).anyMatch(e -> e == id)) {
+                    found++;
+                }
+            }
+        }
+        double recall = found / (50.0 * k);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void embedsRelatedTextCloserThanUnrelatedText() {
+        HashedEmbedder embedder = HashedEmbedder.fit(List.of(
+                "Chamomile calming herb for insomnia and sleep disorders",
+                "Ginger root for nausea and digestive issues",
+                "Aloe vera gel soothes burns and skin irritation"), 128);
+        float[] query = embedder.embed("I cannot sleep at night");
+        float sleep = dot(query, embedder.embed("Chamomile calming herb for insomnia and sleep disorders"));
+        float nausea = dot(query, embedder.embed("Ginger root for nausea and digestive issues"));
+        assertTrue(sleep > nausea, sleep + " <= " + nausea);
+        assertEquals(1.0f, dot(query, query), 1e-4f);
+    }
+
+    private static long[] bruteForce(long[] ids, float[][] vectors, float[] query, int k) {
+        Integer[] order = new Integer[vectors.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(dot(query, vectors[b]), dot(query, vectors[a])));
+        long[] best = new long[k];
+        for (int i = 0; i < k; i++) {
+            best[i] = ids[order[i]];
+        }
+        return best;
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return normalize(vector);
+    }
+
+    private static float[] unit(float... values) {
+        return normalize(values);
+    }
+
+    private static float[] normalize(float[] vector) {
+        float norm = (float) Math.sqrt(dot(vector, vector));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IndexSnapshotTest {
+
+    private static final IndexSnapshot.CatalogStamp STAMP = new IndexSnapshot.CatalogStamp(3, 4, 1_700_000_000_000L, 7);
+    private static final Bm25Index.Parameters PARAMETERS = new Bm25Index.Parameters(1.2, 0.75,
+            Map.of(Bm25Index.Field.NAME, 3.0, Bm25Index.Field.DESCRIPTION, 1.0));
+
+    @TempDir
+    Path directory;
+
+    private final PlantSearchIndex index = PlantSearchIndex.build(List.of(
+            plant(1L, "Turmeric").scientificName("Curcuma longa").description("Golden root for inflammation")
+                    .plantType(PlantType.HERB).safetyRating(SafetyLevel.SAFE).rating(4.5).reviewCount(1)
+                    .medicinalUses(List.of("Anti-inflammatory"))
+                    .symptoms(List.of(new PlantDocument.SymptomLink(10L, "Joint pain", null, 0.9))).build(),
+            plant(2L, "Feverfew").scientificName("Tanacetum parthenium")
+                    .plantType(PlantType.HERB).safetyRating(SafetyLevel.USE_WITH_CAUTION).rating(4.5).reviewCount(2)
+                    .medicinalUses(List.of("Migraine relief"))
+                    .symptoms(List.of(new PlantDocument.SymptomLink(11L, "Headache", "Head pain", 0.8))).build(),
+            plant(3L, "Willow").scientificName("Salix alba").description("Bark that eases pain – naturally")
+                    .plantType(PlantType.TREE).rating(4.5).reviewCount(3)
+                    .medicinalUses(List.of("Pain relief", "Anti-inflammatory"))
+                    .symptoms(List.of(
+                            new PlantDocument.SymptomLink(10L, "Joint pain", null, 0.7),
+                            new PlantDocument.SymptomLink(11L, "Headache", "Head pain", 0.6))).build()));
+
+    @Test
+    void restoresAnIndexThatAnswersLikeTheOriginal() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        IndexSnapshot.write(index, STAMP, path);
+        PlantSearchIndex restored = IndexSnapshot.read(path, STAMP, Analyzer.standard());
+
+        assertNotNull(restored);
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.termCount(), restored.termCount());
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(index.getDocument(id), restored.getDocument(id));
+        }
+        for (String query : List.of("pain", "anti", "golden root", "ead")) {
+            assertArrayEquals(index.search(query), restored.search(query), query);
+            assertArrayEquals(index.getBm25().search(query, PARAMETERS, 10).getScores(),
+                    restored.getBm25().search(query, PARAMETERS, 10).getScores(), query);
+        }
+        assertArrayEquals(index.getTrigrams().search("llow"), restored.getTrigrams().search("llow"));
+        assertArrayEquals(new long[]{3L}, restored.query(QueryParser.parse("use:\"pain relief\" type:tree")));
+        assertArrayEquals(index.plantsForSymptom(11L), restored.plantsForSymptom(11L));
+        assertEquals(2, SymptomIntersection.topK(restored, List.of(Set.of(10L)), 1, 10).size());
+        assertEquals(Highlighter.highlight(index, 3L, List.of("pain"), 20), Highlighter.highlight(restored, 3L, List.of("pain"), 20));
+    }
+
+    @Test
+    void ignoresSnapshotsOfAnotherCatalogState() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        IndexSnapshot.write(index, STAMP, path);
+        assertNull(IndexSnapshot.read(path, new IndexSnapshot.CatalogStamp(3, 4, 1_700_000_000_001L, 7), Analyzer.standard()));
+        assertNull(IndexSnapshot.read(path, new IndexSnapshot.CatalogStamp(2, 4, 1_700_000_000_000L, 7), Analyzer.standard()));
+        assertNull(IndexSnapshot.read(path, new IndexSnapshot.CatalogStamp(3, 4, 1_700_000_000_000L, 8), Analyzer.standard()));
+    }
+
+    @Test
+    void ignoresSnapshotsAnalyzedWithOtherSynonyms() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        IndexSnapshot.write(index, STAMP, path);
+        Analyzer withSynonyms = Analyzer.builder().lowercase().stopwords(Analyzer.DEFAULT_STOPWORDS).stem()
+                .synonyms("ache => pain").build();
+        assertNull(IndexSnapshot.read(path, STAMP, withSynonyms));
+    }
+
+    @Test
+    void rejectsCorruptedSnapshots() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        IndexSnapshot.write(index, STAMP, path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(IndexSnapshot.HEADER_BYTES + 20);
+            int original = file.read();
+            file.seek(IndexSnapshot.HEADER_BYTES + 20);
+            file.write(original ^ 0x01);
+        }
+        assertThrows(IOException.class, () -> IndexSnapshot.read(path, STAMP, Analyzer.standard()));
+        assertThrows(IOException.class, () -> IndexSnapshot.read(directory.resolve("missing.snapshot"), STAMP, Analyzer.standard()));
+    }
+}
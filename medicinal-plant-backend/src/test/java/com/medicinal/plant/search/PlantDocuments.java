@@ -0,0 +1,34 @@
+package com.medicinal.plant.search;
+
+import java.util.List;
+
+/**
+ * Plant documents for index tests: builders with every collection set to empty, so tests only
+ * fill in the fields they look at
+ */
+final class PlantDocuments {
+
+    private PlantDocuments() {
+    }
+
+    static PlantDocument.PlantDocumentBuilder plant(long id) {
+        return plant(id, "Plant " + id);
+    }
+
+    static PlantDocument.PlantDocumentBuilder plant(long id, String name) {
+        return PlantDocument.builder()
+                .id(id)
+                .name(name)
+                .medicinalUses(List.of())
+                .activeCompounds(List.of())
+                .properties(List.of())
+                .symptoms(List.of());
+    }
+
+    /**
+     * A link to the symptom "Symptom n" without a description
+     */
+    static PlantDocument.SymptomLink symptom(long symptomId, double effectiveness) {
+        return new PlantDocument.SymptomLink(symptomId, "Symptom " + symptomId, null, effectiveness);
+    }
+}
@@ -0,0 +1,102 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.catalog.CatalogChangeTracker;
+import com.medicinal.plant.catalog.CatalogRevision;
+import com.medicinal.plant.repository.PlantRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.medicinal.plant.search.SyntheticCatalog.percentile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency comparison between the LIKE-based searchByKeyword query and the in-memory index.
+ * Excluded from the default build, run with: mvn test -Pbenchmark
+ */
+@DataJpaTest
+// The catalog entity listener reports inserts to the change tracker, which the JPA slice leaves out
+@Import({CatalogChangeTracker.class, CatalogRevision.class})
+@Tag("benchmark")
+class PlantSearchBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    private static final String[] QUERIES = {"headache", "joint pain", "anti", "sleep", "plant 42424"};
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void compareKeywordQueryWithIndex(int catalogSize) {
+        PlantSearchIndex index = PlantSearchIndex.build(seedCatalog(catalogSize));
+
+        for (String query : QUERIES) {
+            assertEquals(plantRepository.searchByKeyword(query).size(),
+                    index.search(query).length, "hit count for '" + query + "'");
+
+            long[] sql = measure(() -> plantRepository.searchByKeyword(query));
+            long[] lookup = measure(() -> index.search(query));
+            long[] indexed = measure(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (long id : index.search(query)) {
+                    ids.add(id);
+                }
+                return plantRepository.findAllById(ids);
+            });
+            System.out.printf("catalog=%d query=%-12s searchByKeyword p50=%8.3f ms p99=%8.3f ms"
+                            + " | index p50=%7.3f ms p99=%7.3f ms"
+                            + " | index+hydrate p50=%8.3f ms p99=%8.3f ms%n",
+                    catalogSize, "'" + query + "'",
+                    percentile(sql, 50), percentile(sql, 99),
+                    percentile(lookup, 50), percentile(lookup, 99),
+                    percentile(indexed, 50), percentile(indexed, 99));
+        }
+    }
+
+    private long[] measure(Supplier<?> search) {
+        for (int i = 0; i < Math.max(3, ITERATIONS / 5); i++) {
+            search.get();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            // Keep the persistence context from growing across samples
+            entityManager.clear();
+            long start = System.nanoTime();
+            search.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    /**
+     * Inserts a synthetic catalog with JDBC batches and returns the matching index documents
+     */
+    private List<PlantDocument> seedCatalog(int size) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        List<PlantDocument.SymptomLink> symptoms = SyntheticCatalog.symptoms();
+        SyntheticCatalog.insertSymptoms(jdbc, symptoms);
+        List<PlantDocument> documents = SyntheticCatalog.generate(1, size, symptoms, 42);
+        SyntheticCatalog.insert(jdbc, documents);
+        return documents;
+    }
+}
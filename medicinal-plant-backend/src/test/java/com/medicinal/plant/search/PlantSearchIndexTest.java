@@ -0,0 +1,162 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.PlantType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static com.medicinal.plant.search.PlantDocuments.symptom;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PlantSearchIndexTest {
+
+    private static final String[] WORDS = {"root", "leaf", "bark", "calming", "bitter", "golden", "fever", "sleep", "pain", "tea"};
+    private static final Bm25Index.Parameters PARAMETERS = new Bm25Index.Parameters(1.2, 0.75,
+            Map.of(Bm25Index.Field.NAME, 3.0, Bm25Index.Field.DESCRIPTION, 1.0));
+
+    @Test
+    void appliedChangesAnswerLikeAFreshBuild() {
+        Random random = new Random(11);
+        Map<Long, PlantDocument> plants = new LinkedHashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            plants.put(id, randomPlant(id, random));
+        }
+        PlantSearchIndex index = PlantSearchIndex.build(plants.values());
+
+        for (int round = 0; round < 5; round++) {
+            Map<Long, PlantDocument> upserts = new HashMap<>();
+            List<Long> removals = new ArrayList<>();
+            for (int change = 0; change < 20; change++) {
+                long id = 1 + random.nextInt(240);
+                if (random.nextInt(4) == 0) {
+                    removals.add(id);
+                    upserts.remove(id);
+                    plants.remove(id);
+                } else {
+                    PlantDocument document = randomPlant(id, random);
+                    upserts.put(id, document);
+                    removals.remove(Long.valueOf(id));
+                    plants.put(id, document);
+                }
+            }
+            index = index.apply(upserts, removals);
+            assertEquivalent(PlantSearchIndex.build(plants.values()), index);
+        }
+    }
+
+    @Test
+    void removingAnUnknownPlantKeepsTheIndex() {
+        PlantSearchIndex index = PlantSearchIndex.build(List.of(randomPlant(1L, new Random(1))));
+        assertSame(index, index.without(2L));
+        assertNull(index.without(1L).getDocument(1L));
+    }
+
+    @Test
+    void queriesMeetIndexedTextInAnalyzedForm() {
+        PlantSearchIndex index = PlantSearchIndex.build(List.of(
+                plant(1L, "Peppermint").description("Soothes the stomach")
+                        .medicinalUses(List.of("Digestive aid")).build(),
+                plant(2L, "Valerian").description("Root used for sleep")
+                        .medicinalUses(List.of("Sleeping aid")).build()),
+                Analyzer.builder().lowercase().stopwords(Analyzer.DEFAULT_STOPWORDS).stem()
+                        .synonyms("tummy, belly => stomach").build());
+
+        assertArrayEquals(new long[]{1L}, index.search("digestion"));
+        assertArrayEquals(new long[]{2L}, index.search("sleeps"));
+        assertArrayEquals(new long[]{1L}, index.query(QueryParser.parse("description:tummy")));
+        assertArrayEquals(new long[0], index.search("the for"));
+        assertEquals(List.of("Soothes the stomach"), Highlighter.highlight(index, 1L, List.of("belly"), 160).stream()
+                .filter(fragment -> fragment.getOffsets().length == 2)
+                .map(Highlighter.Fragment::getText)
+                .toList());
+    }
+
+    @Test
+    void matchesEveryWordByPrefixInsteadOfTheKeywordAsOneSubstring() {
+        PlantSearchIndex index = PlantSearchIndex.build(List.of(
+                plant(1L, "Lemon balm").scientificName("Melissa officinalis")
+                        .medicinalUses(List.of("Anxiety")).build(),
+                plant(2L, "Lemongrass").scientificName("Cymbopogon citratus")
+                        .medicinalUses(List.of("Fever")).build()));
+
+        // Words may come in any order and each may be the start of a word
+        assertArrayEquals(new long[]{1L}, index.search("balm lemon"));
+        assertArrayEquals(new long[]{1L}, index.search("lem bal"));
+        assertArrayEquals(new long[]{1L, 2L}, index.search("lemon"));
+        // Inside a word only fragments of three letters or more match, as trigrams
+        assertArrayEquals(new long[0], index.search("mo"));
+        assertArrayEquals(new long[]{2L}, index.search("grass"));
+        // Every word must match somewhere
+        assertArrayEquals(new long[0], index.search("lemon fever anxiety"));
+    }
+
+    private static void assertEquivalent(PlantSearchIndex expected, PlantSearchIndex actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.termCount(), actual.termCount());
+        List<String> expectedTerms = new ArrayList<>();
+        List<String> actualTerms = new ArrayList<>();
+        expected.forEachTerm((term, count) -> expectedTerms.add(term + "=" + count));
+        actual.forEachTerm((term, count) -> actualTerms.add(term + "=" + count));
+        assertEquals(expectedTerms, actualTerms);
+        for (String query : WORDS) {
+            assertArrayEquals(expected.search(query), actual.search(query), query);
+            assertArrayEquals(expected.search(query.substring(0, 3)), actual.search(query.substring(0, 3)), query);
+            assertArrayEquals(expected.getTrigrams().search(query.substring(1)), actual.getTrigrams().search(query.substring(1)), query);
+            RankedHits expectedHits = expected.getBm25().search(query + " tea", PARAMETERS, 20);
+            RankedHits actualHits = actual.getBm25().search(query + " tea", PARAMETERS, 20);
+            assertArrayEquals(expectedHits.getIds(), actualHits.getIds(), query);
+            assertArrayEquals(expectedHits.getScores(), actualHits.getScores(), 1e-9, query);
+            // Term IDs differ between an updated and a fresh dictionary, the matches they encode do not
+            RankedHits expectedScored = PlantScorer.topK(expected, List.of(query, "symptom"), List.of(), 20);
+            RankedHits actualScored = PlantScorer.topK(actual, List.of(query, "symptom"), List.of(), 20);
+            assertArrayEquals(expectedScored.getIds(), actualScored.getIds(), query);
+            assertArrayEquals(expectedScored.getScores(), actualScored.getScores(), 1e-9, query);
+        }
+        for (String query : List.of("name:root AND type:herb", "use:fever -bark", "symptom:\"symptom 3\"")) {
+            assertArrayEquals(expected.query(QueryParser.parse(query)), actual.query(QueryParser.parse(query)), query);
+        }
+        for (long symptomId = 1; symptomId <= 4; symptomId++) {
+            assertArrayEquals(expected.plantsForSymptom(symptomId), actual.plantsForSymptom(symptomId));
+        }
+        Map<FacetIndex.Facet, Set<Enum<?>>> herbs = Map.of(FacetIndex.Facet.PLANT_TYPE, Set.of(PlantType.HERB));
+        assertArrayEquals(expected.selectFacets(herbs), actual.selectFacets(herbs));
+        assertEquals(expected.countFacets(herbs), actual.countFacets(herbs));
+        assertArrayEquals(SymptomIntersection.topK(expected, List.of(Set.of(1L), Set.of(2L)), 1, 10).getIds(),
+                SymptomIntersection.topK(actual, List.of(Set.of(1L), Set.of(2L)), 1, 10).getIds());
+    }
+
+    private static PlantDocument randomPlant(long id, Random random) {
+        List<PlantDocument.SymptomLink> links = new ArrayList<>();
+        for (long symptomId = 1; symptomId <= 4; symptomId++) {
+            if (random.nextInt(3) == 0) {
+                links.add(symptom(symptomId, random.nextInt(10) / 10.0));
+            }
+        }
+        return plant(id, words(random, 2))
+                .scientificName(words(random, 1) + " officinalis")
+                .description(words(random, 6))
+                .medicinalUses(List.of(words(random, 2)))
+                .properties(List.of(words(random, 1)))
+                .symptoms(links)
+                .plantType(random.nextBoolean() ? PlantType.HERB : PlantType.TREE)
+                .build();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.exception.InvalidSearchException;
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryParserTest {
+
+    private final PlantSearchIndex index = PlantSearchIndex.build(List.of(
+            plant(1L, "Turmeric").plantType(PlantType.HERB).safetyRating(SafetyLevel.SAFE)
+                    .medicinalUses(List.of("Anti-inflammatory", "Digestive aid")).activeCompounds(List.of("Curcumin"))
+                    .symptoms(List.of(new PlantDocument.SymptomLink(1L, "Joint pain", null, 0.8))).build(),
+            plant(2L, "Ginger").plantType(PlantType.HERB).safetyRating(SafetyLevel.SAFE)
+                    .medicinalUses(List.of("Anti-nausea", "Anti-inflammatory")).activeCompounds(List.of("Gingerol"))
+                    .symptoms(List.of(new PlantDocument.SymptomLink(2L, "Nausea", null, 0.8))).build(),
+            plant(3L, "Foxglove").plantType(PlantType.HERB).safetyRating(SafetyLevel.TOXIC)
+                    .medicinalUses(List.of("Heart failure")).activeCompounds(List.of("Digoxin"))
+                    .symptoms(List.of(new PlantDocument.SymptomLink(3L, "Chest pain", null, 0.8))).build(),
+            plant(4L, "Willow").plantType(PlantType.TREE).safetyRating(SafetyLevel.SAFE)
+                    .medicinalUses(List.of("Pain relief", "Anti-inflammatory")).activeCompounds(List.of("Salicin"))
+                    .symptoms(List.of(new PlantDocument.SymptomLink(4L, "Joint pain", null, 0.8))).build()));
+
+    @Test
+    void intersectsFieldsAndSubtractsNegations() {
+        assertArrayEquals(new long[]{1L}, evaluate("use:anti-inflammatory AND compound:curcumin NOT safety:TOXIC"));
+        assertArrayEquals(new long[]{1L, 4L}, evaluate("symptom:\"joint pain\""));
+        assertArrayEquals(new long[]{1L}, evaluate("symptom:\"joint pain\" type:HERB"));
+        assertArrayEquals(new long[]{1L, 2L, 4L}, evaluate("-safety:toxic"));
+    }
+
+    @Test
+    void unitesAlternativesAndGroups() {
+        assertArrayEquals(new long[]{2L, 3L}, evaluate("compound:gingerol OR compound:digoxin"));
+        assertArrayEquals(new long[]{2L, 4L}, evaluate("(name:ginger OR type:tree) use:anti-inflammatory"));
+        // Unfielded words match any text field, by prefix
+        assertArrayEquals(new long[]{3L}, evaluate("heart"));
+    }
+
+    @Test
+    void phrasesRequireAdjacentWords() {
+        assertArrayEquals(new long[]{4L}, evaluate("use:\"pain relief\""));
+        assertArrayEquals(new long[0], evaluate("use:\"relief pain\""));
+    }
+
+    @Test
+    void collectsOnlyPositiveTextForRanking() {
+        StringBuilder text = new StringBuilder();
+        QueryParser.parse("use:anti-inflammatory compound:curcumin NOT name:willow safety:safe").collectPositiveText(text);
+        assertEquals("anti-inflammatory curcumin", text.toString().trim());
+    }
+
+    @Test
+    void detectsStructuredQueries() {
+        assertTrue(QueryParser.looksStructured("symptom:\"joint pain\" type:HERB"));
+        assertTrue(QueryParser.looksStructured("ginger OR turmeric"));
+        assertFalse(QueryParser.looksStructured("ginger for nausea"));
+        assertFalse(QueryParser.looksStructured("ratio 1:2"));
+    }
+
+    @Test
+    void rejectsMalformedQueries() {
+        assertThrows(InvalidSearchException.class, () -> QueryParser.parse("colour:red"));
+        assertThrows(InvalidSearchException.class, () -> QueryParser.parse("safety:harmless"));
+        assertThrows(InvalidSearchException.class, () -> QueryParser.parse("(ginger OR turmeric"));
+        assertThrows(InvalidSearchException.class, () -> QueryParser.parse("symptom:\"joint pain"));
+        assertThrows(InvalidSearchException.class, () -> QueryParser.parse("ginger AND"));
+    }
+
+    private long[] evaluate(String query) {
+        return index.query(QueryParser.parse(query));
+    }
+}
@@ -0,0 +1,57 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchProfileTest {
+
+    @Test
+    void recordsNothingWithoutAProfile() {
+        assertFalse(SearchProfile.isActive());
+        try (SearchProfile.Stage stage = SearchProfile.stage("ranking")) {
+            SearchProfile.candidates(10, 5);
+            SearchProfile.contributions(1L, Map.of("rating", 0.5));
+        }
+        SearchProfile profile = SearchProfile.start();
+        profile.finish();
+        assertEquals(List.of(), profile.getStages());
+        assertEquals(0, profile.getCandidates());
+    }
+
+    @Test
+    void addsUpStagesOfTheSameNameWithTheirStatements() {
+        SearchProfile profile = SearchProfile.start();
+        try {
+            assertTrue(SearchProfile.isActive());
+            for (int i = 0; i < 2; i++) {
+                try (SearchProfile.Stage stage = SearchProfile.stage("hydration")) {
+                    new SqlStatementCounter().inspect("select 1");
+                }
+            }
+            try (SearchProfile.Stage stage = SearchProfile.stage("mapping")) {
+                SearchProfile.candidates(10, 5);
+                SearchProfile.contributions(1L, Map.of("rating", 0.5));
+            }
+        } finally {
+            profile.finish();
+        }
+        assertFalse(SearchProfile.isActive());
+
+        List<SearchProfile.StageTotals> stages = profile.getStages();
+        assertEquals(List.of("hydration", "mapping"), stages.stream().map(SearchProfile.StageTotals::getName).toList());
+        assertEquals(2, stages.get(0).getCount());
+        assertEquals(2, stages.get(0).getSqlStatements());
+        assertEquals(0, stages.get(1).getSqlStatements());
+        assertEquals(2, profile.getSqlStatements());
+        assertEquals(10, profile.getCandidates());
+        assertEquals(5, profile.getRanked());
+        assertEquals(Map.of("rating", 0.5), profile.getContributions(1L));
+        assertTrue(profile.getElapsedNanos() >= stages.get(0).getNanos() + stages.get(1).getNanos());
+    }
+}
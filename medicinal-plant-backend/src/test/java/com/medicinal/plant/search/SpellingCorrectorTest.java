@@ -0,0 +1,64 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpellingCorrectorTest {
+
+    private final SpellingCorrector corrector = SpellingCorrector.builder()
+            .add("turmeric", 3)
+            .add("chamomile", 5)
+            .add("insomnia", 4)
+            .add("headache", 6)
+            .add("heal", 2)
+            .add("sleep", 4)
+            .build();
+
+    @Test
+    void correctsCommonMisspellings() {
+        assertEquals("turmeric", corrector.suggest("tumeric"));
+        assertEquals("chamomile", corrector.suggest("camomile"));
+        assertEquals("insomnia", corrector.suggest("insomina"));
+        assertEquals("headache", corrector.suggest("hedache"));
+    }
+
+    @Test
+    void leavesKnownAndDistantWordsAlone() {
+        assertNull(corrector.suggest("insomnia"));
+        assertNull(corrector.suggest("cham"));
+        assertNull(corrector.suggest("have"));
+        assertNull(corrector.suggest("xylophone"));
+    }
+
+    @Test
+    void rewritesOnlyTheUnknownTokens() {
+        assertEquals("i cannot sleep insomnia", corrector.correct("I cannot sleep, insomina!"));
+        assertNull(corrector.correct("sleep"));
+    }
+
+    @Test
+    void computesTranspositionsAsOneEdit() {
+        assertEquals(1, SpellingCorrector.distance("insomnai", "insomnia", 2));
+        assertEquals(-1, SpellingCorrector.distance("abcdef", "uvwxyz", 2));
+    }
+
+    @Test
+    void appliesFrequencyChangesWordByWord() {
+        SpellingCorrector changed = corrector.apply(Map.of("feverfew", 2, "headache", -6, "sleep", -1, "heal", 0));
+
+        assertEquals("feverfew", changed.suggest("feverfw"));
+        assertEquals("sleep", changed.suggest("slep"));
+        assertEquals(6, changed.size());
+        // A dropped word is no longer suggested, nor known by its prefixes
+        assertNull(changed.suggest("hedache"));
+        assertNull(corrector.suggest("heada"));
+        assertEquals("heal", changed.suggest("heada"));
+        // The original is left as it was
+        assertEquals("headache", corrector.suggest("hedache"));
+        assertNull(corrector.suggest("feverfw"));
+    }
+}
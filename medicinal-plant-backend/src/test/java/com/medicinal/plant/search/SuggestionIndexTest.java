@@ -0,0 +1,64 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionIndexTest {
+
+    private final SuggestionIndex index = SuggestionIndex.builder()
+            .add("Peppermint", SuggestionIndex.Kind.PLANT, 5)
+            .add("Pepper", SuggestionIndex.Kind.PLANT, 2)
+            .add("Pain", SuggestionIndex.Kind.SYMPTOM, 3)
+            .add("Pain relief", SuggestionIndex.Kind.MEDICINAL_USE, 4)
+            .add("Pain relief", SuggestionIndex.Kind.MEDICINAL_USE, 4)
+            .add("Aloe Vera", SuggestionIndex.Kind.PLANT, 7)
+            .build();
+
+    @Test
+    void returnsMostPopularCompletionsFirst() {
+        assertEquals(List.of("Pain relief", "Peppermint", "Pain", "Pepper"), texts(index.complete("p", 10)));
+        assertEquals(List.of("Pain relief", "Peppermint"), texts(index.complete("P", 2)));
+        assertEquals(List.of("Peppermint", "Pepper"), texts(index.complete("pepp", 10)));
+        assertEquals(8, index.complete("pain r", 1).get(0).getWeight());
+    }
+
+    @Test
+    void completesFromEveryWordOnceEach() {
+        assertEquals(List.of("Aloe Vera"), texts(index.complete("ver", 10)));
+        assertEquals(List.of("Pain relief"), texts(index.complete("rel", 10)));
+        assertTrue(index.complete("xyz", 10).isEmpty());
+        assertTrue(index.complete(" ", 10).isEmpty());
+    }
+
+    @Test
+    void adjustedWeightsCompleteLikeAFreshBuild() {
+        SuggestionIndex adjusted = index.adjust(SuggestionIndex.builder()
+                        .add("Pepper", SuggestionIndex.Kind.PLANT, 6)
+                        .add("Pain", SuggestionIndex.Kind.SYMPTOM, -3)
+                        .add("Pau d'arco", SuggestionIndex.Kind.PLANT, 1))
+                .adjust(SuggestionIndex.builder()
+                        .add("pepper", SuggestionIndex.Kind.PLANT, -1));
+        SuggestionIndex rebuilt = SuggestionIndex.builder()
+                .add("Peppermint", SuggestionIndex.Kind.PLANT, 5)
+                .add("Pepper", SuggestionIndex.Kind.PLANT, 7)
+                .add("Pain relief", SuggestionIndex.Kind.MEDICINAL_USE, 8)
+                .add("Aloe Vera", SuggestionIndex.Kind.PLANT, 7)
+                .add("Pau d'arco", SuggestionIndex.Kind.PLANT, 1)
+                .build();
+
+        for (String prefix : List.of("p", "pa", "pep", "a", "ver", "d")) {
+            assertEquals(rebuilt.complete(prefix, 10), adjusted.complete(prefix, 10), prefix);
+            assertEquals(rebuilt.complete(prefix, 2), adjusted.complete(prefix, 2), prefix);
+        }
+        assertEquals(rebuilt.size(), adjusted.size());
+        assertEquals(2, adjusted.overlaySize());
+    }
+
+    private static List<String> texts(List<SuggestionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionIndex.Suggestion::getText).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static com.medicinal.plant.search.PlantDocuments.symptom;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymptomIntersectionTest {
+
+    private static final int SYMPTOMS = 6;
+
+    @Test
+    void ranksPlantsTreatingAllSymptomsByCombinedEffectiveness() {
+        PlantSearchIndex index = PlantSearchIndex.build(List.of(
+                plant(1L).symptoms(List.of(symptom(1, 0.9), symptom(2, 0.2))).build(),
+                plant(2L).symptoms(List.of(symptom(1, 0.5), symptom(2, 0.8), symptom(3, 0.4))).build(),
+                plant(3L).symptoms(List.of(symptom(1, 0.9))).build(),
+                plant(4L).symptoms(List.of(symptom(2, 0.7), symptom(3, 0.9))).build()));
+        RankedHits all = SymptomIntersection.topK(index, List.of(Set.of(1L), Set.of(2L)), 2, 10);
+        assertArrayEquals(new long[]{2L, 1L}, all.getIds());
+        assertArrayEquals(new int[]{2, 2}, all.getMatchCounts());
+
+        RankedHits atLeastTwo = SymptomIntersection.topK(index, List.of(Set.of(1L), Set.of(2L), Set.of(3L)), 2, 10);
+        assertArrayEquals(new long[]{2L, 4L, 1L}, atLeastTwo.getIds());
+        assertArrayEquals(new int[]{3, 2, 2}, atLeastTwo.getMatchCounts());
+
+        // A requested symptom nothing is linked to leaves no plant treating all of them
+        assertEquals(0, SymptomIntersection.topK(index, List.of(Set.of(1L), Set.of(99L)), 2, 10).size());
+    }
+
+    @Test
+    void countsUseKeywordsTowardsTheThresholdWithoutEffectiveness() {
+        PlantSearchIndex index = PlantSearchIndex.build(List.of(
+                plant(1L).symptoms(List.of(symptom(1, 0.9))).build(),
+                plant(2L).medicinalUses(List.of("Eczema relief")).symptoms(List.of(symptom(1, 0.5))).build(),
+                plant(3L).medicinalUses(List.of("Eczema relief")).symptoms(List.of(symptom(2, 0.8))).build()));
+
+        RankedHits all = SymptomIntersection.topK(index, List.of(Set.of(1L)), List.of("eczema"), 2, 10);
+        assertArrayEquals(new long[]{2L}, all.getIds());
+        assertArrayEquals(new int[]{2}, all.getMatchCounts());
+
+        RankedHits atLeastTwo = SymptomIntersection.topK(index, List.of(Set.of(1L), Set.of(2L)), List.of("eczema"), 2, 10);
+        assertArrayEquals(new long[]{3L, 2L}, atLeastTwo.getIds());
+        assertEquals(0.8, atLeastTwo.getScores()[0], 1e-9);
+        assertEquals(0.0, SymptomIntersection.explain(index, List.of(Set.of(1L)), List.of("eczema"), 2L)
+                .get("use \"eczema\""));
+
+        // A keyword no medicinal use contains is a group no plant belongs to
+        assertEquals(0, SymptomIntersection.topK(index, List.of(Set.of(1L)), List.of("typo"), 2, 10).size());
+    }
+
+    @Test
+    void matchesExhaustiveScoringAndStopsEarly() {
+        Random random = new Random(7);
+        List<PlantDocument> plants = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            List<PlantDocument.SymptomLink> links = new ArrayList<>();
+            for (int s = 1; s <= SYMPTOMS; s++) {
+                // Symptom s is linked to roughly one plant in s + 1, so the lists differ in length
+                if (random.nextInt(s + 1) == 0) {
+                    links.add(symptom(s, Math.round(random.nextDouble() * 100) / 100.0));
+                }
+            }
+            plants.add(plant(id).symptoms(links).build());
+        }
+        PlantSearchIndex index = PlantSearchIndex.build(plants);
+        List<Set<Long>> groups = List.of(Set.of(1L), Set.of(3L), Set.of(5L, 6L));
+
+        for (int minMatches = 1; minMatches <= groups.size(); minMatches++) {
+            RankedHits hits = SymptomIntersection.topK(index, groups, minMatches, 10);
+            assertArrayEquals(exhaustive(plants, groups, minMatches, 10), hits.getIds(), "minMatches " + minMatches);
+        }
+        RankedHits all = SymptomIntersection.topK(index, groups, groups.size(), 10);
+        int rarest = index.symptomPosting(Set.of(3L)).size();
+        assertTrue(all.getTotalCandidates() < rarest,
+                "examined " + all.getTotalCandidates() + " of the rarest list's " + rarest);
+    }
+
+    private static long[] exhaustive(List<PlantDocument> plants, List<Set<Long>> groups, int minMatches, int limit) {
+        List<double[]> scored = new ArrayList<>();
+        for (PlantDocument plant : plants) {
+            int matches = 0;
+            double score = 0.0;
+            for (Set<Long> group : groups) {
+                double best = Double.NaN;
+                for (PlantDocument.SymptomLink link : plant.getSymptoms()) {
+                    if (group.contains(link.getSymptomId())) {
+                        best = Double.isNaN(best) ? link.getEffectivenessScore() : Math.max(best, link.getEffectivenessScore());
+                    }
+                }
+                if (!Double.isNaN(best)) {
+                    matches++;
+                    score += best;
+                }
+            }
+            if (matches >= minMatches) {
+                scored.add(new double[]{plant.getId(), score});
+            }
+        }
+        scored.sort(Comparator.<double[]>comparingDouble(entry -> -entry[1]).thenComparingDouble(entry -> entry[0]));
+        return scored.stream().limit(limit).mapToLong(entry -> (long) entry[0]).toArray();
+    }
+}
@@ -0,0 +1,81 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Symptom Matcher Unit Test
+ */
+class SymptomMatcherTest {
+
+    private final SymptomMatcher matcher = SymptomMatcher.builder()
+            .addSymptom("Pain", 1L)
+            .addSymptom("Joint pain", 2L)
+            .addSymptom("arthritis", 2L)
+            .addSymptom("Headache", 3L)
+            .addSymptom("head", 3L)
+            .addSymptom("İshal", 4L)
+            .addKeyword("Sleep aid")
+            .build();
+
+    @Test
+    void matchesOverlappingAndMultiWordPhrases() {
+        Set<Long> symptomIds = new LinkedHashSet<>();
+        List<String> keywords = new ArrayList<>();
+        matcher.match("My JOINT PAIN and headaches, plus arthritis", SymptomMatcher.MatchSink.into(symptomIds, keywords));
+
+        assertEquals(Set.of(1L, 2L, 3L), symptomIds);
+        assertTrue(keywords.isEmpty());
+    }
+
+    @Test
+    void emitsEveryOccurrenceInTextOrder() {
+        List<Long> symptomIds = new ArrayList<>();
+        matcher.match("pain, then a headache, then pain", SymptomMatcher.MatchSink.into(symptomIds, new ArrayList<>()));
+
+        assertEquals(List.of(1L, 3L, 1L), symptomIds);
+    }
+
+    @Test
+    void requiresPhrasesToStartOnWordBoundary() {
+        assertTrue(symptomIds("spain and forehead").isEmpty());
+    }
+
+    @Test
+    void requiresPhrasesToEndOnWordBoundary() {
+        assertTrue(symptomIds("a painful headband").isEmpty());
+        assertEquals(List.of(1L), symptomIds("aches and pains"));
+    }
+
+    @Test
+    void foldsPhrasesAndTextCharByCharAlike() {
+        // "İ".toLowerCase(Locale.ROOT) is two chars, which would shift every match start
+        assertEquals(List.of(4L), symptomIds("İSHAL"));
+        assertEquals(List.of(4L), symptomIds("three days of ishal"));
+        assertTrue(symptomIds("kishal").isEmpty());
+        assertEquals(List.of(4L), matcher.resolveSymptom("İshal"));
+    }
+
+    @Test
+    void reportsVocabularyPhrasesAsKeywords() {
+        List<Long> symptomIds = new ArrayList<>();
+        List<String> keywords = new ArrayList<>();
+        matcher.match("looking for a sleep aid", SymptomMatcher.MatchSink.into(symptomIds, keywords));
+
+        assertEquals(List.of("sleep aid"), keywords);
+        assertTrue(symptomIds.isEmpty());
+    }
+
+    private List<Long> symptomIds(String text) {
+        List<Long> symptomIds = new ArrayList<>();
+        matcher.match(text, SymptomMatcher.MatchSink.into(symptomIds, new ArrayList<>()));
+        return symptomIds;
+    }
+}
@@ -0,0 +1,162 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.model.enums.PlantType;
+import com.medicinal.plant.model.enums.SafetyLevel;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic plant catalogs for the benchmark tests and the JMH benchmarks module, which takes
+ * this class from the test jar. The same seed and size always produce the same catalog, so
+ * runs on different builds compare like with like.
+ */
+public final class SyntheticCatalog {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    public static final String[] SYMPTOMS = {
+            "Burns", "Skin irritation", "Wounds", "Digestive issues", "Inflammation",
+            "Nausea", "Pain", "Headache", "Joint pain", "Muscle pain", "Fever",
+            "Cough", "Cold symptoms", "Respiratory issues", "Anxiety", "Stress",
+            "Insomnia", "Sleep disorders", "Depression", "Fatigue", "Immune weakness",
+            "Infections", "High blood pressure", "High cholesterol", "Acne"
+    };
+
+    private static final String[] USES = {
+            "Anti-inflammatory", "Antioxidant", "Pain relief", "Digestive aid", "Sleep aid",
+            "Anxiety relief", "Wound healing", "Immune support", "Liver health", "Antiseptic",
+            "Skin healing", "Nausea relief", "Respiratory support", "Stress reduction", "Diuretic"
+    };
+
+    public static final String[] PHRASES = {
+            "soothing leaves", "bitter root", "aromatic flowers", "traditionally brewed as a tea",
+            "applied as a poultice", "grows in dry rocky soil", "calming evening infusion",
+            "rich in volatile oils", "used in ayurvedic remedies", "supports restful sleep",
+            "eases an upset stomach", "cooling gel for the skin", "warming spice for circulation"
+    };
+
+    private static final PlantType[] TYPES = PlantType.values();
+
+    private static final SafetyLevel[] SAFETY = SafetyLevel.values();
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * The {@link #SYMPTOMS} as link targets with IDs 1 to n, for catalogs without seeded symptoms
+     */
+    public static List<PlantDocument.SymptomLink> symptoms() {
+        List<PlantDocument.SymptomLink> symptoms = new ArrayList<>(SYMPTOMS.length);
+        for (int s = 0; s < SYMPTOMS.length; s++) {
+            symptoms.add(new PlantDocument.SymptomLink(s + 1L, SYMPTOMS[s], SYMPTOMS[s] + " related discomfort", 0.0));
+        }
+        return symptoms;
+    }
+
+    /**
+     * Generates plants "Plant n" for IDs from firstId on, each with up to three medicinal uses
+     * and three links to the given symptoms
+     */
+    public static List<PlantDocument> generate(long firstId, int size, List<PlantDocument.SymptomLink> symptoms,
+                                               long seed) {
+        if (symptoms.isEmpty()) {
+            throw new IllegalArgumentException("A synthetic catalog needs symptoms to link its plants to");
+        }
+        Random random = new Random(seed);
+        List<PlantDocument> plants = new ArrayList<>(size);
+        for (long id = firstId; id < firstId + size; id++) {
+            List<String> uses = new ArrayList<>(3);
+            for (int u = 0; u < 3; u++) {
+                String use = USES[random.nextInt(USES.length)];
+                if (!uses.contains(use)) {
+                    uses.add(use);
+                }
+            }
+            List<PlantDocument.SymptomLink> links = new ArrayList<>(3);
+            for (int l = 0; l < 3; l++) {
+                PlantDocument.SymptomLink symptom = symptoms.get(random.nextInt(symptoms.size()));
+                links.add(new PlantDocument.SymptomLink(symptom.getSymptomId(), symptom.getName(),
+                        symptom.getDescription(), 0.70 + random.nextInt(26) / 100.0));
+            }
+            StringBuilder description = new StringBuilder("Perennial herb with");
+            for (int p = 0, phrases = 4 + random.nextInt(4); p < phrases; p++) {
+                description.append(' ').append(PHRASES[random.nextInt(PHRASES.length)]);
+            }
+            plants.add(PlantDocument.builder()
+                    .id(id)
+                    .name("Plant " + id)
+                    .scientificName("Genus" + id + " species")
+                    .description(description.toString())
+                    .medicinalUses(uses)
+                    .activeCompounds(List.of())
+                    .properties(List.of())
+                    .symptoms(links)
+                    .rating(3.0 + random.nextInt(21) / 10.0)
+                    .reviewCount(random.nextInt(500))
+                    .plantType(TYPES[random.nextInt(TYPES.length)])
+                    .safetyRating(SAFETY[random.nextInt(SAFETY.length)])
+                    .build());
+        }
+        return plants;
+    }
+
+    public static void insertSymptoms(JdbcTemplate jdbc, List<PlantDocument.SymptomLink> symptoms) {
+        List<Object[]> rows = new ArrayList<>(symptoms.size());
+        for (PlantDocument.SymptomLink symptom : symptoms) {
+            rows.add(new Object[]{symptom.getSymptomId(), symptom.getName(), symptom.getDescription()});
+        }
+        jdbc.batchUpdate("INSERT INTO symptoms (id, name, description) VALUES (?, ?, ?)", rows);
+    }
+
+    /**
+     * Inserts the plants, their medicinal uses and symptom links with JDBC batches. The linked
+     * symptoms must exist already.
+     */
+    public static void insert(JdbcTemplate jdbc, List<PlantDocument> plants) {
+        long linkId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM plant_symptoms", Long.class) + 1;
+        List<Object[]> plantRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> useRows = new ArrayList<>(BATCH_SIZE * 3);
+        List<Object[]> linkRows = new ArrayList<>(BATCH_SIZE * 3);
+        for (PlantDocument plant : plants) {
+            plantRows.add(new Object[]{plant.getId(), plant.getName(), plant.getScientificName(),
+                    plant.getDescription(), plant.getPlantType().name(), plant.getSafetyRating().name(),
+                    plant.getRating(), plant.getReviewCount()});
+            for (String use : plant.getMedicinalUses()) {
+                useRows.add(new Object[]{plant.getId(), use});
+            }
+            for (PlantDocument.SymptomLink link : plant.getSymptoms()) {
+                linkRows.add(new Object[]{linkId++, plant.getId(), link.getSymptomId(), link.getEffectivenessScore()});
+            }
+            if (plantRows.size() == BATCH_SIZE) {
+                flush(jdbc, plantRows, useRows, linkRows);
+            }
+        }
+        flush(jdbc, plantRows, useRows, linkRows);
+    }
+
+    private static void flush(JdbcTemplate jdbc, List<Object[]> plantRows, List<Object[]> useRows,
+                              List<Object[]> linkRows) {
+        if (plantRows.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate("INSERT INTO plants (id, name, scientific_name, description, plant_type, safety_rating,"
+                + " rating, review_count, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)", plantRows);
+        jdbc.batchUpdate("INSERT INTO plant_medicinal_uses (plant_id, medicinal_use) VALUES (?, ?)", useRows);
+        jdbc.batchUpdate("INSERT INTO plant_symptoms (id, plant_id, symptom_id, effectiveness_score)"
+                + " VALUES (?, ?, ?, ?)", linkRows);
+        plantRows.clear();
+        useRows.clear();
+        linkRows.clear();
+    }
+
+    /**
+     * The given percentile of sorted nanosecond samples, in milliseconds
+     */
+    public static double percentile(long[] sortedNanos, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, rank)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TermDictionaryTest {
+
+    private static final Analyzer ANALYZER = Analyzer.standard();
+
+    @Test
+    void findsTermsByPrefixAndFragment() {
+        TermDictionary dictionary = TermPositions.build(List.of(
+                plant(1L, "Ginger").medicinalUses(List.of("Nausea")).build(),
+                plant(2L, "Ginseng").medicinalUses(List.of("Fatigue")).build(),
+                plant(3L, "Giant hyssop").medicinalUses(List.of("Cough")).build()), ANALYZER).getDictionary();
+
+        assertEquals(List.of("giant", "ginger", "ginseng"), termsOf(dictionary, dictionary.idsWithPrefix("gi")));
+        assertEquals(List.of("ginger", "ginseng"), termsOf(dictionary, dictionary.idsWithPrefix("gin")));
+        assertEquals(List.of("ginseng"), termsOf(dictionary, dictionary.idsWithPrefix("gins")));
+        assertEquals(List.of("hyssop"), termsOf(dictionary, dictionary.idsContaining("sso")));
+        assertEquals(List.of("giant", "ginger", "ginseng"), termsOf(dictionary, dictionary.idsContaining("gi")));
+        assertArrayEquals(new int[0], dictionary.idsContaining("xyz"));
+    }
+
+    @Test
+    void dropsTermsNoPlantUsesAndReusesTheirIds() {
+        TermPositions positions = TermPositions.build(List.of(
+                plant(1L, "Ginger").medicinalUses(List.of("Nausea")).build(),
+                plant(2L, "Ginseng").medicinalUses(List.of("Nausea")).build()), ANALYZER);
+        int gingerId = positions.getDictionary().idOf("ginger");
+
+        positions = positions.apply(List.of(plant(1L, "Ginseng").medicinalUses(List.of("Nausea")).build()),
+                List.of(), ANALYZER);
+        TermDictionary dropped = positions.getDictionary();
+        assertEquals(-1, dropped.idOf("ginger"));
+        assertArrayEquals(new int[0], dropped.idsWithPrefix("ging"));
+        // Still used by plant 1 after its edit, and by plant 2 throughout
+        assertTrue(dropped.idOf("nausea") >= 0);
+
+        positions = positions.apply(List.of(plant(3L, "Fennel").medicinalUses(List.of("Bloating")).build()),
+                List.of(2L), ANALYZER);
+        TermDictionary reused = positions.getDictionary();
+        // Uses are encoded before the name, so the use's term is the first new one
+        assertEquals(gingerId, reused.idOf(firstTerm("Bloating")));
+        assertEquals(reused.size(), TermPositions.build(List.of(
+                plant(1L, "Ginseng").medicinalUses(List.of("Nausea")).build(),
+                plant(3L, "Fennel").medicinalUses(List.of("Bloating")).build()), ANALYZER).getDictionary().size());
+    }
+
+    private static String firstTerm(String text) {
+        return ANALYZER.terms(text).get(0);
+    }
+
+    private static List<String> termsOf(TermDictionary dictionary, int[] ids) {
+        return Arrays.stream(ids).mapToObj(dictionary::termAt).sorted().toList();
+    }
+}
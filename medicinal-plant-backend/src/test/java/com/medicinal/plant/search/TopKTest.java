@@ -0,0 +1,40 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    @Test
+    void keepsBestScoresInDescendingOrder() {
+        double[] scores = new Random(7).doubles(1000).toArray();
+        TopK topK = new TopK(10);
+        for (int i = 0; i < scores.length; i++) {
+            topK.offer(i, scores[i]);
+        }
+
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+                .limit(10)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertArrayEquals(expected, topK.drainOrdinals());
+        assertEquals(0, topK.size());
+    }
+
+    @Test
+    void breaksTiesBySmallerOrdinal() {
+        TopK topK = new TopK(2);
+        topK.offer(5, 1.0);
+        topK.offer(3, 1.0);
+        topK.offer(9, 1.0);
+        topK.offer(1, 0.5);
+
+        assertArrayEquals(new int[]{3, 5}, topK.drainOrdinals());
+    }
+}
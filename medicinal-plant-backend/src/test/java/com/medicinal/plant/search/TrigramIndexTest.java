@@ -0,0 +1,48 @@
+package com.medicinal.plant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.medicinal.plant.search.PlantDocuments.plant;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class TrigramIndexTest {
+
+    private static final PlantDocument ALOE = plant(1L, "Aloe Vera").scientificName("Aloe barbadensis miller")
+            .medicinalUses(List.of("Burn treatment")).build();
+    private static final PlantDocument TURMERIC = plant(2L, "Turmeric").scientificName("Curcuma longa")
+            .medicinalUses(List.of("Inflammation")).build();
+    private static final PlantDocument PEPPERMINT = plant(3L, "Peppermint").scientificName("Mentha piperita")
+            .medicinalUses(List.of("Digestive issues")).build();
+
+    @Test
+    void findsInfixFragmentsAcrossFields() {
+        TrigramIndex index = TrigramIndex.build(List.of(ALOE, TURMERIC, PEPPERMINT));
+
+        assertArrayEquals(new long[]{1L}, index.search("vera"));
+        assertArrayEquals(new long[]{2L}, index.search("CURCU"));
+        assertArrayEquals(new long[]{3L}, index.search("piperi"));
+        assertArrayEquals(new long[]{2L}, index.search("flamma"));
+        assertArrayEquals(new long[]{1L}, index.search("e ver"));
+        assertArrayEquals(new long[]{1L, 3L}, index.search("ve"));
+        assertArrayEquals(new long[0], index.search("xyz"));
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRebuild() {
+        PlantDocument renamed = plant(2L, "Golden Root").scientificName("Curcuma longa")
+                .medicinalUses(List.of("Joint pain")).build();
+        TrigramIndex incremental = TrigramIndex.build(List.of(ALOE, TURMERIC))
+                .with(PEPPERMINT)
+                .with(renamed)
+                .without(1L);
+        TrigramIndex rebuilt = TrigramIndex.build(List.of(renamed, PEPPERMINT));
+
+        for (String fragment : List.of("vera", "turm", "golden", "joint", "curc", "mint", "aloe")) {
+            assertArrayEquals(rebuilt.search(fragment), incremental.search(fragment), fragment);
+        }
+        assertArrayEquals(new long[0], incremental.search("turm"));
+        assertArrayEquals(new long[]{2L}, incremental.search("olden"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.medicinal.plant.search;
+
+import com.medicinal.plant.config.VectorSearchProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.medicinal.plant.search.SyntheticCatalog.PHRASES;
+import static com.medicinal.plant.search.SyntheticCatalog.percentile;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Build time, memory per plant and query latency of the semantic HNSW index on synthetic
+ * catalogs. Excluded from the default build, run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class VectorSearchBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+
+    private static final String[] QUERIES = {
+            "I can't sleep and feel restless at night", "burning rash on my skin",
+            "upset stomach after meals", "aching joints in the morning", "tea for a sore throat"
+    };
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void measureBuildMemoryAndLatency(int catalogSize) {
+        List<PlantDocument> documents = SyntheticCatalog.generate(1, catalogSize, SyntheticCatalog.symptoms(), 42);
+        VectorSearchProperties properties = new VectorSearchProperties();
+
+        long start = System.nanoTime();
+        VectorSearchManager.Snapshot snapshot = VectorSearchManager.build(documents, properties, start);
+        HnswIndex index = snapshot.getIndex();
+
+        System.out.printf("catalog=%d build=%d ms memory=%d bytes/plant%n",
+                catalogSize, snapshot.getBuildMillis(), snapshot.getMemoryBytes() / catalogSize);
+
+        float[][] exactVectors = new float[documents.size()][];
+        for (int i = 0; i < exactVectors.length; i++) {
+            exactVectors[i] = snapshot.getEmbedder().embed(VectorSearchManager.textOf(documents.get(i)));
+        }
+        double[] kthSimilarity = new double[QUERIES.length * PHRASES.length];
+        for (int i = 0; i < kthSimilarity.length; i++) {
+            kthSimilarity[i] = bruteForce(exactVectors, snapshot.getEmbedder().embed(queryText(i)), 10);
+        }
+        for (int i = 0; i < ITERATIONS; i++) {
+            index.search(snapshot.getEmbedder().embed(queryText(i)), 10, properties.getEfSearch());
+        }
+
+        double defaultRecall = 0;
+        for (int ef : new int[]{32, properties.getEfSearch(), 128}) {
+            long[] samples = new long[ITERATIONS];
+            int found = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long queryStart = System.nanoTime();
+                RankedHits hits = index.search(snapshot.getEmbedder().embed(queryText(i)), 10, ef);
+                samples[i] = System.nanoTime() - queryStart;
+                found += countAtLeast(hits.getScores(), kthSimilarity[i % kthSimilarity.length]);
+            }
+            Arrays.sort(samples);
+            double recall = found / (10.0 * ITERATIONS);
+            if (ef == properties.getEfSearch()) {
+                defaultRecall = recall;
+            }
+            System.out.printf("catalog=%d ef=%d query p50=%.3f ms p99=%.3f ms recall@10=%.2f%n",
+                    catalogSize, ef, percentile(samples, 50), percentile(samples, 99), recall);
+        }
+        assertTrue(defaultRecall >= 0.6, "recall@10 was " + defaultRecall);
+    }
+
+    private static String queryText(int i) {
+        return QUERIES[i % QUERIES.length] + " " + PHRASES[i / QUERIES.length % PHRASES.length];
+    }
+
+    /**
+     * Synthetic descriptions tie a lot, so a hit counts as correct when it is at least as similar
+     * as the exact k-th neighbour, up to the quantization error
+     */
+    private static int countAtLeast(double[] similarities, double kthSimilarity) {
+        int count = 0;
+        for (double similarity : similarities) {
+            if (similarity >= kthSimilarity - 0.02) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Exact cosine similarity of the k-th nearest vector
+     */
+    private static double bruteForce(float[][] vectors, float[] query, int k) {
+        TopK best = new TopK(k);
+        double[] similarities = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            double dot = 0;
+            for (int d = 0; d < query.length; d++) {
+                dot += query[d] * vectors[i][d];
+            }
+            similarities[i] = dot;
+            best.offer(i, dot);
+        }
+        int[] ordinals = best.drainOrdinals();
+        return similarities[ordinals[ordinals.length - 1]];
+    }
+}
@@ -0,0 +1,116 @@
+package com.medicinal.plant.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PersistentMapTest {
+
+    @Test
+    void behavesLikeAHashMapUnderRandomUpdates() {
+        Random random = new Random(7);
+        Map<Long, String> expected = new HashMap<>();
+        PersistentMap<Long, String> map = PersistentMap.empty();
+        for (int step = 0; step < 20_000; step++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                String value = "v" + step;
+                expected.put(key, value);
+                map = map.plus(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+    }
+
+    @Test
+    void keepsEarlierVersionsIntact() {
+        PersistentMap<String, Integer> first = PersistentMap.<String, Integer>empty().plus("aloe", 1).plus("mint", 2);
+        PersistentMap<String, Integer> second = first.plus("aloe", 3).minus("mint");
+
+        assertEquals(1, first.get("aloe"));
+        assertEquals(2, first.get("mint"));
+        assertEquals(3, second.get("aloe"));
+        assertFalse(second.containsKey("mint"));
+        assertSame(second, second.minus("absent"));
+    }
+
+    @Test
+    void separatesKeysWithEqualHashes() {
+        PersistentMap<Colliding, String> map = PersistentMap.empty();
+        for (int i = 0; i < 5; i++) {
+            map = map.plus(new Colliding(i), "v" + i);
+        }
+        map = map.minus(new Colliding(2)).plus(new Colliding(99, 1234), "other");
+
+        assertEquals(5, map.size());
+        assertNull(map.get(new Colliding(2)));
+        assertEquals("v4", map.get(new Colliding(4)));
+        assertEquals("other", map.get(new Colliding(99, 1234)));
+    }
+
+    @Test
+    void diffReportsOnlyTheChangedEntries() {
+        PersistentMap<Long, String> before = PersistentMap.empty();
+        for (long key = 0; key < 1_000; key++) {
+            before = before.plus(key, "v" + key);
+        }
+        PersistentMap<Long, String> after = before.plus(10L, "changed").minus(20L).plus(5_000L, "added");
+
+        Set<String> differences = new HashSet<>();
+        before.diff(after, (key, was, now) -> differences.add(key + ":" + was + "->" + now));
+
+        assertEquals(Set.of("10:v10->changed", "20:v20->null", "5000:null->added"), differences);
+        List<String> none = new ArrayList<>();
+        after.diff(after, (key, was, now) -> none.add(String.valueOf(key)));
+        assertEquals(List.of(), none);
+    }
+
+    /**
+     * Key whose hash is chosen by the test, to force collisions
+     */
+    private static final class Colliding {
+        private final int value;
+        private final int hash;
+
+        Colliding(int value) {
+            this(value, 42);
+        }
+
+        Colliding(int value, int hash) {
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Colliding colliding && colliding.value == value && colliding.hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
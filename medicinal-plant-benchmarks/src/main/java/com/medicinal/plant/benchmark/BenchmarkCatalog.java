@@ -0,0 +1,69 @@
+package com.medicinal.plant.benchmark;
+
+import com.medicinal.plant.MedicinalPlantApplication;
+import com.medicinal.plant.catalog.CatalogSnapshotManager;
+import com.medicinal.plant.search.PlantDocument;
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.search.SyntheticCatalog;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * The backend started without a web server on its own in-memory H2 database, seeded as usual
+ * and extended with a generated catalog. The search index and the catalog snapshot are rebuilt
+ * after the generated rows are inserted, so benchmarks see what a production start would build
+ * for that catalog.
+ * <p>
+ * The query-result cache and the index snapshot are switched off: benchmarks measure the work
+ * behind a request, not a cache hit or a file read left over from the previous run.
+ */
+public class BenchmarkCatalog implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkCatalog(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static BenchmarkCatalog start(int catalogSize, long seed) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MedicinalPlantApplication.class)
+                .web(WebApplicationType.NONE)
+                // As command line arguments, so they take precedence over application.yml
+                .run(
+                        // Each trial gets its own database even when forks are disabled
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.cache.type=none",
+                        "--search.snapshot.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.medicinal.plant=WARN",
+                        "--logging.level.org.springframework.jdbc.datasource.init=WARN");
+        generate(context.getBean(JdbcTemplate.class), catalogSize, seed);
+        context.getBean(SearchIndexManager.class).rebuild();
+        context.getBean(CatalogSnapshotManager.class).rebuild();
+        return new BenchmarkCatalog(context);
+    }
+
+    /**
+     * Adds a synthetic catalog after the highest seeded plant ID, linked to the seeded symptoms
+     */
+    private static void generate(JdbcTemplate jdbc, int catalogSize, long seed) {
+        List<PlantDocument.SymptomLink> symptoms = jdbc.query("SELECT id, name, description FROM symptoms ORDER BY id",
+                (row, n) -> new PlantDocument.SymptomLink(row.getLong("id"), row.getString("name"),
+                        row.getString("description"), 0.0));
+        long firstId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM plants", Long.class) + 1;
+        SyntheticCatalog.insert(jdbc, SyntheticCatalog.generate(firstId, catalogSize, symptoms, seed));
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
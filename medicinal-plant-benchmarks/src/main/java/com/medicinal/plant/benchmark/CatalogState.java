@@ -0,0 +1,34 @@
+package com.medicinal.plant.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One started backend with a generated catalog per trial, shared by all benchmark threads.
+ * Sizes are chosen on the command line, e.g. {@code -p catalogSize=1000,10000,100000}.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    @Param("42")
+    public long seed;
+
+    public BenchmarkCatalog catalog;
+
+    @Setup(Level.Trial)
+    public void start() {
+        catalog = BenchmarkCatalog.start(catalogSize, seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        catalog.close();
+    }
+}
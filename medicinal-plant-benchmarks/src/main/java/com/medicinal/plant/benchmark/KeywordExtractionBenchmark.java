@@ -0,0 +1,72 @@
+package com.medicinal.plant.benchmark;
+
+import com.medicinal.plant.search.SearchIndexManager;
+import com.medicinal.plant.search.SymptomMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symptom keyword extraction from a natural language description, the single scan of the
+ * SymptomMatcher over symptom names, synonyms and medicinal uses that replaced
+ * extractSymptomKeywords
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class KeywordExtractionBenchmark {
+
+    @Param({
+            "I have a headache and my joints ache",
+            "For the last two weeks I have been waking up several times a night, feeling tired and"
+                    + " stressed during the day, with a sore throat, a runny nose and some mild fever",
+            "nothing in this sentence names a symptom"
+    })
+    public String description;
+
+    private SymptomMatcher symptomMatcher;
+    private final ChecksumSink sink = new ChecksumSink();
+
+    @Setup
+    public void setUp(CatalogState state) {
+        symptomMatcher = state.catalog.getBean(SearchIndexManager.class).getSymptomMatcher();
+    }
+
+    @Benchmark
+    public long match() {
+        sink.hits = 0;
+        symptomMatcher.match(description, sink);
+        return sink.hits;
+    }
+
+    /**
+     * Folds every hit into a checksum so none of them is dead code
+     */
+    private static final class ChecksumSink implements SymptomMatcher.MatchSink {
+
+        private long hits;
+
+        @Override
+        public void symptom(long symptomId) {
+            hits = hits * 31 + symptomId;
+        }
+
+        @Override
+        public void keyword(String keyword) {
+            hits = hits * 31 + keyword.hashCode();
+        }
+    }
+}
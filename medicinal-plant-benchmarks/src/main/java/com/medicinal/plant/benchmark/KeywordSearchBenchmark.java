@@ -0,0 +1,46 @@
+package com.medicinal.plant.benchmark;
+
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.repository.PlantRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LIKE-based PlantRepository.searchByKeyword query on H2, each call in its own
+ * persistence context as it runs outside a transaction
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class KeywordSearchBenchmark {
+
+    @Param({"headache", "joint pain", "anti", "plant 4242"})
+    public String keyword;
+
+    private PlantRepository plantRepository;
+
+    @Setup
+    public void setUp(CatalogState state) {
+        plantRepository = state.catalog.getBean(PlantRepository.class);
+    }
+
+    @Benchmark
+    public List<Plant> searchByKeyword() {
+        return plantRepository.searchByKeyword(keyword);
+    }
+}
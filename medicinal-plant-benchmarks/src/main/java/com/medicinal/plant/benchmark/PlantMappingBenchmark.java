@@ -0,0 +1,103 @@
+package com.medicinal.plant.benchmark;
+
+import com.medicinal.plant.config.PaginationProperties;
+import com.medicinal.plant.mapper.PlantMapper;
+import com.medicinal.plant.model.dto.response.PlantResponse;
+import com.medicinal.plant.model.entity.Plant;
+import com.medicinal.plant.repository.PlantRepository;
+import org.hibernate.Hibernate;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping one page of /api/plants/all from Plant entities to PlantResponse, with the generated
+ * PlantMapper the backend uses and with ModelMapper configured as the backend used to configure
+ * it. Plants are loaded once with their collections initialized, so only the mapping is measured
+ * and not lazy loading; pages rotate through the loaded plants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class PlantMappingBenchmark {
+
+    private static final int PLANTS = 100;
+
+    private PlantMapper plantMapper;
+    private ModelMapper modelMapper;
+    private List<Plant> plants;
+    private int pageSize;
+    private int next;
+
+    @Setup
+    public void setUp(CatalogState state) {
+        plantMapper = state.catalog.getBean(PlantMapper.class);
+        modelMapper = reflectiveMapper();
+        pageSize = state.catalog.getBean(PaginationProperties.class).getDefaultPageSize();
+        PlantRepository plantRepository = state.catalog.getBean(PlantRepository.class);
+        plants = state.catalog.getBean(TransactionTemplate.class).execute(status -> {
+            List<Plant> loaded = plantRepository.findAll(PageRequest.of(0, PLANTS)).getContent();
+            for (Plant plant : loaded) {
+                Hibernate.initialize(plant.getMedicinalUses());
+                Hibernate.initialize(plant.getActiveCompounds());
+                Hibernate.initialize(plant.getProperties());
+            }
+            return loaded;
+        });
+    }
+
+    @Benchmark
+    public List<PlantResponse> generatedMapper() {
+        List<PlantResponse> page = new ArrayList<>(pageSize);
+        for (Plant plant : nextPage()) {
+            page.add(plantMapper.toResponse(plant));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<PlantResponse> modelMapper() {
+        List<PlantResponse> page = new ArrayList<>(pageSize);
+        for (Plant plant : nextPage()) {
+            page.add(modelMapper.map(plant, PlantResponse.class));
+        }
+        return page;
+    }
+
+    private List<Plant> nextPage() {
+        int from = next;
+        next = (next + pageSize) % (plants.size() - pageSize + 1);
+        return plants.subList(from, from + pageSize);
+    }
+
+    /**
+     * ModelMapper as the backend's ModelMapperConfig set it up
+     */
+    private static ModelMapper reflectiveMapper() {
+        ModelMapper mapper = new ModelMapper();
+        mapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setFieldMatchingEnabled(true)
+                .setSkipNullEnabled(true)
+                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+        return mapper;
+    }
+}
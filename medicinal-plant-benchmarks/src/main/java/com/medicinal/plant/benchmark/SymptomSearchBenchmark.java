@@ -0,0 +1,52 @@
+package com.medicinal.plant.benchmark;
+
+import com.medicinal.plant.model.dto.request.SymptomSearchRequest;
+import com.medicinal.plant.model.dto.response.SearchResultResponse;
+import com.medicinal.plant.service.SearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchServiceImpl.searchBySymptoms end to end: keyword extraction, ranking over the index and
+ * hydrating the top plants into responses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SymptomSearchBenchmark {
+
+    @Param({
+            "I have a headache and my joints ache",
+            "can't sleep and feeling anxious",
+            "upset stomach with nausea after meals"
+    })
+    public String description;
+
+    private SearchService searchService;
+    private SymptomSearchRequest request;
+
+    @Setup
+    public void setUp(CatalogState state) {
+        searchService = state.catalog.getBean(SearchService.class);
+        request = SymptomSearchRequest.builder().description(description).build();
+    }
+
+    @Benchmark
+    public SearchResultResponse searchBySymptoms() {
+        return searchService.searchBySymptoms(request);
+    }
+}
@@ -104,8 +104,18 @@ const ApiClient = (() => {
         }
         
         try {
-            const response = await fetchWithErrorHandling(`${API_BASE_URL}/plants/all`);
-            return response.data || [];
+            // The listing is cursor-paginated; follow nextCursor until the last page.
+            // The local database needs every field, not the summaries listed by default
+            const plants = [];
+            let cursor = null;
+            do {
+                const query = `?view=full${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`;
+                const response = await fetchWithErrorHandling(`${API_BASE_URL}/plants/all${query}`);
+                const page = response.data || {};
+                plants.push(...(page.items || []));
+                cursor = page.nextCursor;
+            } while (cursor);
+            return plants;
         } catch (error) {
             console.error('Failed to fetch plants from backend, using local data:', error);
             return [];
@@ -127,9 +137,9 @@ const ApiClient = (() => {
      */
     const searchPlantsByName = async (query) => {
         const response = await fetchWithErrorHandling(
-            `${API_BASE_URL}/plants/search?query=${encodeURIComponent(query)}`
+            `${API_BASE_URL}/plants/search?query=${encodeURIComponent(query)}&view=full`
         );
-        return response.data || [];
+        return (response.data && response.data.items) || [];
     };
 
     /**
@@ -138,7 +148,7 @@ const ApiClient = (() => {
      */
     const fetchTopRatedPlants = async () => {
         const response = await fetchWithErrorHandling(`${API_BASE_URL}/plants/top-rated`);
-        return response.data || [];
+        return (response.data && response.data.items) || [];
     };
 
     /**
@@ -149,7 +159,7 @@ const ApiClient = (() => {
         const response = await fetchWithErrorHandling(
             `${API_BASE_URL}/plants/by-type?type=${encodeURIComponent(type)}`
         );
-        return response.data || [];
+        return (response.data && response.data.items) || [];
     };
 
     // ============================================